@@ -0,0 +1,69 @@
+import jadd.CuddMemoryProfiler;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the usual JMH command-line arguments,
+ * always profiling allocation rates (GC profiler) and CUDD's native memory,
+ * and exporting results as JSON (to {@value #DEFAULT_RESULT_FILE},
+ * unless {@code -rff} is given), so that they can be compared across releases.
+ *
+ * Besides JMH's arguments, {@code --thread-counts=1,2,4} runs the selected
+ * benchmarks once for each number of threads, exporting the results of each
+ * run to a file of its own (e.g., benchmark-results-t4.json).
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "benchmark-results.json";
+    private static final String THREAD_COUNTS_ARGUMENT = "--thread-counts=";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        List<String> jmhArgs = new LinkedList<String>();
+        List<Integer> threadCounts = new LinkedList<Integer>();
+        for (String arg: args) {
+            if (arg.startsWith(THREAD_COUNTS_ARGUMENT)) {
+                for (String count: arg.substring(THREAD_COUNTS_ARGUMENT.length()).split(",")) {
+                    threadCounts.add(Integer.parseInt(count.trim()));
+                }
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]));
+        String resultFile = commandLineOptions.getResult().hasValue() ?
+                commandLineOptions.getResult().get()
+                : DEFAULT_RESULT_FILE;
+        if (threadCounts.isEmpty()) {
+            run(commandLineOptions, resultFile, null);
+        } else {
+            for (int threads: threadCounts) {
+                run(commandLineOptions, resultFile.replaceFirst("(\\.json)?$", "-t" + threads + "$1"), threads);
+            }
+        }
+    }
+
+    private static void run(CommandLineOptions commandLineOptions, String resultFile, Integer threads) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(CuddMemoryProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        if (threads != null) {
+            options.threads(threads);
+        }
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,70 @@
+package expressionsolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import expressionsolver.symbolic.CompiledTerm;
+import expressionsolver.symbolic.TermFactory;
+import expressionsolver.symbolic.TermParser;
+
+/**
+ * Reliability expressions captured from analyses of real models, as written
+ * by the {@code --formulas-file} command-line option.
+ *
+ * Formulas of a model are looked up at {@code <directory>/<model>.tsv}, where
+ * the directory is given by the {@value #DIRECTORY_PROPERTY} system property
+ * (defaulting to {@value #DEFAULT_DIRECTORY}).
+ */
+class CapturedFormulas {
+
+    static final String DIRECTORY_PROPERTY = "formulas.dir";
+    static final String DEFAULT_DIRECTORY = "benchmarks/formulas";
+
+    /**
+     * Formulas ordered by size (in characters).
+     */
+    private List<String> formulas;
+
+    private CapturedFormulas(List<String> formulas) {
+        this.formulas = formulas;
+    }
+
+    static CapturedFormulas load(String model) throws IOException {
+        Path path = Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), model + ".tsv");
+        if (!Files.exists(path)) {
+            throw new IllegalStateException("No formulas captured for " + model + " at " + path
+                                            + ". Run an analysis of the model with --formulas-file=" + path + " first.");
+        }
+        List<String> formulas = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                .map(line -> line.substring(line.indexOf('\t') + 1))
+                .filter(formula -> !formula.isEmpty())
+                .sorted(Comparator.comparingInt(String::length))
+                .collect(Collectors.toList());
+        if (formulas.isEmpty()) {
+            throw new IllegalStateException("No formulas in " + path);
+        }
+        return new CapturedFormulas(formulas);
+    }
+
+    /**
+     * Returns the formula at the given quantile of formula sizes
+     * (e.g., 0 for the smallest one and 1 for the largest one).
+     */
+    String atSizeQuantile(double quantile) {
+        return formulas.get((int) Math.round(quantile * (formulas.size() - 1)));
+    }
+
+    /**
+     * Returns the (algebraic) variables of a formula.
+     */
+    static List<String> getVariables(String formula) {
+        return CompiledTerm.compile(new TermParser(new TermFactory()).parse(formula)).getVariables();
+    }
+
+}
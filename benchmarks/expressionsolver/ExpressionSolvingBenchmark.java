@@ -0,0 +1,107 @@
+package expressionsolver;
+
+import jadd.ADD;
+import jadd.CuddMemoryProfiler;
+import jadd.JADD;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of parsing and solving reliability expressions captured from
+ * real models (see {@link CapturedFormulas}), both over floating-point
+ * values (as in product-wise analyses) and over ADDs (as in family-wise ones).
+ *
+ * Every thread has its own parsers and ADD manager, so running with more
+ * threads (e.g., by means of {@code BenchmarkRunner --thread-counts=1,2,4,8})
+ * shows how expression handling scales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionSolvingBenchmark {
+
+    @Param({"BSN", "CloudComputing", "TankWar"})
+    public String model;
+
+    /**
+     * Quantile of the model's formula sizes from which the formula is taken.
+     */
+    @Param({"0.0", "0.5", "1.0"})
+    public double sizeQuantile;
+
+    private String formula;
+    private ExpressionSolver expressionSolver;
+    private Expression<Double> expression;
+    private Expression<ADD> functionExpression;
+    private Map<String, Double> values = new HashMap<String, Double>();
+    private Map<String, ADD> functions = new HashMap<String, ADD>();
+
+    private JADD jadd;
+
+    @Setup
+    public void setUp() throws IOException {
+        formula = CapturedFormulas.load(model).atSizeQuantile(sizeQuantile);
+        jadd = new JADD();
+        CuddMemoryProfiler.track(jadd);
+        expressionSolver = new ExpressionSolver(jadd);
+
+        ADD one = jadd.makeConstant(1.0);
+        int i = 0;
+        for (String variable: CapturedFormulas.getVariables(formula)) {
+            double reliability = 0.999 - 0.0001*i++;
+            values.put(variable, reliability);
+            // Each dependency's reliability is a function of a feature of its own.
+            functions.put(variable, jadd.getVariable("f_" + variable).ifThenElse(jadd.makeConstant(reliability), one));
+        }
+        expression = expressionSolver.parseExpression(formula);
+        functionExpression = expressionSolver.parseExpressionForFunctions(formula);
+    }
+
+    /**
+     * Stops reporting the memory of this trial's manager.
+     */
+    @TearDown
+    public void tearDown() {
+        CuddMemoryProfiler.untrack(jadd);
+    }
+
+    @Benchmark
+    public Expression<Double> parseExpression() {
+        return expressionSolver.parseExpression(formula);
+    }
+
+    @Benchmark
+    public Double solve() {
+        return expression.solve(values);
+    }
+
+    @Benchmark
+    public Expression<ADD> parseExpressionForFunctions() {
+        return expressionSolver.parseExpressionForFunctions(formula);
+    }
+
+    @Benchmark
+    public ADD solveForFunctions() {
+        return functionExpression.solve(functions);
+    }
+
+}
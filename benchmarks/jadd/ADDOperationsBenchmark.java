@@ -0,0 +1,130 @@
+package jadd;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Microbenchmarks of the ADD operations the analyses rely on, over the
+ * synthetic feature models shipped with the tool.
+ *
+ * Every operation runs on a manager which already holds the encoded
+ * feature model (as during an analysis), so CUDD's computed table is warm.
+ * Since CUDD is not thread-safe, each benchmark thread has its own manager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ADDOperationsBenchmark {
+
+    /**
+     * Number of configurations taken from the expansion of the feature model.
+     */
+    private static final int CONFIGURATIONS = 1024;
+
+    @Param({"cnf_12.txt", "cnf_14.txt", "cnf_16.txt", "cnf_18.txt", "cnf_20.txt",
+            "cnf_22.txt", "cnf_24.txt", "cnf_26.txt", "cnf_28.txt", "cnf_30.txt"})
+    public String featureModelFile;
+
+    private ADD featureModel;
+    /**
+     * Multi-terminal ADD over all features, resembling a reliability function.
+     */
+    private ADD reliability;
+    private ADD one;
+    private String[][] configurations;
+    private int nextConfiguration = 0;
+
+    private JADD jadd;
+
+    @Setup
+    public void setUp() throws IOException {
+        jadd = new JADD();
+        CuddMemoryProfiler.track(jadd);
+        ExpressionSolver expressionSolver = new ExpressionSolver(jadd);
+        String formula = new String(Files.readAllBytes(Paths.get(featureModelFile)), StandardCharsets.UTF_8);
+        featureModel = expressionSolver.encodeFormula(formula);
+        jadd.reorderVariables();
+
+        one = jadd.makeConstant(1.0);
+        reliability = one;
+        int i = 0;
+        for (String feature: new TreeSet<String>(featureModel.getVariables())) {
+            ADD factor = jadd.getVariable(feature).ifThenElse(jadd.makeConstant(0.9 + 0.001*i++), one);
+            reliability = reliability.times(factor);
+        }
+
+        List<Collection<String>> expanded = featureModel.getExpandedConfigurations()
+                .limit(CONFIGURATIONS)
+                .collect(Collectors.toList());
+        configurations = expanded.stream()
+                .map(configuration -> configuration.toArray(new String[configuration.size()]))
+                .toArray(String[][]::new);
+    }
+
+    /**
+     * Stops reporting the memory of this trial's manager.
+     */
+    @TearDown
+    public void tearDown() {
+        CuddMemoryProfiler.untrack(jadd);
+    }
+
+    @Benchmark
+    public ADD plus() {
+        return featureModel.plus(reliability);
+    }
+
+    @Benchmark
+    public ADD times() {
+        return featureModel.times(reliability);
+    }
+
+    @Benchmark
+    public ADD ifThenElse() {
+        return featureModel.ifThenElse(reliability, one);
+    }
+
+    @Benchmark
+    public double eval() throws UnrecognizedVariableException {
+        String[] configuration = configurations[nextConfiguration];
+        nextConfiguration = (nextConfiguration + 1) % configurations.length;
+        return reliability.eval(configuration);
+    }
+
+    /**
+     * Time to expand (up to) {@link #CONFIGURATIONS} valid configurations.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long expandConfigurations() {
+        return featureModel.getExpandedConfigurations()
+                .limit(CONFIGURATIONS)
+                .count();
+    }
+
+}
@@ -0,0 +1,80 @@
+package jadd;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler which reports the native memory allocated by CUDD, which
+ * is invisible to the GC profiler.
+ *
+ * Benchmarks must register the managers to be measured by means of
+ * {@link #track(JADD)} during their setup, and unregister them by means
+ * of {@link #untrack(JADD)} once they are no longer used. The reported
+ * memory is the sum over all registered managers (e.g., one per benchmark
+ * thread), along with their number.
+ */
+public class CuddMemoryProfiler implements InternalProfiler {
+
+    private static final Set<JADD> tracked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds a manager to the ones whose memory is reported after each iteration.
+     */
+    public static void track(JADD jadd) {
+        tracked.add(jadd);
+    }
+
+    /**
+     * Removes a manager from the ones whose memory is reported.
+     */
+    public static void untrack(JADD jadd) {
+        if (jadd != null) {
+            tracked.remove(jadd);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Native memory in use by CUDD";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        // Nothing to reset: CUDD keeps track of its own allocations.
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams,
+                                                       IterationResult result) {
+        long memoryInUse = 0;
+        int managers = 0;
+        for (JADD jadd: tracked) {
+            memoryInUse += jadd.getMemoryInUse();
+            managers++;
+        }
+        if (managers == 0) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(new ScalarResult("cudd.memoryInUse",
+                                              memoryInUse,
+                                              "bytes",
+                                              AggregationPolicy.MAX),
+                             new ScalarResult("cudd.managers",
+                                              managers,
+                                              "managers",
+                                              AggregationPolicy.MAX));
+    }
+
+}
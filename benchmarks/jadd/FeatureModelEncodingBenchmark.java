@@ -0,0 +1,90 @@
+package jadd;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Benchmarks of the start-up work every analysis performs: encoding the
+ * feature model into a fresh manager and sifting its variables.
+ *
+ * Each invocation gets a new manager, so that results do not benefit
+ * from CUDD's caches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FeatureModelEncodingBenchmark {
+
+    @Param({"cnf_12.txt", "cnf_14.txt", "cnf_16.txt", "cnf_18.txt", "cnf_20.txt",
+            "cnf_22.txt", "cnf_24.txt", "cnf_26.txt", "cnf_28.txt", "cnf_30.txt"})
+    public String featureModelFile;
+
+    private String formula;
+    private JADD jadd;
+    private ExpressionSolver expressionSolver;
+
+    @Setup(Level.Trial)
+    public void readFeatureModel() throws IOException {
+        formula = new String(Files.readAllBytes(Paths.get(featureModelFile)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a fresh (empty) manager for each invocation. Only the memory
+     * of the latest one is reported.
+     */
+    @Setup(Level.Invocation)
+    public void makeManager() {
+        CuddMemoryProfiler.untrack(jadd);
+        jadd = new JADD();
+        CuddMemoryProfiler.track(jadd);
+        expressionSolver = new ExpressionSolver(jadd);
+    }
+
+    /**
+     * Stops reporting the memory of the latest manager.
+     */
+    @TearDown
+    public void tearDown() {
+        CuddMemoryProfiler.untrack(jadd);
+    }
+
+    @Benchmark
+    public ADD encodeFormula() {
+        return expressionSolver.encodeFormula(formula);
+    }
+
+    /**
+     * The cost of sifting alone is the difference between this benchmark
+     * and {@link #encodeFormula()}, since variables can only be reordered
+     * once the feature model has been encoded.
+     */
+    @Benchmark
+    public ADD encodeFormulaAndReorderVariables() {
+        ADD featureModel = expressionSolver.encodeFormula(formula);
+        jadd.reorderVariables();
+        return featureModel;
+    }
+
+}
@@ -0,0 +1,281 @@
+package tool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.LogManager;
+
+import paramwrapper.LocalModelChecker;
+import parsing.SplGeneratorModels.SplGeneratorModelingAPI;
+import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.stats.CollectibleTimers;
+import tool.stats.NoopFormulaCollector;
+import ui.stats.MemoryCollector;
+import ui.stats.ModelCollector;
+import ui.stats.TimeCollector;
+
+/**
+ * End-to-end scaling benchmark over the generated model series, i.e.,
+ * the _cnf\_N.txt_ feature models and _model\_N\_behavioral\_model.xml_
+ * behavioral models (N = 12, 14, ..., 30 features).
+ *
+ * Every analysis strategy (but AUTO) is run with every concurrency strategy
+ * over the whole series, a number of warmup runs followed by a number of
+ * measured trials, each with a fresh {@link Analyzer}. The time, memory
+ * and model collectors' numbers of each trial are written to a CSV report,
+ * along with the scaling curves fitted to their medians, and compared to a
+ * baseline report, if one is given. Model checking is performed by a
+ * {@link LocalModelChecker}, so that PARAM is not needed.
+ *
+ * Arguments (all optional):
+ * <ul>
+ * <li>{@code --models-dir=.}: directory of the model series;</li>
+ * <li>{@code --sizes=12,14,...,30}: numbers of features to be analyzed;</li>
+ * <li>{@code --strategies=FEATURE_FAMILY,...}: analysis strategies to be run;</li>
+ * <li>{@code --concurrency=PARALLEL,SEQUENTIAL}: concurrency strategies to be run;</li>
+ * <li>{@code --warmup=1} and {@code --trials=5}: runs per size and pair of strategies;</li>
+ * <li>{@code --time-budget=60}: median analysis time (in seconds) above which larger
+ *      sizes are skipped for a pair of strategies;</li>
+ * <li>{@code --report=scaling-report.csv} and {@code --fits=scaling-fits.csv}: output files;</li>
+ * <li>{@code --baseline=<report>} and {@code --tolerance=0.25}: report to be compared against
+ *      and the relative increase of a median taken as a regression.</li>
+ * </ul>
+ * The process exits with status 1 if any regression is found.
+ */
+public class ScalingBenchmark {
+
+    private Path modelsDir = Paths.get(".");
+    private List<Integer> sizes = Arrays.asList(12, 14, 16, 18, 20, 22, 24, 26, 28, 30);
+    private Set<AnalysisStrategy> strategies = EnumSet.complementOf(EnumSet.of(AnalysisStrategy.AUTO));
+    private Set<ConcurrencyStrategy> concurrencyStrategies = EnumSet.allOf(ConcurrencyStrategy.class);
+    private int warmup = 1;
+    private int trials = 5;
+    private double timeBudgetMillis = 60000;
+    private Path reportPath = Paths.get("scaling-report.csv");
+    private Path fitsPath = Paths.get("scaling-fits.csv");
+    private Path baselinePath = null;
+    private double tolerance = 0.25;
+
+    public static void main(String[] args) throws Exception {
+        try {
+            LogManager.getLogManager().readConfiguration(new FileInputStream("logging.properties"));
+        } catch (FileNotFoundException e) {
+            // Default logging configuration.
+        }
+        ScalingBenchmark benchmark = new ScalingBenchmark();
+        for (String arg: args) {
+            benchmark.parseArgument(arg);
+        }
+        ScalingReport report = benchmark.run();
+        System.exit(benchmark.writeResults(report) ? 0 : 1);
+    }
+
+    private void parseArgument(String arg) {
+        String[] option = arg.split("=", 2);
+        if (option.length < 2) {
+            throw new IllegalArgumentException("Expected --name=value, but got " + arg);
+        }
+        String value = option[1];
+        switch (option[0]) {
+        case "--models-dir":
+            modelsDir = Paths.get(value);
+            break;
+        case "--sizes":
+            sizes = new LinkedList<Integer>();
+            for (String size: value.split(",")) {
+                sizes.add(Integer.parseInt(size.trim()));
+            }
+            break;
+        case "--strategies":
+            strategies = EnumSet.noneOf(AnalysisStrategy.class);
+            for (String strategy: value.split(",")) {
+                strategies.add(AnalysisStrategy.valueOf(strategy.trim()));
+            }
+            strategies.remove(AnalysisStrategy.AUTO);
+            break;
+        case "--concurrency":
+            concurrencyStrategies = EnumSet.noneOf(ConcurrencyStrategy.class);
+            for (String strategy: value.split(",")) {
+                concurrencyStrategies.add(ConcurrencyStrategy.valueOf(strategy.trim()));
+            }
+            break;
+        case "--warmup":
+            warmup = Integer.parseInt(value);
+            break;
+        case "--trials":
+            trials = Integer.parseInt(value);
+            break;
+        case "--time-budget":
+            timeBudgetMillis = Double.parseDouble(value) * 1000;
+            break;
+        case "--report":
+            reportPath = Paths.get(value);
+            break;
+        case "--fits":
+            fitsPath = Paths.get(value);
+            break;
+        case "--baseline":
+            baselinePath = Paths.get(value);
+            break;
+        case "--tolerance":
+            tolerance = Double.parseDouble(value);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown argument: " + option[0]);
+        }
+    }
+
+    private ScalingReport run() throws Exception {
+        ScalingReport report = new ScalingReport();
+        // Pairs of strategies which exceeded the time budget or failed.
+        Set<String> exhausted = new HashSet<String>();
+        for (int size: sizes) {
+            String featureModel = new String(Files.readAllBytes(modelsDir.resolve("cnf_" + size + ".txt")),
+                                             StandardCharsets.UTF_8);
+            File umlModels = modelsDir.resolve("model_" + size + "_behavioral_model.xml").toFile();
+            // The RDG is not modified by analyses, so it is parsed only once.
+            RDGNode rdgRoot = new SplGeneratorModelingAPI(umlModels).transform();
+
+            for (AnalysisStrategy strategy: strategies) {
+                for (ConcurrencyStrategy concurrency: concurrencyStrategies) {
+                    String pair = strategy + "/" + concurrency;
+                    if (exhausted.contains(pair)) {
+                        continue;
+                    }
+                    System.out.println(size + " features, " + pair);
+                    try {
+                        for (int i = 0; i < warmup + trials; i++) {
+                            Map<ScalingReport.Metric, Double> trial = runTrial(featureModel, rdgRoot, strategy, concurrency);
+                            if (i >= warmup) {
+                                report.add(size, strategy, concurrency, trial);
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.out.println("    failed: " + e);
+                        exhausted.add(pair);
+                        continue;
+                    }
+                    double median = report.getMedian(size, strategy, concurrency, ScalingReport.Metric.ANALYSIS_TIME);
+                    System.out.println("    median analysis time: " + median + " ms");
+                    if (median > timeBudgetMillis) {
+                        System.out.println("    over the time budget, skipping larger sizes");
+                        exhausted.add(pair);
+                    }
+                }
+            }
+        }
+        return report;
+    }
+
+    private Map<ScalingReport.Metric, Double> runTrial(String featureModel,
+                                                       RDGNode rdgRoot,
+                                                       AnalysisStrategy strategy,
+                                                       ConcurrencyStrategy concurrency) throws CyclicRdgException, UnknownFeatureException {
+        TimeCollector timeCollector = new TimeCollector();
+        MemoryCollector memoryCollector = new MemoryCollector();
+        ModelCollector modelCollector = new ModelCollector();
+        Analyzer analyzer = new Analyzer(featureModel,
+                                         new LocalModelChecker(modelCollector),
+                                         timeCollector,
+                                         new NoopFormulaCollector(),
+                                         null);
+        analyzer.setConcurrencyStrategy(concurrency);
+
+        System.gc();
+        memoryCollector.takeSnapshot("before evaluation");
+        long startTime = System.nanoTime();
+        evaluate(analyzer, rdgRoot, strategy);
+        long elapsedTime = System.nanoTime() - startTime;
+        memoryCollector.takeSnapshot("after evaluation");
+
+        Map<ScalingReport.Metric, Double> trial = new EnumMap<ScalingReport.Metric, Double>(ScalingReport.Metric.class);
+        trial.put(ScalingReport.Metric.ANALYSIS_TIME, elapsedTime / 1E+6);
+        trial.put(ScalingReport.Metric.MODEL_CHECKING_TIME,
+                  timeCollector.getCumulativeTime(CollectibleTimers.MODEL_CHECKING_TIME) / 1E+6);
+        trial.put(ScalingReport.Metric.EXPRESSION_SOLVING_TIME,
+                  timeCollector.getCumulativeTime(CollectibleTimers.EXPRESSION_SOLVING_TIME) / 1E+6);
+        trial.put(ScalingReport.Metric.MAX_MEMORY, memoryCollector.getMaxMemory() / (1024.0 * 1024.0));
+        trial.put(ScalingReport.Metric.MODELS, (double) modelCollector.getModelsCount());
+        trial.put(ScalingReport.Metric.STATES, (double) modelCollector.getStatesSum());
+        trial.put(ScalingReport.Metric.MAX_STATES, (double) modelCollector.getMaxStates());
+        trial.put(ScalingReport.Metric.MAX_VARIABLES, (double) modelCollector.getMaxVariables());
+        return trial;
+    }
+
+    /**
+     * Runs an analysis strategy as the command-line interface does
+     * for all valid configurations.
+     */
+    private static void evaluate(Analyzer analyzer, RDGNode rdgRoot, AnalysisStrategy strategy) throws CyclicRdgException, UnknownFeatureException {
+        switch (strategy) {
+        case FEATURE_FAMILY:
+            analyzer.evaluateFeatureFamilyBasedReliability(rdgRoot);
+            break;
+        case FEATURE_FAMILY_FACTORIZED:
+            analyzer.evaluateFeatureFamilyFactorizedReliability(rdgRoot);
+            break;
+        case FEATURE_PRODUCT:
+            analyzer.evaluateFeatureProductBasedReliability(rdgRoot, analyzer.getValidConfigurations());
+            break;
+        case PRODUCT:
+            analyzer.evaluateProductBasedReliability(rdgRoot, analyzer.getValidConfigurations());
+            break;
+        case FAMILY:
+            analyzer.evaluateFamilyBasedReliability(rdgRoot, analyzer.getValidConfigurations());
+            break;
+        case FAMILY_PRODUCT:
+            analyzer.evaluateFamilyProductBasedReliability(rdgRoot, analyzer.getValidConfigurations());
+            break;
+        case FEATURE_FAMILY_PRODUCT:
+            analyzer.evaluateFeatureFamilyProductBasedReliability(rdgRoot, analyzer.getValidConfigurations());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Writes the report and the fitted curves, and compares the report
+     * to the baseline, if any.
+     *
+     * @return whether no regression was found.
+     */
+    private boolean writeResults(ScalingReport report) throws IOException {
+        report.write(reportPath);
+        System.out.println("Report written to " + reportPath);
+        Map<ScalingReport.Series, ScalingCurve> fits = report.writeFits(fitsPath);
+        for (Map.Entry<ScalingReport.Series, ScalingCurve> fit: fits.entrySet()) {
+            if (fit.getKey().metric == ScalingReport.Metric.ANALYSIS_TIME) {
+                System.out.println(fit.getKey().strategy + "/" + fit.getKey().concurrency + " analysis time: " + fit.getValue());
+            }
+        }
+        System.out.println("Scaling curves written to " + fitsPath);
+
+        if (baselinePath == null) {
+            return true;
+        }
+        List<String> regressions = report.findRegressions(baselinePath, tolerance);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baselinePath);
+        } else {
+            System.out.println(regressions.size() + " regressions against " + baselinePath + ":");
+            regressions.forEach(regression -> System.out.println("    " + regression));
+        }
+        return regressions.isEmpty();
+    }
+
+}
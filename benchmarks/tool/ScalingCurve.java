@@ -0,0 +1,118 @@
+package tool;
+
+import java.util.List;
+
+/**
+ * Least-squares fit of a metric against the number of features of an SPL,
+ * as either a power law (y = a*n^b) or an exponential (y = a*e^(b*n)).
+ *
+ * Both models are linear in log space, so they are fitted by ordinary
+ * least squares over log(y), and the one with the larger coefficient of
+ * determination (also in log space) is kept.
+ */
+class ScalingCurve {
+
+    enum Model {
+        POWER,
+        EXPONENTIAL
+    }
+
+    private Model model;
+    private double a;
+    private double b;
+    private double rSquared;
+
+    private ScalingCurve(Model model, double a, double b, double rSquared) {
+        this.model = model;
+        this.a = a;
+        this.b = b;
+        this.rSquared = rSquared;
+    }
+
+    /**
+     * Fits both models to the given points and returns the best one.
+     *
+     * @param sizes Number of features of each point.
+     * @param values Measured value of each point. Non-positive values
+     *          cannot be fitted in log space, so they are ignored.
+     * @return the best fit, or {@code null} if there are less than
+     *          three usable points.
+     */
+    static ScalingCurve fit(List<Integer> sizes, List<Double> values) {
+        int count = 0;
+        for (double value: values) {
+            if (value > 0) {
+                count++;
+            }
+        }
+        if (count < 3) {
+            return null;
+        }
+        double[] n = new double[count];
+        double[] logN = new double[count];
+        double[] logY = new double[count];
+        int i = 0;
+        for (int j = 0; j < values.size(); j++) {
+            if (values.get(j) > 0) {
+                n[i] = sizes.get(j);
+                logN[i] = Math.log(sizes.get(j));
+                logY[i] = Math.log(values.get(j));
+                i++;
+            }
+        }
+        ScalingCurve power = linearFit(Model.POWER, logN, logY);
+        ScalingCurve exponential = linearFit(Model.EXPONENTIAL, n, logY);
+        return (exponential.rSquared > power.rSquared) ? exponential : power;
+    }
+
+    /**
+     * Fits log(y) = log(a) + b*x.
+     */
+    private static ScalingCurve linearFit(Model model, double[] x, double[] logY) {
+        int count = x.length;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < count; i++) {
+            meanX += x[i] / count;
+            meanY += logY[i] / count;
+        }
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 0; i < count; i++) {
+            sxy += (x[i] - meanX) * (logY[i] - meanY);
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+            syy += (logY[i] - meanY) * (logY[i] - meanY);
+        }
+        double slope = (sxx == 0) ? 0 : sxy / sxx;
+        double intercept = meanY - slope * meanX;
+        // A constant metric is perfectly explained by any model.
+        double rSquared = (syy == 0) ? 1 : (slope * sxy) / syy;
+        return new ScalingCurve(model, Math.exp(intercept), slope, rSquared);
+    }
+
+    Model getModel() {
+        return model;
+    }
+
+    double getA() {
+        return a;
+    }
+
+    double getB() {
+        return b;
+    }
+
+    double getRSquared() {
+        return rSquared;
+    }
+
+    @Override
+    public String toString() {
+        if (model == Model.POWER) {
+            return String.format("%.4g * n^%.3f (R^2 = %.3f)", a, b, rSquared);
+        }
+        return String.format("%.4g * %.3f^n (R^2 = %.3f)", a, Math.exp(b), rSquared);
+    }
+
+}
@@ -0,0 +1,210 @@
+package tool;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+
+/**
+ * Measurements of a scaling benchmark run, i.e., the samples of every
+ * metric for each SPL size, analysis strategy and concurrency strategy.
+ *
+ * Reports are written as CSV files with one line per metric and run
+ * (see {@link #HEADER}), which are also read back as baselines.
+ */
+class ScalingReport {
+
+    static final String HEADER = "features,strategy,concurrency,metric,median,min,max,trials";
+
+    /**
+     * Collected metrics, along with the smallest increase over a baseline
+     * which is not taken as measurement noise.
+     */
+    enum Metric {
+        ANALYSIS_TIME("analysisTimeMs", 5),
+        MODEL_CHECKING_TIME("modelCheckingTimeMs", 5),
+        EXPRESSION_SOLVING_TIME("expressionSolvingTimeMs", 5),
+        MAX_MEMORY("maxMemoryMB", 8),
+        MODELS("models", 0),
+        STATES("states", 0),
+        MAX_STATES("maxStates", 0),
+        MAX_VARIABLES("maxVariables", 0);
+
+        private String label;
+        private double noiseFloor;
+
+        private Metric(String label, double noiseFloor) {
+            this.label = label;
+            this.noiseFloor = noiseFloor;
+        }
+
+        String getLabel() {
+            return label;
+        }
+
+        double getNoiseFloor() {
+            return noiseFloor;
+        }
+    }
+
+    /**
+     * Identifies the series of a metric for a pair of strategies.
+     */
+    static class Series {
+        final AnalysisStrategy strategy;
+        final ConcurrencyStrategy concurrency;
+        final Metric metric;
+
+        Series(AnalysisStrategy strategy, ConcurrencyStrategy concurrency, Metric metric) {
+            this.strategy = strategy;
+            this.concurrency = concurrency;
+            this.metric = metric;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Series)) {
+                return false;
+            }
+            Series other = (Series) obj;
+            return strategy == other.strategy && concurrency == other.concurrency && metric == other.metric;
+        }
+
+        @Override
+        public int hashCode() {
+            return (strategy.hashCode() * 31 + concurrency.hashCode()) * 31 + metric.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return strategy + "," + concurrency + "," + metric.getLabel();
+        }
+    }
+
+    /**
+     * Samples of each series, by number of features (in insertion order).
+     */
+    private Map<Series, Map<Integer, List<Double>>> samples = new LinkedHashMap<Series, Map<Integer, List<Double>>>();
+
+    void add(int features, AnalysisStrategy strategy, ConcurrencyStrategy concurrency, Map<Metric, Double> trial) {
+        for (Map.Entry<Metric, Double> measure: trial.entrySet()) {
+            samples.computeIfAbsent(new Series(strategy, concurrency, measure.getKey()), s -> new LinkedHashMap<Integer, List<Double>>())
+                    .computeIfAbsent(features, f -> new LinkedList<Double>())
+                    .add(measure.getValue());
+        }
+    }
+
+    Double getMedian(int features, AnalysisStrategy strategy, ConcurrencyStrategy concurrency, Metric metric) {
+        Map<Integer, List<Double>> series = samples.get(new Series(strategy, concurrency, metric));
+        if (series == null || !series.containsKey(features)) {
+            return null;
+        }
+        return median(series.get(features));
+    }
+
+    void write(Path path) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path), false, "UTF-8")) {
+            out.println(HEADER);
+            for (Map.Entry<Series, Map<Integer, List<Double>>> series: samples.entrySet()) {
+                for (Map.Entry<Integer, List<Double>> point: series.getValue().entrySet()) {
+                    List<Double> values = point.getValue();
+                    out.println(point.getKey() + "," + series.getKey()
+                            + "," + median(values)
+                            + "," + Collections.min(values)
+                            + "," + Collections.max(values)
+                            + "," + values.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Fits a scaling curve to the medians of each series and writes them
+     * as CSV to {@code path}.
+     *
+     * @return the fitted curves, by series.
+     */
+    Map<Series, ScalingCurve> writeFits(Path path) throws IOException {
+        Map<Series, ScalingCurve> fits = new LinkedHashMap<Series, ScalingCurve>();
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path), false, "UTF-8")) {
+            out.println("strategy,concurrency,metric,model,a,b,r2");
+            for (Map.Entry<Series, Map<Integer, List<Double>>> series: samples.entrySet()) {
+                List<Integer> sizes = new ArrayList<Integer>(series.getValue().keySet());
+                List<Double> medians = new ArrayList<Double>();
+                for (List<Double> values: series.getValue().values()) {
+                    medians.add(median(values));
+                }
+                ScalingCurve curve = ScalingCurve.fit(sizes, medians);
+                if (curve != null) {
+                    fits.put(series.getKey(), curve);
+                    out.println(series.getKey()
+                            + "," + curve.getModel()
+                            + "," + curve.getA()
+                            + "," + curve.getB()
+                            + "," + curve.getRSquared());
+                }
+            }
+        }
+        return fits;
+    }
+
+    /**
+     * Compares the medians of this report to those of a baseline report.
+     *
+     * @param baseline Path of a report written by {@link #write(Path)}.
+     * @param tolerance Relative increase above which a median is taken as a
+     *          regression (as long as it also exceeds the metric's noise floor).
+     * @return a description of each regression.
+     */
+    List<String> findRegressions(Path baseline, double tolerance) throws IOException {
+        Map<String, Double> baselineMedians = new HashMap<String, Double>();
+        for (String line: Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (line.equals(HEADER) || fields.length < 5) {
+                continue;
+            }
+            String key = fields[0] + "," + fields[1] + "," + fields[2] + "," + fields[3];
+            baselineMedians.put(key, Double.parseDouble(fields[4]));
+        }
+
+        List<String> regressions = new LinkedList<String>();
+        for (Map.Entry<Series, Map<Integer, List<Double>>> series: samples.entrySet()) {
+            Metric metric = series.getKey().metric;
+            for (Map.Entry<Integer, List<Double>> point: series.getValue().entrySet()) {
+                Double expected = baselineMedians.get(point.getKey() + "," + series.getKey());
+                if (expected == null) {
+                    continue;
+                }
+                double actual = median(point.getValue());
+                if (actual > expected * (1 + tolerance) && actual - expected > metric.getNoiseFloor()) {
+                    regressions.add(series.getKey() + " with " + point.getKey() + " features: "
+                            + expected + " -> " + actual
+                            + String.format(" (%+.1f%%)", 100 * (actual - expected) / expected));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<Double>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        if (sorted.size() % 2 == 1) {
+            return sorted.get(middle);
+        }
+        return (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+}
@@ -0,0 +1,139 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.CuddMemoryProfiler;
+import jadd.JADD;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import modeling.DiagramAPI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tool.RDGNode;
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Benchmarks of presence condition evaluation, as performed for every
+ * RDG node and configuration by product-wise analyses, using the presence
+ * conditions and valid configurations of real models.
+ *
+ * Every thread has its own ADD manager, so running with more threads
+ * shows how presence checking scales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PresenceConditionBenchmark {
+
+    private static final int CONFIGURATIONS = 256;
+
+    @Param({"BSN", "CloudComputing", "TankWar"})
+    public String model;
+
+    private ExpressionSolver expressionSolver;
+    private String[] presenceConditions;
+    private ADD[] encodedPresenceConditions;
+    private List<Collection<String>> configurations;
+    private int next = 0;
+
+    private JADD jadd;
+
+    @Setup
+    public void setUp() throws Exception {
+        String umlModels;
+        String featureModelFile;
+        switch (model) {
+        case "BSN":
+            umlModels = "BSN_models_without_File.xml";
+            featureModelFile = "BSN-FM_without_file.txt";
+            break;
+        case "CloudComputing":
+            umlModels = "CloudComputing.xml";
+            featureModelFile = "CNF_CloudComputing.txt";
+            break;
+        case "TankWar":
+            umlModels = "TankWar.xml";
+            featureModelFile = "CNF_Tankwar.txt";
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown model: " + model);
+        }
+
+        jadd = new JADD();
+        CuddMemoryProfiler.track(jadd);
+        expressionSolver = new ExpressionSolver(jadd);
+        String formula = new String(Files.readAllBytes(Paths.get(featureModelFile)), StandardCharsets.UTF_8);
+        ADD featureModel = expressionSolver.encodeFormula(formula);
+        jadd.reorderVariables();
+
+        RDGNode root = new DiagramAPI(new File(umlModels)).transform();
+        presenceConditions = root.getDependenciesTransitiveClosure().stream()
+                .map(RDGNode::getPresenceCondition)
+                .distinct()
+                .toArray(String[]::new);
+        encodedPresenceConditions = new ADD[presenceConditions.length];
+        for (int i = 0; i < presenceConditions.length; i++) {
+            encodedPresenceConditions[i] = expressionSolver.encodeFormula(presenceConditions[i]);
+        }
+        configurations = featureModel.getExpandedConfigurations()
+                .limit(CONFIGURATIONS)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stops reporting the memory of this trial's manager.
+     */
+    @TearDown
+    public void tearDown() {
+        CuddMemoryProfiler.untrack(jadd);
+    }
+
+    /**
+     * Encodes the presence condition before evaluating it.
+     */
+    @Benchmark
+    public boolean isPresent() {
+        int current = advance();
+        return PresenceConditions.isPresent(presenceConditions[current / configurations.size()],
+                                            configurations.get(current % configurations.size()),
+                                            expressionSolver);
+    }
+
+    @Benchmark
+    public boolean isPresentEncoded() {
+        int current = advance();
+        return PresenceConditions.isPresent(encodedPresenceConditions[current / configurations.size()],
+                                            configurations.get(current % configurations.size()));
+    }
+
+    /**
+     * Cycles through all pairs of presence conditions and configurations.
+     */
+    private int advance() {
+        next = (next + 1) % (presenceConditions.length * configurations.size());
+        return next;
+    }
+
+}
@@ -4,10 +4,12 @@ import jadd.ADD;
 import jadd.JADD;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.nfunk.jep.JEP;
 import org.nfunk.jep.SymbolTable;
@@ -29,6 +31,7 @@ import expressionsolver.functions.UnaryMinus;
  */
 public class ExpressionSolver {
     private static final Logger LOGGER = Logger.getLogger(ExpressionSolver.class.getName());
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
 
     private JADD jadd;
 
@@ -124,8 +127,19 @@ public class ExpressionSolver {
         parser.addVariableAsObject("false", jadd.makeConstant(0));
         parser.addVariableAsObject("False", jadd.makeConstant(0));
         SymbolTable symbolTable = parser.getSymbolTable();
+        // Variables are created in order of first appearance in the formula,
+        // so that the ADD variable ordering follows the formula's (e.g., that of
+        // a feature model whose features are written in depth-first order).
+        Set<String> variables = new LinkedHashSet<String>();
+        Matcher identifiers = IDENTIFIER.matcher(formula);
+        while (identifiers.find()) {
+            if (symbolTable.containsKey(identifiers.group())) {
+                variables.add(identifiers.group());
+            }
+        }
         @SuppressWarnings("unchecked")
-        Set<String> variables = new HashSet<String>(symbolTable.keySet());
+        Set<String> allVariables = symbolTable.keySet();
+        variables.addAll(allVariables);
         variables.remove("true");
         variables.remove("True");
         variables.remove("false");
@@ -0,0 +1,169 @@
+package expressionsolver.symbolic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import expressionsolver.symbolic.Term.Operator;
+
+/**
+ * A term compiled into flat arrays for fast, repeated evaluation.
+ *
+ * Every distinct subterm reachable from the root is evaluated exactly once
+ * per evaluation, in topological order, so the cost of an evaluation is
+ * linear in the size of the DAG (not of the expanded expression).
+ *
+ * Compiled terms are immutable, so they can be evaluated concurrently.
+ */
+public class CompiledTerm {
+
+    private Operator[] operators;
+    private int[] leftOperands;
+    private int[] rightOperands;
+    /**
+     * Values of constants or slots of variables, depending on the operator.
+     */
+    private double[] constants;
+    private int[] variableSlots;
+    private List<String> variables;
+    private Map<String, Integer> slotsByVariable;
+
+    private CompiledTerm() {
+        // Use compile()
+    }
+
+    public static CompiledTerm compile(Term root) {
+        List<Term> reachable = collectReachable(root);
+        int size = reachable.size();
+
+        CompiledTerm compiled = new CompiledTerm();
+        compiled.operators = new Operator[size];
+        compiled.leftOperands = new int[size];
+        compiled.rightOperands = new int[size];
+        compiled.constants = new double[size];
+        compiled.variableSlots = new int[size];
+        compiled.variables = new ArrayList<String>();
+        compiled.slotsByVariable = new HashMap<String, Integer>();
+
+        Map<Term, Integer> positions = new HashMap<Term, Integer>();
+        for (int i = 0; i < size; i++) {
+            Term term = reachable.get(i);
+            positions.put(term, i);
+            compiled.operators[i] = term.getOperator();
+            switch (term.getOperator()) {
+            case CONSTANT:
+                compiled.constants[i] = term.getValue();
+                break;
+            case VARIABLE:
+                compiled.variableSlots[i] = compiled.slotsByVariable.computeIfAbsent(term.getName(), name -> {
+                    compiled.variables.add(name);
+                    return compiled.variables.size() - 1;
+                });
+                break;
+            default:
+                compiled.leftOperands[i] = positions.get(term.getOperand(0));
+                if (term.getArity() > 1) {
+                    compiled.rightOperands[i] = positions.get(term.getOperand(1));
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Names of the free variables of this term, in slot order.
+     */
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(variables);
+    }
+
+    /**
+     * Number of distinct subterms.
+     */
+    public int size() {
+        return operators.length;
+    }
+
+    /**
+     * Evaluates the term.
+     *
+     * @param values Values of the variables, indexed by slot (i.e., in the
+     *          order given by {@link #getVariables()}).
+     * @return
+     */
+    public double evaluate(double[] values) {
+        int size = operators.length;
+        double[] results = new double[size];
+        for (int i = 0; i < size; i++) {
+            switch (operators[i]) {
+            case CONSTANT:
+                results[i] = constants[i];
+                break;
+            case VARIABLE:
+                results[i] = values[variableSlots[i]];
+                break;
+            case ADD:
+                results[i] = results[leftOperands[i]] + results[rightOperands[i]];
+                break;
+            case SUBTRACT:
+                results[i] = results[leftOperands[i]] - results[rightOperands[i]];
+                break;
+            case MULTIPLY:
+                results[i] = results[leftOperands[i]] * results[rightOperands[i]];
+                break;
+            case DIVIDE:
+                results[i] = results[leftOperands[i]] / results[rightOperands[i]];
+                break;
+            case POWER:
+                results[i] = Math.pow(results[leftOperands[i]], results[rightOperands[i]]);
+                break;
+            case NEGATE:
+                results[i] = -results[leftOperands[i]];
+                break;
+            default:
+                throw new IllegalStateException("Unknown operator: " + operators[i]);
+            }
+        }
+        return results[size - 1];
+    }
+
+    /**
+     * Evaluates the term with respect to the given interpretation of variables.
+     * Variables with no interpretation are taken to be NaN.
+     */
+    public double evaluate(Map<String, Double> interpretation) {
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = interpretation.getOrDefault(variables.get(i), Double.NaN);
+        }
+        return evaluate(values);
+    }
+
+    /**
+     * Returns the terms reachable from the root, sorted by id (which is a
+     * topological order, with the root last).
+     */
+    private static List<Term> collectReachable(Term root) {
+        Set<Term> visited = new HashSet<Term>();
+        Deque<Term> toVisit = new ArrayDeque<Term>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            Term term = toVisit.pop();
+            if (visited.add(term)) {
+                for (int i = 0; i < term.getArity(); i++) {
+                    toVisit.push(term.getOperand(i));
+                }
+            }
+        }
+        List<Term> reachable = new ArrayList<Term>(visited);
+        reachable.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return reachable;
+    }
+
+}
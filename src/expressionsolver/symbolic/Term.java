@@ -0,0 +1,137 @@
+package expressionsolver.symbolic;
+
+import java.util.Arrays;
+
+/**
+ * Node of an arithmetic expression DAG.
+ *
+ * Terms are immutable and hash-consed by a {@link TermFactory}, so that
+ * structurally equal terms created by the same factory are the same object.
+ * This way, a subexpression referenced from many places (e.g., the reliability
+ * expression of a component used by many others) is represented only once.
+ *
+ * Terms are identified by sequential ids, which are assigned at creation.
+ * Since operands must exist before the terms that use them, ids are always
+ * a topological order of the DAG.
+ */
+public final class Term {
+
+    public enum Operator {
+        CONSTANT,
+        VARIABLE,
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE,
+        POWER,
+        NEGATE
+    }
+
+    private static final Term[] NO_OPERANDS = new Term[0];
+
+    private final int id;
+    private final Operator operator;
+    private final double value;
+    private final String name;
+    private final Term[] operands;
+
+    private Term(int id, Operator operator, double value, String name, Term[] operands) {
+        this.id = id;
+        this.operator = operator;
+        this.value = value;
+        this.name = name;
+        this.operands = operands;
+    }
+
+    static Term constant(int id, double value) {
+        return new Term(id, Operator.CONSTANT, value, null, NO_OPERANDS);
+    }
+
+    static Term variable(int id, String name) {
+        return new Term(id, Operator.VARIABLE, Double.NaN, name, NO_OPERANDS);
+    }
+
+    static Term operation(int id, Operator operator, Term... operands) {
+        return new Term(id, operator, Double.NaN, null, operands);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public boolean isConstant() {
+        return operator == Operator.CONSTANT;
+    }
+
+    public boolean isConstant(double constant) {
+        return isConstant() && Double.compare(value, constant) == 0;
+    }
+
+    /**
+     * Value of a CONSTANT term.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Name of a VARIABLE term.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Term[] getOperands() {
+        return Arrays.copyOf(operands, operands.length);
+    }
+
+    Term getOperand(int i) {
+        return operands[i];
+    }
+
+    int getArity() {
+        return operands.length;
+    }
+
+    /**
+     * Renders this term in infix notation.
+     *
+     * Beware that shared subterms are rendered once for each reference,
+     * so the result may be exponentially larger than the DAG itself.
+     */
+    @Override
+    public String toString() {
+        switch (operator) {
+        case CONSTANT:
+            return Double.toString(value);
+        case VARIABLE:
+            return name;
+        case NEGATE:
+            return "-(" + operands[0] + ")";
+        default:
+            return "(" + operands[0] + " " + symbol() + " " + operands[1] + ")";
+        }
+    }
+
+    private String symbol() {
+        switch (operator) {
+        case ADD:
+            return "+";
+        case SUBTRACT:
+            return "-";
+        case MULTIPLY:
+            return "*";
+        case DIVIDE:
+            return "/";
+        case POWER:
+            return "^";
+        default:
+            throw new IllegalStateException("Not a binary operator: " + operator);
+        }
+    }
+
+}
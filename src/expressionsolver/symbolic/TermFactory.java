@@ -0,0 +1,128 @@
+package expressionsolver.symbolic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import expressionsolver.symbolic.Term.Operator;
+
+/**
+ * Creates hash-consed terms, simplifying constant subexpressions on the fly.
+ *
+ * Besides folding operations on constants, the factory applies the neutral
+ * and absorbing elements of each operation (e.g., x*1 = x, x*0 = 0, x+0 = x)
+ * and orders the operands of commutative operations, so that a*b and b*a
+ * are the same term.
+ *
+ * A factory is not thread-safe, but the terms it creates are immutable.
+ */
+public class TermFactory {
+
+    private Map<String, Term> terms = new HashMap<String, Term>();
+
+    public Term constant(double value) {
+        return intern("C" + Double.doubleToLongBits(value),
+                      id -> Term.constant(id, value));
+    }
+
+    public Term variable(String name) {
+        return intern("V" + name,
+                      id -> Term.variable(id, name));
+    }
+
+    public Term add(Term left, Term right) {
+        if (left.isConstant() && right.isConstant()) {
+            return constant(left.getValue() + right.getValue());
+        } else if (left.isConstant(0)) {
+            return right;
+        } else if (right.isConstant(0)) {
+            return left;
+        }
+        return commutative(Operator.ADD, left, right);
+    }
+
+    public Term subtract(Term left, Term right) {
+        if (left.isConstant() && right.isConstant()) {
+            return constant(left.getValue() - right.getValue());
+        } else if (right.isConstant(0)) {
+            return left;
+        } else if (left.isConstant(0)) {
+            return negate(right);
+        } else if (left == right) {
+            return constant(0);
+        }
+        return operation(Operator.SUBTRACT, left, right);
+    }
+
+    public Term multiply(Term left, Term right) {
+        if (left.isConstant() && right.isConstant()) {
+            return constant(left.getValue() * right.getValue());
+        } else if (left.isConstant(0) || right.isConstant(0)) {
+            return constant(0);
+        } else if (left.isConstant(1)) {
+            return right;
+        } else if (right.isConstant(1)) {
+            return left;
+        }
+        return commutative(Operator.MULTIPLY, left, right);
+    }
+
+    public Term divide(Term left, Term right) {
+        if (left.isConstant() && right.isConstant()) {
+            return constant(left.getValue() / right.getValue());
+        } else if (right.isConstant(1)) {
+            return left;
+        }
+        return operation(Operator.DIVIDE, left, right);
+    }
+
+    public Term power(Term base, Term exponent) {
+        if (base.isConstant() && exponent.isConstant()) {
+            return constant(Math.pow(base.getValue(), exponent.getValue()));
+        } else if (exponent.isConstant(0)) {
+            return constant(1);
+        } else if (exponent.isConstant(1) || base.isConstant(1)) {
+            return base;
+        }
+        return operation(Operator.POWER, base, exponent);
+    }
+
+    public Term negate(Term term) {
+        if (term.isConstant()) {
+            return constant(-term.getValue());
+        } else if (term.getOperator() == Operator.NEGATE) {
+            return term.getOperand(0);
+        }
+        return intern(Operator.NEGATE + ":" + term.getId(),
+                      id -> Term.operation(id, Operator.NEGATE, term));
+    }
+
+    /**
+     * Number of distinct terms created so far.
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    private Term commutative(Operator operator, Term left, Term right) {
+        if (left.getId() > right.getId()) {
+            return operation(operator, right, left);
+        }
+        return operation(operator, left, right);
+    }
+
+    private Term operation(Operator operator, Term left, Term right) {
+        return intern(operator + ":" + left.getId() + ":" + right.getId(),
+                      id -> Term.operation(id, operator, left, right));
+    }
+
+    private Term intern(String key, IntFunction<Term> creator) {
+        Term term = terms.get(key);
+        if (term == null) {
+            term = creator.apply(terms.size());
+            terms.put(key, term);
+        }
+        return term;
+    }
+
+}
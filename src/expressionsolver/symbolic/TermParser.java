@@ -0,0 +1,196 @@
+package expressionsolver.symbolic;
+
+import java.util.function.Function;
+
+/**
+ * Recursive-descent parser of arithmetic expressions into terms.
+ *
+ * The accepted grammar is that of the expressions yielded by parametric
+ * model checkers:
+ *
+ * <pre>
+ *   expression := product (('+' | '-') product)*
+ *   product    := unary (('*' | '/') unary)*
+ *   unary      := '-' unary | '+' unary | power
+ *   power      := primary ('^' unary)?
+ *   primary    := number | identifier | '(' expression ')'
+ * </pre>
+ *
+ * Each identifier is resolved to a term by a function provided by the caller,
+ * which allows for substituting variables by (shared) subexpressions while
+ * parsing.
+ */
+public class TermParser {
+
+    private TermFactory factory;
+
+    public TermParser(TermFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Parses an expression whose variables are kept as such.
+     */
+    public Term parse(String expression) {
+        return parse(expression, factory::variable);
+    }
+
+    /**
+     * Parses an expression, resolving each identifier by means of {@code resolver}.
+     *
+     * @param expression
+     * @param resolver Maps variable names to the terms which should take their places.
+     * @return
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public Term parse(String expression, Function<String, Term> resolver) {
+        Parsing parsing = new Parsing(expression, resolver);
+        Term result = parsing.expression();
+        parsing.skipWhitespace();
+        if (!parsing.atEnd()) {
+            throw parsing.error("Unexpected character");
+        }
+        return result;
+    }
+
+    /**
+     * State of a single parsing.
+     */
+    private class Parsing {
+        private String input;
+        private int position;
+        private Function<String, Term> resolver;
+
+        Parsing(String input, Function<String, Term> resolver) {
+            this.input = input;
+            this.position = 0;
+            this.resolver = resolver;
+        }
+
+        Term expression() {
+            Term result = product();
+            while (true) {
+                if (accept('+')) {
+                    result = factory.add(result, product());
+                } else if (accept('-')) {
+                    result = factory.subtract(result, product());
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        Term product() {
+            Term result = unary();
+            while (true) {
+                if (accept('*')) {
+                    result = factory.multiply(result, unary());
+                } else if (accept('/')) {
+                    result = factory.divide(result, unary());
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        Term unary() {
+            if (accept('-')) {
+                return factory.negate(unary());
+            } else if (accept('+')) {
+                return unary();
+            }
+            return power();
+        }
+
+        Term power() {
+            Term base = primary();
+            if (accept('^')) {
+                // Right-associative
+                return factory.power(base, unary());
+            }
+            return base;
+        }
+
+        Term primary() {
+            skipWhitespace();
+            if (accept('(')) {
+                Term result = expression();
+                if (!accept(')')) {
+                    throw error("Expected ')'");
+                }
+                return result;
+            } else if (!atEnd() && isNumberStart(input.charAt(position))) {
+                return factory.constant(number());
+            } else if (!atEnd() && isIdentifierStart(input.charAt(position))) {
+                return resolver.apply(identifier());
+            }
+            throw error("Expected a number, a variable or '('");
+        }
+
+        double number() {
+            int start = position;
+            while (!atEnd() && (Character.isDigit(current()) || current() == '.')) {
+                position++;
+            }
+            if (!atEnd() && (current() == 'e' || current() == 'E')) {
+                position++;
+                if (!atEnd() && (current() == '+' || current() == '-')) {
+                    position++;
+                }
+                while (!atEnd() && Character.isDigit(current())) {
+                    position++;
+                }
+            }
+            try {
+                return Double.parseDouble(input.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Malformed number");
+            }
+        }
+
+        String identifier() {
+            int start = position;
+            while (!atEnd() && (Character.isLetterOrDigit(current()) || current() == '_')) {
+                position++;
+            }
+            return input.substring(start, position);
+        }
+
+        boolean accept(char c) {
+            skipWhitespace();
+            if (!atEnd() && current() == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(current())) {
+                position++;
+            }
+        }
+
+        boolean atEnd() {
+            return position >= input.length();
+        }
+
+        char current() {
+            return input.charAt(position);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " of expression: " + input);
+        }
+
+        private boolean isNumberStart(char c) {
+            return Character.isDigit(c) || c == '.';
+        }
+
+        private boolean isIdentifierStart(char c) {
+            return Character.isLetter(c) || c == '_';
+        }
+    }
+
+}
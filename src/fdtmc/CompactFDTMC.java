@@ -0,0 +1,488 @@
+package fdtmc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frozen, array-backed form of an {@link FDTMC}.
+ *
+ * States are numbered 0, 1, ..., {@link #getStatesCount()} - 1 (the same
+ * indices as in the originating FDTMC) and transitions are stored in
+ * compressed sparse row (CSR) form: the transitions leaving state {@code s}
+ * are the ones numbered from {@link #getTransitionsStart(int) getTransitionsStart(s)}
+ * (inclusive) to {@link #getTransitionsEnd(int) getTransitionsEnd(s)} (exclusive),
+ * in the order they were created. Probabilities and action names are handles
+ * into a table of interned strings, so that repeated ones (e.g., "1" or the
+ * probability of a message which occurs in several places) are stored once.
+ *
+ * Instances are created by a {@link Builder} or by {@link FDTMC#toCompact()},
+ * and are never modified afterwards. Inlining ({@link #inline(Map)}) and presence
+ * decoration ({@link #decoratedWithPresence(String)}) yield new instances, which is
+ * how the 150% model of family-based analyses is derived.
+ */
+public class CompactFDTMC implements IFDTMCView {
+
+    private static final int NONE = -1;
+
+    private String variableName;
+    private int initialState;
+    private int successState;
+    private int errorState;
+    private String[] labels;
+
+    private int[] rowOffsets;
+    private int[] targets;
+    private int[] probabilities;
+    private int[] actions;
+    /**
+     * Transitions which belong to an interface, i.e., which are
+     * replaced by the abstracted FDTMC when it is inlined.
+     */
+    private boolean[] interfaceTransitions;
+    private String[] strings;
+
+    private String[] interfaceIds;
+    /**
+     * Initial, success and error states of each interface, in sequence.
+     */
+    private int[] interfaceStates;
+
+    private Map<String, Integer> stateByLabel;
+    private Map<String, Integer> transitionByAction;
+
+    private CompactFDTMC() {
+        // Created by the builder.
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    public int getStatesCount() {
+        return labels.length;
+    }
+
+    public int getTransitionsCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return the initial state, or -1 if there is none.
+     */
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * @return the success state, or -1 if there is none.
+     */
+    public int getSuccessState() {
+        return successState;
+    }
+
+    /**
+     * @return the error state, or -1 if there is none.
+     */
+    public int getErrorState() {
+        return errorState;
+    }
+
+    public String getLabel(int state) {
+        return labels[state];
+    }
+
+    /**
+     * @return the first state with the given label, or -1 if there is none.
+     */
+    public int getStateByLabel(String label) {
+        return stateByLabel.getOrDefault(label, NONE);
+    }
+
+    /**
+     * @return the first transition with the given action name, or -1 if there is none.
+     */
+    public int getTransitionByActionName(String action) {
+        return transitionByAction.getOrDefault(action, NONE);
+    }
+
+    public int getTransitionsStart(int state) {
+        return rowOffsets[state];
+    }
+
+    public int getTransitionsEnd(int state) {
+        return rowOffsets[state + 1];
+    }
+
+    public int getTarget(int transition) {
+        return targets[transition];
+    }
+
+    public String getProbability(int transition) {
+        return strings[probabilities[transition]];
+    }
+
+    /**
+     * Returns a handle to the probability of the given transition. Transitions
+     * have equal handles if and only if their probabilities are equal strings.
+     */
+    public int getProbabilityHandle(int transition) {
+        return probabilities[transition];
+    }
+
+    public String getActionName(int transition) {
+        return strings[actions[transition]];
+    }
+
+    public boolean isInterfaceTransition(int transition) {
+        return interfaceTransitions[transition];
+    }
+
+    public int getInterfacesCount() {
+        return interfaceIds.length;
+    }
+
+    public String getInterfaceId(int iface) {
+        return interfaceIds[iface];
+    }
+
+    public int getInterfaceInitial(int iface) {
+        return interfaceStates[3*iface];
+    }
+
+    public int getInterfaceSuccess(int iface) {
+        return interfaceStates[3*iface + 1];
+    }
+
+    public int getInterfaceError(int iface) {
+        return interfaceStates[3*iface + 2];
+    }
+
+    @Override
+    public void forEachTransition(int state, TransitionVisitor visitor) {
+        for (int t = rowOffsets[state]; t < rowOffsets[state + 1]; t++) {
+            visitor.visit(targets[t], strings[probabilities[t]]);
+        }
+    }
+
+    /**
+     * Inlines the given FDTMCs whenever there is an interface corresponding
+     * to the string in the respective index, just as {@link FDTMC#inline(Map)}.
+     *
+     * States are renumbered by offsets (this FDTMC's states come first,
+     * followed by a copy of the fragment of each inlined interface), so that
+     * no mapping between the states of the models is needed.
+     *
+     * @param indexedModels
+     * @return a new FDTMC which represents this one with the ones specified
+     *         in {@code indexedModels} inlined.
+     */
+    public CompactFDTMC inline(Map<String, CompactFDTMC> indexedModels) {
+        Builder inlined = copyStates();
+        copyTransitions(this, 0, inlined);
+
+        for (int iface = 0; iface < getInterfacesCount(); iface++) {
+            CompactFDTMC fragment = indexedModels.get(interfaceIds[iface]);
+            if (fragment == null) {
+                continue;
+            }
+            int offset = inlined.getStatesCount();
+            for (int state = 0; state < fragment.getStatesCount(); state++) {
+                inlined.addState(null);
+            }
+            copyTransitions(fragment, offset, inlined);
+
+            inlined.addTransition(getInterfaceInitial(iface), offset + fragment.initialState, "", "1");
+            if (fragment.successState != NONE) {
+                inlined.addTransition(offset + fragment.successState, getInterfaceSuccess(iface), "", "1");
+            }
+            if (fragment.errorState != NONE) {
+                inlined.addTransition(offset + fragment.errorState, getInterfaceError(iface), "", "1");
+            }
+        }
+        return inlined.build();
+    }
+
+    /**
+     * Returns a copy of this FDTMC decorated with "presence transitions",
+     * just as {@link FDTMC#decoratedWithPresence(String)}: a new initial state
+     * (numbered after the existing ones) has a transition to the original
+     * initial state parameterized by {@code presenceVariable} and a complement
+     * one to the success state.
+     *
+     * @param presenceVariable
+     * @return
+     */
+    public CompactFDTMC decoratedWithPresence(String presenceVariable) {
+        Builder decorated = copyStates();
+        for (int state = 0; state < getStatesCount(); state++) {
+            for (int t = rowOffsets[state]; t < rowOffsets[state + 1]; t++) {
+                decorated.addTransition(state,
+                                        targets[t],
+                                        getActionName(t),
+                                        getProbability(t),
+                                        interfaceTransitions[t]);
+            }
+        }
+        for (int iface = 0; iface < getInterfacesCount(); iface++) {
+            decorated.addInterfaceStates(interfaceIds[iface],
+                                         getInterfaceInitial(iface),
+                                         getInterfaceSuccess(iface),
+                                         getInterfaceError(iface));
+        }
+
+        if (initialState != NONE) {
+            decorated.labels[initialState] = null;
+        }
+        int newInitial = decorated.addState(FDTMC.INITIAL_LABEL);
+        decorated.setInitialState(newInitial);
+        // Enter the original chain in case of presence
+        decorated.addTransition(newInitial, initialState, "", presenceVariable);
+        // Short-circuit in case of absence
+        decorated.addTransition(newInitial, successState, "", "1-" + presenceVariable);
+        return decorated.build();
+    }
+
+    /**
+     * Counterpart of {@link FDTMC#ifThenElse(String, FDTMC, FDTMC)}.
+     *
+     * {@code ifAbsent} is taken to be a model which always succeeds (such as
+     * the skip model of family-based analyses), so absence short-circuits to
+     * the success state of {@code ifPresent} instead of being inlined.
+     */
+    public static CompactFDTMC ifThenElse(String presenceVariable, CompactFDTMC ifPresent, CompactFDTMC ifAbsent) {
+        return ifPresent.decoratedWithPresence(presenceVariable);
+    }
+
+    /**
+     * Starts a copy of this FDTMC with the same states, of which only the
+     * initial, success and error ones keep their labels.
+     */
+    private Builder copyStates() {
+        Builder copy = new Builder(variableName);
+        for (int state = 0; state < getStatesCount(); state++) {
+            copy.addState(null);
+        }
+        if (initialState != NONE) {
+            copy.labels[initialState] = FDTMC.INITIAL_LABEL;
+        }
+        if (successState != NONE) {
+            copy.labels[successState] = FDTMC.SUCCESS_LABEL;
+        }
+        if (errorState != NONE) {
+            copy.labels[errorState] = FDTMC.ERROR_LABEL;
+        }
+        copy.setInitialState(initialState);
+        copy.setSuccessState(successState);
+        copy.setErrorState(errorState);
+        return copy;
+    }
+
+    /**
+     * Copies all transitions of {@code source} which are not part of an interface
+     * to {@code destination}, shifting their states by {@code offset}.
+     */
+    private static void copyTransitions(CompactFDTMC source, int offset, Builder destination) {
+        for (int state = 0; state < source.getStatesCount(); state++) {
+            for (int t = source.rowOffsets[state]; t < source.rowOffsets[state + 1]; t++) {
+                if (!source.interfaceTransitions[t]) {
+                    destination.addTransition(offset + state,
+                                              offset + source.targets[t],
+                                              source.getActionName(t),
+                                              source.getProbability(t));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder msg = new StringBuilder();
+        for (int state = 0; state < getStatesCount(); state++) {
+            for (int t = rowOffsets[state]; t < rowOffsets[state + 1]; t++) {
+                appendState(msg, state);
+                msg.append(" --- ").append(getActionName(t)).append(" / ").append(getProbability(t)).append(" ---> ");
+                appendState(msg, targets[t]);
+                msg.append("\n");
+            }
+        }
+        return msg.toString();
+    }
+
+    private void appendState(StringBuilder msg, int state) {
+        msg.append(variableName).append("=").append(state);
+        if (labels[state] != null) {
+            msg.append("(").append(labels[state]).append(")");
+        }
+    }
+
+    /**
+     * Builds a {@link CompactFDTMC} by adding states and transitions in any
+     * order. Transitions are sorted by source state (keeping the order in
+     * which they were added) only when the model is built.
+     */
+    public static class Builder {
+        private String variableName;
+        private int initialState = NONE;
+        private int successState = NONE;
+        private int errorState = NONE;
+
+        private int statesCount = 0;
+        private String[] labels = new String[16];
+
+        private int transitionsCount = 0;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int[] probabilities = new int[16];
+        private int[] actions = new int[16];
+        private boolean[] interfaceTransitions = new boolean[16];
+
+        private Map<String, Integer> stringHandles = new HashMap<String, Integer>();
+        private List<String> strings = new ArrayList<String>();
+
+        private List<String> interfaceIds = new ArrayList<String>();
+        private int[] interfaceStates = new int[12];
+
+        public Builder(String variableName) {
+            this.variableName = variableName;
+        }
+
+        public int getStatesCount() {
+            return statesCount;
+        }
+
+        /**
+         * @param label Label of the new state, or {@code null}.
+         * @return the number of the new state.
+         */
+        public int addState(String label) {
+            if (statesCount == labels.length) {
+                labels = Arrays.copyOf(labels, 2*statesCount);
+            }
+            labels[statesCount] = label;
+            return statesCount++;
+        }
+
+        public Builder addTransition(int source, int target, String action, String probability) {
+            addTransition(source, target, action, probability, false);
+            return this;
+        }
+
+        void addTransition(int source, int target, String action, String probability, boolean isInterface) {
+            if (transitionsCount == sources.length) {
+                int capacity = 2*transitionsCount;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                probabilities = Arrays.copyOf(probabilities, capacity);
+                actions = Arrays.copyOf(actions, capacity);
+                interfaceTransitions = Arrays.copyOf(interfaceTransitions, capacity);
+            }
+            sources[transitionsCount] = source;
+            targets[transitionsCount] = target;
+            probabilities[transitionsCount] = intern(probability);
+            actions[transitionsCount] = intern(action);
+            interfaceTransitions[transitionsCount] = isInterface;
+            transitionsCount++;
+        }
+
+        /**
+         * Adds an interface to another FDTMC, along with its transitions
+         * (see {@link FDTMC#createInterface(String, State, State, State)}).
+         */
+        public Builder addInterface(String id, int initial, int success, int error) {
+            addTransition(initial, success, "", id, true);
+            addTransition(initial, error, "", "1 - " + id, true);
+            addInterfaceStates(id, initial, success, error);
+            return this;
+        }
+
+        /**
+         * Registers an interface whose transitions are added separately.
+         */
+        void addInterfaceStates(String id, int initial, int success, int error) {
+            int iface = interfaceIds.size();
+            interfaceIds.add(id);
+            if (3*iface + 3 > interfaceStates.length) {
+                interfaceStates = Arrays.copyOf(interfaceStates, 2*interfaceStates.length);
+            }
+            interfaceStates[3*iface] = initial;
+            interfaceStates[3*iface + 1] = success;
+            interfaceStates[3*iface + 2] = error;
+        }
+
+        private int intern(String string) {
+            Integer handle = stringHandles.get(string);
+            if (handle == null) {
+                handle = strings.size();
+                strings.add(string);
+                stringHandles.put(string, handle);
+            }
+            return handle;
+        }
+
+        public Builder setInitialState(int state) {
+            initialState = state;
+            return this;
+        }
+
+        public Builder setSuccessState(int state) {
+            successState = state;
+            return this;
+        }
+
+        public Builder setErrorState(int state) {
+            errorState = state;
+            return this;
+        }
+
+        public CompactFDTMC build() {
+            CompactFDTMC built = new CompactFDTMC();
+            built.variableName = variableName;
+            built.initialState = initialState;
+            built.successState = successState;
+            built.errorState = errorState;
+            built.labels = Arrays.copyOf(labels, statesCount);
+
+            // Counting sort of the transitions by source, which is stable.
+            int[] rowOffsets = new int[statesCount + 1];
+            for (int t = 0; t < transitionsCount; t++) {
+                rowOffsets[sources[t] + 1]++;
+            }
+            for (int state = 0; state < statesCount; state++) {
+                rowOffsets[state + 1] += rowOffsets[state];
+            }
+            int[] next = Arrays.copyOf(rowOffsets, statesCount);
+            built.rowOffsets = rowOffsets;
+            built.targets = new int[transitionsCount];
+            built.probabilities = new int[transitionsCount];
+            built.actions = new int[transitionsCount];
+            built.interfaceTransitions = new boolean[transitionsCount];
+            for (int t = 0; t < transitionsCount; t++) {
+                int position = next[sources[t]]++;
+                built.targets[position] = targets[t];
+                built.probabilities[position] = probabilities[t];
+                built.actions[position] = actions[t];
+                built.interfaceTransitions[position] = interfaceTransitions[t];
+            }
+            built.strings = strings.toArray(new String[strings.size()]);
+
+            built.interfaceIds = interfaceIds.toArray(new String[interfaceIds.size()]);
+            built.interfaceStates = Arrays.copyOf(interfaceStates, 3*interfaceIds.size());
+
+            built.stateByLabel = new HashMap<String, Integer>();
+            for (int state = built.labels.length - 1; state >= 0; state--) {
+                if (built.labels[state] != null) {
+                    built.stateByLabel.put(built.labels[state], state);
+                }
+            }
+            built.transitionByAction = new HashMap<String, Integer>();
+            for (int t = transitionsCount - 1; t >= 0; t--) {
+                built.transitionByAction.put(built.strings[built.actions[t]], t);
+            }
+            return built;
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+package fdtmc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Virtual result of inlining FDTMCs into the interfaces of another one.
+ *
+ * Nothing is copied: states and transitions are resolved on demand to the
+ * ones of the composed models, which may be views themselves (e.g., one per
+ * RDG node, each composing the views of its dependencies). Thus, a view takes
+ * memory in the order of the number of interfaces of its root model, instead
+ * of the number of states of the whole inlined model, and the models it is
+ * made of are shared among all views which compose them.
+ *
+ * States are numbered just as in {@link CompactFDTMC#inline(Map)}: the root
+ * model's states come first, followed by the states of the model inlined in
+ * each interface, in the order of the interfaces. Accordingly, transitions
+ * and labels are also the same as in the inlined model.
+ */
+public class ComposedFDTMC implements IFDTMCView {
+
+    private CompactFDTMC root;
+    private int statesCount;
+
+    // Blocks of states of the inlined models, in order of their first state.
+    private int[] blockOffsets;
+    private int[] blockInterfaces;
+    private ComposedFDTMC[] blockModels;
+
+    /**
+     * Blocks sorted by the interface's initial state (the source of
+     * the transition into the block), so that the transitions leaving
+     * a state of the root model are found by binary search.
+     */
+    private int[] blocksByInitial;
+    private int[] initialsOfBlocks;
+
+    /**
+     * Composes {@code root} with the given models, as {@link CompactFDTMC#inline(Map)}
+     * would. Interfaces without a corresponding model are dropped, along with
+     * their transitions.
+     *
+     * @param root
+     * @param indexedModels Views of the models to be inlined, indexed by the
+     *          ids of the interfaces they replace.
+     */
+    public ComposedFDTMC(CompactFDTMC root, Map<String, ComposedFDTMC> indexedModels) {
+        this.root = root;
+        int interfaces = root.getInterfacesCount();
+        blockOffsets = new int[interfaces];
+        blockInterfaces = new int[interfaces];
+        blockModels = new ComposedFDTMC[interfaces];
+
+        int blocks = 0;
+        statesCount = root.getStatesCount();
+        for (int iface = 0; iface < interfaces; iface++) {
+            ComposedFDTMC model = indexedModels.get(root.getInterfaceId(iface));
+            if (model != null) {
+                blockOffsets[blocks] = statesCount;
+                blockInterfaces[blocks] = iface;
+                blockModels[blocks] = model;
+                statesCount += model.getStatesCount();
+                blocks++;
+            }
+        }
+        blockOffsets = Arrays.copyOf(blockOffsets, blocks);
+        blockInterfaces = Arrays.copyOf(blockInterfaces, blocks);
+        blockModels = Arrays.copyOf(blockModels, blocks);
+
+        // Sorting (initial state, block) pairs packed in longs keeps blocks
+        // with the same initial state in their original order.
+        long[] pairs = new long[blocks];
+        for (int block = 0; block < blocks; block++) {
+            pairs[block] = ((long) root.getInterfaceInitial(blockInterfaces[block]) << 32) | block;
+        }
+        Arrays.sort(pairs);
+        blocksByInitial = new int[blocks];
+        initialsOfBlocks = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            blocksByInitial[i] = (int) pairs[i];
+            initialsOfBlocks[i] = (int) (pairs[i] >>> 32);
+        }
+    }
+
+    /**
+     * Returns a view of {@code model} with nothing inlined, i.e., with
+     * the transitions of its interfaces dropped.
+     */
+    public static ComposedFDTMC of(CompactFDTMC model) {
+        return new ComposedFDTMC(model, Collections.<String, ComposedFDTMC>emptyMap());
+    }
+
+    @Override
+    public String getVariableName() {
+        return root.getVariableName();
+    }
+
+    @Override
+    public int getStatesCount() {
+        return statesCount;
+    }
+
+    @Override
+    public int getInitialState() {
+        return root.getInitialState();
+    }
+
+    @Override
+    public int getSuccessState() {
+        return root.getSuccessState();
+    }
+
+    @Override
+    public int getErrorState() {
+        return root.getErrorState();
+    }
+
+    /**
+     * Only the initial, success and error states of the root model are
+     * labeled, as in an inlined model.
+     */
+    @Override
+    public String getLabel(int state) {
+        if (state == root.getErrorState()) {
+            return FDTMC.ERROR_LABEL;
+        } else if (state == root.getSuccessState()) {
+            return FDTMC.SUCCESS_LABEL;
+        } else if (state == root.getInitialState()) {
+            return FDTMC.INITIAL_LABEL;
+        }
+        return null;
+    }
+
+    @Override
+    public void forEachTransition(int state, TransitionVisitor visitor) {
+        if (state < root.getStatesCount()) {
+            for (int t = root.getTransitionsStart(state); t < root.getTransitionsEnd(state); t++) {
+                if (!root.isInterfaceTransition(t)) {
+                    visitor.visit(root.getTarget(t), root.getProbability(t));
+                }
+            }
+            int i = firstBlockWithInitial(state);
+            while (i < initialsOfBlocks.length && initialsOfBlocks[i] == state) {
+                int block = blocksByInitial[i];
+                visitor.visit(blockOffsets[block] + blockModels[block].getInitialState(), "1");
+                i++;
+            }
+            return;
+        }
+
+        int block = blockOf(state);
+        int offset = blockOffsets[block];
+        int iface = blockInterfaces[block];
+        ComposedFDTMC model = blockModels[block];
+        int local = state - offset;
+        model.forEachTransition(local, (target, probability) -> visitor.visit(offset + target, probability));
+        if (local == model.getSuccessState()) {
+            visitor.visit(root.getInterfaceSuccess(iface), "1");
+        }
+        if (local == model.getErrorState()) {
+            visitor.visit(root.getInterfaceError(iface), "1");
+        }
+    }
+
+    private int firstBlockWithInitial(int state) {
+        int low = 0;
+        int high = initialsOfBlocks.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (initialsOfBlocks[middle] < state) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the block of states (of an inlined model) which contains
+     * the given state.
+     */
+    private int blockOf(int state) {
+        int position = Arrays.binarySearch(blockOffsets, state);
+        return (position >= 0) ? position : -position - 2;
+    }
+
+}
@@ -1,5 +1,8 @@
 package fdtmc;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -25,6 +28,10 @@ public class FDTMC {
 	private int index;
 	private Map<State, List<Transition>> transitionSystem;
 	private Map<String, List<Interface>> interfaces;
+	/**
+	 * Cached result of {@link #toCompact()}, discarded whenever this FDTMC is modified.
+	 */
+	private volatile CompactFDTMC compact;
 
 
 	public FDTMC() {
@@ -42,6 +49,7 @@ public class FDTMC {
 
 	public void setVariableName(String name) {
 		variableName = name;
+		compact = null;
 	}
 
 	public String getVariableName() {
@@ -53,6 +61,7 @@ public class FDTMC {
 	}
 
 	public State createState() {
+		compact = null;
 		State temp = new State();
 		temp.setVariableName(variableName);
 		temp.setIndex(index);
@@ -77,6 +86,7 @@ public class FDTMC {
     }
 
     private void setInitialState(State initialState) {
+        compact = null;
         if (this.initialState != null) {
             this.initialState.setLabel(null);
         }
@@ -95,6 +105,7 @@ public class FDTMC {
     }
 
     private void setSuccessState(State successState) {
+        compact = null;
         this.successState = successState;
         successState.setLabel(SUCCESS_LABEL);
     }
@@ -110,6 +121,7 @@ public class FDTMC {
     }
 
     private void setErrorState(State errorState) {
+        compact = null;
         this.errorState = errorState;
         errorState.setLabel(ERROR_LABEL);
     }
@@ -122,6 +134,7 @@ public class FDTMC {
 	    if (source == null) {
 	        return null;
 	    }
+	    compact = null;
 
 	    List<Transition> l = transitionSystem.get(source);
 		if (l == null) {
@@ -147,6 +160,7 @@ public class FDTMC {
 	 * @param error Error state of the interface.
 	 */
 	public Interface createInterface(String id, State initial, State success, State error) {
+	    compact = null;
 	    Transition successTransition = createTransition(initial, success, "", id);
 	    Transition errorTransition = createTransition(initial, error, "", "1 - " + id);
 	    Interface newInterface = new Interface(id,
@@ -251,6 +265,119 @@ public class FDTMC {
 		return transitionSystem;
 	}
 
+    /**
+     * Computes a digest of the contents of this FDTMC, i.e., its states (with
+     * their labels), transitions (with actions and probabilities) and interfaces.
+     *
+     * Contrary to {@link #hashCode()}, two FDTMCs have the same content hash
+     * if and only if (barring digest collisions) they are structurally identical,
+     * which makes it suitable for detecting changes between runs.
+     *
+     * @return a hexadecimal SHA-256 digest.
+     */
+    public String getContentHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+        updateDigest(digest, variableName);
+        for (State state: states) {
+            updateDigest(digest, state.getIndex() + ":" + state.getLabel());
+        }
+        for (Map.Entry<State, List<Transition>> entry: transitionSystem.entrySet()) {
+            if (entry.getValue() != null) {
+                for (Transition transition: entry.getValue()) {
+                    updateDigest(digest, entry.getKey().getIndex()
+                                 + "->" + transition.getTarget().getIndex()
+                                 + ":" + transition.getActionName()
+                                 + ":" + transition.getProbability());
+                }
+            }
+        }
+        for (Map.Entry<String, List<Interface>> entry: interfaces.entrySet()) {
+            for (Interface iface: entry.getValue()) {
+                updateDigest(digest, entry.getKey()
+                             + ":" + indexOf(iface.getInitial())
+                             + ":" + indexOf(iface.getSuccess())
+                             + ":" + indexOf(iface.getError()));
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b: digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Freezes this FDTMC into its array-backed form. States keep their indices
+     * and interfaces keep the order in which {@link #inline(Map)} visits them.
+     *
+     * The compact form is cached until this FDTMC is modified by one of its
+     * own methods, so that it is built once however many times the FDTMC is
+     * model-checked or derived. Relabeling its states directly (i.e., by
+     * {@link State#setLabel(String)}) is not noticed.
+     */
+    public CompactFDTMC toCompact() {
+        CompactFDTMC cached = compact;
+        if (cached == null) {
+            cached = buildCompact();
+            compact = cached;
+        }
+        return cached;
+    }
+
+    private CompactFDTMC buildCompact() {
+        CompactFDTMC.Builder builder = new CompactFDTMC.Builder(variableName);
+        for (State state: states) {
+            builder.addState(state.getLabel());
+        }
+        Set<Transition> interfaceTransitions = getInterfaceTransitions();
+        for (Map.Entry<State, List<Transition>> entry: transitionSystem.entrySet()) {
+            if (entry.getValue() != null) {
+                for (Transition transition: entry.getValue()) {
+                    builder.addTransition(entry.getKey().getIndex(),
+                                          transition.getTarget().getIndex(),
+                                          transition.getActionName(),
+                                          transition.getProbability(),
+                                          interfaceTransitions.contains(transition));
+                }
+            }
+        }
+        for (Map.Entry<String, List<Interface>> entry: interfaces.entrySet()) {
+            for (Interface iface: entry.getValue()) {
+                builder.addInterfaceStates(entry.getKey(),
+                                           iface.getInitial().getIndex(),
+                                           iface.getSuccess().getIndex(),
+                                           iface.getError().getIndex());
+            }
+        }
+        if (initialState != null) {
+            builder.setInitialState(initialState.getIndex());
+        }
+        if (successState != null) {
+            builder.setSuccessState(successState.getIndex());
+        }
+        if (errorState != null) {
+            builder.setErrorState(errorState.getIndex());
+        }
+        return builder.build();
+    }
+
+    private static String indexOf(State state) {
+        return (state != null) ? String.valueOf(state.getIndex()) : "-";
+    }
+
+    private static void updateDigest(MessageDigest digest, String element) {
+        digest.update(String.valueOf(element).getBytes(StandardCharsets.UTF_8));
+        // Separator, so that concatenations of different elements do not collide.
+        digest.update((byte) 0);
+    }
+
 	/**
 	 * Inlines the given FDTMCs whenever there is an interface corresponding
 	 * to the string in the respective index.
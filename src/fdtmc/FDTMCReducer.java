@@ -0,0 +1,409 @@
+package fdtmc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reduction of FDTMCs prior to model checking.
+ *
+ * The reduced FDTMC has the same probability of eventually reaching a success
+ * state (i.e., the same reliability) as the original one, but usually far fewer
+ * states for the model checker to eliminate. The following passes are applied:
+ *
+ * <ol>
+ * <li>success states are merged into a single absorbing one, and parallel
+ *     transitions are merged by adding up their probabilities;</li>
+ * <li>states which are unreachable from the initial state or from which
+ *     no success state is reachable are removed;</li>
+ * <li>states with a single outgoing transition (e.g., the probability-1 glue
+ *     of inlined fragments, or a message state once its error transition is
+ *     gone) are bypassed, multiplying the probabilities along the path;</li>
+ * <li>optionally, states are lumped by strong bisimulation, i.e., states with
+ *     (syntactically) the same probabilities of moving into each class of
+ *     equivalent states are merged.</li>
+ * </ol>
+ *
+ * The probability mass which is lost by removing states is redirected to
+ * a single error state, so that the result is still a DTMC.
+ */
+public class FDTMCReducer {
+
+    private boolean lumping = false;
+
+    /**
+     * Sets whether states are to be lumped by strong bisimulation after
+     * the other passes. Lumping is disabled by default, for it takes several
+     * passes over the model and only pays off for models with repeated parts.
+     */
+    public void setLumping(boolean lumping) {
+        this.lumping = lumping;
+    }
+
+    /**
+     * Reduces an FDTMC. Models without an initial state are returned as they are.
+     *
+     * @param fdtmc FDTMC to be reduced.
+     * @return an FDTMC with the same reliability as {@code fdtmc}.
+     */
+    public IFDTMCView reduce(IFDTMCView fdtmc) {
+        int initialState = fdtmc.getInitialState();
+        if (initialState < 0) {
+            return fdtmc;
+        }
+        Reduction reduction = new Reduction(fdtmc);
+        reduction.removeIrrelevantStates();
+        reduction.bypassDeterministicStates();
+        if (lumping) {
+            reduction.lump();
+        }
+        return reduction.build(fdtmc.getVariableName());
+    }
+
+    /**
+     * Returns the number of transitions of an FDTMC.
+     */
+    public static int countTransitions(IFDTMCView fdtmc) {
+        int[] count = new int[1];
+        for (int state = 0; state < fdtmc.getStatesCount(); state++) {
+            fdtmc.forEachTransition(state, (target, probability) -> count[0]++);
+        }
+        return count[0];
+    }
+
+    /**
+     * State of the reduction of a single FDTMC. States keep their
+     * original numbers until the reduced FDTMC is built.
+     */
+    private static class Reduction {
+        private int initialState;
+        private int successState = -1;
+
+        private boolean[] live;
+        /**
+         * Whether some probability mass leaving each state has been lost
+         * (i.e., it should go to the error state).
+         */
+        private boolean[] lossy;
+        private List<Map<Integer, String>> successors;
+        private List<Set<Integer>> predecessors;
+
+        Reduction(IFDTMCView fdtmc) {
+            int statesCount = fdtmc.getStatesCount();
+            initialState = fdtmc.getInitialState();
+            live = new boolean[statesCount];
+            lossy = new boolean[statesCount];
+
+            int[] canonical = new int[statesCount];
+            for (int state = 0; state < statesCount; state++) {
+                canonical[state] = state;
+                if (FDTMC.SUCCESS_LABEL.equals(fdtmc.getLabel(state))) {
+                    if (successState < 0) {
+                        successState = state;
+                    }
+                    canonical[state] = successState;
+                }
+            }
+            initialState = canonical[initialState];
+
+            successors = new ArrayList<Map<Integer, String>>(statesCount);
+            for (int state = 0; state < statesCount; state++) {
+                Map<Integer, String> targets = new LinkedHashMap<Integer, String>();
+                // The success state is absorbing, regardless of its transitions.
+                if (canonical[state] == state && state != successState) {
+                    fdtmc.forEachTransition(state, (target, rawProbability) -> {
+                        String probability = rawProbability.replaceAll("\\s+", "");
+                        if (!isZero(probability)) {
+                            targets.merge(canonical[target], probability, FDTMCReducer::add);
+                        }
+                    });
+                }
+                successors.add(targets);
+            }
+        }
+
+        /**
+         * Keeps only the states which are reachable from the initial state
+         * and from which the success state is reachable.
+         */
+        void removeIrrelevantStates() {
+            boolean[] reachable = new boolean[live.length];
+            Deque<Integer> pending = new ArrayDeque<Integer>();
+            reachable[initialState] = true;
+            pending.add(initialState);
+            while (!pending.isEmpty()) {
+                for (Integer target : successors.get(pending.poll()).keySet()) {
+                    if (!reachable[target]) {
+                        reachable[target] = true;
+                        pending.add(target);
+                    }
+                }
+            }
+
+            List<List<Integer>> reverse = new ArrayList<List<Integer>>(live.length);
+            for (int state = 0; state < live.length; state++) {
+                reverse.add(new ArrayList<Integer>(0));
+            }
+            for (int state = 0; state < live.length; state++) {
+                if (reachable[state]) {
+                    for (Integer target : successors.get(state).keySet()) {
+                        reverse.get(target).add(state);
+                    }
+                }
+            }
+            if (successState >= 0 && reachable[successState]) {
+                live[successState] = true;
+                pending.add(successState);
+            }
+            while (!pending.isEmpty()) {
+                for (Integer source : reverse.get(pending.poll())) {
+                    if (!live[source]) {
+                        live[source] = true;
+                        pending.add(source);
+                    }
+                }
+            }
+
+            predecessors = new ArrayList<Set<Integer>>(live.length);
+            for (int state = 0; state < live.length; state++) {
+                predecessors.add(live[state] ? new LinkedHashSet<Integer>() : null);
+            }
+            for (int state = 0; state < live.length; state++) {
+                if (!live[state]) {
+                    successors.set(state, null);
+                    continue;
+                }
+                Iterator<Integer> targets = successors.get(state).keySet().iterator();
+                while (targets.hasNext()) {
+                    Integer target = targets.next();
+                    if (live[target]) {
+                        predecessors.get(target).add(state);
+                    } else {
+                        targets.remove();
+                        lossy[state] = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Bypasses every state (other than the initial and the success ones)
+         * with a single transition to some other state, until there is none.
+         */
+        void bypassDeterministicStates() {
+            Deque<Integer> pending = new ArrayDeque<Integer>();
+            for (int state = 0; state < live.length; state++) {
+                if (live[state]) {
+                    pending.add(state);
+                }
+            }
+            while (!pending.isEmpty()) {
+                int state = pending.poll();
+                if (!live[state] || state == initialState || state == successState
+                        || successors.get(state).size() != 1) {
+                    continue;
+                }
+                Map.Entry<Integer, String> transition = successors.get(state).entrySet().iterator().next();
+                int target = transition.getKey();
+                if (target == state) {
+                    continue;
+                }
+                String probability = transition.getValue();
+
+                live[state] = false;
+                predecessors.get(target).remove(state);
+                for (Integer source : predecessors.get(state)) {
+                    Map<Integer, String> sourceTargets = successors.get(source);
+                    String toState = sourceTargets.remove(state);
+                    sourceTargets.merge(target, multiply(toState, probability), FDTMCReducer::add);
+                    predecessors.get(target).add(source);
+                    lossy[source] |= lossy[state];
+                    pending.add(source);
+                }
+                successors.set(state, null);
+                predecessors.set(state, null);
+            }
+        }
+
+        /**
+         * Merges states by strong bisimulation, starting from the partition
+         * which separates the success state from all others and refining it
+         * until every pair of states in the same class has the same
+         * probabilities of moving into each class.
+         */
+        void lump() {
+            if (!live[initialState]) {
+                return;
+            }
+            int[] classes = new int[live.length];
+            int classesCount = 0;
+            for (int state = 0; state < live.length; state++) {
+                if (live[state]) {
+                    classes[state] = (state == successState) ? 0 : 1;
+                }
+            }
+            Map<String, Integer> signatures;
+            while (true) {
+                signatures = new HashMap<String, Integer>();
+                int[] refined = new int[live.length];
+                for (int state = 0; state < live.length; state++) {
+                    if (live[state]) {
+                        String signature = classes[state] + (lossy[state] ? "!" : "") + probabilitiesByClass(state, classes);
+                        Integer refinedClass = signatures.get(signature);
+                        if (refinedClass == null) {
+                            refinedClass = signatures.size();
+                            signatures.put(signature, refinedClass);
+                        }
+                        refined[state] = refinedClass;
+                    }
+                }
+                classes = refined;
+                // Classes are only ever split, so the same number of classes
+                // means the partition is stable.
+                if (signatures.size() == classesCount) {
+                    break;
+                }
+                classesCount = signatures.size();
+            }
+
+            int[] representatives = new int[classesCount];
+            Arrays.fill(representatives, -1);
+            for (int state = 0; state < live.length; state++) {
+                if (live[state] && representatives[classes[state]] < 0) {
+                    representatives[classes[state]] = state;
+                }
+            }
+            for (int state = 0; state < live.length; state++) {
+                if (!live[state]) {
+                    continue;
+                }
+                if (representatives[classes[state]] != state) {
+                    live[state] = false;
+                    successors.set(state, null);
+                    continue;
+                }
+                Map<Integer, String> targets = new LinkedHashMap<Integer, String>();
+                for (Map.Entry<Integer, String> transition : successors.get(state).entrySet()) {
+                    targets.merge(representatives[classes[transition.getKey()]],
+                                  transition.getValue(),
+                                  FDTMCReducer::add);
+                }
+                successors.set(state, targets);
+            }
+            initialState = representatives[classes[initialState]];
+            predecessors = null;
+        }
+
+        /**
+         * Returns the probabilities of moving from {@code state} into each
+         * class, with the terms of each sum in a canonical order.
+         */
+        private String probabilitiesByClass(int state, int[] classes) {
+            Map<Integer, List<String>> byClass = new TreeMap<Integer, List<String>>();
+            for (Map.Entry<Integer, String> transition : successors.get(state).entrySet()) {
+                byClass.computeIfAbsent(classes[transition.getKey()], c -> new ArrayList<String>())
+                        .add(transition.getValue());
+            }
+            StringBuilder signature = new StringBuilder();
+            for (Map.Entry<Integer, List<String>> entry : byClass.entrySet()) {
+                Collections.sort(entry.getValue());
+                signature.append(";").append(entry.getKey()).append(":").append(entry.getValue());
+            }
+            return signature.toString();
+        }
+
+        CompactFDTMC build(String variableName) {
+            CompactFDTMC.Builder builder = new CompactFDTMC.Builder(variableName);
+            if (!live[initialState]) {
+                // The success state is unreachable, so everything is lost. It is
+                // still kept (isolated), so that the success label is defined.
+                int initial = builder.addState(FDTMC.INITIAL_LABEL);
+                int success = builder.addState(FDTMC.SUCCESS_LABEL);
+                int error = builder.addState(FDTMC.ERROR_LABEL);
+                builder.addTransition(initial, error, "", "1");
+                builder.setInitialState(initial)
+                    .setSuccessState(success)
+                    .setErrorState(error);
+                return builder.build();
+            }
+
+            int[] index = new int[live.length];
+            boolean needsErrorState = false;
+            for (int state = 0; state < live.length; state++) {
+                if (live[state]) {
+                    String label = null;
+                    if (state == successState) {
+                        label = FDTMC.SUCCESS_LABEL;
+                    } else if (state == initialState) {
+                        label = FDTMC.INITIAL_LABEL;
+                    }
+                    index[state] = builder.addState(label);
+                    needsErrorState |= lossy[state];
+                }
+            }
+            int errorState = needsErrorState ? builder.addState(FDTMC.ERROR_LABEL) : -1;
+
+            for (int state = 0; state < live.length; state++) {
+                if (!live[state]) {
+                    continue;
+                }
+                String total = null;
+                for (Map.Entry<Integer, String> transition : successors.get(state).entrySet()) {
+                    builder.addTransition(index[state], index[transition.getKey()], "", transition.getValue());
+                    total = (total == null) ? transition.getValue() : add(total, transition.getValue());
+                }
+                if (lossy[state]) {
+                    String remainder = (total == null) ? "1" : "1-" + parenthesize(total);
+                    builder.addTransition(index[state], errorState, "", remainder);
+                }
+            }
+            builder.setInitialState(index[initialState])
+                .setSuccessState(index[successState])
+                .setErrorState(errorState);
+            return builder.build();
+        }
+    }
+
+    private static String add(String a, String b) {
+        return a + "+" + b;
+    }
+
+    private static String multiply(String a, String b) {
+        if (isOne(a)) {
+            return b;
+        } else if (isOne(b)) {
+            return a;
+        }
+        return parenthesize(a) + "*" + parenthesize(b);
+    }
+
+    /**
+     * Wraps sums and differences, so that they can be used as operands
+     * of products and subtractions.
+     */
+    private static String parenthesize(String term) {
+        if (term.matches("[A-Za-z0-9_.*]+")) {
+            return term;
+        }
+        return "(" + term + ")";
+    }
+
+    private static boolean isOne(String probability) {
+        return probability.matches("1(\\.0*)?");
+    }
+
+    private static boolean isZero(String probability) {
+        return probability.matches("0(\\.0*)?");
+    }
+
+}
@@ -0,0 +1,43 @@
+package fdtmc;
+
+/**
+ * Read-only view of an FDTMC, with states numbered 0, 1, ...,
+ * {@link #getStatesCount()} - 1. This is all that serializers and
+ * model checkers need, so they can work on models which are not
+ * materialized (see {@link ComposedFDTMC}).
+ */
+public interface IFDTMCView {
+
+    public String getVariableName();
+
+    public int getStatesCount();
+
+    /**
+     * @return the initial state, or -1 if there is none.
+     */
+    public int getInitialState();
+
+    /**
+     * @return the success state, or -1 if there is none.
+     */
+    public int getSuccessState();
+
+    /**
+     * @return the error state, or -1 if there is none.
+     */
+    public int getErrorState();
+
+    public String getLabel(int state);
+
+    /**
+     * Visits the transitions leaving {@code state}, in the order
+     * they were created.
+     */
+    public void forEachTransition(int state, TransitionVisitor visitor);
+
+    @FunctionalInterface
+    public interface TransitionVisitor {
+        void visit(int target, String probability);
+    }
+
+}
@@ -131,6 +131,29 @@ public class ADD {
         return condition.ifThenElse(ifTrue, ifFalse);
     }
 
+    /**
+     * Existentially abstracts the given variables from this 0,1-ADD, i.e.,
+     * computes the 0,1-ADD which yields 1 for the assignments to the remaining
+     * variables which can be extended to one that this ADD maps to 1.
+     *
+     * This ADD must be a 0,1-ADD (e.g., a feature model).
+     *
+     * @param variables Variables to be abstracted. Unknown ones are ignored.
+     * @return
+     */
+    public ADD orAbstract(Collection<String> variables) {
+        Pointer<DdNode> one = BigcuddLibrary.Cudd_ReadOne(dd);
+        ADD cube = new ADD(dd, one, variableStore);
+        for (String variable: variables) {
+            if (variableStore.contains(variable)) {
+                cube = cube.times(variableStore.get(variable));
+            }
+        }
+        return new ADD(dd,
+                       BigcuddLibrary.Cudd_addOrAbstract(dd, this.function, cube.function),
+                       variableStore);
+    }
+
     public Set<String> getVariables() {
         Set<String> variables = new HashSet<String>();
 
@@ -204,6 +227,17 @@ public class ADD {
         return BigcuddLibrary.Cudd_DagSize(function);
     }
 
+    /**
+     * Returns the number of variable assignments (over all variables known
+     * to the ADD manager) for which this ADD evaluates to a non-zero value.
+     * For a 0,1-ADD encoding a feature model, this is the number of valid
+     * configurations.
+     * @return
+     */
+    public double getNonZeroMintermsCount() {
+        return BigcuddLibrary.Cudd_CountMinterm(dd, function, variableStore.getNumberOfVariables());
+    }
+
     /**
      * Returns true if this ADD is a constant one.
      * @return
@@ -47,6 +47,45 @@ public class JADD {
         }
     }
 
+    /**
+     * Returns the amount of (native) memory currently allocated by CUDD
+     * for this manager, in bytes.
+     */
+    public long getMemoryInUse() {
+        return BigcuddLibrary.Cudd_ReadMemoryInUse(dd);
+    }
+
+    /**
+     * Returns the number of nodes in the manager's unique table which are
+     * still referenced (including constants and projection functions).
+     *
+     * Like the other counters below, it only reads the manager's fields,
+     * so it may be sampled while another thread operates on the ADDs
+     * (yielding slightly stale figures).
+     */
+    public long getLiveNodeCount() {
+        return BigcuddLibrary.Cudd_ReadKeys(dd) - (long) BigcuddLibrary.Cudd_ReadDead(dd);
+    }
+
+    /**
+     * Returns the number of unreferenced nodes awaiting garbage collection.
+     */
+    public long getDeadNodeCount() {
+        return BigcuddLibrary.Cudd_ReadDead(dd);
+    }
+
+    /**
+     * Returns the fraction of computed table look-ups which were hits,
+     * or NaN if there were none.
+     */
+    public double getCacheHitRatio() {
+        double lookUps = BigcuddLibrary.Cudd_ReadCacheLookUps(dd);
+        if (lookUps == 0) {
+            return Double.NaN;
+        }
+        return BigcuddLibrary.Cudd_ReadCacheHits(dd) / lookUps;
+    }
+
     /**
     * Performs an optimal reordering of the variables for the managed ADDs
     * based on the sifting heuristic.
@@ -0,0 +1,15 @@
+package paramwrapper;
+
+import java.io.PrintStream;
+
+public interface IReductionCollector {
+
+    /**
+     * Collects the sizes of an FDTMC before and after its reduction.
+     *
+     * @param model Name of the FDTMC's state variable, which identifies its RDG node.
+     */
+    public void collectReduction(String model, int statesBefore, int transitionsBefore, int statesAfter, int transitionsAfter);
+    public void printStats(PrintStream out);
+
+}
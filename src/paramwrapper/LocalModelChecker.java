@@ -0,0 +1,240 @@
+package paramwrapper;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fdtmc.FDTMC;
+import fdtmc.IFDTMCView;
+
+/**
+ * Pure-Java parametric model checker, meant as a stand-in for PARAM
+ * where it is not available (e.g., for benchmarking the analysis strategies).
+ *
+ * The probability of eventually reaching a success state is computed by
+ * state elimination: every state other than the initial and the success
+ * ones is removed, redirecting its incoming transitions to its successors
+ * (scaled by 1/(1-p) if it has a self-loop with probability p). The resulting
+ * formula is not simplified, so it is usually longer than PARAM's, but it
+ * denotes the same rational function of the transition probabilities.
+ */
+public class LocalModelChecker implements ParametricModelChecker {
+
+    private IModelCollector modelCollector;
+
+    public LocalModelChecker() {
+        this(new NoopModelCollector());
+    }
+
+    public LocalModelChecker(IModelCollector modelCollector) {
+        this.modelCollector = modelCollector;
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        return getReliability(fdtmc.toCompact());
+    }
+
+    @Override
+    public String getReliability(IFDTMCView fdtmc) {
+        ParamModel model = new ParamModel(fdtmc);
+        modelCollector.collectModel(model.getParametersNumber(), model.getStatesNumber());
+
+        long startTime = System.nanoTime();
+        String formula = reachabilityFormula(fdtmc);
+        modelCollector.collectModelCheckingTime(System.nanoTime() - startTime);
+        return formula;
+    }
+
+    private String reachabilityFormula(IFDTMCView fdtmc) {
+        Integer initialState = fdtmc.getInitialState();
+        Set<Integer> successStates = new HashSet<Integer>();
+        for (int state = 0; state < fdtmc.getStatesCount(); state++) {
+            if (FDTMC.SUCCESS_LABEL.equals(fdtmc.getLabel(state))) {
+                successStates.add(state);
+            }
+        }
+        if (successStates.contains(initialState)) {
+            return "1";
+        }
+
+        // Success states are taken as absorbing, regardless of their transitions.
+        Map<Integer, Map<Integer, String>> successors = new LinkedHashMap<Integer, Map<Integer, String>>();
+        for (int state = 0; state < fdtmc.getStatesCount(); state++) {
+            Map<Integer, String> targets = new LinkedHashMap<Integer, String>();
+            if (!successStates.contains(state)) {
+                fdtmc.forEachTransition(state, (target, rawProbability) -> {
+                    String probability = rawProbability.replaceAll("\\s+", "");
+                    if (!isZero(probability)) {
+                        targets.merge(target, probability, LocalModelChecker::add);
+                    }
+                });
+            }
+            successors.put(state, targets);
+        }
+
+        Set<Integer> relevant = canReach(successStates, successors);
+        if (!relevant.contains(initialState)) {
+            return "0";
+        }
+        Map<Integer, Map<Integer, String>> predecessors = new LinkedHashMap<Integer, Map<Integer, String>>();
+        for (Integer state : relevant) {
+            predecessors.put(state, new LinkedHashMap<Integer, String>());
+        }
+        for (Integer source : relevant) {
+            Map<Integer, String> targets = successors.computeIfAbsent(source, s -> new LinkedHashMap<Integer, String>());
+            targets.keySet().retainAll(relevant);
+            for (Map.Entry<Integer, String> target : targets.entrySet()) {
+                predecessors.get(target.getKey()).put(source, target.getValue());
+            }
+        }
+
+        for (Integer state : eliminationOrder(initialState, successors)) {
+            if (state.equals(initialState) || successStates.contains(state)) {
+                continue;
+            }
+            eliminate(state, successors, predecessors);
+        }
+
+        Map<Integer, String> targets = successors.get(initialState);
+        String reachSuccess = null;
+        for (Integer successState : successStates) {
+            String probability = targets.get(successState);
+            if (probability != null) {
+                reachSuccess = (reachSuccess == null) ? probability : add(reachSuccess, probability);
+            }
+        }
+        String selfLoop = targets.get(initialState);
+        if (selfLoop != null) {
+            reachSuccess = multiply(reachSuccess, loopFactor(selfLoop));
+        }
+        return reachSuccess;
+    }
+
+    /**
+     * Removes {@code state}, redirecting each of its incoming transitions
+     * to each of its successors.
+     */
+    private static void eliminate(Integer state,
+                                  Map<Integer, Map<Integer, String>> successors,
+                                  Map<Integer, Map<Integer, String>> predecessors) {
+        Map<Integer, String> targets = successors.remove(state);
+        Map<Integer, String> sources = predecessors.remove(state);
+        String selfLoop = targets.remove(state);
+        sources.remove(state);
+
+        for (Map.Entry<Integer, String> source : sources.entrySet()) {
+            String toState = (selfLoop == null) ?
+                    source.getValue()
+                    : multiply(source.getValue(), loopFactor(selfLoop));
+            Map<Integer, String> sourceTargets = successors.get(source.getKey());
+            sourceTargets.remove(state);
+            for (Map.Entry<Integer, String> target : targets.entrySet()) {
+                String probability = multiply(toState, target.getValue());
+                sourceTargets.merge(target.getKey(), probability, LocalModelChecker::add);
+                predecessors.get(target.getKey()).put(source.getKey(), sourceTargets.get(target.getKey()));
+            }
+        }
+        for (Integer target : targets.keySet()) {
+            predecessors.get(target).remove(state);
+        }
+    }
+
+    /**
+     * Returns the states from which some state in {@code targets} is reachable.
+     */
+    private static Set<Integer> canReach(Set<Integer> targets, Map<Integer, Map<Integer, String>> successors) {
+        Map<Integer, Collection<Integer>> reverse = new LinkedHashMap<Integer, Collection<Integer>>();
+        for (Map.Entry<Integer, Map<Integer, String>> entry : successors.entrySet()) {
+            for (Integer target : entry.getValue().keySet()) {
+                reverse.computeIfAbsent(target, t -> new LinkedList<Integer>()).add(entry.getKey());
+            }
+        }
+        Set<Integer> reached = new HashSet<Integer>(targets);
+        List<Integer> pending = new LinkedList<Integer>(targets);
+        while (!pending.isEmpty()) {
+            Integer current = pending.remove(0);
+            for (Integer source : reverse.getOrDefault(current, new LinkedList<Integer>())) {
+                if (reached.add(source)) {
+                    pending.add(source);
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Returns the states reachable from {@code initialState} in reverse DFS
+     * post-order, so that (in the absence of cycles) every state is eliminated
+     * after its predecessors. Thus, the probability of reaching a state through
+     * alternative paths is summed up before it is eliminated, which keeps the
+     * formulas of sequences of branches and merges linear in their size
+     * (eliminating successors first would copy the rest of the model into
+     * every branch).
+     */
+    private static List<Integer> eliminationOrder(Integer initialState, Map<Integer, Map<Integer, String>> successors) {
+        List<Integer> order = new LinkedList<Integer>();
+        Set<Integer> visited = new HashSet<Integer>();
+        visited.add(initialState);
+        LinkedList<Integer> path = new LinkedList<Integer>();
+        LinkedList<Iterator<Integer>> iterators = new LinkedList<Iterator<Integer>>();
+        path.push(initialState);
+        iterators.push(successors.getOrDefault(initialState, new LinkedHashMap<Integer, String>()).keySet().iterator());
+        while (!path.isEmpty()) {
+            Iterator<Integer> next = iterators.peek();
+            if (next.hasNext()) {
+                Integer child = next.next();
+                if (visited.add(child)) {
+                    path.push(child);
+                    iterators.push(successors.getOrDefault(child, new LinkedHashMap<Integer, String>()).keySet().iterator());
+                }
+            } else {
+                order.add(0, path.pop());
+                iterators.pop();
+            }
+        }
+        return order;
+    }
+
+    private static String loopFactor(String selfLoop) {
+        return "1/(1-" + parenthesize(selfLoop) + ")";
+    }
+
+    private static String add(String a, String b) {
+        return a + "+" + b;
+    }
+
+    private static String multiply(String a, String b) {
+        if (isOne(a)) {
+            return b;
+        } else if (isOne(b)) {
+            return a;
+        }
+        return parenthesize(a) + "*" + parenthesize(b);
+    }
+
+    /**
+     * Wraps sums and differences, so that they can be used as operands
+     * of products and divisions.
+     */
+    private static String parenthesize(String term) {
+        if (term.matches("[A-Za-z0-9_.*]+")) {
+            return term;
+        }
+        return "(" + term + ")";
+    }
+
+    private static boolean isOne(String probability) {
+        return probability.matches("1(\\.0*)?");
+    }
+
+    private static boolean isZero(String probability) {
+        return probability.matches("0(\\.0*)?");
+    }
+
+}
@@ -0,0 +1,17 @@
+package paramwrapper;
+
+import java.io.PrintStream;
+
+public class NoopReductionCollector implements IReductionCollector {
+
+    @Override
+    public void collectReduction(String model, int statesBefore, int transitionsBefore, int statesAfter, int transitionsAfter) {
+        // NO-OP
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // NO-OP
+    }
+
+}
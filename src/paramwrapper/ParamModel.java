@@ -3,10 +3,10 @@ package paramwrapper;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -14,8 +14,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import fdtmc.FDTMC;
-import fdtmc.State;
-import fdtmc.Transition;
+import fdtmc.IFDTMCView;
 
 
 
@@ -34,17 +33,22 @@ class ParamModel {
 	private int stateRangeEnd;
 
 	public ParamModel(FDTMC fdtmc) {
+		this(fdtmc.toCompact());
+	}
+
+	public ParamModel(IFDTMCView fdtmc) {
 		if (fdtmc.getVariableName() != null) {
 			stateVariable = fdtmc.getVariableName();
 		}
-		initialState = fdtmc.getInitialState().getIndex();
-		commands = getCommands(fdtmc);
+		initialState = fdtmc.getInitialState();
+		Set<String> probabilities = new HashSet<String>();
+		commands = getCommands(fdtmc, probabilities);
 		labels = getLabels(fdtmc);
 		stateRangeStart = Collections.min(commands.keySet());
 		// PARAM não deixa declarar um intervalo com apenas um número.
 		stateRangeEnd = Math.max(stateRangeStart + 1,
 								 Collections.max(commands.keySet()));
-		parameters = getParameters(commands.values());
+		parameters = getParameters(probabilities);
 	}
 
     public int getParametersNumber() {
@@ -59,32 +63,33 @@ class ParamModel {
 	    return stateRangeEnd+1;
 	}
 
-	private Map<String, Set<Integer>> getLabels(FDTMC fdtmc) {
+	private Map<String, Set<Integer>> getLabels(IFDTMCView fdtmc) {
 		Map<String, Set<Integer>> labeledStates = new TreeMap<String, Set<Integer>>();
-		Collection<State> states = fdtmc.getStates();
-		for (State s : states) {
-			String label = s.getLabel();
+		for (int s = 0; s < fdtmc.getStatesCount(); s++) {
+			String label = fdtmc.getLabel(s);
 			if (label != null && !label.isEmpty()) {
 				if (!labeledStates.containsKey(label)) {
 					labeledStates.put(label, new TreeSet<Integer>());
 				}
-				labeledStates.get(label).add(s.getIndex());
+				labeledStates.get(label).add(s);
 			}
 		}
 		return labeledStates;
 	}
 
-	private Map<Integer, Command> getCommands(FDTMC fdtmc) {
+	/**
+	 * Builds a command for each state, collecting the distinct
+	 * probabilities of the transitions along the way.
+	 */
+	private Map<Integer, Command> getCommands(IFDTMCView fdtmc, Set<String> probabilities) {
 		Map<Integer, Command> tmpCommands = new TreeMap<Integer, Command>();
-		for (Entry<State, List<Transition>> entry : fdtmc.getTransitions().entrySet()) {
-		    int initState = entry.getKey().getIndex();
+		for (int initState = 0; initState < fdtmc.getStatesCount(); initState++) {
 			Command command = new Command(initState);
-			if (entry.getValue() != null) {
-			    for (Transition transition : entry.getValue()) {
-			        command.addUpdate(transition.getProbability(),
-			                          transition.getTarget().getIndex());
-			    }
-			} else {
+			fdtmc.forEachTransition(initState, (target, probability) -> {
+			    command.addUpdate(probability, target);
+			    probabilities.add(probability);
+			});
+			if (command.getUpdatesProbabilities().isEmpty()) {
 			    // Workaround: manually adding self-loops in case no
 			    // transition was specified for a given state.
 			    command.addUpdate("1", initState);
@@ -94,16 +99,19 @@ class ParamModel {
 		return tmpCommands;
 	}
 
-	private Set<String> getParameters(Collection<Command> commands) {
+	/**
+	 * Each distinct probability is scanned only once.
+	 */
+	private Set<String> getParameters(Collection<String> probabilities) {
 		Set<String> tmpParameters = new HashSet<String>();
 
-		Pattern validIdentifier = Pattern.compile("(^|\\d+-)([A-Za-z_][A-Za-z0-9_]*)");
-		for (Command command : commands) {
-			for (String probability : command.getUpdatesProbabilities()) {
-				Matcher m = validIdentifier.matcher(probability);
-				while (m.find()) {
-					tmpParameters.add(m.group(2));
-				}
+		// Identifiers may appear anywhere in products and sums (e.g., in
+		// reduced FDTMCs), but not as exponents of numbers (e.g., 1e-5).
+		Pattern validIdentifier = Pattern.compile("(?<![A-Za-z0-9_.])[A-Za-z_][A-Za-z0-9_]*");
+		for (String probability : probabilities) {
+			Matcher m = validIdentifier.matcher(probability);
+			while (m.find()) {
+				tmpParameters.add(m.group());
 			}
 		}
 		return tmpParameters;
@@ -111,38 +119,36 @@ class ParamModel {
 
 	@Override
 	public String toString() {
-		String params = "";
+		StringBuilder module = new StringBuilder("dtmc\n\n");
 		for (String parameter : parameters) {
-			params += "param double "+parameter+";\n";
+			module.append("param double ").append(parameter).append(";\n");
 		}
-		String module =
-				"dtmc\n" +
-				"\n" +
-				params +
-				"\n" +
-				"module " + moduleName + "\n" +
-				"	"+stateVariable+ " : ["+stateRangeStart+".."+stateRangeEnd+"] init "+initialState+";" +
-				"\n";
+		module.append("\n")
+			.append("module ").append(moduleName).append("\n")
+			.append("	").append(stateVariable).append(" : [").append(stateRangeStart).append("..").append(stateRangeEnd)
+			.append("] init ").append(initialState).append(";\n");
 		for (Command command : commands.values()) {
-			module += "	"+command.makeString(stateVariable) + "\n";
+			module.append("	");
+			command.appendTo(module, stateVariable);
+			module.append("\n");
 		}
-		module += "endmodule\n\n";
+		module.append("endmodule\n\n");
 		for (Map.Entry<String, Set<Integer>> entry : labels.entrySet()) {
 			String label = entry.getKey();
-			module += "label \""+label+"\" = ";
+			module.append("label \"").append(label).append("\" = ");
 
 			Set<Integer> states = entry.getValue();
 			int count = 1;
 			for (Integer state : states) {
-				module += stateVariable+"="+state;
+				module.append(stateVariable).append("=").append(state);
 				if (count < states.size()) {
-					module += " | ";
+					module.append(" | ");
 				}
 				count++;
 			}
-			module += ";\n";
+			module.append(";\n");
 		}
-		return module;
+		return module.toString();
 	}
 }
 
@@ -167,16 +173,25 @@ class Command {
 	}
 
 	public String makeString(String stateVariable) {
-		String command = "[] "+stateVariable+"="+initialState+" -> ";
+		StringBuilder command = new StringBuilder();
+		appendTo(command, stateVariable);
+		return command.toString();
+	}
+
+	public void appendTo(StringBuilder command, String stateVariable) {
+		command.append("[] ").append(stateVariable).append("=").append(initialState).append(" -> ");
+		Iterator<String> probabilities = updatesProbabilities.iterator();
+		Iterator<Integer> actions = updatesActions.iterator();
 		boolean needsPlus = false;
-		for (int i = 0; i < updatesProbabilities.size(); i++) {
+		while (probabilities.hasNext()) {
 		    if (needsPlus) {
-		        command += " + ";
+		        command.append(" + ");
 		    } else {
 		        needsPlus = true;
 		    }
-			command += "("+updatesProbabilities.get(i)+") : ("+stateVariable+"'="+updatesActions.get(i)+")";
+			command.append("(").append(probabilities.next()).append(") : (")
+				.append(stateVariable).append("'=").append(actions.next()).append(")");
 		}
-		return command+";";
+		command.append(";");
 	}
-}
\ No newline at end of file
+}
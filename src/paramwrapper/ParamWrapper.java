@@ -14,6 +14,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import fdtmc.FDTMC;
+import fdtmc.IFDTMCView;
 
 /**
  * Façade to a PARAM executable.
@@ -46,6 +47,11 @@ public class ParamWrapper implements ParametricModelChecker {
 
 	@Override
 	public String getReliability(FDTMC fdtmc) {
+	    return getReliability(fdtmc.toCompact());
+	}
+
+	@Override
+	public String getReliability(IFDTMCView fdtmc) {
 	    ParamModel model = new ParamModel(fdtmc);
         modelCollector.collectModel(model.getParametersNumber(), model.getStatesNumber());
 		String modelString = model.toString();
@@ -4,6 +4,7 @@
 package paramwrapper;
 
 import fdtmc.FDTMC;
+import fdtmc.IFDTMCView;
 
 /**
  * Interface to a parametric model checker.
@@ -21,4 +22,13 @@ public interface ParametricModelChecker {
 	 * @return Formula parameterized on the transition probabilities.
 	 */
 	public String getReliability(FDTMC fdtmc);
+
+	/**
+	 * Same as {@link #getReliability(FDTMC)}, but for an FDTMC which
+	 * may not be materialized (e.g., a composition of FDTMCs).
+	 *
+	 * @param fdtmc View of the FDTMC to be evaluated.
+	 * @return Formula parameterized on the transition probabilities.
+	 */
+	public String getReliability(IFDTMCView fdtmc);
 }
@@ -0,0 +1,47 @@
+package paramwrapper;
+
+import fdtmc.FDTMC;
+import fdtmc.FDTMCReducer;
+import fdtmc.IFDTMCView;
+
+/**
+ * Decorator which reduces FDTMCs (see {@link FDTMCReducer}) before
+ * handing them to another parametric model checker.
+ */
+public class ReducingModelChecker implements ParametricModelChecker {
+
+    private ParametricModelChecker modelChecker;
+    private FDTMCReducer reducer;
+    private IReductionCollector reductionCollector;
+
+    public ReducingModelChecker(ParametricModelChecker modelChecker, FDTMCReducer reducer) {
+        this(modelChecker, reducer, new NoopReductionCollector());
+    }
+
+    public ReducingModelChecker(ParametricModelChecker modelChecker, FDTMCReducer reducer, IReductionCollector reductionCollector) {
+        this.modelChecker = modelChecker;
+        this.reducer = reducer;
+        this.reductionCollector = reductionCollector;
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        return getReliability(fdtmc.toCompact());
+    }
+
+    @Override
+    public String getReliability(IFDTMCView fdtmc) {
+        IFDTMCView reduced = reducer.reduce(fdtmc);
+        // Counting transitions takes a pass over each model, which is
+        // only worth it if the numbers are collected.
+        if (!(reductionCollector instanceof NoopReductionCollector)) {
+            reductionCollector.collectReduction(fdtmc.getVariableName(),
+                                                fdtmc.getStatesCount(),
+                                                FDTMCReducer.countTransitions(fdtmc),
+                                                reduced.getStatesCount(),
+                                                FDTMCReducer.countTransitions(reduced));
+        }
+        return modelChecker.getReliability(reduced);
+    }
+
+}
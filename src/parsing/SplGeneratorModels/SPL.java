@@ -194,6 +194,11 @@ public class SPL implements Cloneable{
 			String splName = nSplName.getNodeValue();
 			instance = new SPL(splName);
 
+			// Elements are registered by name, so the ones of previously
+			// parsed SPLs must not leak into this one.
+			SequenceDiagramElement.reset();
+			SequenceDiagram.reset();
+
 			// Call the parser of sequence diagrams elements initially, so it
 			// allows to create in memory all the objects representing the SPL's
 			// sequence diagrams.
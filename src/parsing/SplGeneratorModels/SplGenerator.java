@@ -0,0 +1,559 @@
+package parsing.SplGeneratorModels;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Seeded generator of synthetic SPLs, written in the same formats as the
+ * bundled generated series: a feature model in CNF (cnf_N.txt) and in
+ * FeatureIDE's XML format (fm_N.xml), along with a behavioral model
+ * (model_N_behavioral_model.xml) which can be read by
+ * {@link SplGeneratorModelingAPI}.
+ *
+ * As in the bundled series, the behavioral model mirrors the feature tree:
+ * each feature is realized by a sequence diagram guarded by it, which is
+ * reached by means of an optional fragment of its parent feature's sequence
+ * diagram. Thus, the depth and fan-out of the feature tree are also those
+ * of the resulting RDG.
+ *
+ * The same seed and parameters always yield the same SPL of a given size.
+ */
+public class SplGenerator {
+
+	private static final String CLAUSE_SEPARATOR = "  &&  ";
+	private static final String LITERAL_SEPARATOR = "  ||  ";
+
+	private long seed = 0;
+	private int maxDepth = 4;
+	private int maxFanOut = 8;
+	private double mandatoryRatio = 0.2;
+	private double orGroupRatio = 0.15;
+	private double alternativeGroupRatio = 0.1;
+	private double constraintsRatio = 0.1;
+	private int minMessages = 5;
+	private int maxMessages = 15;
+	private int lifelines = 6;
+	private double minReliability = 0.99;
+
+	/**
+	 * Relation between a feature and its parent.
+	 */
+	private enum Relation {
+		ROOT, MANDATORY, OPTIONAL, GROUP_MEMBER
+	}
+
+	/**
+	 * How the children of a feature are decomposed.
+	 */
+	private enum Decomposition {
+		AND, OR, ALTERNATIVE
+	}
+
+	private static class FeatureNode {
+		int index;
+		String name;
+		FeatureNode parent;
+		Relation relation;
+		Decomposition decomposition = Decomposition.AND;
+		int depth;
+		List<FeatureNode> children = new ArrayList<FeatureNode>();
+
+		boolean isAncestorOf(FeatureNode other) {
+			for (FeatureNode node = other.parent; node != null; node = node.parent) {
+				if (node == this) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * A requires (A => B) or excludes (A => !B) cross-tree constraint.
+	 */
+	private static class Constraint {
+		FeatureNode antecedent;
+		FeatureNode consequent;
+		boolean excludes;
+	}
+
+	/**
+	 * Generates an SPL with the given number of features and writes its
+	 * cnf_N.txt, fm_N.xml and model_N_behavioral_model.xml files to
+	 * {@code directory}.
+	 *
+	 * @param features
+	 *            number of features (N), including the root.
+	 * @param directory
+	 *            the directory in which the files are written.
+	 * @throws IllegalArgumentException
+	 *             if the maximum depth and fan-out do not allow for this
+	 *             many features.
+	 */
+	public void writeSpl(int features, Path directory) throws IOException {
+		// Each size gets its own stream of random numbers, so that the SPL of a
+		// given size does not depend on which other sizes were generated.
+		Random random = new Random(seed * 31 + features);
+		List<FeatureNode> featureTree = generateFeatureTree(features, random);
+		List<Constraint> constraints = generateConstraints(featureTree, random);
+
+		Files.write(directory.resolve("cnf_" + features + ".txt"),
+				toCnf(featureTree, constraints).getBytes(StandardCharsets.UTF_8));
+		try {
+			writeXml(toFeatureIdeXml(featureTree, constraints),
+					directory.resolve("fm_" + features + ".xml").toFile());
+			writeXml(toBehavioralModel("model_" + features, featureTree, random),
+					directory.resolve("model_" + features + "_behavioral_model.xml").toFile());
+		} catch (ParserConfigurationException | TransformerException e) {
+			throw new IOException("Error writing the generated models", e);
+		}
+	}
+
+	/**
+	 * Grows a random feature tree, whose first branch is taken down to the
+	 * maximum depth (so that the RDG has the requested height). Features are
+	 * returned in depth-first order.
+	 */
+	private List<FeatureNode> generateFeatureTree(int features, Random random) {
+		if (features < 1 || maxDepth < 1 || maxFanOut < 1) {
+			throw new IllegalArgumentException("The number of features, maximum depth and fan-out must be positive");
+		}
+		List<FeatureNode> all = new ArrayList<FeatureNode>(features);
+		// Features which may still get children.
+		List<FeatureNode> open = new ArrayList<FeatureNode>();
+
+		FeatureNode root = new FeatureNode();
+		root.relation = Relation.ROOT;
+		all.add(root);
+		open.add(root);
+
+		FeatureNode spine = root;
+		while (all.size() < features && spine.depth < maxDepth) {
+			spine = addChild(spine, all, open, random);
+		}
+		while (all.size() < features) {
+			if (open.isEmpty()) {
+				throw new IllegalArgumentException("A feature tree of depth " + maxDepth
+						+ " and fan-out " + maxFanOut + " cannot have " + features + " features");
+			}
+			addChild(open.get(random.nextInt(open.size())), all, open, random);
+		}
+
+		for (FeatureNode feature : all) {
+			// A group with a single member just makes it mandatory.
+			if (feature.decomposition != Decomposition.AND && feature.children.size() < 2) {
+				feature.decomposition = Decomposition.AND;
+				for (FeatureNode child : feature.children) {
+					child.relation = Relation.MANDATORY;
+				}
+			}
+		}
+		// Features are numbered in depth-first order, which is also the order in
+		// which their variables first appear in the CNF. Siblings and subtrees
+		// thus get nearby variables, which keeps the feature model's ADD small.
+		List<FeatureNode> preorder = new ArrayList<FeatureNode>(features);
+		LinkedList<FeatureNode> pending = new LinkedList<FeatureNode>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			FeatureNode feature = pending.pop();
+			feature.index = preorder.size();
+			feature.name = nameOf(feature);
+			preorder.add(feature);
+			for (int i = feature.children.size() - 1; i >= 0; i--) {
+				pending.push(feature.children.get(i));
+			}
+		}
+		return preorder;
+	}
+
+	private FeatureNode addChild(FeatureNode parent, List<FeatureNode> all, List<FeatureNode> open, Random random) {
+		FeatureNode child = new FeatureNode();
+		child.parent = parent;
+		child.depth = parent.depth + 1;
+		if (parent.decomposition == Decomposition.AND) {
+			child.relation = (random.nextDouble() < mandatoryRatio) ? Relation.MANDATORY : Relation.OPTIONAL;
+		} else {
+			child.relation = Relation.GROUP_MEMBER;
+		}
+		double decomposition = random.nextDouble();
+		if (decomposition < orGroupRatio) {
+			child.decomposition = Decomposition.OR;
+		} else if (decomposition < orGroupRatio + alternativeGroupRatio) {
+			child.decomposition = Decomposition.ALTERNATIVE;
+		}
+
+		parent.children.add(child);
+		all.add(child);
+		if (parent.children.size() >= maxFanOut) {
+			open.remove(parent);
+		}
+		if (child.depth < maxDepth) {
+			open.add(child);
+		}
+		return child;
+	}
+
+	private static String nameOf(FeatureNode feature) {
+		switch (feature.relation) {
+		case ROOT:
+			return "R";
+		case MANDATORY:
+			return "m_" + feature.index;
+		case OPTIONAL:
+			return "o_" + feature.index;
+		default:
+			return "g_" + feature.index;
+		}
+	}
+
+	/**
+	 * Draws cross-tree constraints between optional features which are not
+	 * ancestors of one another. Since leaving out every optional feature
+	 * satisfies all of them, the feature model remains satisfiable.
+	 */
+	private List<Constraint> generateConstraints(List<FeatureNode> featureTree, Random random) {
+		List<FeatureNode> optional = new ArrayList<FeatureNode>();
+		for (FeatureNode feature : featureTree) {
+			if (feature.relation == Relation.OPTIONAL) {
+				optional.add(feature);
+			}
+		}
+		List<Constraint> constraints = new LinkedList<Constraint>();
+		int wanted = (int) Math.round(constraintsRatio * featureTree.size());
+		if (optional.size() < 2) {
+			return constraints;
+		}
+		Set<String> constrainedPairs = new HashSet<String>();
+		for (int attempt = 0; constraints.size() < wanted && attempt < 10 * wanted; attempt++) {
+			FeatureNode a = optional.get(random.nextInt(optional.size()));
+			FeatureNode b = optional.get(random.nextInt(optional.size()));
+			if (a == b || a.isAncestorOf(b) || b.isAncestorOf(a)
+					|| !constrainedPairs.add(a.name + " " + b.name)) {
+				continue;
+			}
+			Constraint constraint = new Constraint();
+			constraint.antecedent = a;
+			constraint.consequent = b;
+			constraint.excludes = random.nextBoolean();
+			constraints.add(constraint);
+		}
+		return constraints;
+	}
+
+	private static String toCnf(List<FeatureNode> featureTree, List<Constraint> constraints) {
+		List<String> clauses = new LinkedList<String>();
+		for (FeatureNode feature : featureTree) {
+			if (feature.relation == Relation.ROOT) {
+				clauses.add(feature.name);
+				continue;
+			}
+			clauses.add(clause("!" + feature.name, feature.parent.name));
+			if (feature.relation == Relation.MANDATORY) {
+				clauses.add(clause("!" + feature.parent.name, feature.name));
+			}
+		}
+		for (FeatureNode feature : featureTree) {
+			if (feature.decomposition == Decomposition.AND) {
+				continue;
+			}
+			List<String> literals = new LinkedList<String>();
+			literals.add("!" + feature.name);
+			for (FeatureNode child : feature.children) {
+				literals.add(child.name);
+			}
+			clauses.add(clause(literals.toArray(new String[literals.size()])));
+			if (feature.decomposition == Decomposition.ALTERNATIVE) {
+				for (int i = 0; i < feature.children.size(); i++) {
+					for (int j = i + 1; j < feature.children.size(); j++) {
+						clauses.add(clause("!" + feature.children.get(i).name,
+								"!" + feature.children.get(j).name));
+					}
+				}
+			}
+		}
+		for (Constraint constraint : constraints) {
+			clauses.add(clause("!" + constraint.antecedent.name,
+					(constraint.excludes ? "!" : "") + constraint.consequent.name));
+		}
+		return String.join(CLAUSE_SEPARATOR, clauses);
+	}
+
+	private static String clause(String... literals) {
+		return "(" + String.join(LITERAL_SEPARATOR, literals) + ")";
+	}
+
+	private static Document toFeatureIdeXml(List<FeatureNode> featureTree, List<Constraint> constraints) throws ParserConfigurationException {
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element featureModel = doc.createElement("featureModel");
+		featureModel.setAttribute("chosenLayoutAlgorithm", "1");
+		doc.appendChild(featureModel);
+
+		Element struct = doc.createElement("struct");
+		struct.appendChild(toFeatureIdeXml(doc, featureTree.get(0)));
+		featureModel.appendChild(struct);
+
+		Element rules = doc.createElement("constraints");
+		for (Constraint constraint : constraints) {
+			Element rule = doc.createElement("rule");
+			Element implication = doc.createElement("imp");
+			implication.appendChild(variable(doc, constraint.antecedent.name));
+			Element consequent = variable(doc, constraint.consequent.name);
+			if (constraint.excludes) {
+				Element negation = doc.createElement("not");
+				negation.appendChild(consequent);
+				consequent = negation;
+			}
+			implication.appendChild(consequent);
+			rule.appendChild(implication);
+			rules.appendChild(rule);
+		}
+		featureModel.appendChild(rules);
+		return doc;
+	}
+
+	private static Element toFeatureIdeXml(Document doc, FeatureNode feature) {
+		String tag;
+		if (feature.children.isEmpty()) {
+			tag = "feature";
+		} else if (feature.decomposition == Decomposition.OR) {
+			tag = "or";
+		} else if (feature.decomposition == Decomposition.ALTERNATIVE) {
+			tag = "alt";
+		} else {
+			tag = "and";
+		}
+		Element element = doc.createElement(tag);
+		if (feature.relation == Relation.ROOT || feature.relation == Relation.MANDATORY) {
+			element.setAttribute("mandatory", "true");
+		}
+		element.setAttribute("name", feature.name);
+		for (FeatureNode child : feature.children) {
+			element.appendChild(toFeatureIdeXml(doc, child));
+		}
+		return element;
+	}
+
+	private static Element variable(Document doc, String name) {
+		Element variable = doc.createElement("var");
+		variable.setTextContent(name);
+		return variable;
+	}
+
+	/**
+	 * Creates the behavioral model: an activity diagram with a single
+	 * activity, realized by the root feature's sequence diagram.
+	 */
+	private Document toBehavioralModel(String name, List<FeatureNode> featureTree, Random random) throws ParserConfigurationException {
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element model = doc.createElement("SplBehavioralModel");
+		model.setAttribute("name", name);
+		doc.appendChild(model);
+
+		Element activityDiagram = doc.createElement("ActivityDiagram");
+		activityDiagram.setAttribute("name", "AD_SPL_0");
+		Element elements = doc.createElement("Elements");
+		elements.appendChild(activityDiagramElement(doc, "Start node", "StartNode"));
+		Element activity = activityDiagramElement(doc, "Activity_0", "Activity");
+		activity.appendChild(representedBy(doc, sequenceDiagramName(featureTree.get(0))));
+		elements.appendChild(activity);
+		elements.appendChild(activityDiagramElement(doc, "End node", "EndNode"));
+		activityDiagram.appendChild(elements);
+		Element transitions = doc.createElement("Transitions");
+		transitions.appendChild(transition(doc, "Trans_0", "Start node", "Activity_0"));
+		transitions.appendChild(transition(doc, "Trans_1", "Activity_0", "End node"));
+		activityDiagram.appendChild(transitions);
+		model.appendChild(activityDiagram);
+
+		Element sequenceDiagrams = doc.createElement("SequenceDiagrams");
+		int messageCount = 0;
+		for (FeatureNode feature : featureTree) {
+			Element sequenceDiagram = doc.createElement("SequenceDiagram");
+			sequenceDiagram.setAttribute("guard", feature.name);
+			sequenceDiagram.setAttribute("name", sequenceDiagramName(feature));
+
+			List<Element> contents = new ArrayList<Element>();
+			int messages = minMessages + random.nextInt(maxMessages - minMessages + 1);
+			for (int i = 0; i < messages; i++) {
+				contents.add(message(doc, "T" + messageCount++, random));
+			}
+			// Fragments are interleaved with the messages at random.
+			for (FeatureNode child : feature.children) {
+				contents.add(random.nextInt(contents.size() + 1), fragment(doc, child));
+			}
+			for (Element content : contents) {
+				sequenceDiagram.appendChild(content);
+			}
+			sequenceDiagrams.appendChild(sequenceDiagram);
+		}
+
+		Element lifelineElements = doc.createElement("Lifelines");
+		for (int i = 0; i < lifelines; i++) {
+			Element lifeline = doc.createElement("Lifeline");
+			lifeline.setAttribute("name", "Lifeline" + i);
+			lifeline.setAttribute("reliability", probability(random));
+			lifelineElements.appendChild(lifeline);
+		}
+		sequenceDiagrams.appendChild(lifelineElements);
+
+		Element fragments = doc.createElement("Fragments");
+		for (FeatureNode feature : featureTree) {
+			if (feature.parent != null) {
+				fragments.appendChild(fragment(doc, feature));
+			}
+		}
+		sequenceDiagrams.appendChild(fragments);
+		model.appendChild(sequenceDiagrams);
+		return doc;
+	}
+
+	private static String sequenceDiagramName(FeatureNode feature) {
+		return "SD_" + (feature.index + 1);
+	}
+
+	private static Element activityDiagramElement(Document doc, String name, String type) {
+		Element element = doc.createElement("ActivityDiagramElement");
+		element.setAttribute("name", name);
+		element.setAttribute("type", type);
+		return element;
+	}
+
+	private static Element representedBy(Document doc, String sequenceDiagramName) {
+		Element representedBy = doc.createElement("RepresentedBy");
+		representedBy.setAttribute("seqDiagName", sequenceDiagramName);
+		return representedBy;
+	}
+
+	private static Element transition(Document doc, String name, String source, String target) {
+		Element transition = doc.createElement("Transition");
+		transition.setAttribute("name", name);
+		transition.setAttribute("probability", "1.0");
+		transition.setAttribute("source", source);
+		transition.setAttribute("target", target);
+		return transition;
+	}
+
+	private Element message(Document doc, String name, Random random) {
+		Element message = doc.createElement("Message");
+		message.setAttribute("name", name);
+		message.setAttribute("probability", probability(random));
+		message.setAttribute("source", "Lifeline" + random.nextInt(lifelines));
+		message.setAttribute("target", "Lifeline" + random.nextInt(lifelines));
+		message.setAttribute("type", "synchronous");
+		return message;
+	}
+
+	/**
+	 * The optional fragment through which a feature's sequence diagram
+	 * is reached from its parent's.
+	 */
+	private static Element fragment(Document doc, FeatureNode feature) {
+		Element fragment = doc.createElement("Fragment");
+		fragment.setAttribute("name", "Fragment_" + feature.index);
+		fragment.setAttribute("type", "optional");
+		fragment.appendChild(representedBy(doc, sequenceDiagramName(feature)));
+		return fragment;
+	}
+
+	/**
+	 * Draws a probability between the minimum reliability and 1, with the
+	 * 4 decimal places kept by the transformation into FDTMCs.
+	 */
+	private String probability(Random random) {
+		double probability = minReliability + random.nextDouble() * (1 - minReliability);
+		return String.format(Locale.ROOT, "%.4f", probability);
+	}
+
+	private static void writeXml(Document doc, File file) throws TransformerException {
+		Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+		transformer.transform(new DOMSource(doc), new StreamResult(file));
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the depth of the feature tree (and, thus, the height of the RDG
+	 * minus one, since the activity diagram adds a root node).
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Sets the maximum number of children of a feature (and, thus, of
+	 * dependencies of an RDG node).
+	 */
+	public void setMaxFanOut(int maxFanOut) {
+		this.maxFanOut = maxFanOut;
+	}
+
+	/**
+	 * Sets the probability of a feature which is not a group member
+	 * being mandatory (instead of optional).
+	 */
+	public void setMandatoryRatio(double mandatoryRatio) {
+		this.mandatoryRatio = mandatoryRatio;
+	}
+
+	/**
+	 * Sets the probabilities of a feature's children forming an or-group
+	 * and an alternative group, respectively.
+	 */
+	public void setGroupRatios(double orGroupRatio, double alternativeGroupRatio) {
+		this.orGroupRatio = orGroupRatio;
+		this.alternativeGroupRatio = alternativeGroupRatio;
+	}
+
+	/**
+	 * Sets the number of cross-tree constraints, as a fraction of the
+	 * number of features.
+	 */
+	public void setConstraintsRatio(double constraintsRatio) {
+		this.constraintsRatio = constraintsRatio;
+	}
+
+	/**
+	 * Sets the range of the number of messages in each sequence diagram,
+	 * among which its optional fragments are interleaved.
+	 */
+	public void setMessages(int minMessages, int maxMessages) {
+		this.minMessages = minMessages;
+		this.maxMessages = maxMessages;
+	}
+
+	public void setLifelines(int lifelines) {
+		this.lifelines = lifelines;
+	}
+
+	/**
+	 * Sets the lower bound of the messages' (and lifelines') reliabilities.
+	 */
+	public void setMinReliability(double minReliability) {
+		this.minReliability = minReliability;
+	}
+
+}
@@ -8,24 +8,40 @@ import jadd.JADD;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import paramwrapper.IModelCollector;
 import paramwrapper.ParamWrapper;
 import paramwrapper.ParametricModelChecker;
+import tool.analyzers.AnalysisMetrics;
+import tool.analyzers.AnalysisStrategy;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.StrategyCostModel;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.analyzers.strategies.FamilyBasedAnalyzer;
 import tool.analyzers.strategies.FamilyProductBasedAnalyzer;
 import tool.analyzers.strategies.FeatureFamilyBasedAnalyzer;
+import tool.analyzers.strategies.FeatureFamilyFactorizedAnalyzer;
 import tool.analyzers.strategies.FeatureFamilyProductBasedAnalyzer;
 import tool.analyzers.strategies.FeatureProductBasedAnalyzer;
 import tool.analyzers.strategies.ProductBasedAnalyzer;
 import tool.stats.IFormulaCollector;
+import tool.stats.IMemoryCollector;
+import tool.stats.IProgressCollector;
+import tool.stats.ISpan;
+import tool.stats.IStrategySelectionCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
 import tool.stats.NoopFormulaCollector;
+import tool.stats.NoopStrategySelectionCollector;
 import tool.stats.NoopTimeCollector;
+import tool.stats.NoopTracer;
 import expressionsolver.ExpressionSolver;
 
 /**
@@ -37,6 +53,7 @@ import expressionsolver.ExpressionSolver;
  * @author thiago
  */
 public class Analyzer {
+    private static final Logger LOGGER = Logger.getLogger(Analyzer.class.getName());
 
     private ADD featureModel;
     private ParametricModelChecker modelChecker;
@@ -44,9 +61,14 @@ public class Analyzer {
     private JADD jadd;
 
     private ConcurrencyStrategy concurrencyStrategy = ConcurrencyStrategy.PARALLEL;
+    private DeadComponentPruner deadComponentPruner;
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
+    private IStrategySelectionCollector strategySelectionCollector;
+    private ITracer tracer = new NoopTracer();
+
+    private StrategyCostModel costModel = new StrategyCostModel();
 
     FeatureFamilyBasedAnalyzer featureFamilyBasedAnalyzerImpl;
     FeatureProductBasedAnalyzer featureProductBasedAnalyzerImpl;
@@ -54,6 +76,7 @@ public class Analyzer {
     FamilyBasedAnalyzer familyBasedAnalyzerImpl;
     FamilyProductBasedAnalyzer familyProductBasedAnalyzerImpl;
     FeatureFamilyProductBasedAnalyzer featureFamilyProductBasedAnalyzerImpl;
+    FeatureFamilyFactorizedAnalyzer featureFamilyFactorizedAnalyzerImpl;
 
     /**
      * Creates an Analyzer which will follow the logical rules
@@ -64,7 +87,24 @@ public class Analyzer {
      * @throws IOException if there is a problem reading the file.
      */
     public Analyzer(String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector) {
-        this(new JADD(), featureModel, paramPath, timeCollector, formulaCollector, modelCollector);
+        this(new JADD(), featureModel, makeModelChecker(paramPath, modelCollector), timeCollector, formulaCollector, null);
+    }
+
+    /**
+     * Creates an Analyzer which will follow the logical rules
+     * encoded in the provided feature model file and which reports
+     * automatic strategy choices to {@code strategySelectionCollector}.
+     */
+    public Analyzer(String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector, IStrategySelectionCollector strategySelectionCollector) {
+        this(new JADD(), featureModel, makeModelChecker(paramPath, modelCollector), timeCollector, formulaCollector, strategySelectionCollector);
+    }
+
+    /**
+     * Creates an Analyzer which delegates model checking to {@code modelChecker}
+     * instead of a PARAM executable (e.g., to a {@link paramwrapper.LocalModelChecker}).
+     */
+    public Analyzer(String featureModel, ParametricModelChecker modelChecker, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IStrategySelectionCollector strategySelectionCollector) {
+        this(new JADD(), featureModel, modelChecker, timeCollector, formulaCollector, strategySelectionCollector);
     }
 
     /**
@@ -74,7 +114,7 @@ public class Analyzer {
      * @param featureModel
      */
     Analyzer(JADD jadd, String featureModel, String paramPath) {
-        this(jadd, featureModel, paramPath, null, null, null);
+        this(jadd, featureModel, makeModelChecker(paramPath, null), null, null, null);
     }
 
 
@@ -83,7 +123,7 @@ public class Analyzer {
      * @param jadd
      * @param featureModel
      */
-    private Analyzer(JADD jadd, String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector) {
+    private Analyzer(JADD jadd, String featureModel, ParametricModelChecker modelChecker, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IStrategySelectionCollector strategySelectionCollector) {
         this.jadd = jadd;
         this.expressionSolver = new ExpressionSolver(jadd);
         this.featureModel = expressionSolver.encodeFormula(featureModel);
@@ -93,7 +133,8 @@ public class Analyzer {
 
         this.timeCollector = (timeCollector != null) ? timeCollector : new NoopTimeCollector();
         this.formulaCollector = (formulaCollector != null) ? formulaCollector : new NoopFormulaCollector();
-        this.modelChecker = (modelCollector != null) ? new ParamWrapper(paramPath, modelCollector) : new ParamWrapper(paramPath);
+        this.strategySelectionCollector = (strategySelectionCollector != null) ? strategySelectionCollector : new NoopStrategySelectionCollector();
+        this.modelChecker = modelChecker;
 
         this.featureFamilyBasedAnalyzerImpl = new FeatureFamilyBasedAnalyzer(this.jadd,
                                                                              this.featureModel,
@@ -114,9 +155,25 @@ public class Analyzer {
                                                                this.timeCollector,
                                                                this.formulaCollector);
         this.familyProductBasedAnalyzerImpl = new FamilyProductBasedAnalyzer(this.jadd,
+                                                                             this.featureModel,
                                                                              this.modelChecker,
                                                                              this.timeCollector,
                                                                              this.formulaCollector);
+        this.featureFamilyProductBasedAnalyzerImpl = new FeatureFamilyProductBasedAnalyzer(this.jadd,
+                                                                                           this.modelChecker,
+                                                                                           this.timeCollector,
+                                                                                           this.formulaCollector);
+        this.featureFamilyFactorizedAnalyzerImpl = new FeatureFamilyFactorizedAnalyzer(this.jadd,
+                                                                                       this.featureModel,
+                                                                                       featureModel,
+                                                                                       this.modelChecker,
+                                                                                       this.timeCollector,
+                                                                                       this.formulaCollector);
+        setDeadComponentElimination(true);
+    }
+
+    private static ParametricModelChecker makeModelChecker(String paramPath, IModelCollector modelCollector) {
+        return (modelCollector != null) ? new ParamWrapper(paramPath, modelCollector) : new ParamWrapper(paramPath);
     }
 
     /**
@@ -127,6 +184,15 @@ public class Analyzer {
         return featureModel.getExpandedConfigurations();
     }
 
+    /**
+     * Returns the number of valid configurations according to the feature model,
+     * without enumerating them.
+     * @return
+     */
+    public long countValidConfigurations() {
+        return (long) featureModel.getNonZeroMintermsCount();
+    }
+
     /**
      * Returns true if and only if {@code configuration} is valid according
      * to the feature model.
@@ -149,12 +215,147 @@ public class Analyzer {
      */
     public void setPruningStrategy(IPruningStrategy pruningStrategy) {
         this.featureFamilyBasedAnalyzerImpl.setPruningStrategy(pruningStrategy);
+        this.featureFamilyFactorizedAnalyzerImpl.setPruningStrategy(pruningStrategy);
+    }
+
+    /**
+     * Sets the maximum number of ADD nodes kept for any single RDG node
+     * during feature-family-based analyses. RDG nodes whose reliability
+     * functions would not fit are evaluated per (relevant) configuration instead.
+     *
+     * If none (or 0) is set, there is no limit.
+     *
+     * @param addNodeBudget
+     */
+    public void setAddNodeBudget(int addNodeBudget) {
+        this.featureFamilyBasedAnalyzerImpl.setAddNodeBudget(addNodeBudget);
+    }
+
+    /**
+     * Sets whether RDG nodes whose presence conditions are unsatisfiable
+     * under the feature model (and the nodes which are only reachable through
+     * them) are left out of the analysis. This does not change any results.
+     *
+     * It is enabled by default.
+     *
+     * @param enabled
+     */
+    public void setDeadComponentElimination(boolean enabled) {
+        this.deadComponentPruner = enabled ? new DeadComponentPruner(featureModel, expressionSolver)
+                                           : DeadComponentPruner.disabled();
+    }
+
+    /**
+     * Sets the sink to which product-wise strategies (i.e., product-based,
+     * feature-product-based, family-product-based and feature-family-product-based)
+     * report the reliability of each configuration as soon as it is computed.
+     * The other strategies compute whole reliability functions, which are only
+     * available through the returned {@link IReliabilityAnalysisResults}.
+     *
+     * Product-wise strategies take the configurations they are given as valid.
+     * Results reported to the sink are not kept in the returned
+     * {@link IReliabilityAnalysisResults}, so that memory usage does not
+     * grow with the number of configurations.
+     *
+     * If none is set, results are not reported as they are computed.
+     *
+     * @param resultSink
+     */
+    public void setResultSink(IReliabilityResultSink resultSink) {
+        this.featureProductBasedAnalyzerImpl.setResultSink(resultSink);
+        this.productBasedAnalyzerImpl.setResultSink(resultSink);
+        this.familyProductBasedAnalyzerImpl.setResultSink(resultSink);
+        this.featureFamilyProductBasedAnalyzerImpl.setResultSink(resultSink);
+    }
+
+    /**
+     * Sets the tracer to which the analyses report spans for each of their
+     * steps (e.g., for each RDG node and each model checker call).
+     *
+     * If none is set, analyses are not traced.
+     *
+     * @param tracer
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.featureFamilyBasedAnalyzerImpl.setTracer(tracer);
+        this.featureProductBasedAnalyzerImpl.setTracer(tracer);
+        this.productBasedAnalyzerImpl.setTracer(tracer);
+        this.familyBasedAnalyzerImpl.setTracer(tracer);
+        this.familyProductBasedAnalyzerImpl.setTracer(tracer);
+        this.featureFamilyProductBasedAnalyzerImpl.setTracer(tracer);
+        this.featureFamilyFactorizedAnalyzerImpl.setTracer(tracer);
+    }
+
+    /**
+     * Lets the memory collector account for the native memory used by
+     * the ADDs of the analyses.
+     *
+     * @param memoryCollector
+     */
+    public void setMemoryCollector(IMemoryCollector memoryCollector) {
+        memoryCollector.watch(jadd);
+    }
+
+    /**
+     * Sets the collector to which product-wise analyses report the time
+     * taken to evaluate each configuration.
+     *
+     * @param progressCollector
+     */
+    public void setProgressCollector(IProgressCollector progressCollector) {
+        this.featureProductBasedAnalyzerImpl.setProgressCollector(progressCollector);
+        this.productBasedAnalyzerImpl.setProgressCollector(progressCollector);
+        this.familyProductBasedAnalyzerImpl.setProgressCollector(progressCollector);
+        this.featureFamilyProductBasedAnalyzerImpl.setProgressCollector(progressCollector);
     }
 
     public void setConcurrencyStrategy(ConcurrencyStrategy concurrencyStrategy) {
         this.concurrencyStrategy = concurrencyStrategy;
     }
 
+    /**
+     * Sets the store used for incremental re-analysis. Artifacts of RDG nodes
+     * which did not change since they were recorded in the store (e.g., by
+     * a previous run) are reused instead of being recomputed.
+     *
+     * If none is set, every analysis starts from scratch.
+     *
+     * @param incrementalStore
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.featureFamilyBasedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+        this.featureProductBasedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+        this.familyBasedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+        this.familyProductBasedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+        this.featureFamilyProductBasedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+        this.featureFamilyFactorizedAnalyzerImpl.setIncrementalAnalysisStore(incrementalStore);
+    }
+
+    /**
+     * Chooses the analysis strategy with the least estimated cost for
+     * evaluating the reliability of an RDG node, based on cheap metrics
+     * of the RDG and of the feature model.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param targetConfigurations Number of configurations to be evaluated,
+     *          or a negative value if all valid configurations are.
+     * @return a concrete (i.e., not {@link AnalysisStrategy#AUTO}) strategy.
+     * @throws CyclicRdgException
+     */
+    public AnalysisStrategy selectAnalysisStrategy(RDGNode node, long targetConfigurations) throws CyclicRdgException {
+        AnalysisMetrics metrics = AnalysisMetrics.measure(node,
+                                                          featureModel,
+                                                          featureFamilyFactorizedAnalyzerImpl.getDecomposition().size(),
+                                                          targetConfigurations);
+        Map<AnalysisStrategy, Double> costs = costModel.estimateCosts(metrics);
+        AnalysisStrategy selected = StrategyCostModel.cheapest(costs);
+
+        LOGGER.info("Selected " + selected + " analysis strategy (estimates: " + costs + ")");
+        strategySelectionCollector.collectSelection(metrics, costs, selected);
+        return selected;
+    }
+
     /**
      * Evaluates the feature-family-based reliability function of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
@@ -168,7 +369,10 @@ public class Analyzer {
      * @throws CyclicRdgException
      */
     public IReliabilityAnalysisResults evaluateFeatureFamilyBasedReliability(RDGNode node, String dotOutput) throws CyclicRdgException {
-        return featureFamilyBasedAnalyzerImpl.evaluateReliability(node, this.concurrencyStrategy, dotOutput);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FEATURE_FAMILY.name())) {
+            span.setAttribute("root", node.getId());
+            return featureFamilyBasedAnalyzerImpl.evaluateReliability(node, prune(node), this.concurrencyStrategy, dotOutput);
+        }
     }
     /**
      * Evaluates the feature-family-based reliability function of an RDG node, based
@@ -191,7 +395,10 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateFeatureProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return featureProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FEATURE_PRODUCT.name())) {
+            span.setAttribute("root", node.getId());
+            return featureProductBasedAnalyzerImpl.evaluateReliability(node, prune(node), configurations, this.concurrencyStrategy);
+        }
     }
 
     /**
@@ -204,7 +411,10 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return productBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.PRODUCT.name())) {
+            span.setAttribute("root", node.getId());
+            return productBasedAnalyzerImpl.evaluateReliability(node, prune(node), configurations, this.concurrencyStrategy);
+        }
     }
 
     /**
@@ -217,7 +427,10 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateFamilyBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return familyBasedAnalyzerImpl.evaluateReliability(node, this.concurrencyStrategy);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FAMILY.name())) {
+            span.setAttribute("root", node.getId());
+            return familyBasedAnalyzerImpl.evaluateReliability(node, prune(node), this.concurrencyStrategy);
+        }
     }
 
     /**
@@ -230,7 +443,34 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateFamilyProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return familyProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FAMILY_PRODUCT.name())) {
+            span.setAttribute("root", node.getId());
+            return familyProductBasedAnalyzerImpl.evaluateReliability(node, prune(node), configurations, this.concurrencyStrategy);
+        }
+    }
+
+    /**
+     * Evaluates the feature-family-based reliability function of an RDG node
+     * factorized over the independent parts of the feature model, so that
+     * no ADD spans more than one part.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @return
+     * @throws CyclicRdgException
+     */
+    public IReliabilityAnalysisResults evaluateFeatureFamilyFactorizedReliability(RDGNode node) throws CyclicRdgException {
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FEATURE_FAMILY_FACTORIZED.name())) {
+            span.setAttribute("root", node.getId());
+            return featureFamilyFactorizedAnalyzerImpl.evaluateReliability(node, prune(node), this.concurrencyStrategy);
+        }
+    }
+
+    /**
+     * Prunes the dead components from the transitive closure of an RDG node,
+     * so that all strategies leave out the same nodes.
+     */
+    private DeadComponentPruner.Result prune(RDGNode node) throws CyclicRdgException {
+        return deadComponentPruner.prune(node.getDependenciesTransitiveClosure());
     }
 
     /**
@@ -244,9 +484,22 @@ public class Analyzer {
     public void generateDotFile(ADD familyReliability, String outputFile) {
         featureFamilyBasedAnalyzerImpl.generateDotFile(familyReliability, outputFile);
     }
-    
+
+    /**
+     * Evaluates the feature-family-product-based reliability value of an RDG node,
+     * based on a family-wide composition of the reliability expressions of the
+     * nodes on which it depends.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @return
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
     public IReliabilityAnalysisResults evaluateFeatureFamilyProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return featureFamilyProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        try (ISpan span = tracer.startSpan("analysis", AnalysisStrategy.FEATURE_FAMILY_PRODUCT.name())) {
+            span.setAttribute("root", node.getId());
+            return featureFamilyProductBasedAnalyzerImpl.evaluateReliability(node, prune(node), configurations, this.concurrencyStrategy);
+        }
     }
 
 }
@@ -8,5 +8,10 @@ public enum PruningStrategy {
     /**
      * Prune by using the whole Feature Model.
      */
-    FM
+    FM,
+    /**
+     * Prune each partial result by the projection of the Feature Model
+     * onto the features on which it depends.
+     */
+    FM_PROJECTION
 }
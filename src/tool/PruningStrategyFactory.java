@@ -1,5 +1,6 @@
 package tool;
 
+import tool.analyzers.FeatureModelProjectionPruningStrategy;
 import tool.analyzers.FeatureModelPruningStrategy;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.NoPruningStrategy;
@@ -14,6 +15,8 @@ public class PruningStrategyFactory {
         switch (strategySelection) {
         case NONE:
             return new NoPruningStrategy();
+        case FM_PROJECTION:
+            return new FeatureModelProjectionPruningStrategy();
         case FM:
         default:
             return new FeatureModelPruningStrategy();
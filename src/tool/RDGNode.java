@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import tool.analyzers.buildingblocks.Component;
@@ -13,11 +14,13 @@ import fdtmc.FDTMC;
 
 public class RDGNode {
 
-	//This reference is used to store all the RDGnodes created during the evaluation
-	private static Map<String, RDGNode> rdgNodes = new HashMap<String, RDGNode>();
-	private static List<RDGNode> nodesInCreationOrder = new LinkedList<RDGNode>();
+	//This reference is used to store all the RDGnodes created during the evaluation.
+	//Nodes are registered per thread, so that models parsed concurrently (e.g., by
+	//the analysis server) are kept apart. See clearRegistry().
+	private static ThreadLocal<Map<String, RDGNode>> rdgNodes = ThreadLocal.withInitial(HashMap::new);
+	private static ThreadLocal<List<RDGNode>> nodesInCreationOrder = ThreadLocal.withInitial(LinkedList::new);
 
-    private static int lastNodeIndex = 0;
+    private static AtomicInteger lastNodeIndex = new AtomicInteger();
 
 	// Node identifier
 	private String id;
@@ -53,8 +56,8 @@ public class RDGNode {
 		this.dependencies = new HashSet<RDGNode>();
 		this.height = 0;
 
-		rdgNodes.put(id, this);
-		nodesInCreationOrder.add(this);
+		rdgNodes.get().put(id, this);
+		nodesInCreationOrder.get().add(this);
 	}
 
     public FDTMC getFDTMC() {
@@ -88,11 +91,22 @@ public class RDGNode {
     }
 
     public static RDGNode getById(String id) {
-        return rdgNodes.get(id);
+        return rdgNodes.get().get(id);
     }
 
     public static String getNextId() {
-        return "n" + lastNodeIndex++;
+        return "n" + lastNodeIndex.getAndIncrement();
+    }
+
+    /**
+     * Forgets the RDG nodes created so far by the current thread, so that
+     * they are neither found by {@link #getById(String)} or {@link #getSimilarNode(RDGNode)}
+     * nor kept alive by the registry. It should be called once a model is parsed
+     * by a thread which goes on to parse others.
+     */
+    public static void clearRegistry() {
+        rdgNodes.remove();
+        nodesInCreationOrder.remove();
     }
 
     /**
@@ -224,15 +238,15 @@ public class RDGNode {
     }
 
     /**
-     * Returns the first RDG node (in crescent order of creation time) which is similar
-     * to the one provided.
+     * Returns the first RDG node (in crescent order of creation time) created by
+     * the current thread which is similar to the one provided.
      *
      * A similar RDG node is one for which equals() returns true.
      * @param rdgNode
      * @return a similar RDG node or null in case there is none.
      */
     public static RDGNode getSimilarNode(RDGNode target) {
-        for (RDGNode candidate: nodesInCreationOrder) {
+        for (RDGNode candidate: nodesInCreationOrder.get()) {
             if (candidate != target && candidate.equals(target)) {
                 return candidate;
             }
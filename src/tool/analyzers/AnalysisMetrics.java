@@ -0,0 +1,162 @@
+package tool.analyzers;
+
+import jadd.ADD;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import fdtmc.FDTMC;
+
+/**
+ * Cheap metrics of an RDG and of the feature model, used for estimating
+ * the cost of each analysis strategy before running any of them.
+ */
+public class AnalysisMetrics {
+
+    private int numberOfNodes;
+    private int height;
+    private int numberOfDependencies;
+    private int distinctPresenceConditions;
+    private int featureModelParts;
+    private long totalStates;
+    private long maxStates;
+    private long totalTransitions;
+    private double validConfigurations;
+    private double targetConfigurations;
+
+    public AnalysisMetrics(int numberOfNodes,
+                           int height,
+                           int numberOfDependencies,
+                           int distinctPresenceConditions,
+                           int featureModelParts,
+                           long totalStates,
+                           long maxStates,
+                           long totalTransitions,
+                           double validConfigurations,
+                           double targetConfigurations) {
+        this.numberOfNodes = numberOfNodes;
+        this.height = height;
+        this.numberOfDependencies = numberOfDependencies;
+        this.distinctPresenceConditions = distinctPresenceConditions;
+        this.featureModelParts = featureModelParts;
+        this.totalStates = totalStates;
+        this.maxStates = maxStates;
+        this.totalTransitions = totalTransitions;
+        this.validConfigurations = validConfigurations;
+        this.targetConfigurations = targetConfigurations;
+    }
+
+    /**
+     * Measures the RDG rooted at {@code node} and the given feature model.
+     *
+     * @param node Root of the RDG to be analyzed.
+     * @param featureModel 0,1-ADD of the feature model.
+     * @param featureModelParts Number of independent parts of the feature model.
+     * @param targetConfigurations Number of configurations whose reliabilities
+     *          are wanted, or a negative value if all valid ones are.
+     * @return
+     * @throws CyclicRdgException
+     */
+    public static AnalysisMetrics measure(RDGNode node, ADD featureModel, int featureModelParts, double targetConfigurations) throws CyclicRdgException {
+        List<RDGNode> nodes = node.getDependenciesTransitiveClosure();
+
+        int numberOfDependencies = 0;
+        long totalStates = 0;
+        long maxStates = 0;
+        long totalTransitions = 0;
+        Set<String> presenceConditions = new HashSet<String>();
+        for (RDGNode current: nodes) {
+            numberOfDependencies += current.getDependencies().size();
+            presenceConditions.add(current.getPresenceCondition());
+
+            FDTMC fdtmc = current.getFDTMC();
+            int states = fdtmc.getStates().size();
+            totalStates += states;
+            maxStates = Math.max(maxStates, states);
+            totalTransitions += fdtmc.getTransitions().values().stream()
+                    .mapToInt(transitions -> transitions == null ? 0 : transitions.size())
+                    .sum();
+        }
+        // A presence condition which always holds does not induce variability.
+        presenceConditions.remove("true");
+
+        double validConfigurations = featureModel.getNonZeroMintermsCount();
+        return new AnalysisMetrics(nodes.size(),
+                                   node.getHeight(),
+                                   numberOfDependencies,
+                                   presenceConditions.size(),
+                                   featureModelParts,
+                                   totalStates,
+                                   maxStates,
+                                   totalTransitions,
+                                   validConfigurations,
+                                   targetConfigurations < 0 ? validConfigurations : targetConfigurations);
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNumberOfDependencies() {
+        return numberOfDependencies;
+    }
+
+    public int getDistinctPresenceConditions() {
+        return distinctPresenceConditions;
+    }
+
+    public int getFeatureModelParts() {
+        return featureModelParts;
+    }
+
+    public long getTotalStates() {
+        return totalStates;
+    }
+
+    public long getMaxStates() {
+        return maxStates;
+    }
+
+    public long getTotalTransitions() {
+        return totalTransitions;
+    }
+
+    public double getValidConfigurations() {
+        return validConfigurations;
+    }
+
+    public double getTargetConfigurations() {
+        return targetConfigurations;
+    }
+
+    /**
+     * Upper bound on the number of products which differ in the set of
+     * present RDG nodes, i.e., on the number of distinct evaluations
+     * a product-wise strategy has to perform.
+     */
+    public double getDistinctPresenceSignatures() {
+        return Math.min(targetConfigurations, Math.pow(2, distinctPresenceConditions));
+    }
+
+    @Override
+    public String toString() {
+        return "nodes=" + numberOfNodes
+                + ", height=" + height
+                + ", dependencies=" + numberOfDependencies
+                + ", distinct presence conditions=" + distinctPresenceConditions
+                + ", feature model parts=" + featureModelParts
+                + ", states=" + totalStates
+                + " (max " + maxStates + ")"
+                + ", transitions=" + totalTransitions
+                + ", valid configurations=" + validConfigurations
+                + ", target configurations=" + targetConfigurations;
+    }
+
+}
@@ -6,5 +6,11 @@ public enum AnalysisStrategy {
     PRODUCT,
     FAMILY,
     FAMILY_PRODUCT,
-    FEATURE_FAMILY_PRODUCT
+    FEATURE_FAMILY_PRODUCT,
+    FEATURE_FAMILY_FACTORIZED,
+    /**
+     * Picks the concrete strategy with the least estimated cost.
+     * @see StrategyCostModel
+     */
+    AUTO
 }
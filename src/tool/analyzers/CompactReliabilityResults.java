@@ -0,0 +1,130 @@
+package tool.analyzers;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+import tool.UnknownFeatureException;
+import tool.analyzers.buildingblocks.FeatureIndex;
+
+/**
+ * Reliability values of individual configurations, as computed by
+ * product-wise strategies.
+ *
+ * Configurations are kept as bit sets over a {@link FeatureIndex}, in an
+ * open-addressing hash table whose values are primitive doubles. Thus, each
+ * result costs little more than its configuration's bits, instead of a
+ * set of strings and a boxed value.
+ *
+ * Results may be put concurrently by parallel workers.
+ */
+public class CompactReliabilityResults implements IReliabilityAnalysisResults {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private FeatureIndex featureIndex;
+    /**
+     * Configurations (as returned by {@link BitSet#toLongArray()}),
+     * or null for free slots.
+     */
+    private long[][] keys;
+    private double[] values;
+    private int size;
+
+    public CompactReliabilityResults() {
+        this(new FeatureIndex());
+    }
+
+    public CompactReliabilityResults(FeatureIndex featureIndex) {
+        this.featureIndex = featureIndex;
+        this.keys = new long[INITIAL_CAPACITY][];
+        this.values = new double[INITIAL_CAPACITY];
+    }
+
+    public void putResult(Collection<String> configuration, double value) {
+        long[] key = featureIndex.encode(configuration).toLongArray();
+        synchronized (this) {
+            int slot = slotOf(keys, key);
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+            // Keep the load factor under 2/3.
+            if (3 * size > 2 * keys.length) {
+                resize();
+            }
+        }
+    }
+
+    @Override
+    public Double getResult(String[] configuration) throws UnknownFeatureException {
+        BitSet encoded = new BitSet();
+        for (String feature: configuration) {
+            int index = featureIndex.indexOf(feature);
+            if (index < 0) {
+                // No configuration with this feature has a result.
+                return 0.0;
+            }
+            encoded.set(index);
+        }
+        long[] key = encoded.toLongArray();
+        synchronized (this) {
+            int slot = slotOf(keys, key);
+            return (keys[slot] == null) ? 0.0 : values[slot];
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public FeatureIndex getFeatureIndex() {
+        return featureIndex;
+    }
+
+    /**
+     * Prints the size of the stored configurations and reliabilities,
+     * not taking into account free slots of the hash table.
+     */
+    @Override
+    public synchronized void printStats(PrintStream output) {
+        long bytes = 0;
+        for (long[] key: keys) {
+            if (key != null) {
+                bytes += 8 * key.length + 8;
+            }
+        }
+        output.println("Result's size in bytes: " + bytes);
+    }
+
+    private void resize() {
+        long[][] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new long[2 * oldKeys.length][];
+        values = new double[2 * oldValues.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Linear probing: returns the slot holding {@code key}, or the free
+     * slot where it should be inserted. Capacity must be a power of 2.
+     */
+    private static int slotOf(long[][] keys, long[] key) {
+        int hash = Arrays.hashCode(key);
+        int mask = keys.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != null && !Arrays.equals(keys[slot], key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,49 @@
+package tool.analyzers;
+
+import jadd.ADD;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import tool.RDGNode;
+
+/**
+ * Pruning strategy which multiplies each reliability mapping by the projection
+ * of the feature model onto the mapping's own variables, i.e., by the feature
+ * model with every other variable existentially abstracted.
+ *
+ * Partial configurations which cannot be extended to a valid configuration
+ * still yield 0, but, unlike with {@link FeatureModelPruningStrategy}, the
+ * pruned mappings do not depend on any features they did not depend on before.
+ * Projections are cached by set of variables, since many nodes share them.
+ */
+public class FeatureModelProjectionPruningStrategy implements IPruningStrategy {
+
+    /**
+     * Projections by feature model and then by set of variables.
+     */
+    private Map<ADD, Map<Set<String>, ADD>> projections = new HashMap<ADD, Map<Set<String>, ADD>>();
+
+    /* (non-Javadoc)
+     * @see tool.IPruningStrategy#pruneInvalidConfigurations(tool.RDGNode, jadd.ADD, jadd.ADD)
+     */
+    @Override
+    public synchronized ADD pruneInvalidConfigurations(RDGNode node, ADD reliability, ADD featureModel) {
+        Set<String> variables = reliability.getVariables();
+        ADD projection = projections.computeIfAbsent(featureModel, fm -> new HashMap<Set<String>, ADD>())
+                .computeIfAbsent(variables, vars -> project(featureModel, vars));
+        return projection.times(reliability);
+    }
+
+    private static ADD project(ADD featureModel, Set<String> variables) {
+        Set<String> abstracted = new HashSet<String>(featureModel.getVariables());
+        abstracted.removeAll(variables);
+        if (abstracted.isEmpty()) {
+            return featureModel;
+        }
+        return featureModel.orAbstract(abstracted);
+    }
+
+}
@@ -0,0 +1,59 @@
+package tool.analyzers;
+
+import jadd.ADD;
+import jadd.UnrecognizedVariableException;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import tool.UnknownFeatureException;
+import tool.analyzers.buildingblocks.HybridFunction;
+
+/**
+ * Results of a feature-family-based analysis in which the reliability
+ * functions of some components are not ADDs, but are evaluated on demand
+ * for each configuration (see {@link HybridFunction}).
+ */
+public class HybridReliabilityResults implements IReliabilityAnalysisResults {
+
+    private HybridFunction reliability;
+    private ADD featureModel;
+    private Collection<HybridFunction> enumerated;
+
+    /**
+     * @param reliability Reliability function of the analyzed RDG node.
+     * @param featureModel 0,1-ADD of the feature model.
+     * @param enumerated Functions of the components that are evaluated on demand.
+     */
+    public HybridReliabilityResults(HybridFunction reliability, ADD featureModel, Collection<HybridFunction> enumerated) {
+        this.reliability = reliability;
+        this.featureModel = featureModel;
+        this.enumerated = enumerated;
+    }
+
+    @Override
+    public Double getResult(String[] configuration) throws UnknownFeatureException {
+        try {
+            if (featureModel.eval(configuration) == 0) {
+                return 0.0;
+            }
+            List<String> configurationAsList = Arrays.asList(configuration);
+            return reliability.evaluate(configurationAsList);
+        } catch (UnrecognizedVariableException e) {
+            throw new UnknownFeatureException(e.getVariableName());
+        }
+    }
+
+    @Override
+    public void printStats(PrintStream output) {
+        long subconfigurations = enumerated.stream()
+                .mapToLong(HybridFunction::getEvaluatedSubconfigurationsCount)
+                .sum();
+        output.println("# variables: " + reliability.getSupport().size());
+        output.println("# enumerated components: " + enumerated.size());
+        output.println("# evaluated sub-configurations: " + subconfigurations);
+    }
+
+}
@@ -0,0 +1,30 @@
+package tool.analyzers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Receiver of reliability results as soon as they are computed, so that
+ * they can be reported without first collecting all of them.
+ */
+public interface IReliabilityResultSink extends Closeable {
+
+    /**
+     * Reports the reliability of a configuration. Analyses may call this
+     * method concurrently, so implementations must be thread-safe.
+     *
+     * @param configuration
+     * @param reliability Reliability of the configuration, or zero if it is invalid.
+     * @param valid Whether the configuration is valid according to the feature model.
+     *          Valid configurations may have a reliability of zero as well.
+     */
+    public void accept(Collection<String> configuration, double reliability, boolean valid);
+
+    /**
+     * Signals that no more results will be reported, flushing any pending ones.
+     */
+    @Override
+    public void close() throws IOException;
+
+}
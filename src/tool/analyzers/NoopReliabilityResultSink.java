@@ -0,0 +1,17 @@
+package tool.analyzers;
+
+import java.util.Collection;
+
+public class NoopReliabilityResultSink implements IReliabilityResultSink {
+
+    @Override
+    public void accept(Collection<String> configuration, double reliability, boolean valid) {
+        // No-op
+    }
+
+    @Override
+    public void close() {
+        // No-op
+    }
+
+}
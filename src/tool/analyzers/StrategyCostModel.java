@@ -0,0 +1,160 @@
+package tool.analyzers;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estimates the cost of each concrete analysis strategy from cheap
+ * {@link AnalysisMetrics}, so that the cheapest one can be chosen
+ * before any model checking takes place.
+ *
+ * Costs are expressed in (roughly) milliseconds. The model accounts for:
+ * <ul>
+ *  <li>the fixed overhead of each call to the parametric model checker and
+ *      a cost proportional to the size of the checked model;</li>
+ *  <li>the growth of the 150% model's expression with the number of
+ *      distinct presence conditions (its parameters);</li>
+ *  <li>the size of the ADDs manipulated by family-wise strategies, bounded
+ *      by the number of valid configurations (of each independent part of the
+ *      feature model, for the factorized strategy);</li>
+ *  <li>the number of distinct evaluations performed by product-wise strategies,
+ *      bounded by the number of distinct presence signatures.</li>
+ * </ul>
+ * The default coefficients are coarse estimates; they should be calibrated
+ * (e.g., against the times reported with {@code --stats}) for the environment
+ * and model checker at hand.
+ */
+public class StrategyCostModel {
+
+    static final double MODEL_CHECKING_OVERHEAD = 30;
+    static final double MODEL_CHECKING_PER_STATE = 0.05;
+    static final double FAMILY_EXPRESSION_GROWTH = 1.5;
+    static final double ADD_OPERATION_PER_NODE = 0.001;
+    static final double ADD_COMPRESSION = 0.5;
+    static final double EXPRESSION_SOLVING_PER_TERM = 0.05;
+    static final double COMPILED_EVALUATION_PER_TERM = 0.0005;
+    static final double SYMBOLIC_COMPOSITION_PER_TERM = 0.01;
+
+    private double modelCheckingOverhead;
+    private double modelCheckingPerState;
+    private double familyExpressionGrowth;
+    private double addOperationPerNode;
+    private double addCompression;
+    private double expressionSolvingPerTerm;
+    private double compiledEvaluationPerTerm;
+    private double symbolicCompositionPerTerm;
+
+    public StrategyCostModel() {
+        this(MODEL_CHECKING_OVERHEAD,
+             MODEL_CHECKING_PER_STATE,
+             FAMILY_EXPRESSION_GROWTH,
+             ADD_OPERATION_PER_NODE,
+             ADD_COMPRESSION,
+             EXPRESSION_SOLVING_PER_TERM,
+             COMPILED_EVALUATION_PER_TERM,
+             SYMBOLIC_COMPOSITION_PER_TERM);
+    }
+
+    /**
+     * Creates a cost model with custom coefficients.
+     *
+     * @param modelCheckingOverhead Fixed cost of a call to the model checker.
+     * @param modelCheckingPerState Cost of model checking per state and parameter.
+     * @param familyExpressionGrowth Factor by which the 150% model's expression grows
+     *          for each distinct presence condition.
+     * @param addOperationPerNode Cost of an ADD operation per ADD node.
+     * @param addCompression Exponent relating the number of valid configurations
+     *          to the size of the reliability ADD.
+     * @param expressionSolvingPerTerm Cost of parsing and solving an expression, per term.
+     * @param compiledEvaluationPerTerm Cost of evaluating a compiled expression, per term.
+     * @param symbolicCompositionPerTerm Cost of symbolically composing expressions, per term.
+     */
+    public StrategyCostModel(double modelCheckingOverhead,
+                             double modelCheckingPerState,
+                             double familyExpressionGrowth,
+                             double addOperationPerNode,
+                             double addCompression,
+                             double expressionSolvingPerTerm,
+                             double compiledEvaluationPerTerm,
+                             double symbolicCompositionPerTerm) {
+        this.modelCheckingOverhead = modelCheckingOverhead;
+        this.modelCheckingPerState = modelCheckingPerState;
+        this.familyExpressionGrowth = familyExpressionGrowth;
+        this.addOperationPerNode = addOperationPerNode;
+        this.addCompression = addCompression;
+        this.expressionSolvingPerTerm = expressionSolvingPerTerm;
+        this.compiledEvaluationPerTerm = compiledEvaluationPerTerm;
+        this.symbolicCompositionPerTerm = symbolicCompositionPerTerm;
+    }
+
+    /**
+     * Estimates the cost of every concrete strategy (i.e., all but
+     * {@link AnalysisStrategy#AUTO}) for an analysis with the given metrics.
+     *
+     * @param metrics
+     * @return the estimated cost of each strategy.
+     */
+    public Map<AnalysisStrategy, Double> estimateCosts(AnalysisMetrics metrics) {
+        int nodes = Math.max(1, metrics.getNumberOfNodes());
+        // Each node's expression has a term per dependency, plus its own.
+        double featureExpressionsSize = nodes + metrics.getNumberOfDependencies();
+        double averageParameters = metrics.getNumberOfDependencies() / (double) nodes;
+        double signatures = metrics.getDistinctPresenceSignatures();
+        double addSize = Math.pow(Math.max(1,
+                                           Math.min(metrics.getValidConfigurations(),
+                                                    Math.pow(2, metrics.getDistinctPresenceConditions()))),
+                                  addCompression);
+        int parts = Math.max(1, metrics.getFeatureModelParts());
+        double partAddSize = Math.pow(addSize, 1.0 / parts);
+        // Components which combine parts are evaluated per product; these are
+        // usually the ones closest to the root.
+        double crossPartTerms = (parts > 1) ? metrics.getHeight() + 1 : 0;
+        double familyGrowth = Math.pow(familyExpressionGrowth, metrics.getDistinctPresenceConditions());
+        double familyExpressionSize = Math.max(1, metrics.getTotalTransitions()) * familyGrowth;
+
+        double featureModelChecking = nodes * modelCheckingOverhead
+                + modelCheckingPerState * metrics.getTotalStates() * (1 + averageParameters);
+        double familyModelChecking = modelCheckingOverhead
+                + modelCheckingPerState * metrics.getTotalStates() * (1 + metrics.getDistinctPresenceConditions()) * familyGrowth;
+        double productModelChecking = modelCheckingOverhead
+                + modelCheckingPerState * metrics.getTotalStates();
+
+        Map<AnalysisStrategy, Double> costs = new EnumMap<AnalysisStrategy, Double>(AnalysisStrategy.class);
+        costs.put(AnalysisStrategy.FEATURE_FAMILY,
+                  featureModelChecking + featureExpressionsSize * addOperationPerNode * addSize);
+        costs.put(AnalysisStrategy.FEATURE_PRODUCT,
+                  featureModelChecking + signatures * featureExpressionsSize * expressionSolvingPerTerm);
+        costs.put(AnalysisStrategy.PRODUCT,
+                  signatures * productModelChecking);
+        costs.put(AnalysisStrategy.FAMILY,
+                  familyModelChecking + familyExpressionSize * addOperationPerNode * addSize);
+        costs.put(AnalysisStrategy.FAMILY_PRODUCT,
+                  familyModelChecking + signatures * familyExpressionSize * expressionSolvingPerTerm);
+        costs.put(AnalysisStrategy.FEATURE_FAMILY_PRODUCT,
+                  featureModelChecking
+                  + featureExpressionsSize * symbolicCompositionPerTerm
+                  + signatures * featureExpressionsSize * compiledEvaluationPerTerm);
+        costs.put(AnalysisStrategy.FEATURE_FAMILY_FACTORIZED,
+                  featureModelChecking
+                  + featureExpressionsSize * addOperationPerNode * partAddSize
+                  + signatures * crossPartTerms * compiledEvaluationPerTerm);
+        return costs;
+    }
+
+    /**
+     * Returns the concrete strategy with the least estimated cost.
+     *
+     * @param costs Estimates as returned by {@link #estimateCosts(AnalysisMetrics)}.
+     * @return
+     */
+    public static AnalysisStrategy cheapest(Map<AnalysisStrategy, Double> costs) {
+        AnalysisStrategy cheapest = null;
+        for (Map.Entry<AnalysisStrategy, Double> cost: costs.entrySet()) {
+            if (cheapest == null || cost.getValue() < costs.get(cheapest)) {
+                cheapest = cost.getKey();
+            }
+        }
+        return cheapest;
+    }
+
+}
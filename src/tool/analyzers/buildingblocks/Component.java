@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -67,7 +68,15 @@ public class Component<T> {
                                 mappedDependencies);
     }
 
-    // TODO Candidate!
+    /**
+     * Derives the given components sequentially, in the order they are listed.
+     *
+     * This is the only safe way of deriving values which are not thread-safe
+     * (e.g., ADDs).
+     *
+     * @param dependencies Components in topological order (dependencies first).
+     * @return the value derived for the last component.
+     */
     public static <P, A, V> V deriveFromMany(List<Component<A>> dependencies,
                                              DerivationFunction<P, A, V> derive,
                                              IsPresent<A, P> isPresent) {
@@ -78,8 +87,48 @@ public class Component<T> {
                 .get();
     }
 
-    // TODO Candidate!
-    private static <P, A, V> V deriveSingle(Component<A> component,
+    /**
+     * Derives the given components according to a concurrency strategy.
+     *
+     * If {@code concurrencyStrategy} is PARALLEL, each component is derived
+     * as soon as all of its dependencies are, so that independent components
+     * are derived concurrently. Hence, {@code derive} and {@code isPresent}
+     * must be thread-safe in this case.
+     *
+     * @param dependencies Components in topological order (dependencies first).
+     * @param concurrencyStrategy
+     * @return the value derived for the last component.
+     */
+    public static <P, A, V> V deriveFromMany(List<Component<A>> dependencies,
+                                             DerivationFunction<P, A, V> derive,
+                                             IsPresent<A, P> isPresent,
+                                             ConcurrencyStrategy concurrencyStrategy) {
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            return DependencyAwareDerivation.deriveFromMany(dependencies, derive, isPresent);
+        }
+        return deriveFromMany(dependencies, derive, isPresent);
+    }
+
+    /**
+     * Derives the given components as their assets become available.
+     *
+     * Derivation happens sequentially, on the calling thread, so it is safe
+     * for values which are not thread-safe (e.g., ADDs). However, it overlaps
+     * with the computation of pending assets: a component is derived as soon
+     * as its asset is available and all of its dependencies are derived,
+     * regardless of the state of unrelated components.
+     *
+     * @param dependencies Components in topological order (dependencies first),
+     *          whose assets may still be under computation.
+     * @return the value derived for the last component.
+     */
+    public static <P, A, V> V deriveAsAvailable(List<Component<CompletableFuture<A>>> dependencies,
+                                                DerivationFunction<P, A, V> derive,
+                                                IsPresent<A, P> isPresent) {
+        return DependencyAwareDerivation.deriveAsAvailable(dependencies, derive, isPresent);
+    }
+
+    static <P, A, V> V deriveSingle(Component<A> component,
                                             IsPresent<A, P> isPresent,
                                             DerivationFunction<P, A, V> derive,
                                             Map<String, V> derivedModels) {
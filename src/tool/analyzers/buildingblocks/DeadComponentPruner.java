@@ -0,0 +1,153 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import tool.RDGNode;
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Pre-analysis pass which eliminates dead components, i.e., RDG nodes whose
+ * presence conditions hold in no valid configuration.
+ *
+ * A dead node is never reached in any product, so neither its model nor the
+ * ones of the nodes which can only be reached through it (its exclusively
+ * owned dependencies) need to be analyzed. Dead nodes themselves are still
+ * referenced by their dependents, so they are kept in the pruned list, but
+ * marked as dead so that strategies can take them as absent up front.
+ */
+public class DeadComponentPruner {
+    private static final Logger LOGGER = Logger.getLogger(DeadComponentPruner.class.getName());
+
+    private ADD featureModel;
+    private ExpressionSolver expressionSolver;
+    /**
+     * Whether each presence condition seen so far is dead.
+     */
+    private Map<String, Boolean> deadPresenceConditions = new HashMap<String, Boolean>();
+
+    /**
+     * @param featureModel 0,1-ADD of the feature model.
+     * @param expressionSolver Solver used for encoding presence conditions.
+     */
+    public DeadComponentPruner(ADD featureModel, ExpressionSolver expressionSolver) {
+        this.featureModel = featureModel;
+        this.expressionSolver = expressionSolver;
+    }
+
+    /**
+     * Returns a pruner which keeps every node.
+     */
+    public static DeadComponentPruner disabled() {
+        return new DeadComponentPruner(null, null);
+    }
+
+    public boolean isEnabled() {
+        return featureModel != null;
+    }
+
+    /**
+     * Prunes the transitive closure of an RDG node.
+     *
+     * Since presence conditions are encoded as ADDs, this method must be
+     * called before any concurrent derivation takes place.
+     *
+     * @param dependencies Nodes in topological order (dependencies first),
+     *          as returned by {@link RDGNode#getDependenciesTransitiveClosure()}.
+     * @return the nodes which are reachable from the last one without going
+     *          through a dead node (in the same order), along with the dead ones.
+     */
+    public synchronized Result prune(List<RDGNode> dependencies) {
+        if (!isEnabled() || dependencies.isEmpty()) {
+            return new Result(dependencies.size(), dependencies, Collections.<String>emptySet());
+        }
+        Set<String> reachable = new HashSet<String>();
+        Set<String> dead = new HashSet<String>();
+        reachable.add(dependencies.get(dependencies.size() - 1).getId());
+        // Dependents come after their dependencies, so a backwards sweep
+        // visits every node after all of its dependents.
+        ListIterator<RDGNode> iterator = dependencies.listIterator(dependencies.size());
+        while (iterator.hasPrevious()) {
+            RDGNode node = iterator.previous();
+            if (!reachable.contains(node.getId())) {
+                continue;
+            }
+            if (isDead(node.getPresenceCondition())) {
+                dead.add(node.getId());
+            } else {
+                node.getDependencies().forEach(dependency -> reachable.add(dependency.getId()));
+            }
+        }
+
+        List<RDGNode> pruned = dependencies.stream()
+                .filter(node -> reachable.contains(node.getId()))
+                .collect(Collectors.toCollection(LinkedList::new));
+        Result result = new Result(dependencies.size(), pruned, dead);
+        if (!dead.isEmpty()) {
+            LOGGER.info("Pruned " + result.getPrunedCount() + " of " + dependencies.size()
+                    + " RDG nodes (" + dead.size() + " dead and "
+                    + (dependencies.size() - pruned.size()) + " only reachable through dead ones).");
+        }
+        return result;
+    }
+
+    private boolean isDead(String presenceCondition) {
+        return deadPresenceConditions.computeIfAbsent(presenceCondition,
+                                                      pc -> expressionSolver.encodeFormula(pc)
+                                                              .times(featureModel)
+                                                              .getNonZeroMintermsCount() == 0);
+    }
+
+    /**
+     * Outcome of pruning the transitive closure of an RDG node.
+     */
+    public static class Result {
+        private int originalSize;
+        private List<RDGNode> dependencies;
+        private Set<String> deadComponents;
+
+        private Result(int originalSize, List<RDGNode> dependencies, Set<String> deadComponents) {
+            this.originalSize = originalSize;
+            this.dependencies = dependencies;
+            this.deadComponents = deadComponents;
+        }
+
+        /**
+         * Returns the nodes to be analyzed, in topological order.
+         */
+        public List<RDGNode> getDependencies() {
+            return dependencies;
+        }
+
+        /**
+         * Returns the ids of the dead nodes among {@link #getDependencies()}.
+         * Their models need not be analyzed, since they are absent
+         * in every valid configuration.
+         */
+        public Set<String> getDeadComponents() {
+            return deadComponents;
+        }
+
+        public boolean isDead(String id) {
+            return deadComponents.contains(id);
+        }
+
+        /**
+         * Returns the number of nodes whose models need not be analyzed.
+         */
+        public int getPrunedCount() {
+            return originalSize - dependencies.size() + deadComponents.size();
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Derivation engine which exploits the independence between components
+ * of a dependency DAG.
+ *
+ * Each component is scheduled as soon as all of its dependencies have been
+ * derived, so that components in the same height of the DAG (and, more
+ * generally, components in disjoint subtrees) are derived concurrently.
+ *
+ * The derivation function is called from multiple threads, so it must only
+ * be used with thread-safe asset and value types. In particular, ADDs must
+ * NOT be derived this way, since the underlying CUDD manager is not thread-safe.
+ */
+class DependencyAwareDerivation {
+
+    private DependencyAwareDerivation() {
+        // NO-OP
+    }
+
+    /**
+     * Derives all components, returning the value derived for the last one.
+     *
+     * @param components Components in topological order (dependencies first).
+     * @param derive
+     * @param isPresent
+     * @return the value derived for the last component in {@code components}.
+     */
+    static <P, A, V> V deriveFromMany(List<Component<A>> components,
+                                      DerivationFunction<P, A, V> derive,
+                                      IsPresent<A, P> isPresent) {
+        Map<String, V> derivedModels = new ConcurrentHashMap<String, V>();
+        // Only accessed by the scheduling thread.
+        Map<String, CompletableFuture<V>> scheduled = new HashMap<String, CompletableFuture<V>>();
+
+        CompletableFuture<V> last = null;
+        for (Component<A> component: components) {
+            CompletableFuture<?>[] dependencies = component.getDependencies().stream()
+                    .map(dependency -> scheduled.get(dependency.getId()))
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture<?>[]::new);
+            last = CompletableFuture.allOf(dependencies)
+                    .thenApplyAsync(ignored -> Component.deriveSingle(component,
+                                                                      isPresent,
+                                                                      derive,
+                                                                      derivedModels));
+            scheduled.put(component.getId(), last);
+        }
+
+        return join(last);
+    }
+
+    /**
+     * Derives all components on the calling thread, each one as soon as its
+     * asset becomes available and all of its dependencies have been derived.
+     *
+     * This allows for overlapping the (possibly concurrent) computation of
+     * assets with the derivation itself, while keeping the derivation
+     * sequential. Hence, it is safe for non-thread-safe values (e.g., ADDs).
+     *
+     * @param components Components in topological order (dependencies first),
+     *          whose assets are yet to be computed.
+     * @param derive
+     * @param isPresent
+     * @return the value derived for the last component in {@code components}.
+     */
+    static <P, A, V> V deriveAsAvailable(List<Component<CompletableFuture<A>>> components,
+                                         DerivationFunction<P, A, V> derive,
+                                         IsPresent<A, P> isPresent) {
+        // Signals completion of assets to the deriving (calling) thread.
+        BlockingQueue<String> completed = new LinkedBlockingQueue<String>();
+        components.forEach(c -> c.getAsset().whenComplete((asset, error) -> completed.add(c.getId())));
+
+        Set<String> ids = components.stream()
+                .map(Component::getId)
+                .collect(Collectors.toSet());
+        Map<String, V> derivedModels = new HashMap<String, V>();
+        List<Component<CompletableFuture<A>>> pending = new LinkedList<Component<CompletableFuture<A>>>(components);
+        while (!pending.isEmpty()) {
+            awaitCompletion(completed);
+            // Topological order guarantees that a single sweep derives every
+            // component whose dependencies are derived in the same sweep.
+            Iterator<Component<CompletableFuture<A>>> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                Component<CompletableFuture<A>> component = iterator.next();
+                boolean ready = component.getAsset().isDone()
+                        && component.getDependencies().stream()
+                            .map(Component::getId)
+                            .allMatch(id -> derivedModels.containsKey(id) || !ids.contains(id));
+                if (ready) {
+                    Component<A> available = new Component<A>(component.getId(),
+                                                              component.getPresenceCondition(),
+                                                              join(component.getAsset()));
+                    Component.deriveSingle(available, isPresent, derive, derivedModels);
+                    iterator.remove();
+                }
+            }
+        }
+        return derivedModels.get(components.get(components.size() - 1).getId());
+    }
+
+    private static void awaitCompletion(BlockingQueue<String> completed) {
+        try {
+            completed.take();
+            // Handle all completions at once.
+            completed.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for assets to be computed.");
+        }
+    }
+
+    /**
+     * Unwraps exceptions so that callers see the same (unchecked) exceptions
+     * they would get from a sequential derivation.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense numbering of feature names, which allows for representing
+ * configurations as bit sets instead of sets of strings.
+ *
+ * Features are numbered in the order they are first seen. Numbering
+ * is thread-safe, so configurations can be encoded concurrently.
+ */
+public class FeatureIndex {
+
+    private Map<String, Integer> indices = new ConcurrentHashMap<String, Integer>();
+    private List<String> features = new ArrayList<String>();
+
+    /**
+     * Returns the index of a feature, numbering it if it is new.
+     */
+    public int add(String feature) {
+        return indices.computeIfAbsent(feature, f -> {
+            synchronized (features) {
+                features.add(f);
+                return features.size() - 1;
+            }
+        });
+    }
+
+    /**
+     * Returns the index of a feature, or -1 if it was never added.
+     */
+    public int indexOf(String feature) {
+        return indices.getOrDefault(feature, -1);
+    }
+
+    public String getFeature(int index) {
+        synchronized (features) {
+            return features.get(index);
+        }
+    }
+
+    public int size() {
+        return indices.size();
+    }
+
+    /**
+     * Encodes a configuration, numbering any new features.
+     */
+    public BitSet encode(Collection<String> configuration) {
+        BitSet encoded = new BitSet();
+        for (String feature: configuration) {
+            encoded.set(add(feature));
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes a configuration, in index order.
+     */
+    public List<String> decode(BitSet configuration) {
+        List<String> decoded = new ArrayList<String>(configuration.cardinality());
+        for (int i = configuration.nextSetBit(0); i >= 0; i = configuration.nextSetBit(i + 1)) {
+            decoded.add(getFeature(i));
+        }
+        return decoded;
+    }
+
+}
@@ -0,0 +1,359 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Decomposition of a feature model into independent parts, i.e., sets of
+ * features which share no constraints. The feature model is equivalent
+ * to the conjunction of the (much smaller) feature models of its parts.
+ *
+ * Parts are the connected components of the variable-interaction graph
+ * of the feature model's CNF, in which two features interact if they occur
+ * in the same clause. Since a feature model's root (and every other core
+ * feature) is usually related to all of its children, unit clauses are
+ * propagated before the graph is built, so that core features are taken
+ * as constants instead of gluing the whole model together.
+ */
+public class FeatureModelDecomposition {
+
+    private static final Pattern LITERAL = Pattern.compile("\\s*(!?)\\s*([A-Za-z_$][A-Za-z0-9_$]*)\\s*");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+    private static final Set<String> TRUE = new HashSet<String>(Arrays.asList("true", "True"));
+    private static final Set<String> FALSE = new HashSet<String>(Arrays.asList("false", "False"));
+    /**
+     * Marker for clauses which always hold.
+     */
+    private static final Map<String, Boolean> TAUTOLOGY = Collections.emptyMap();
+    /**
+     * Marker for clauses which never hold.
+     */
+    private static final Map<String, Boolean> CONTRADICTION = Collections.unmodifiableMap(new HashMap<String, Boolean>());
+
+    private ExpressionSolver expressionSolver;
+    /**
+     * Representative feature of each feature's part.
+     */
+    private Map<String, String> parts;
+    /**
+     * Constraints of each part, by representative feature.
+     */
+    private Map<String, List<String>> constraints;
+    /**
+     * Constraints over no features (e.g., {@code false}), which are part
+     * of every part's factor. Thus, a contradiction among them voids
+     * every configuration.
+     */
+    private List<String> constantConstraints;
+    private Map<String, ADD> factors = new HashMap<String, ADD>();
+
+    private FeatureModelDecomposition(ExpressionSolver expressionSolver,
+                                      Map<String, String> parts,
+                                      Map<String, List<String>> constraints,
+                                      List<String> constantConstraints) {
+        this.expressionSolver = expressionSolver;
+        this.parts = parts;
+        this.constraints = constraints;
+        this.constantConstraints = constantConstraints;
+    }
+
+    /**
+     * Decomposes a feature model.
+     *
+     * @param featureModel Feature model as a conjunction of constraints (ideally,
+     *          a CNF) expressed using Java logical operators.
+     * @param expressionSolver Solver used for encoding the parts' feature models.
+     * @return
+     */
+    public static FeatureModelDecomposition decompose(String featureModel, ExpressionSolver expressionSolver) {
+        List<String> opaque = new LinkedList<String>();
+        List<String> constantConstraints = new LinkedList<String>();
+        List<Map<String, Boolean>> clauses = new LinkedList<Map<String, Boolean>>();
+        for (String conjunct: splitTopLevel(featureModel.trim(), "&&")) {
+            Map<String, Boolean> clause = parseClause(conjunct);
+            if (clause == TAUTOLOGY || conjunct.trim().isEmpty()) {
+                continue;
+            } else if (clause == CONTRADICTION) {
+                constantConstraints.add("false");
+            } else if (clause != null) {
+                clauses.add(clause);
+            } else {
+                opaque.add(conjunct);
+            }
+        }
+
+        Map<String, Boolean> units = propagateUnits(clauses);
+
+        UnionFind<String> graph = new UnionFind<String>();
+        Map<String, Collection<String>> constraintVariables = new LinkedHashMap<String, Collection<String>>();
+        for (Map.Entry<String, Boolean> unit: units.entrySet()) {
+            constraintVariables.put((unit.getValue() ? "" : "!") + unit.getKey(),
+                                    Collections.singleton(unit.getKey()));
+        }
+        for (Map<String, Boolean> clause: clauses) {
+            String constraint = clause.entrySet().stream()
+                    .map(literal -> (literal.getValue() ? "" : "!") + literal.getKey())
+                    .collect(Collectors.joining(" || ", "(", ")"));
+            constraintVariables.put(constraint, clause.keySet());
+        }
+        for (String constraint: opaque) {
+            Set<String> variables = new LinkedHashSet<String>();
+            Matcher matcher = IDENTIFIER.matcher(constraint);
+            while (matcher.find()) {
+                if (!TRUE.contains(matcher.group()) && !FALSE.contains(matcher.group())) {
+                    variables.add(matcher.group());
+                }
+            }
+            constraintVariables.put("(" + constraint + ")", variables);
+        }
+
+        for (Collection<String> variables: constraintVariables.values()) {
+            String first = null;
+            for (String variable: variables) {
+                graph.add(variable);
+                if (first == null) {
+                    first = variable;
+                } else {
+                    graph.union(first, variable);
+                }
+            }
+        }
+
+        Map<String, String> parts = new HashMap<String, String>();
+        for (String feature: graph.elements()) {
+            parts.put(feature, graph.find(feature));
+        }
+        Map<String, List<String>> constraints = new HashMap<String, List<String>>();
+        for (Map.Entry<String, Collection<String>> constraint: constraintVariables.entrySet()) {
+            if (constraint.getValue().isEmpty()) {
+                constantConstraints.add(constraint.getKey());
+                continue;
+            }
+            String part = parts.get(constraint.getValue().iterator().next());
+            constraints.computeIfAbsent(part, p -> new LinkedList<String>()).add(constraint.getKey());
+        }
+        return new FeatureModelDecomposition(expressionSolver, parts, constraints, constantConstraints);
+    }
+
+    /**
+     * Returns the number of independent parts.
+     */
+    public int size() {
+        return constraints.size();
+    }
+
+    /**
+     * Returns the part to which a feature belongs, identified by one of its
+     * features. Features unknown to the feature model are unconstrained,
+     * so each one is a part by itself.
+     */
+    public String partOf(String feature) {
+        return parts.getOrDefault(feature, feature);
+    }
+
+    /**
+     * Returns the features of each part.
+     */
+    public Collection<Set<String>> getParts() {
+        return parts.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                                               Collectors.mapping(Map.Entry::getKey, Collectors.toSet())))
+                .values();
+    }
+
+    /**
+     * Returns the 0,1-ADD of the feature model restricted to a part,
+     * i.e., the conjunction of the part's constraints (and of the constraints
+     * over no features, if any).
+     *
+     * @param part Part as returned by {@link #partOf(String)}.
+     */
+    public synchronized ADD getFactor(String part) {
+        ADD factor = factors.get(part);
+        if (factor == null) {
+            List<String> partConstraints = new LinkedList<String>(constraints.getOrDefault(part, Collections.<String>emptyList()));
+            partConstraints.addAll(constantConstraints);
+            String formula = partConstraints.isEmpty() ? "true" : String.join(" && ", partConstraints);
+            factor = expressionSolver.encodeFormula(formula);
+            factors.put(part, factor);
+        }
+        return factor;
+    }
+
+    /**
+     * Propagates unit clauses until a fixpoint is reached, removing satisfied
+     * clauses and falsified literals from {@code clauses}.
+     *
+     * @return the forced value of each feature occurring in a unit clause.
+     */
+    private static Map<String, Boolean> propagateUnits(List<Map<String, Boolean>> clauses) {
+        Map<String, Boolean> units = new LinkedHashMap<String, Boolean>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            List<Map<String, Boolean>> remaining = new ArrayList<Map<String, Boolean>>(clauses.size());
+            for (Map<String, Boolean> clause: clauses) {
+                boolean satisfied = false;
+                Map<String, Boolean> simplified = new LinkedHashMap<String, Boolean>();
+                for (Map.Entry<String, Boolean> literal: clause.entrySet()) {
+                    Boolean forced = units.get(literal.getKey());
+                    if (forced == null) {
+                        simplified.put(literal.getKey(), literal.getValue());
+                    } else if (forced.equals(literal.getValue())) {
+                        satisfied = true;
+                    }
+                }
+                if (satisfied) {
+                    changed = true;
+                } else if (simplified.size() == 1) {
+                    Map.Entry<String, Boolean> unit = simplified.entrySet().iterator().next();
+                    units.put(unit.getKey(), unit.getValue());
+                    changed = true;
+                } else if (simplified.isEmpty()) {
+                    // A falsified clause (i.e., a void feature model) is kept
+                    // as is, so that its part still encodes a contradiction.
+                    remaining.add(clause);
+                } else {
+                    remaining.add(simplified);
+                    changed |= simplified.size() != clause.size();
+                }
+            }
+            clauses.clear();
+            clauses.addAll(remaining);
+        }
+        return units;
+    }
+
+    /**
+     * Parses a disjunction of (possibly negated) features and constants.
+     *
+     * @return a map from each feature to its polarity, {@link #TAUTOLOGY} if the
+     *      clause always holds, {@link #CONTRADICTION} if it never holds (i.e.,
+     *      all of its literals are false), or {@code null} if {@code conjunct}
+     *      is not a clause.
+     */
+    private static Map<String, Boolean> parseClause(String conjunct) {
+        String clause = stripParentheses(conjunct.trim());
+        Map<String, Boolean> literals = new LinkedHashMap<String, Boolean>();
+        for (String literal: splitTopLevel(clause, "||")) {
+            Matcher matcher = LITERAL.matcher(literal);
+            if (!matcher.matches()) {
+                return null;
+            }
+            boolean polarity = matcher.group(1).isEmpty();
+            String variable = matcher.group(2);
+            if (TRUE.contains(variable) || FALSE.contains(variable)) {
+                if (TRUE.contains(variable) == polarity) {
+                    return TAUTOLOGY;
+                }
+                // A false literal does not contribute to the clause.
+                continue;
+            }
+            Boolean previous = literals.put(variable, polarity);
+            if (previous != null && previous != polarity) {
+                // X || !X
+                return TAUTOLOGY;
+            }
+        }
+        return literals.isEmpty() ? CONTRADICTION : literals;
+    }
+
+    private static String stripParentheses(String expression) {
+        while (expression.startsWith("(") && expression.endsWith(")")
+                && isBalanced(expression.substring(1, expression.length() - 1))) {
+            expression = expression.substring(1, expression.length() - 1).trim();
+        }
+        return expression;
+    }
+
+    /**
+     * Checks whether no parenthesis in {@code expression} closes
+     * one which was opened outside of it.
+     */
+    private static boolean isBalanced(String expression) {
+        int depth = 0;
+        for (char c: expression.toCharArray()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth < 0) {
+                return false;
+            }
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Splits {@code expression} at the occurrences of {@code operator}
+     * which are not enclosed in parentheses.
+     */
+    private static List<String> splitTopLevel(String expression, String operator) {
+        List<String> operands = new LinkedList<String>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && expression.startsWith(operator, i)) {
+                operands.add(expression.substring(start, i));
+                start = i + operator.length();
+                i = start - 1;
+            }
+        }
+        operands.add(expression.substring(start));
+        return operands;
+    }
+
+    /**
+     * Minimal disjoint-set forest.
+     */
+    private static class UnionFind<T> {
+        private Map<T, T> parents = new LinkedHashMap<T, T>();
+
+        void add(T element) {
+            parents.putIfAbsent(element, element);
+        }
+
+        T find(T element) {
+            T parent = parents.get(element);
+            if (parent.equals(element)) {
+                return element;
+            }
+            T root = find(parent);
+            parents.put(element, root);
+            return root;
+        }
+
+        void union(T a, T b) {
+            T rootA = find(a);
+            T rootB = find(b);
+            if (!rootA.equals(rootB)) {
+                parents.put(rootB, rootA);
+            }
+        }
+
+        Set<T> elements() {
+            return parents.keySet();
+        }
+    }
+
+}
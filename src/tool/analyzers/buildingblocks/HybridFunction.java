@@ -0,0 +1,145 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.UnrecognizedVariableException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import expressionsolver.symbolic.CompiledTerm;
+
+/**
+ * Reliability function of a component which is either kept symbolically
+ * (as an ADD) or enumerated, i.e., evaluated on demand for each relevant
+ * sub-configuration. A relevant sub-configuration is the restriction of
+ * a configuration to the features in the function's support, so that the
+ * number of evaluations is bounded by the number of distinct restrictions
+ * actually requested, instead of by the number of configurations.
+ *
+ * Enumerated functions are used by feature-family-based analyses as a
+ * fallback for components whose ADDs would not fit a node budget.
+ */
+public class HybridFunction {
+
+    private ADD function;
+
+    private ADD presence;
+    private CompiledTerm expression;
+    private HybridFunction[] dependencies;
+    private Map<List<String>, Double> evaluated;
+
+    private Set<String> support;
+
+    private HybridFunction(ADD function) {
+        this.function = function;
+        this.support = function.getVariables();
+    }
+
+    private HybridFunction(ADD presence, CompiledTerm expression, HybridFunction[] dependencies) {
+        this.presence = presence;
+        this.expression = expression;
+        this.dependencies = dependencies;
+        this.evaluated = new ConcurrentHashMap<List<String>, Double>();
+
+        this.support = new HashSet<String>(presence.getVariables());
+        for (HybridFunction dependency: dependencies) {
+            support.addAll(dependency.getSupport());
+        }
+    }
+
+    /**
+     * Wraps a symbolic reliability function.
+     */
+    public static HybridFunction symbolic(ADD function) {
+        return new HybridFunction(function);
+    }
+
+    /**
+     * Creates an enumerated reliability function for a component.
+     *
+     * @param presence 0,1-ADD of the component's presence condition.
+     * @param expression Reliability expression of the component, whose variables
+     *          are the ids of the components on which it depends.
+     * @param values Reliability functions of (at least) the components
+     *          on which this one depends, indexed by id.
+     * @return a function which yields 1 for configurations in which the component
+     *          is absent and the value of {@code expression} otherwise.
+     */
+    public static HybridFunction enumerated(ADD presence, CompiledTerm expression, Map<String, HybridFunction> values) {
+        List<String> variables = expression.getVariables();
+        HybridFunction[] dependencies = new HybridFunction[variables.size()];
+        for (int i = 0; i < dependencies.length; i++) {
+            dependencies[i] = values.get(variables.get(i));
+            if (dependencies[i] == null) {
+                throw new IllegalArgumentException("No reliability function for component <" + variables.get(i) + ">");
+            }
+        }
+        return new HybridFunction(presence, expression, dependencies);
+    }
+
+    public boolean isSymbolic() {
+        return function != null;
+    }
+
+    /**
+     * Returns the underlying ADD, or {@code null} if this function is enumerated.
+     */
+    public ADD getFunction() {
+        return function;
+    }
+
+    /**
+     * Returns the features on which this function may depend.
+     */
+    public Set<String> getSupport() {
+        return support;
+    }
+
+    /**
+     * Returns the number of sub-configurations for which this function
+     * (if enumerated) has been evaluated so far.
+     */
+    public int getEvaluatedSubconfigurationsCount() {
+        return isSymbolic() ? 0 : evaluated.size();
+    }
+
+    /**
+     * Evaluates this function for a configuration.
+     *
+     * @param configuration Features present in the configuration.
+     * @return
+     * @throws UnrecognizedVariableException
+     */
+    public double evaluate(Collection<String> configuration) throws UnrecognizedVariableException {
+        List<String> relevant = configuration.stream()
+                .filter(support::contains)
+                .sorted()
+                .collect(Collectors.toList());
+        if (isSymbolic()) {
+            return function.eval(relevant);
+        }
+        Double value = evaluated.get(relevant);
+        if (value == null) {
+            value = evaluateRelevant(relevant);
+            evaluated.put(relevant, value);
+        }
+        return value;
+    }
+
+    private double evaluateRelevant(List<String> relevant) throws UnrecognizedVariableException {
+        if (presence.eval(relevant) == 0) {
+            return 1.0;
+        }
+        double[] values = new double[dependencies.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dependencies[i].evaluate(relevant);
+        }
+        return expression.evaluate(values);
+    }
+
+}
@@ -0,0 +1,319 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import tool.RDGNode;
+
+/**
+ * Store of per-node analysis artifacts, which allows for incremental re-analysis.
+ *
+ * For each RDG node, it records the content hash of its FDTMC, the signatures
+ * of its dependencies and its reliability expression. A node's signature is a
+ * digest of its content hash, its presence condition and the signatures of
+ * its dependencies, so it changes whenever the node or any of its transitive
+ * dependencies change.
+ *
+ * Reliability expressions of single FDTMCs depend only on the FDTMC itself,
+ * so they are looked up by content hash. Results which depend on the whole
+ * subtree (150% expressions and lifted ADDs) are looked up by signature.
+ * Lifted ADDs are bound to the CUDD manager which created them, so they are
+ * only kept in memory; everything else is persisted with {@link #save()}.
+ */
+public class IncrementalAnalysisStore {
+    private static final Logger LOGGER = Logger.getLogger(IncrementalAnalysisStore.class.getName());
+
+    private static final String NODE_RECORD = "node";
+    private static final String FAMILY_RECORD = "family";
+    private static final String SEPARATOR = "\t";
+
+    private final Path path;
+    private final boolean enabled;
+
+    private final Map<String, String> expressionsByContentHash = new ConcurrentHashMap<String, String>();
+    private final Map<String, String> familyExpressionsBySignature = new ConcurrentHashMap<String, String>();
+    /**
+     * Lifted results, by CUDD manager (JADD instance) and then by key.
+     */
+    private final Map<JADD, Map<String, ADD>> liftedResults = Collections.synchronizedMap(new WeakHashMap<JADD, Map<String, ADD>>());
+    /**
+     * Signatures of the nodes as of the previous run, by node id.
+     */
+    private final Map<String, String> previousSignatures = new HashMap<String, String>();
+    private final Map<String, NodeRecord> records = new ConcurrentHashMap<String, NodeRecord>();
+
+    private final AtomicInteger reusedExpressions = new AtomicInteger();
+    private final AtomicInteger computedExpressions = new AtomicInteger();
+
+    private IncrementalAnalysisStore(Path path, boolean enabled) {
+        this.path = path;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a store which never finds anything and never records anything.
+     */
+    public static IncrementalAnalysisStore disabled() {
+        return new IncrementalAnalysisStore(null, false);
+    }
+
+    /**
+     * Returns a store which is kept in memory only (e.g., for sharing
+     * results between analyses performed by the same process).
+     */
+    public static IncrementalAnalysisStore inMemory() {
+        return new IncrementalAnalysisStore(null, true);
+    }
+
+    /**
+     * Returns a store backed by the file at {@code path}, loading the
+     * records of a previous run if the file exists.
+     *
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public static IncrementalAnalysisStore load(Path path) throws IOException {
+        IncrementalAnalysisStore store = new IncrementalAnalysisStore(path, true);
+        if (Files.exists(path)) {
+            for (String line: Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                store.parseRecord(line);
+            }
+            LOGGER.info("Loaded " + store.records.size() + " node records from " + path);
+        }
+        return store;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the signatures of all nodes in {@code nodes}.
+     *
+     * @param nodes Transitive closure of an RDG node, as returned by
+     *          {@link RDGNode#getDependenciesTransitiveClosure()}.
+     * @return a map from node ids to their signatures.
+     */
+    public static Map<String, String> computeSignatures(List<RDGNode> nodes) {
+        Map<String, String> signatures = new HashMap<String, String>();
+        // Topological order guarantees that dependencies are signed first.
+        for (RDGNode node: nodes) {
+            List<String> dependencySignatures = getDependencySignatures(node, signatures);
+            String signature = digest(node.getFDTMC().getContentHash()
+                                      + SEPARATOR + node.getPresenceCondition()
+                                      + SEPARATOR + String.join(",", dependencySignatures));
+            signatures.put(node.getId(), signature);
+        }
+        return signatures;
+    }
+
+    /**
+     * Returns the reliability expression previously computed for an FDTMC
+     * with the given content hash, or null if there is none.
+     */
+    public String getExpression(String contentHash) {
+        if (!enabled) {
+            return null;
+        }
+        String expression = expressionsByContentHash.get(contentHash);
+        if (expression != null) {
+            reusedExpressions.incrementAndGet();
+        }
+        return expression;
+    }
+
+    public void putExpression(String contentHash, String expression) {
+        if (enabled) {
+            computedExpressions.incrementAndGet();
+            expressionsByContentHash.put(contentHash, expression);
+        }
+    }
+
+    /**
+     * Records the reliability expression of an RDG node.
+     *
+     * @param node
+     * @param signatures Signatures of the nodes in the node's transitive closure,
+     *          as returned by {@link #computeSignatures(List)}.
+     * @param expression
+     */
+    public void putNode(RDGNode node, Map<String, String> signatures, String expression) {
+        if (enabled) {
+            NodeRecord record = new NodeRecord(node.getId(),
+                                               node.getFDTMC().getContentHash(),
+                                               signatures.get(node.getId()),
+                                               getDependencySignatures(node, signatures),
+                                               expression);
+            records.put(record.id, record);
+            expressionsByContentHash.put(record.contentHash, expression);
+        }
+    }
+
+    /**
+     * Returns the 150% reliability expression previously computed for
+     * the subtree with the given signature, or null if there is none.
+     */
+    public String getFamilyExpression(String signature) {
+        if (!enabled) {
+            return null;
+        }
+        String expression = familyExpressionsBySignature.get(signature);
+        if (expression != null) {
+            reusedExpressions.incrementAndGet();
+        }
+        return expression;
+    }
+
+    public void putFamilyExpression(String signature, String expression) {
+        if (enabled) {
+            computedExpressions.incrementAndGet();
+            familyExpressionsBySignature.put(signature, expression);
+        }
+    }
+
+    /**
+     * Returns the lifted result previously computed with the given CUDD
+     * manager for the given key, or null if there is none.
+     *
+     * @param jadd Manager to which the result must be bound.
+     * @param key Signature of the node, qualified by anything else the
+     *          result depends on (e.g., the pruning strategy).
+     */
+    public ADD getLiftedResult(JADD jadd, String key) {
+        if (!enabled) {
+            return null;
+        }
+        Map<String, ADD> results = liftedResults.get(jadd);
+        return (results != null) ? results.get(key) : null;
+    }
+
+    public void putLiftedResult(JADD jadd, String key, ADD liftedResult) {
+        if (enabled) {
+            liftedResults.computeIfAbsent(jadd, j -> new ConcurrentHashMap<String, ADD>())
+                    .put(key, liftedResult);
+        }
+    }
+
+    /**
+     * Logs how many of the given nodes changed since the previous run.
+     *
+     * @param signatures Current signatures, by node id.
+     */
+    public void reportChanges(Map<String, String> signatures) {
+        if (!enabled || previousSignatures.isEmpty()) {
+            return;
+        }
+        long unchanged = signatures.entrySet().stream()
+                .filter(e -> e.getValue().equals(previousSignatures.get(e.getKey())))
+                .count();
+        LOGGER.info("Incremental analysis: " + unchanged + " of " + signatures.size()
+                    + " RDG nodes unchanged since the previous run.");
+    }
+
+    /**
+     * Persists the recorded artifacts to the backing file, if any.
+     */
+    public void save() {
+        if (!enabled || path == null) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (NodeRecord record: records.values()) {
+                writer.write(String.join(SEPARATOR,
+                                         NODE_RECORD,
+                                         record.id,
+                                         record.contentHash,
+                                         record.signature,
+                                         String.join(",", record.dependencySignatures),
+                                         record.expression));
+                writer.newLine();
+            }
+            for (Map.Entry<String, String> entry: familyExpressionsBySignature.entrySet()) {
+                writer.write(String.join(SEPARATOR, FAMILY_RECORD, entry.getKey(), entry.getValue()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            LOGGER.severe("Error writing the incremental analysis store.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+        LOGGER.info("Incremental analysis: " + reusedExpressions.get() + " expressions reused, "
+                    + computedExpressions.get() + " computed.");
+    }
+
+    private void parseRecord(String line) {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields[0].equals(NODE_RECORD) && fields.length == 6) {
+            List<String> dependencySignatures = fields[4].isEmpty() ? Collections.<String>emptyList()
+                                                                    : Arrays.asList(fields[4].split(","));
+            NodeRecord record = new NodeRecord(fields[1], fields[2], fields[3], dependencySignatures, fields[5]);
+            records.put(record.id, record);
+            previousSignatures.put(record.id, record.signature);
+            expressionsByContentHash.put(record.contentHash, record.expression);
+        } else if (fields[0].equals(FAMILY_RECORD) && fields.length == 3) {
+            familyExpressionsBySignature.put(fields[1], fields[2]);
+        } else {
+            LOGGER.warning("Ignoring malformed incremental analysis record: " + line);
+        }
+    }
+
+    private static List<String> getDependencySignatures(RDGNode node, Map<String, String> signatures) {
+        Collection<RDGNode> dependencies = node.getDependencies();
+        // Dependencies of dead nodes may have been pruned from the analysis.
+        return dependencies.stream()
+                .map(dependency -> signatures.get(dependency.getId()))
+                .filter(Objects::nonNull)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String digest(String contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hash = new StringBuilder();
+            for (byte b: digest.digest(contents.getBytes(StandardCharsets.UTF_8))) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class NodeRecord {
+        String id;
+        String contentHash;
+        String signature;
+        List<String> dependencySignatures;
+        String expression;
+
+        NodeRecord(String id, String contentHash, String signature, List<String> dependencySignatures, String expression) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.signature = signature;
+            this.dependencySignatures = dependencySignatures;
+            this.expression = expression;
+        }
+    }
+
+}
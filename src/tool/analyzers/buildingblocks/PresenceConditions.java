@@ -13,8 +13,29 @@ import expressionsolver.ExpressionSolver;
 
 public class PresenceConditions {
 
+    /**
+     * Equivalence class of presence conditions which hold in every
+     * valid configuration.
+     */
+    public static final String ALWAYS_PRESENT = "1";
+    /**
+     * Equivalence class of presence conditions which hold in no
+     * valid configuration.
+     */
+    public static final String NEVER_PRESENT = "0";
+
     public static boolean isPresent(String presenceCondition, Collection<String> configuration, ExpressionSolver expressionSolver) {
         ADD encodedPresenceCondition = expressionSolver.encodeFormula(presenceCondition);
+        return isPresent(encodedPresenceCondition, configuration);
+    }
+
+    /**
+     * Evaluates an already encoded presence condition.
+     *
+     * Since this does not build any ADD, it may be called concurrently
+     * (contrary to {@link #isPresent(String, Collection, ExpressionSolver)}).
+     */
+    public static boolean isPresent(ADD encodedPresenceCondition, Collection<String> configuration) {
         Double presenceValue;
         try {
             presenceValue = encodedPresenceCondition.eval(configuration.toArray(new String[configuration.size()]));
@@ -52,4 +73,55 @@ public class PresenceConditions {
         return classes;
     }
 
+    /**
+     * Maps a list of presence conditions into equivalence classes, much like
+     * {@link #toEquivalenceClasses(List)}, but taking two presence conditions
+     * to be equivalent if they hold in exactly the same valid configurations
+     * (e.g., {@code A && B} and {@code B && A}, or {@code A} and {@code B}
+     * if the feature model states {@code A <-> B}).
+     *
+     * Presence conditions which hold in every valid configuration are mapped to
+     * {@link #ALWAYS_PRESENT}, and the ones which hold in none are mapped to
+     * {@link #NEVER_PRESENT}. All other classes' identifiers have no special
+     * characters.
+     *
+     * @param presenceConditions
+     * @param featureModel 0,1-ADD of the feature model.
+     * @param expressionSolver Solver used for encoding the presence conditions.
+     *          Since it builds ADDs, this method must not be called concurrently.
+     * @return
+     */
+    public static Map<String, String> toEquivalenceClasses(List<String> presenceConditions, ADD featureModel, ExpressionSolver expressionSolver) {
+        Map<String, String> classes = new HashMap<String, String>();
+        // Canonical ADDs of equivalent presence conditions are the same node,
+        // so they can be grouped by their ADDs restricted to the feature model.
+        Map<ADD, String> restrictedClasses = new HashMap<ADD, String>();
+        int i = 0;
+        for (String pc: presenceConditions) {
+            if (classes.containsKey(pc)) {
+                continue;
+            }
+            ADD restricted = expressionSolver.encodeFormula(pc).times(featureModel);
+            String eqClass;
+            // The restricted ADD implies the feature model, so counting their
+            // satisfying assignments (over the same variables, which encoding
+            // the presence condition may have just extended) detects constants.
+            double validConfigurations = restricted.getNonZeroMintermsCount();
+            double featureModelConfigurations = featureModel.getNonZeroMintermsCount();
+            if (validConfigurations == 0) {
+                eqClass = NEVER_PRESENT;
+            } else if (validConfigurations == featureModelConfigurations) {
+                eqClass = ALWAYS_PRESENT;
+            } else if (restrictedClasses.containsKey(restricted)) {
+                eqClass = restrictedClasses.get(restricted);
+            } else {
+                eqClass = "s"+i;
+                restrictedClasses.put(restricted, eqClass);
+                i++;
+            }
+            classes.put(pc, eqClass);
+        }
+        return classes;
+    }
+
 }
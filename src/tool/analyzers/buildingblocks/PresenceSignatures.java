@@ -0,0 +1,81 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import expressionsolver.ExpressionSolver;
+
+/**
+ * Maps configurations to presence signatures, i.e., bit-vectors telling
+ * which of a set of presence conditions each configuration satisfies.
+ *
+ * Any analysis result which depends on a configuration only through these
+ * presence conditions is the same for configurations with equal signatures,
+ * so it needs to be computed only once per signature.
+ *
+ * Presence conditions are encoded as ADDs once, at construction. Computing
+ * signatures afterwards builds no ADDs, so it is thread-safe.
+ */
+public class PresenceSignatures {
+
+    private List<ADD> encodedPresenceConditions;
+    private Map<String, Integer> indices;
+
+    /**
+     * @param presenceConditions Presence conditions to be considered (duplicates
+     *          are allowed, but each one is evaluated only once).
+     * @param expressionSolver Solver used to encode presence conditions.
+     */
+    public PresenceSignatures(Collection<String> presenceConditions, ExpressionSolver expressionSolver) {
+        this.encodedPresenceConditions = new ArrayList<ADD>();
+        this.indices = new HashMap<String, Integer>();
+        for (String presenceCondition: presenceConditions) {
+            if (!indices.containsKey(presenceCondition)) {
+                indices.put(presenceCondition, encodedPresenceConditions.size());
+                encodedPresenceConditions.add(expressionSolver.encodeFormula(presenceCondition));
+            }
+        }
+    }
+
+    /**
+     * Computes the presence signature of a configuration.
+     *
+     * @param configuration
+     * @return a bit-vector in which the i-th bit is set if and only if the
+     *          i-th distinct presence condition is satisfied by the configuration.
+     */
+    public BitSet signatureOf(Collection<String> configuration) {
+        BitSet signature = new BitSet(encodedPresenceConditions.size());
+        for (int i = 0; i < encodedPresenceConditions.size(); i++) {
+            if (PresenceConditions.isPresent(encodedPresenceConditions.get(i), configuration)) {
+                signature.set(i);
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Returns whether a presence condition is satisfied by the configurations
+     * with the given signature.
+     *
+     * @param signature Signature returned by {@link #signatureOf(Collection)}.
+     * @param presenceCondition One of the presence conditions this object was created with.
+     */
+    public boolean isPresent(BitSet signature, String presenceCondition) {
+        return signature.get(indices.get(presenceCondition));
+    }
+
+    /**
+     * Number of distinct presence conditions.
+     */
+    public int size() {
+        return encodedPresenceConditions.size();
+    }
+
+}
@@ -1,12 +1,29 @@
 package tool.analyzers.buildingblocks;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import tool.analyzers.CompactReliabilityResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
+import tool.stats.IProgressCollector;
+import tool.stats.ISpan;
+import tool.stats.ITracer;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopTracer;
+
 public class ProductIterationHelper {
+    private static final Logger LOGGER = Logger.getLogger(ProductIterationHelper.class.getName());
 
     public static <T> Map<Collection<String>, Double> evaluate(Function<Collection<String>, Double> eval,
                                                                Stream<Collection<String>> configurations,
@@ -21,4 +38,145 @@ public class ProductIterationHelper {
         return results;
     }
 
+    /**
+     * Evaluates each configuration by means of a function of its presence
+     * signature, so that configurations with the same signature are
+     * evaluated only once.
+     *
+     * When evaluating in parallel, configurations whose signature is already
+     * being evaluated wait for (and reuse) the ongoing evaluation.
+     *
+     * @param eval Evaluation function, which must depend on a configuration
+     *          only through its signature.
+     * @param signatureOf Function mapping configurations to their signatures
+     *          (e.g., {@link PresenceSignatures#signatureOf(Collection)}).
+     * @param configurations
+     * @param concurrencyStrategy
+     * @return the result for each configuration.
+     */
+    public static Map<Collection<String>, Double> evaluate(Function<BitSet, Double> eval,
+                                                           Function<Collection<String>, BitSet> signatureOf,
+                                                           Stream<Collection<String>> configurations,
+                                                           ConcurrencyStrategy concurrencyStrategy) {
+        Map<Collection<String>, Double> results = new ConcurrentHashMap<Collection<String>, Double>();
+        evaluate(eval, signatureOf, configurations, concurrencyStrategy, results::put);
+        return results;
+    }
+
+    /**
+     * Evaluates each configuration by means of a function of its presence
+     * signature, handing each result over to {@code consumer} as soon as it
+     * is computed, instead of collecting all of them.
+     *
+     * @see #evaluate(Function, Function, Stream, ConcurrencyStrategy)
+     * @param consumer Receiver of each configuration and its result. It must be
+     *          thread-safe if {@code concurrencyStrategy} is PARALLEL.
+     */
+    public static void evaluate(Function<BitSet, Double> eval,
+                                Function<Collection<String>, BitSet> signatureOf,
+                                Stream<Collection<String>> configurations,
+                                ConcurrencyStrategy concurrencyStrategy,
+                                BiConsumer<Collection<String>, Double> consumer) {
+        evaluate(eval, signatureOf, configurations, concurrencyStrategy, consumer, new NoopTracer());
+    }
+
+    /**
+     * Evaluates each configuration by means of a function of its presence
+     * signature, reporting the evaluation of each distinct signature (i.e.,
+     * of the batch of configurations which share it) as a span to {@code tracer}.
+     *
+     * @see #evaluate(Function, Function, Stream, ConcurrencyStrategy, BiConsumer)
+     */
+    public static void evaluate(Function<BitSet, Double> eval,
+                                Function<Collection<String>, BitSet> signatureOf,
+                                Stream<Collection<String>> configurations,
+                                ConcurrencyStrategy concurrencyStrategy,
+                                BiConsumer<Collection<String>, Double> consumer,
+                                ITracer tracer) {
+        evaluate(eval, signatureOf, configurations, concurrencyStrategy, consumer, tracer, new NoopProgressCollector());
+    }
+
+    /**
+     * Evaluates each configuration by means of a function of its presence
+     * signature, also reporting to {@code progressCollector} how long it took
+     * to get each configuration's result (including the time waiting for an
+     * ongoing evaluation of its signature).
+     *
+     * @see #evaluate(Function, Function, Stream, ConcurrencyStrategy, BiConsumer, ITracer)
+     */
+    public static void evaluate(Function<BitSet, Double> eval,
+                                Function<Collection<String>, BitSet> signatureOf,
+                                Stream<Collection<String>> configurations,
+                                ConcurrencyStrategy concurrencyStrategy,
+                                BiConsumer<Collection<String>, Double> consumer,
+                                ITracer tracer,
+                                IProgressCollector progressCollector) {
+        Map<BitSet, CompletableFuture<Double>> memo = new ConcurrentHashMap<BitSet, CompletableFuture<Double>>();
+        Function<Collection<String>, Double> memoizedEval = configuration -> {
+            BitSet signature = signatureOf.apply(configuration);
+            CompletableFuture<Double> result = new CompletableFuture<Double>();
+            CompletableFuture<Double> ongoing = memo.putIfAbsent(signature, result);
+            if (ongoing != null) {
+                return join(ongoing);
+            }
+            try (ISpan span = tracer.startSpan("configuration batch", "presence signature")) {
+                span.setAttribute("presentComponents", signature.cardinality());
+                result.complete(eval.apply(signature));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+            return result.join();
+        };
+
+        Stream<Collection<String>> configs = concurrencyStrategy == ConcurrencyStrategy.PARALLEL ?
+                                                        configurations.parallel()
+                                                        : configurations.sequential();
+        LongAdder evaluated = new LongAdder();
+        progressCollector.startIteration();
+        try {
+            configs.forEach(configuration -> {
+                long startTime = System.nanoTime();
+                Double result = memoizedEval.apply(configuration);
+                progressCollector.collectLatency(configuration, System.nanoTime() - startTime);
+                consumer.accept(configuration, result);
+                evaluated.increment();
+            });
+        } finally {
+            progressCollector.finishIteration();
+        }
+        LOGGER.info("Evaluated " + evaluated.sum() + " configurations by means of "
+                    + memo.size() + " distinct presence signatures.");
+    }
+
+    /**
+     * Returns a consumer of product results which reports each of them to
+     * {@code resultSink}. If no sink is set (i.e., it is a no-op one), results
+     * are kept in {@code results} instead, since they would be lost otherwise.
+     * Streamed results are not kept, so that memory usage does not grow
+     * with the number of configurations.
+     *
+     * Configurations are taken as valid, since invalid ones are not expected
+     * to be evaluated.
+     */
+    public static BiConsumer<Collection<String>, Double> reportTo(IReliabilityResultSink resultSink, CompactReliabilityResults results) {
+        if (resultSink instanceof NoopReliabilityResultSink) {
+            return results::putResult;
+        }
+        return (configuration, reliability) -> resultSink.accept(configuration, reliability, true);
+    }
+
+    private static Double join(CompletableFuture<Double> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
 }
@@ -15,11 +15,15 @@ import tool.UnknownFeatureException;
 import tool.analyzers.ADDReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
 import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.analyzers.buildingblocks.PresenceConditions;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
 
@@ -37,6 +41,7 @@ public class FamilyBasedAnalyzer {
     private FamilyBasedHelper helper;
 
     private ITimeCollector timeCollector;
+    private ITracer tracer;
     private IFormulaCollector formulaCollector;
 
     public FamilyBasedAnalyzer(JADD jadd,
@@ -49,9 +54,10 @@ public class FamilyBasedAnalyzer {
         this.modelChecker = modelChecker;
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
         this.formulaCollector = formulaCollector;
 
-        this.firstPhase = new FamilyBasedFirstPhase(modelChecker);
+        this.firstPhase = new FamilyBasedFirstPhase(modelChecker, featureModel, expressionSolver);
         this.helper = new FamilyBasedHelper(expressionSolver);
     }
 
@@ -59,17 +65,19 @@ public class FamilyBasedAnalyzer {
      * Evaluates the family-based reliability function of an RDG node.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @param concurrencyStrategy
      * @return
      * @throws CyclicRdgException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
         LOGGER.warning("Family-based analysis does not support parallel execution.");
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        List<RDGNode> dependencies = pruning.getDependencies();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, pruning.getDeadComponents());
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
@@ -80,8 +88,11 @@ public class FamilyBasedAnalyzer {
         List<String> presenceConditions = dependencies.stream()
                 .map(RDGNode::getPresenceCondition)
                 .collect(Collectors.toList());
-        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
+        Map<String, String> pcEquivalence = firstPhase.toEquivalenceClasses(presenceConditions);
+        // Classes which are constant under the feature model are not parameters.
         Map<String, String> eqClassToPC = pcEquivalence.entrySet().stream()
+                .filter(e -> !e.getValue().equals(PresenceConditions.ALWAYS_PRESENT)
+                        && !e.getValue().equals(PresenceConditions.NEVER_PRESENT))
                 .collect(Collectors.toMap(e -> e.getValue(),
                                           e -> e.getKey(),
                                           (a, b) -> a));
@@ -100,4 +111,19 @@ public class FamilyBasedAnalyzer {
         return new ADDReliabilityResults(result);
     }
 
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for the first phase.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
+    }
+
 }
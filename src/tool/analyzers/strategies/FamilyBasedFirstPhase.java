@@ -1,7 +1,10 @@
 package tool.analyzers.strategies;
 
+import jadd.ADD;
+
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -10,8 +13,15 @@ import tool.Analyzer;
 import tool.RDGNode;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.DerivationFunction;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.stats.ISpan;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
+import expressionsolver.ExpressionSolver;
+import fdtmc.CompactFDTMC;
 import fdtmc.FDTMC;
+import fdtmc.State;
 
 public class FamilyBasedFirstPhase {
     private static final Logger LOGGER = Logger.getLogger(FamilyBasedFirstPhase.class.getName());
@@ -21,15 +31,67 @@ public class FamilyBasedFirstPhase {
     /**
      * LAMBDA_v
      */
-    private DerivationFunction<String, FDTMC, FDTMC> derive150Model;
+    private DerivationFunction<String, CompactFDTMC, CompactFDTMC> derive150Model;
+
+    private IncrementalAnalysisStore incrementalStore;
+    private ITracer tracer;
 
+    private ADD featureModel;
+    private ExpressionSolver expressionSolver;
 
     public FamilyBasedFirstPhase(ParametricModelChecker modelChecker) {
+        this(modelChecker, null, null);
+    }
+
+    /**
+     * Creates a first phase which classifies presence conditions with respect
+     * to the feature model (see {@link PresenceConditions#toEquivalenceClasses(List, ADD, ExpressionSolver)}),
+     * so that the 150% model has a single parameter per class of equivalent
+     * presence conditions, none for the ones which always hold, and does not
+     * include the components whose presence conditions never hold.
+     *
+     * @param modelChecker
+     * @param featureModel 0,1-ADD of the feature model, or {@code null} for classifying
+     *          presence conditions by string equality only.
+     * @param expressionSolver
+     */
+    public FamilyBasedFirstPhase(ParametricModelChecker modelChecker, ADD featureModel, ExpressionSolver expressionSolver) {
         this.modelChecker = modelChecker;
+        this.featureModel = featureModel;
+        this.expressionSolver = expressionSolver;
+
+        derive150Model = DerivationFunction.abstractDerivation(FamilyBasedFirstPhase::ifThenElse,
+                                                               CompactFDTMC::inline,
+                                                               makeSkipModel().toCompact());
+        this.incrementalStore = IncrementalAnalysisStore.disabled();
+        this.tracer = new NoopTracer();
+    }
+
+    /**
+     * Maps the given presence conditions into the equivalence classes used
+     * as parameters of the 150% model.
+     */
+    public Map<String, String> toEquivalenceClasses(List<String> presenceConditions) {
+        if (featureModel == null) {
+            return PresenceConditions.toEquivalenceClasses(presenceConditions);
+        }
+        return PresenceConditions.toEquivalenceClasses(presenceConditions, featureModel, expressionSolver);
+    }
+
+    /**
+     * Sets the store from which 150% expressions of unchanged RDGs
+     * are reused, instead of being model-checked again.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.incrementalStore = incrementalStore;
+    }
 
-        derive150Model = DerivationFunction.abstractDerivation(FDTMC::ifThenElse,
-                                                               FDTMC::inline,
-                                                               new FDTMC());
+    /**
+     * Sets the tracer to which the derivation and the model checking
+     * of the 150% model are reported.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
     }
 
     /**
@@ -41,23 +103,85 @@ public class FamilyBasedFirstPhase {
      *
      * This function implements the family-based first phase of analyses.
      *
+     * Dead components (see {@link tool.analyzers.buildingblocks.DeadComponentPruner})
+     * are taken as absent, so that their models are not part of the 150% model.
+     *
      * @see {@link Analyzer.getReliabilityExpression}
-     * @param node
+     * @param dependencies
+     * @param deadComponents Ids of the nodes which are never present.
      * @return
      */
-    public String getReliabilityExpression(List<RDGNode> dependencies) {
-        List<Component<FDTMC>> components = RDGNode.toComponentList(dependencies);
+    public String getReliabilityExpression(List<RDGNode> dependencies, Set<String> deadComponents) {
+        List<Component<CompactFDTMC>> components = RDGNode.toComponentList(dependencies).stream()
+                .map(c -> c.fmap(FDTMC::toCompact))
+                .collect(Collectors.toList());
         List<String> presenceConditions = components.stream()
                 .map(Component::getPresenceCondition)
                 .collect(Collectors.toList());
+        Map<String, String> pcEquivalence = toEquivalenceClasses(presenceConditions);
 
-        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
-        FDTMC derived150Model = Component.deriveFromMany(components,
-                                                         derive150Model,
-                                                         c -> pcEquivalence.get(c.getPresenceCondition()));
-        String expression = modelChecker.getReliability(derived150Model);
+        String signature = null;
+        if (incrementalStore.isEnabled()) {
+            Map<String, String> signatures = IncrementalAnalysisStore.computeSignatures(dependencies);
+            incrementalStore.reportChanges(signatures);
+            // The root node comes last in the transitive closure.
+            signature = signatures.get(dependencies.get(dependencies.size() - 1).getId());
+            if (featureModel != null) {
+                // Classes depend on the feature model, which is not part of the signature.
+                signature += ":" + presenceConditions.stream()
+                        .map(pcEquivalence::get)
+                        .collect(Collectors.joining(","));
+            }
+            String expression = incrementalStore.getFamilyExpression(signature);
+            if (expression != null) {
+                LOGGER.info("Reusing the 150% model's expression from the previous analysis.");
+                return expression;
+            }
+        }
+
+        CompactFDTMC derived150Model;
+        try (ISpan span = tracer.startSpan("derivation", "150% model")) {
+            derived150Model = Component.deriveFromMany(components,
+                                                       derive150Model,
+                                                       c -> deadComponents.contains(c.getId())
+                                                               ? PresenceConditions.NEVER_PRESENT
+                                                               : pcEquivalence.get(c.getPresenceCondition()));
+            span.setAttribute("components", components.size());
+        }
+        String expression;
+        try (ISpan call = tracer.startSpan("model checking", "150% model")) {
+            expression = modelChecker.getReliability(derived150Model);
+            call.setAttribute("states", derived150Model.getStatesCount())
+                .setAttribute("formulaSize", expression.length());
+        }
         LOGGER.info("Parametric model-checking ok...");
+        if (signature != null) {
+            incrementalStore.putFamilyExpression(signature, expression);
+        }
         return expression;
     }
 
+    /**
+     * Components which are always present are not decorated with a presence
+     * parameter, and the ones which are never present are replaced (along
+     * with their dependencies) by a model which always succeeds.
+     */
+    private static CompactFDTMC ifThenElse(String presence, CompactFDTMC ifPresent, CompactFDTMC ifAbsent) {
+        if (PresenceConditions.ALWAYS_PRESENT.equals(presence)) {
+            return ifPresent;
+        } else if (PresenceConditions.NEVER_PRESENT.equals(presence)) {
+            return ifAbsent;
+        }
+        return CompactFDTMC.ifThenElse(presence, ifPresent, ifAbsent);
+    }
+
+    private static FDTMC makeSkipModel() {
+        FDTMC skip = new FDTMC();
+        State initial = skip.createInitialState();
+        State success = skip.createSuccessState();
+        skip.createErrorState();
+        skip.createTransition(initial, success, "", "1");
+        return skip;
+    }
+
 }
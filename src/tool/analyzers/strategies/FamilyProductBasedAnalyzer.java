@@ -1,11 +1,12 @@
 package tool.analyzers.strategies;
 
+import jadd.ADD;
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -13,14 +14,23 @@ import java.util.stream.Stream;
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
 import tool.RDGNode;
+import tool.analyzers.CompactReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
-import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.PresenceSignatures;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.IProgressCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopTracer;
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
 
@@ -35,17 +45,24 @@ public class FamilyProductBasedAnalyzer {
     private FamilyBasedFirstPhase firstPhase;
 
     private ITimeCollector timeCollector;
+    private ITracer tracer;
+    private IProgressCollector progressCollector;
+    private IReliabilityResultSink resultSink;
     private IFormulaCollector formulaCollector;
 
     public FamilyProductBasedAnalyzer(JADD jadd,
+                               ADD featureModel,
                                ParametricModelChecker modelChecker,
                                ITimeCollector timeCollector,
                                IFormulaCollector formulaCollector) {
         this.expressionSolver = new ExpressionSolver(jadd);
 
-        this.firstPhase = new FamilyBasedFirstPhase(modelChecker);
+        this.firstPhase = new FamilyBasedFirstPhase(modelChecker, featureModel, expressionSolver);
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
+        this.progressCollector = new NoopProgressCollector();
+        this.resultSink = new NoopReliabilityResultSink();
         this.formulaCollector = formulaCollector;
     }
 
@@ -53,18 +70,20 @@ public class FamilyProductBasedAnalyzer {
      * Evaluates the family-product-based reliability function of an RDG node.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @return
      * @throws CyclicRdgException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Solving the family-wide expression for each product in parallel.");
         }
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        List<RDGNode> dependencies = pruning.getDependencies();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, pruning.getDeadComponents());
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
@@ -73,48 +92,91 @@ public class FamilyProductBasedAnalyzer {
         List<String> presenceConditions = dependencies.stream()
                 .map(RDGNode::getPresenceCondition)
                 .collect(Collectors.toList());
-        Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
+        Map<String, String> pcEquivalence = firstPhase.toEquivalenceClasses(presenceConditions);
+        // Classes which are constant under the feature model are not parameters.
         Map<String, String> eqClassToPC = pcEquivalence.entrySet().stream()
+                .filter(e -> !e.getValue().equals(PresenceConditions.ALWAYS_PRESENT)
+                        && !e.getValue().equals(PresenceConditions.NEVER_PRESENT))
                 .collect(Collectors.toMap(e -> e.getValue(),
                                           e -> e.getKey(),
                                           (a, b) -> a));
 
-        Map<Collection<String>, Double> results;
+        // The expression depends on a product only through its presence signature.
+        PresenceSignatures signatures = new PresenceSignatures(eqClassToPC.values(), expressionSolver);
+
+        CompactReliabilityResults results = new CompactReliabilityResults();
         if (concurrencyStrategy == ConcurrencyStrategy.SEQUENTIAL) {
             Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(parsedExpression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
+            ProductIterationHelper.evaluate(signature -> evaluateSingle(parsedExpression,
+                                                                        signature,
+                                                                        signatures,
+                                                                        eqClassToPC),
+                                            signatures::signatureOf,
+                                            configurations,
+                                            concurrencyStrategy,
+                                            ProductIterationHelper.reportTo(resultSink, results),
+                                            tracer,
+                                            progressCollector);
         } else {
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(expression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
+            ProductIterationHelper.evaluate(signature -> evaluateSingle(expression,
+                                                                        signature,
+                                                                        signatures,
+                                                                        eqClassToPC),
+                                            signatures::signatureOf,
+                                            configurations,
+                                            concurrencyStrategy,
+                                            ProductIterationHelper.reportTo(resultSink, results),
+                                            tracer,
+                                            progressCollector);
         }
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         LOGGER.info("Formulae evaluation ok...");
-        return new MapBasedReliabilityResults(results);
+        return results;
+    }
+
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
     }
 
-    private Double evaluateSingle(Expression<Double> expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
-        Function<Map.Entry<String, String>, Boolean> isPresent = e -> PresenceConditions.isPresent(e.getValue(),
-                                                                                                   configuration,
-                                                                                                   expressionSolver);
+    private Double evaluateSingle(Expression<Double> expression, BitSet signature, PresenceSignatures signatures, Map<String, String> eqClassToPC) {
         Map<String, Double> values = eqClassToPC.entrySet().stream()
             .collect(Collectors.toMap(e -> e.getKey(),
-                                      isPresent.andThen(present -> present ? 1.0 : 0.0)));
+                                      e -> signatures.isPresent(signature, e.getValue()) ? 1.0 : 0.0));
 
         return expression.solve(values);
 
     }
 
-    private Double evaluateSingle(String expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
+    private Double evaluateSingle(String expression, BitSet signature, PresenceSignatures signatures, Map<String, String> eqClassToPC) {
         Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-        return evaluateSingle(parsedExpression, configuration, eqClassToPC);
+        return evaluateSingle(parsedExpression, signature, signatures, eqClassToPC);
+    }
+
+    /**
+     * Sets the sink to which each product's reliability is reported as soon
+     * as it is computed, instead of being kept in the returned results.
+     */
+    public void setResultSink(IReliabilityResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for the first phase and the evaluation of each batch of products.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
+    }
+
+    /**
+     * Sets the collector to which the time taken to evaluate each product is reported.
+     */
+    public void setProgressCollector(IProgressCollector progressCollector) {
+        this.progressCollector = progressCollector;
     }
 
 }
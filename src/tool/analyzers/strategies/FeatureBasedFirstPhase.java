@@ -1,7 +1,10 @@
 package tool.analyzers.strategies;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -11,7 +14,11 @@ import tool.Analyzer;
 import tool.RDGNode;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.stats.IFormulaCollector;
+import tool.stats.ISpan;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
 import fdtmc.FDTMC;
 
 /**
@@ -19,14 +26,40 @@ import fdtmc.FDTMC;
  */
 public class FeatureBasedFirstPhase {
     private static final Logger LOGGER = Logger.getLogger(FeatureBasedFirstPhase.class.getName());
+    /**
+     * Reliability expression of a component which is never present.
+     * It is never used for computing reliabilities, only for keeping
+     * references to the component well-defined.
+     */
+    private static final String DEAD_COMPONENT_EXPRESSION = "1";
 
     ParametricModelChecker modelChecker;
     private IFormulaCollector formulaCollector;
+    private IncrementalAnalysisStore incrementalStore;
+    private ITracer tracer;
 
     public FeatureBasedFirstPhase(ParametricModelChecker modelChecker,
                                   IFormulaCollector formulaCollector) {
         this.modelChecker = modelChecker;
         this.formulaCollector = formulaCollector;
+        this.incrementalStore = IncrementalAnalysisStore.disabled();
+        this.tracer = new NoopTracer();
+    }
+
+    /**
+     * Sets the store from which reliability expressions of unchanged
+     * FDTMCs are reused, instead of being model-checked again.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.incrementalStore = incrementalStore;
+    }
+
+    /**
+     * Sets the tracer to which a span is reported for each RDG node
+     * and for each model checker call.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
     }
 
     /**
@@ -42,15 +75,30 @@ public class FeatureBasedFirstPhase {
      * @return
      */
     public List<Component<String>> getReliabilityExpressions(List<RDGNode> nodes, ConcurrencyStrategy concurrencyStrategy) {
+        return getReliabilityExpressions(nodes, Collections.<String>emptySet(), concurrencyStrategy);
+    }
+
+    /**
+     * Computes the reliability expressions for the models of the given RDG nodes,
+     * except for the dead ones (see {@link tool.analyzers.buildingblocks.DeadComponentPruner}),
+     * which are not model-checked.
+     *
+     * @param nodes
+     * @param deadComponents Ids of the nodes which are never present.
+     * @param concurrencyStrategy
+     * @return
+     */
+    public List<Component<String>> getReliabilityExpressions(List<RDGNode> nodes, Set<String> deadComponents, ConcurrencyStrategy concurrencyStrategy) {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Performing model checking in parallel for each FDTMC.");
         }
         // Expressions can be calculated concurrently...
         Stream<RDGNode> expressionStream = (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) ? nodes.parallelStream()
                                                                                                  : nodes.stream();
+        Map<String, String> signatures = computeSignatures(nodes);
         Map<String, String> expressionsByNode = expressionStream
             .collect(Collectors.toMap(RDGNode::getId,
-                                      this::getReliabilityExpression));
+                                      node -> getReliabilityExpression(node, signatures, deadComponents)));
 
         // ... but then we need to recover ordering information
         // so that we can format the response accordingly.
@@ -60,19 +108,112 @@ public class FeatureBasedFirstPhase {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Starts computing the reliability expressions for the models of the given
+     * RDG nodes, returning immediately with a list of components (in the same
+     * order as the input list) whose assets are the pending expressions.
+     *
+     * This allows for the second phase of the analysis to proceed as soon as
+     * each expression is available, instead of waiting for all of them.
+     *
+     * If {@code concurrencyStrategy} is SEQUENTIAL, all expressions are computed
+     * before returning, and the returned futures are already complete.
+     *
+     * @param nodes
+     * @param concurrencyStrategy
+     * @return
+     */
+    public List<Component<CompletableFuture<String>>> getReliabilityExpressionsAsync(List<RDGNode> nodes, ConcurrencyStrategy concurrencyStrategy) {
+        return getReliabilityExpressionsAsync(nodes, Collections.<String>emptySet(), concurrencyStrategy);
+    }
+
+    /**
+     * Starts computing the reliability expressions for the models of the given
+     * RDG nodes, except for the dead ones, whose expressions are available
+     * right away.
+     *
+     * @see #getReliabilityExpressionsAsync(List, ConcurrencyStrategy)
+     * @param nodes
+     * @param deadComponents Ids of the nodes which are never present.
+     * @param concurrencyStrategy
+     * @return
+     */
+    public List<Component<CompletableFuture<String>>> getReliabilityExpressionsAsync(List<RDGNode> nodes, Set<String> deadComponents, ConcurrencyStrategy concurrencyStrategy) {
+        if (concurrencyStrategy == ConcurrencyStrategy.SEQUENTIAL) {
+            return getReliabilityExpressions(nodes, deadComponents, concurrencyStrategy).stream()
+                    .map(c -> c.fmap(CompletableFuture::completedFuture))
+                    .collect(Collectors.toList());
+        }
+        LOGGER.info("Performing model checking in parallel for each FDTMC, as a pipeline.");
+        Map<String, String> signatures = computeSignatures(nodes);
+        Map<String, CompletableFuture<String>> expressionsByNode = nodes.stream()
+                .collect(Collectors.toMap(RDGNode::getId,
+                                          node -> deadComponents.contains(node.getId())
+                                                  ? CompletableFuture.completedFuture(DEAD_COMPONENT_EXPRESSION)
+                                                  : CompletableFuture.supplyAsync(() -> getReliabilityExpression(node, signatures))));
+        return nodes.stream()
+                .map(RDGNode::toComponent)
+                .map(c -> c.fmap((FDTMC f) -> expressionsByNode.get(c.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the signatures of the given nodes for incremental analysis,
+     * if enabled.
+     *
+     * @return the signatures by node id, or null if incremental analysis is disabled.
+     */
+    private Map<String, String> computeSignatures(List<RDGNode> nodes) {
+        if (!incrementalStore.isEnabled()) {
+            return null;
+        }
+        Map<String, String> signatures = IncrementalAnalysisStore.computeSignatures(nodes);
+        incrementalStore.reportChanges(signatures);
+        return signatures;
+    }
+
+    private String getReliabilityExpression(RDGNode node, Map<String, String> signatures, Set<String> deadComponents) {
+        if (deadComponents.contains(node.getId())) {
+            return DEAD_COMPONENT_EXPRESSION;
+        }
+        return getReliabilityExpression(node, signatures);
+    }
+
     /**
      * Computes the reliability expression for the model of a given RDG node.
      *
      * @param node
+     * @param signatures Signatures of the analyzed nodes, if incremental analysis is enabled.
      * @return an algebraic expression on the variables present in the node's model.
      */
-    private String getReliabilityExpression(RDGNode node) {
-        FDTMC model = node.getFDTMC();
-        String reliabilityExpression = modelChecker.getReliability(model);
+    private String getReliabilityExpression(RDGNode node, Map<String, String> signatures) {
+        try (ISpan span = tracer.startSpan("rdg node", node.getId())) {
+            FDTMC model = node.getFDTMC();
+            String reliabilityExpression = null;
+            String contentHash = null;
+            if (incrementalStore.isEnabled()) {
+                contentHash = model.getContentHash();
+                reliabilityExpression = incrementalStore.getExpression(contentHash);
+            }
+            span.setAttribute("reused", reliabilityExpression != null);
+            if (reliabilityExpression == null) {
+                try (ISpan call = tracer.startSpan("model checking", node.getId())) {
+                    reliabilityExpression = modelChecker.getReliability(model);
+                    call.setAttribute("states", model.getStates().size());
+                }
+                if (contentHash != null) {
+                    incrementalStore.putExpression(contentHash, reliabilityExpression);
+                }
+            }
+            if (signatures != null) {
+                incrementalStore.putNode(node, signatures, reliabilityExpression);
+            }
+            span.setAttribute("formulaSize", reliabilityExpression.length());
 
-        formulaCollector.collectFormula(node, reliabilityExpression);
-        LOGGER.fine("Reliability expression for "+ node.getId() + " -> " + reliabilityExpression);
-        return reliabilityExpression;
+            formulaCollector.collectFormula(node, reliabilityExpression);
+            LOGGER.fine("Reliability expression for "+ node.getId() + " -> " + reliabilityExpression);
+            return reliabilityExpression;
+        }
     }
 
 }
@@ -3,36 +3,67 @@ package tool.analyzers.strategies;
 import jadd.ADD;
 import jadd.JADD;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.analyzers.ADDReliabilityResults;
+import tool.analyzers.HybridReliabilityResults;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.NoPruningStrategy;
 import tool.analyzers.buildingblocks.AssetProcessor;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.HybridFunction;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.ISpan;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
+import expressionsolver.symbolic.CompiledTerm;
+import expressionsolver.symbolic.TermFactory;
+import expressionsolver.symbolic.TermParser;
 
 /**
  * Orchestrator of feature-family-based analyses.
  */
 public class FeatureFamilyBasedAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(FeatureFamilyBasedAnalyzer.class.getName());
 
     private ADD featureModel;
     private JADD jadd;
     private ExpressionSolver expressionSolver;
     private IPruningStrategy pruningStrategy;
+    private IncrementalAnalysisStore incrementalStore;
+    /**
+     * Keys under which the lifted results of the current analysis are
+     * stored, by expression. Nodes with the same expression depend on
+     * the same components, so they also share lifted results.
+     */
+    private Map<String, String> liftedResultKeys = new ConcurrentHashMap<String, String>();
+    /**
+     * Maximum number of nodes of the ADD kept for a single component.
+     * Components beyond it fall back to enumeration. 0 means no limit.
+     */
+    private int addNodeBudget = 0;
 
     private FeatureBasedFirstPhase firstPhase;
     private FamilyBasedHelper helper;
@@ -40,10 +71,12 @@ public class FeatureFamilyBasedAnalyzer {
     /**
      * Sigma_v
      */
-    private DerivationFunction<ADD, Expression<ADD>, ADD> solve;
+    private DerivationFunction<ADD, String, ADD> solve;
 
 
     private ITimeCollector timeCollector;
+    private ITracer tracer;
+    private boolean modelCheckingTimerStopped;
 
     public FeatureFamilyBasedAnalyzer(JADD jadd,
                                       ADD featureModel,
@@ -55,16 +88,29 @@ public class FeatureFamilyBasedAnalyzer {
         this.featureModel = featureModel;
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
         this.pruningStrategy = new NoPruningStrategy();
+        this.incrementalStore = IncrementalAnalysisStore.disabled();
 
         this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
                                                      formulaCollector);
         this.helper = new FamilyBasedHelper(expressionSolver);
 
-        AssetProcessor<Expression<ADD>, ADD> evalAndPrune = (expr, values) -> {
-            return this.pruningStrategy.pruneInvalidConfigurations(null,
-                                                                   expr.solve(values),
-                                                                   featureModel);
+        // Lift + evaluation
+        AssetProcessor<String, ADD> evalAndPrune = (expression, values) -> {
+            String key = liftedResultKeys.get(expression);
+            ADD cached = (key != null) ? incrementalStore.getLiftedResult(jadd, key) : null;
+            if (cached != null) {
+                return cached;
+            }
+            Expression<ADD> lifted = helper.lift(expression);
+            ADD result = this.pruningStrategy.pruneInvalidConfigurations(null,
+                                                                         lifted.solve(values),
+                                                                         featureModel);
+            if (key != null) {
+                incrementalStore.putLiftedResult(jadd, key, result);
+            }
+            return result;
         };
         solve = DerivationFunction.abstractDerivation(ADD::ite,
                                                       evalAndPrune,
@@ -79,26 +125,33 @@ public class FeatureFamilyBasedAnalyzer {
      * to Real values, where the reliability of any invalid configuration is 0.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @param concurrencyStrategy
      * @param dotOutput path at where to dump the resulting ADD as a dot file.
      * @return
      * @throws CyclicRdgException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, ConcurrencyStrategy concurrencyStrategy, String dotOutput) throws CyclicRdgException {
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, ConcurrencyStrategy concurrencyStrategy, String dotOutput) throws CyclicRdgException {
+        List<RDGNode> dependencies = pruning.getDependencies();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Alpha_v
-        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
-        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        List<Component<CompletableFuture<String>>> expressions = firstPhase.getReliabilityExpressionsAsync(dependencies, pruning.getDeadComponents(), concurrencyStrategy);
+        liftedResultKeys.clear();
+        if (incrementalStore.isEnabled()) {
+            expressions = keyLiftedResults(expressions, dependencies);
+        }
+        if (addNodeBudget > 0) {
+            return evaluateHybridReliability(expressions, dotOutput);
+        }
+        // Lift + Sigma_v
+        ADD reliability = solveFromMany(expressions, solve);
+        return toResults(reliability, dotOutput);
+    }
 
+    private IReliabilityAnalysisResults toResults(ADD reliability, String dotOutput) {
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
-        // Lift
-        List<Component<Expression<ADD>>> liftedExpressions = expressions.stream()
-                .map(helper::lift)
-                .collect(Collectors.toList());
-        // Sigma_v
-        ADD reliability = solveFromMany(liftedExpressions);
         ADD result = featureModel.times(reliability);
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
 
@@ -109,6 +162,95 @@ public class FeatureFamilyBasedAnalyzer {
         return new ADDReliabilityResults(result);
     }
 
+    /**
+     * Lifts and solves each expression while the resulting ADDs fit the node
+     * budget, falling back to enumeration of relevant sub-configurations for
+     * the components whose ADDs do not (and, consequently, for the ones which
+     * depend on them).
+     */
+    private IReliabilityAnalysisResults evaluateHybridReliability(List<Component<CompletableFuture<String>>> expressions, String dotOutput) {
+        List<HybridFunction> enumerated = new LinkedList<HybridFunction>();
+        HybridFunction reliability = solveFromMany(expressions,
+                                                   (presence, expression, values) -> solveHybrid(presence,
+                                                                                                 expression,
+                                                                                                 values,
+                                                                                                 enumerated));
+        if (reliability.isSymbolic()) {
+            return toResults(reliability.getFunction(), dotOutput);
+        }
+        LOGGER.info(enumerated.size() + " components exceeded the budget of " + addNodeBudget
+                + " ADD nodes and were evaluated by enumeration.");
+        if (dotOutput != null) {
+            LOGGER.warning("Reliability was not fully computed as an ADD, so it will not be dumped at " + dotOutput);
+        }
+        return new HybridReliabilityResults(reliability, featureModel, enumerated);
+    }
+
+    /**
+     * Derives the reliability function of a component symbolically if
+     * <ul>
+     *  <li>its support is so small that its ADD cannot exceed the budget; or</li>
+     *  <li>all of its dependencies are symbolic and neither the ADDs it is
+     *      computed from nor the resulting one exceed the budget.</li>
+     * </ul>
+     * Otherwise, the component is enumerated.
+     */
+    private HybridFunction solveHybrid(ADD presence, String expression, Map<String, HybridFunction> values, List<HybridFunction> enumerated) {
+        CompiledTerm term = CompiledTerm.compile(new TermParser(new TermFactory()).parse(expression));
+        List<String> dependencies = term.getVariables();
+
+        if (dependencies.stream().map(values::get).allMatch(HybridFunction::isSymbolic)) {
+            Set<String> support = new HashSet<String>(presence.getVariables());
+            int intermediateNodes = presence.getNodeCount();
+            Map<String, ADD> symbolicValues = new HashMap<String, ADD>();
+            for (String dependency: dependencies) {
+                HybridFunction value = values.get(dependency);
+                support.addAll(value.getSupport());
+                intermediateNodes += value.getFunction().getNodeCount();
+                symbolicValues.put(dependency, value.getFunction());
+            }
+            boolean boundedBySupport = support.size() < Long.SIZE - 2
+                    && (2L << support.size()) - 1 <= addNodeBudget;
+
+            if (boundedBySupport || intermediateNodes <= addNodeBudget) {
+                ADD solved = solve.apply(presence, expression, symbolicValues);
+                if (boundedBySupport || solved.getNodeCount() <= addNodeBudget) {
+                    return HybridFunction.symbolic(solved);
+                }
+            }
+        }
+        HybridFunction fallback = HybridFunction.enumerated(presence, term, values);
+        enumerated.add(fallback);
+        return fallback;
+    }
+
+    /**
+     * Registers the key under which the lifted result of each expression is
+     * stored as soon as the expression is available.
+     */
+    private List<Component<CompletableFuture<String>>> keyLiftedResults(List<Component<CompletableFuture<String>>> expressions,
+                                                                        List<RDGNode> dependencies) {
+        // A lifted result depends on the whole subtree and on how it was pruned.
+        Map<String, String> signatures = IncrementalAnalysisStore.computeSignatures(dependencies);
+        String pruning = pruningStrategy.getClass().getName();
+        return expressions.stream()
+                .map(c -> new Component<CompletableFuture<String>>(c.getId(),
+                                                                   c.getPresenceCondition(),
+                                                                   c.getAsset().thenApply(expression -> {
+                                                                       liftedResultKeys.put(expression, signatures.get(c.getId()) + ":" + pruning);
+                                                                       return expression;
+                                                                   }),
+                                                                   c.getDependencies()))
+                .collect(Collectors.toList());
+    }
+
+    private void stopModelCheckingTimerIfDone(CompletableFuture<Void> modelChecking) {
+        if (modelChecking.isDone() && !modelCheckingTimerStopped) {
+            timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+            modelCheckingTimerStopped = true;
+        }
+    }
+
     /**
      * Sets the pruning strategy to be used for preventing calculation
      * of reliability values for invalid configurations.
@@ -123,6 +265,28 @@ public class FeatureFamilyBasedAnalyzer {
         this.pruningStrategy = pruningStrategy;
     }
 
+    /**
+     * Sets the maximum number of nodes of the ADD kept for any single
+     * component. The reliability functions of components which would exceed
+     * it are evaluated by enumerating their relevant sub-configurations instead,
+     * which bounds peak memory at the expense of per-configuration work.
+     *
+     * If none (or 0) is set, all components are lifted to ADDs.
+     *
+     * @param addNodeBudget
+     */
+    public void setAddNodeBudget(int addNodeBudget) {
+        this.addNodeBudget = addNodeBudget;
+    }
+
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.incrementalStore = incrementalStore;
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
+    }
+
     /**
      * Dumps the computed family reliability function to the output file
      * in the specified path.
@@ -135,10 +299,48 @@ public class FeatureFamilyBasedAnalyzer {
         jadd.dumpDot("Family Reliability", familyReliability, outputFile);
     }
 
-    private ADD solveFromMany(List<Component<Expression<ADD>>> dependencies) {
-        return Component.deriveFromMany(dependencies,
-                                        solve,
-                                        c -> expressionSolver.encodeFormula(c.getPresenceCondition()));
+    /**
+     * Lifts and solves each expression as soon as it (and the ones it depends on)
+     * is available, so that model checking and expression solving overlap.
+     *
+     * ADDs share a single CUDD manager, which is not thread-safe,
+     * so they must always be derived sequentially (i.e., in this thread).
+     *
+     * Expression solving time is accumulated over the derivation of each
+     * component, and model checking time stops being accounted for as soon
+     * as the last expression is available.
+     */
+    private <V> V solveFromMany(List<Component<CompletableFuture<String>>> expressions, DerivationFunction<ADD, String, V> derivation) {
+        CompletableFuture<Void> modelChecking = CompletableFuture.allOf(expressions.stream()
+                .map(Component::getAsset)
+                .toArray(CompletableFuture<?>[]::new));
+        modelCheckingTimerStopped = false;
+        V reliability = Component.deriveAsAvailable(expressions,
+                                                    (presence, expression, values) -> {
+                                                        stopModelCheckingTimerIfDone(modelChecking);
+                                                        timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+                                                        V solved;
+                                                        try (ISpan span = tracer.startSpan("expression solving", "component")) {
+                                                            solved = derivation.apply(presence, expression, values);
+                                                            span.setAttribute("formulaSize", expression.length());
+                                                            if (tracer.isEnabled() && solved instanceof ADD) {
+                                                                span.setAttribute("addNodes", ((ADD) solved).getNodeCount());
+                                                            }
+                                                        }
+                                                        timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+                                                        return solved;
+                                                    },
+                                                    c -> expressionSolver.encodeFormula(c.getPresenceCondition()));
+        stopModelCheckingTimerIfDone(modelChecking);
+        return reliability;
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for each RDG node.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
     }
 
 }
@@ -0,0 +1,231 @@
+package tool.analyzers.strategies;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import paramwrapper.ParametricModelChecker;
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import tool.analyzers.ADDReliabilityResults;
+import tool.analyzers.HybridReliabilityResults;
+import tool.analyzers.IPruningStrategy;
+import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.NoPruningStrategy;
+import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
+import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.FeatureModelDecomposition;
+import tool.analyzers.buildingblocks.HybridFunction;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
+import tool.stats.CollectibleTimers;
+import tool.stats.IFormulaCollector;
+import tool.stats.ISpan;
+import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
+import expressionsolver.ExpressionSolver;
+import expressionsolver.symbolic.CompiledTerm;
+import expressionsolver.symbolic.TermFactory;
+import expressionsolver.symbolic.TermParser;
+
+/**
+ * Orchestrator of factorized feature-family-based analyses.
+ *
+ * The feature model is decomposed into independent parts (see
+ * {@link FeatureModelDecomposition}). The reliability function of each
+ * component whose support lies within a single part is a factor computed
+ * as an ADD over that part only, pruned by that part's feature model.
+ * Components which combine factors of different parts are not multiplied
+ * out into a single ADD; they are evaluated lazily for each queried
+ * configuration instead (see {@link HybridFunction}). Thus, memory and time
+ * grow with the sum of the parts' sizes, rather than with their product.
+ */
+public class FeatureFamilyFactorizedAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(FeatureFamilyFactorizedAnalyzer.class.getName());
+
+    private ADD featureModel;
+    private String featureModelFormula;
+    /**
+     * Decomposition of the feature model, built on first use.
+     */
+    private FeatureModelDecomposition decomposition;
+    private ExpressionSolver expressionSolver;
+    private IPruningStrategy pruningStrategy;
+    private ADD one;
+
+    private FeatureBasedFirstPhase firstPhase;
+    private FamilyBasedHelper helper;
+
+    private ITimeCollector timeCollector;
+    private ITracer tracer;
+
+    public FeatureFamilyFactorizedAnalyzer(JADD jadd,
+                                           ADD featureModel,
+                                           String featureModelFormula,
+                                           ParametricModelChecker modelChecker,
+                                           ITimeCollector timeCollector,
+                                           IFormulaCollector formulaCollector) {
+        this.expressionSolver = new ExpressionSolver(jadd);
+        this.featureModel = featureModel;
+        this.featureModelFormula = featureModelFormula;
+        this.one = jadd.makeConstant(1.0);
+
+        this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
+        this.pruningStrategy = new NoPruningStrategy();
+
+        this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
+                                                     formulaCollector);
+        this.helper = new FamilyBasedHelper(expressionSolver);
+    }
+
+    /**
+     * Evaluates the factorized feature-family-based reliability function of
+     * an RDG node, based on the reliabilities of the nodes on which it depends.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
+     * @param concurrencyStrategy
+     * @return
+     * @throws CyclicRdgException
+     */
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
+        List<RDGNode> dependencies = pruning.getDependencies();
+        FeatureModelDecomposition decomposition = getDecomposition();
+        LOGGER.info("Feature model decomposed into " + decomposition.size() + " independent parts.");
+
+        timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        // Alpha_v
+        List<Component<CompletableFuture<String>>> pendingExpressions = firstPhase.getReliabilityExpressionsAsync(dependencies, pruning.getDeadComponents(), concurrencyStrategy);
+        List<Component<String>> expressions = pendingExpressions.stream()
+                .map(c -> c.fmap(CompletableFuture::join))
+                .collect(Collectors.toList());
+        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+
+        timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        // ADDs share a single CUDD manager, so factors are derived sequentially.
+        List<HybridFunction> crossPart = new LinkedList<HybridFunction>();
+        HybridFunction reliability = Component.deriveFromMany(expressions,
+                                                              (presence, expression, values) -> solve(presence,
+                                                                                                      expression,
+                                                                                                      values,
+                                                                                                      crossPart),
+                                                              c -> expressionSolver.encodeFormula(c.getPresenceCondition()));
+        IReliabilityAnalysisResults results;
+        if (reliability.isSymbolic()) {
+            results = new ADDReliabilityResults(featureModel.times(reliability.getFunction()));
+        } else {
+            LOGGER.info(crossPart.size() + " components combine independent parts and will be evaluated per configuration.");
+            results = new HybridReliabilityResults(reliability, featureModel, crossPart);
+        }
+        timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        return results;
+    }
+
+    /**
+     * Traces the derivation of a component's reliability function
+     * (see {@link #solveFactor(ADD, String, Map, List)}).
+     */
+    private HybridFunction solve(ADD presence, String expression, Map<String, HybridFunction> values, List<HybridFunction> crossPart) {
+        try (ISpan span = tracer.startSpan("expression solving", "component")) {
+            HybridFunction solved = solveFactor(presence, expression, values, crossPart);
+            span.setAttribute("formulaSize", expression.length())
+                .setAttribute("symbolic", solved.isSymbolic());
+            if (tracer.isEnabled() && solved.isSymbolic()) {
+                span.setAttribute("addNodes", solved.getFunction().getNodeCount());
+            }
+            return solved;
+        }
+    }
+
+    /**
+     * Derives the reliability function of a component as a factor, if its
+     * support (and those of its dependencies) lies within a single part of
+     * the feature model, or lazily otherwise.
+     */
+    private HybridFunction solveFactor(ADD presence, String expression, Map<String, HybridFunction> values, List<HybridFunction> crossPart) {
+        FeatureModelDecomposition decomposition = getDecomposition();
+        CompiledTerm term = CompiledTerm.compile(new TermParser(new TermFactory()).parse(expression));
+        List<String> dependencies = term.getVariables();
+
+        Set<String> parts = new HashSet<String>();
+        for (String feature: presence.getVariables()) {
+            parts.add(decomposition.partOf(feature));
+        }
+        Map<String, ADD> factors = new HashMap<String, ADD>();
+        boolean symbolic = true;
+        for (String dependency: dependencies) {
+            HybridFunction value = values.get(dependency);
+            symbolic &= value.isSymbolic();
+            if (symbolic) {
+                factors.put(dependency, value.getFunction());
+                for (String feature: value.getSupport()) {
+                    parts.add(decomposition.partOf(feature));
+                }
+            }
+        }
+
+        if (symbolic && parts.size() <= 1) {
+            ADD lifted = helper.lift(expression).solve(factors);
+            if (!parts.isEmpty()) {
+                lifted = pruningStrategy.pruneInvalidConfigurations(null,
+                                                                    lifted,
+                                                                    decomposition.getFactor(parts.iterator().next()));
+            }
+            return HybridFunction.symbolic(ADD.ite(presence, lifted, one));
+        }
+        HybridFunction lazy = HybridFunction.enumerated(presence, term, values);
+        crossPart.add(lazy);
+        return lazy;
+    }
+
+    /**
+     * Returns the decomposition of the feature model into independent parts,
+     * building it on the first call.
+     */
+    public synchronized FeatureModelDecomposition getDecomposition() {
+        if (decomposition == null) {
+            decomposition = FeatureModelDecomposition.decompose(featureModelFormula, expressionSolver);
+        }
+        return decomposition;
+    }
+
+    /**
+     * Sets the pruning strategy to be used for preventing calculation
+     * of reliability values for invalid configurations. Factors are pruned
+     * by the feature model of their own part only.
+     *
+     * @param pruningStrategy the pruningStrategy to set
+     */
+    public void setPruningStrategy(IPruningStrategy pruningStrategy) {
+        this.pruningStrategy = pruningStrategy;
+    }
+
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for each RDG node.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
+    }
+
+}
@@ -1,36 +1,59 @@
 package tool.analyzers.strategies;
 
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
+import expressionsolver.symbolic.CompiledTerm;
+import expressionsolver.symbolic.Term;
+import expressionsolver.symbolic.TermFactory;
+import expressionsolver.symbolic.TermParser;
 import jadd.JADD;
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.UnknownFeatureException;
+import tool.analyzers.CompactReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
-import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.PresenceSignatures;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.IProgressCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopTracer;
 
+/**
+ * Orchestrator of feature-family-product-based analyses.
+ *
+ * The expressions of all components (feature-based first phase) are composed
+ * into a single family-wide expression whose variables are the presence
+ * conditions' equivalence classes, which is then evaluated for each product.
+ */
 public class FeatureFamilyProductBasedAnalyzer {
 	private static final Logger LOGGER = Logger.getLogger(FeatureFamilyProductBasedAnalyzer.class.getName());
 	private ExpressionSolver expressionSolver;
     private FeatureBasedFirstPhase firstPhase;
-    
+
     private ITimeCollector timeCollector;
+    private ITracer tracer;
+    private IProgressCollector progressCollector;
+    private IReliabilityResultSink resultSink;
 
     public FeatureFamilyProductBasedAnalyzer(JADD jadd,
                                        ParametricModelChecker modelChecker,
@@ -39,31 +62,34 @@ public class FeatureFamilyProductBasedAnalyzer {
         this.expressionSolver = new ExpressionSolver(jadd);
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
+        this.progressCollector = new NoopProgressCollector();
+        this.resultSink = new NoopReliabilityResultSink();
 
         this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
                                                      formulaCollector);
     }
-    
+
     /**
-     * Evaluates the feature-product-based reliability value of an RDG node, based
+     * Evaluates the feature-family-product-based reliability value of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @return
      * @throws CyclicRdgException
      * @throws UnknownFeatureException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Solving the family-wide expression for each product in parallel.");
         }
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        List<RDGNode> dependencies = pruning.getDependencies();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
-        // Lambda_v + alpha_v
-        
-        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
-        
+        // Alpha_v
+        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, pruning.getDeadComponents(), concurrencyStrategy);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
@@ -76,80 +102,121 @@ public class FeatureFamilyProductBasedAnalyzer {
                 .collect(Collectors.toMap(e -> e.getValue(),
                                           e -> e.getKey(),
                                           (a, b) -> a));
-       
-        String expression = getReliabilityFinalExpression(expressions);
-        //String finalExpression = changeParameters(expression, pcEquivalence, expressions);
-
-        Map<Collection<String>, Double> results;
-        if (concurrencyStrategy == ConcurrencyStrategy.SEQUENTIAL) {
-            Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(parsedExpression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
-        } else {
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(expression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
-        }
+
+        // Family-wide expression, compiled once and shared by all products.
+        CompiledTerm expression = CompiledTerm.compile(getReliabilityFinalExpression(expressions, pcEquivalence));
+        LOGGER.info("Composed family-wide expression with " + expression.size() + " distinct subterms.");
+
+        PresenceSignatures signatures = new PresenceSignatures(eqClassToPC.values(), expressionSolver);
+        List<String> variablePCs = expression.getVariables().stream()
+                .map(variable -> {
+                    if (!eqClassToPC.containsKey(variable)) {
+                        LOGGER.warning("No interpretation for variable <" + variable + "> was provided");
+                    }
+                    return eqClassToPC.get(variable);
+                })
+                .collect(Collectors.toList());
+
+        CompactReliabilityResults results = new CompactReliabilityResults();
+        ProductIterationHelper.evaluate(signature -> evaluateSingle(expression,
+                                                                    signature,
+                                                                    signatures,
+                                                                    variablePCs),
+                                        signatures::signatureOf,
+                                        configurations,
+                                        concurrencyStrategy,
+                                        ProductIterationHelper.reportTo(resultSink, results),
+                                        tracer,
+                                        progressCollector);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         LOGGER.info("Formulae evaluation ok...");
-        return new MapBasedReliabilityResults(results);
+        return results;
+    }
+
+    /**
+     * Composes the expressions of the given components into a single expression,
+     * by substituting each reference to a dependency with
+     * {@code p*e + (1-p)}, where {@code e} is the composed expression of that
+     * dependency and {@code p} is the variable for its presence condition's
+     * equivalence class. Dependencies which are always present are substituted
+     * by their expressions alone.
+     *
+     * Substituted expressions are shared, not copied, so the resulting DAG
+     * grows linearly with the number of components.
+     *
+     * @param expressionsRDG Expressions of the components, in topological order.
+     * @param pcEquivalence Map from presence conditions to their equivalence classes,
+     *          as returned by {@link PresenceConditions#toEquivalenceClasses(List)}.
+     * @return the composed expression of the last component.
+     */
+    public Term getReliabilityFinalExpression(List<Component<String>> expressionsRDG, Map<String, String> pcEquivalence) {
+        TermFactory factory = new TermFactory();
+        TermParser parser = new TermParser(factory);
+        // Terms to be substituted for references to each component.
+        Map<String, Term> substitutions = new HashMap<String, Term>();
+
+        Term composed = null;
+        for (Component<String> component: expressionsRDG) {
+            composed = parser.parse(component.getAsset(),
+                                    variable -> substitutions.containsKey(variable) ? substitutions.get(variable)
+                                                                                : factory.variable(variable));
+
+            String presenceCondition = component.getPresenceCondition();
+            if (presenceCondition.equals("true")) {
+                substitutions.put(component.getId(), composed);
+            } else {
+                Term presence = factory.variable(pcEquivalence.get(presenceCondition));
+                substitutions.put(component.getId(),
+                                  factory.add(factory.multiply(presence, composed),
+                                              factory.subtract(factory.constant(1), presence)));
+            }
+        }
+        LOGGER.fine("Symbolic composition yielded " + factory.size() + " distinct terms.");
+        return composed;
     }
-    
-
-	public String getReliabilityFinalExpression(List<Component<String>> expressionsRDG) {
-		String temp;
-		List<String> lista_Expr = null;
-		
-		for (Component<String> node : expressionsRDG) {
-			temp = node.getAsset();
-			//temp = putSpaces(temp);
-			for (String key : lista_Expr) {
-					temp = temp.replace(key, " ( ( "+key+" * "+lista_Expr.getString(key)+" ) + ( 1 - "+key+" ) ) ");
-			}
-			lista_Expr.put(node.getId()+" ",temp);
-	}
-		
-		return lista_Expr.get(0);
-	}
-	
-//	private String changeParameters(String expression, Map<String, String> eqClassToPC, List<Component<String>> expressionsRDG) {
-//    	String newParam;
-//    	String oldParam;
-//    	for (Component<String> node : expressionsRDG) {
-//    		if (!(node.getPresenceCondition().contentEquals("true"))) {
-//    			newParam = eqClassToPC.get(node.getPresenceCondition());
-//    			oldParam = node.getId();
-//    			expression = expression.replaceAll(oldParam, newParam);
-//    		}
-//    		else {
-//    			oldParam = node.getId();
-//    			expression = expression.replaceAll(oldParam, "1");
-//    		}
-//    	}
-//    	return expression;
-//    }
-	
-    
-    private Double evaluateSingle(Expression<Double> expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
-        Function<Map.Entry<String, String>, Boolean> isPresent = e -> PresenceConditions.isPresent(e.getValue(),
-                                                                                                   configuration,
-                                                                                                   expressionSolver);
-        Map<String, Double> values = eqClassToPC.entrySet().stream()
-            .collect(Collectors.toMap(e -> e.getKey(),
-                                      isPresent.andThen(present -> present ? 1.0 : 0.0)));
-
-        return expression.solve(values);
 
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
+    }
+
+    private Double evaluateSingle(CompiledTerm expression, BitSet signature, PresenceSignatures signatures, List<String> variablePCs) {
+        double[] values = new double[variablePCs.size()];
+        for (int i = 0; i < values.length; i++) {
+            String presenceCondition = variablePCs.get(i);
+            if (presenceCondition == null) {
+                values[i] = Double.NaN;
+            } else {
+                values[i] = signatures.isPresent(signature, presenceCondition) ? 1.0 : 0.0;
+            }
+        }
+        return expression.evaluate(values);
+    }
+
+    /**
+     * Sets the sink to which each product's reliability is reported as soon
+     * as it is computed, instead of being kept in the returned results.
+     */
+    public void setResultSink(IReliabilityResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for each RDG node and the evaluation of each batch of products.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
     }
 
-    private Double evaluateSingle(String expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
-        Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-        return evaluateSingle(parsedExpression, configuration, eqClassToPC);
+    /**
+     * Sets the collector to which the time taken to evaluate each product is reported.
+     */
+    public void setProgressCollector(IProgressCollector progressCollector) {
+        this.progressCollector = progressCollector;
     }
+
 }
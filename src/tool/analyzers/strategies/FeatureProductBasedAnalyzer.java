@@ -2,27 +2,37 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.UnknownFeatureException;
+import tool.analyzers.CompactReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
-import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.IfOperator;
-import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
+import tool.analyzers.buildingblocks.PresenceSignatures;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.IProgressCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopTracer;
 import expressionsolver.ExpressionSolver;
 
 /**
@@ -40,6 +50,9 @@ public class FeatureProductBasedAnalyzer {
     private DerivationFunction<Boolean, String, Double> solve;
 
     private ITimeCollector timeCollector;
+    private ITracer tracer;
+    private IProgressCollector progressCollector;
+    private IReliabilityResultSink resultSink;
 
     public FeatureProductBasedAnalyzer(JADD jadd,
                                        ParametricModelChecker modelChecker,
@@ -48,6 +61,9 @@ public class FeatureProductBasedAnalyzer {
         this.expressionSolver = new ExpressionSolver(jadd);
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
+        this.progressCollector = new NoopProgressCollector();
+        this.resultSink = new NoopReliabilityResultSink();
 
         this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
                                                      formulaCollector);
@@ -63,16 +79,29 @@ public class FeatureProductBasedAnalyzer {
      * on the reliabilities of the nodes on which it depends.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @return
      * @throws CyclicRdgException
      * @throws UnknownFeatureException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
+        List<RDGNode> dependencies = pruning.getDependencies();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Alpha_v
-        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
+        List<Component<CompletableFuture<String>>> pendingExpressions = firstPhase.getReliabilityExpressionsAsync(dependencies, pruning.getDeadComponents(), concurrencyStrategy);
+
+        // Presence conditions are encoded while model checking runs.
+        // Products with the same presence signature share their results.
+        PresenceSignatures signatures = new PresenceSignatures(dependencies.stream()
+                                                                   .map(RDGNode::getPresenceCondition)
+                                                                   .collect(Collectors.toList()),
+                                                               expressionSolver);
+
+        List<Component<String>> expressions = pendingExpressions.stream()
+                .map(c -> c.fmap(CompletableFuture::join))
+                .collect(Collectors.toList());
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
@@ -80,22 +109,57 @@ public class FeatureProductBasedAnalyzer {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Evaluating all expressions for each product in parallel.");
         }
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
-                                                                                                                  expressions),
-                                                                                  configurations,
-                                                                                  concurrencyStrategy);
+        CompactReliabilityResults results = new CompactReliabilityResults();
+        ProductIterationHelper.evaluate(signature -> evaluateSingle(signature,
+                                                                    signatures,
+                                                                    expressions,
+                                                                    concurrencyStrategy),
+                                        signatures::signatureOf,
+                                        configurations,
+                                        concurrencyStrategy,
+                                        ProductIterationHelper.reportTo(resultSink, results),
+                                        tracer,
+                                        progressCollector);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
-        return new MapBasedReliabilityResults(results);
+        return results;
     }
 
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<Component<String>> expressions) {
+    private Double evaluateSingle(BitSet signature, PresenceSignatures signatures, List<Component<String>> expressions, ConcurrencyStrategy concurrencyStrategy) {
         return Component.deriveFromMany(expressions,
                                         solve,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
+                                        c -> signatures.isPresent(signature, c.getPresenceCondition()),
+                                        concurrencyStrategy);
+    }
+
+    /**
+     * Sets the store used for reusing results of unchanged RDG nodes.
+     */
+    public void setIncrementalAnalysisStore(IncrementalAnalysisStore incrementalStore) {
+        this.firstPhase.setIncrementalAnalysisStore(incrementalStore);
+    }
+
+    /**
+     * Sets the sink to which each product's reliability is reported as soon
+     * as it is computed, instead of being kept in the returned results.
+     */
+    public void setResultSink(IReliabilityResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for each RDG node and the evaluation of each batch of products.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+        this.firstPhase.setTracer(tracer);
+    }
+
+    /**
+     * Sets the collector to which the time taken to evaluate each product is reported.
+     */
+    public void setProgressCollector(IProgressCollector progressCollector) {
+        this.progressCollector = progressCollector;
     }
 
 }
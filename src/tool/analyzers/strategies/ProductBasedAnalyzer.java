@@ -2,28 +2,40 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.UnknownFeatureException;
+import tool.analyzers.CompactReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
-import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.DeadComponentPruner;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.IfOperator;
-import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.PresenceSignatures;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
+import tool.stats.IProgressCollector;
+import tool.stats.ISpan;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopTracer;
 import expressionsolver.ExpressionSolver;
+import fdtmc.CompactFDTMC;
+import fdtmc.ComposedFDTMC;
 import fdtmc.FDTMC;
 import fdtmc.State;
 
@@ -37,11 +49,18 @@ public class ProductBasedAnalyzer {
     ParametricModelChecker modelChecker;
     /**
      * LAMBDA
+     *
+     * Products are derived as compositions of the compact FDTMCs of their
+     * components, which are shared among all products instead of being
+     * copied into each product's inlined model.
      */
-    private DerivationFunction<Boolean, FDTMC, FDTMC> derive;
+    private DerivationFunction<Boolean, CompactFDTMC, ComposedFDTMC> derive;
 
 
     private ITimeCollector timeCollector;
+    private ITracer tracer;
+    private IProgressCollector progressCollector;
+    private IReliabilityResultSink resultSink;
     private IFormulaCollector formulaCollector;
 
     public ProductBasedAnalyzer(JADD jadd,
@@ -52,56 +71,91 @@ public class ProductBasedAnalyzer {
         this.modelChecker = modelChecker;
 
         this.timeCollector = timeCollector;
+        this.tracer = new NoopTracer();
+        this.progressCollector = new NoopProgressCollector();
+        this.resultSink = new NoopReliabilityResultSink();
         this.formulaCollector = formulaCollector;
 
-        derive = DerivationFunction.abstractDerivation(new IfOperator<FDTMC>(),
-                                                       FDTMC::inline,
-                                                       trivialFdtmc());
+        derive = DerivationFunction.abstractDerivation(new IfOperator<ComposedFDTMC>(),
+                                                       ComposedFDTMC::new,
+                                                       ComposedFDTMC.of(trivialFdtmc().toCompact()));
     }
 
     /**
      * Evaluates the product-based reliability values of an RDG node.
      *
      * @param node RDG node whose reliability is to be evaluated.
+     * @param pruning Transitive closure of {@code node}, along with its dead
+     *          components (see {@link DeadComponentPruner}).
      * @param concurrencyStrategy
      * @return
      * @throws CyclicRdgException
      */
-    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
+    public IReliabilityAnalysisResults evaluateReliability(RDGNode node, DeadComponentPruner.Result pruning, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Running the whole analysis of each product in parallel.");
         }
-        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        List<RDGNode> dependencies = pruning.getDependencies();
+
+        // Products which differ only in features that appear in no presence
+        // condition have the same derived model, so each one is analyzed once.
+        // Dead components are absent from every product.
+        Set<String> deadComponents = pruning.getDeadComponents();
+        PresenceSignatures signatures = new PresenceSignatures(dependencies.stream()
+                                                                   .filter(n -> !deadComponents.contains(n.getId()))
+                                                                   .map(RDGNode::getPresenceCondition)
+                                                                   .collect(Collectors.toList()),
+                                                               expressionSolver);
+
+        // Compact forms are cached by the FDTMCs, so each one is built once.
+        List<Component<CompactFDTMC>> models = RDGNode.toComponentList(dependencies).stream()
+                .map(c -> c.fmap(FDTMC::toCompact))
+                .collect(Collectors.toList());
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
-                                                                                                                  dependencies),
-                                                                                  configurations,
-                                                                                  concurrencyStrategy);
+        CompactReliabilityResults results = new CompactReliabilityResults();
+        ProductIterationHelper.evaluate(signature -> evaluateSingle(node,
+                                                                    signature,
+                                                                    signatures,
+                                                                    deadComponents,
+                                                                    models,
+                                                                    concurrencyStrategy),
+                                        signatures::signatureOf,
+                                        configurations,
+                                        concurrencyStrategy,
+                                        ProductIterationHelper.reportTo(resultSink, results),
+                                        tracer,
+                                        progressCollector);
 
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
-        return new MapBasedReliabilityResults(results);
+        return results;
     }
 
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<RDGNode> dependencies) throws UnknownFeatureException {
-        List<Component<FDTMC>> models = RDGNode.toComponentList(dependencies);
+    private Double evaluateSingle(RDGNode node, BitSet signature, PresenceSignatures signatures, Set<String> deadComponents, List<Component<CompactFDTMC>> models, ConcurrencyStrategy concurrencyStrategy) throws UnknownFeatureException {
         // Lambda folding
-        FDTMC rootModel = deriveFromMany(models, configuration);
+        ComposedFDTMC rootModel = deriveFromMany(models, signature, signatures, deadComponents, concurrencyStrategy);
         // Alpha
-        String reliabilityExpression = modelChecker.getReliability(rootModel);
+        String reliabilityExpression;
+        try (ISpan call = tracer.startSpan("model checking", node.getId())) {
+            reliabilityExpression = modelChecker.getReliability(rootModel);
+            call.setAttribute("states", rootModel.getStatesCount());
+        }
         formulaCollector.collectFormula(node, reliabilityExpression);
         // Sigma
         return expressionSolver.solveExpression(reliabilityExpression);
     }
 
-    private FDTMC deriveFromMany(List<Component<FDTMC>> dependencies, Collection<String> configuration) {
+    /**
+     * Composition of independent FDTMCs has no shared mutable state, so it can be
+     * performed concurrently whenever the concurrency strategy allows for it.
+     */
+    private ComposedFDTMC deriveFromMany(List<Component<CompactFDTMC>> dependencies, BitSet signature, PresenceSignatures signatures, Set<String> deadComponents, ConcurrencyStrategy concurrencyStrategy) {
         return Component.deriveFromMany(dependencies,
                                         derive,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
+                                        c -> !deadComponents.contains(c.getId())
+                                                && signatures.isPresent(signature, c.getPresenceCondition()),
+                                        concurrencyStrategy);
     }
 
     private FDTMC trivialFdtmc() {
@@ -115,4 +169,26 @@ public class ProductBasedAnalyzer {
         return trivial;
     }
 
+    /**
+     * Sets the sink to which each product's reliability is reported as soon
+     * as it is computed, instead of being kept in the returned results.
+     */
+    public void setResultSink(IReliabilityResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
+    /**
+     * Sets the tracer to which spans are reported for the evaluation of each batch of products.
+     */
+    public void setTracer(ITracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Sets the collector to which the time taken to evaluate each product is reported.
+     */
+    public void setProgressCollector(IProgressCollector progressCollector) {
+        this.progressCollector = progressCollector;
+    }
+
 }
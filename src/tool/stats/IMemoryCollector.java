@@ -2,10 +2,17 @@ package tool.stats;
 
 import java.io.PrintStream;
 
+import jadd.JADD;
+
 public interface IMemoryCollector {
 
     public void takeSnapshot(String name);
 
+    /**
+     * Also accounts for the native memory used by the given CUDD manager.
+     */
+    public void watch(JADD jadd);
+
     public void printStats(PrintStream output);
 
 }
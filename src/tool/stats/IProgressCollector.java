@@ -0,0 +1,31 @@
+package tool.stats;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+/**
+ * Collects the time taken to evaluate each configuration in product-wise
+ * analyses, so as to report their progress while they run and the
+ * latency distribution (and slowest configurations) afterwards.
+ */
+public interface IProgressCollector {
+
+    /**
+     * Sets the number of configurations the next iterations are expected
+     * to evaluate, so that their remaining time can be estimated.
+     * A negative number means it is unknown.
+     */
+    public void setExpectedConfigurations(long expectedConfigurations);
+
+    public void startIteration();
+
+    /**
+     * Must be thread-safe, since configurations may be evaluated in parallel.
+     */
+    public void collectLatency(Collection<String> configuration, long latencyNanos);
+
+    public void finishIteration();
+
+    public void printStats(PrintStream out);
+
+}
@@ -0,0 +1,19 @@
+package tool.stats;
+
+/**
+ * Timed interval of the analysis, started by {@link ITracer#startSpan(String, String)}
+ * and ended by {@link #close()}. Spans started (and closed) by the same thread
+ * while another one is open are nested within it.
+ */
+public interface ISpan extends AutoCloseable {
+
+    /**
+     * Attaches an attribute (e.g., a formula size) to this span.
+     * @return this span, for chaining.
+     */
+    public ISpan setAttribute(String key, Object value);
+
+    @Override
+    public void close();
+
+}
@@ -0,0 +1,19 @@
+package tool.stats;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+import tool.analyzers.AnalysisMetrics;
+import tool.analyzers.AnalysisStrategy;
+
+/**
+ * Collects the automatic choices of analysis strategy, along with the
+ * metrics and cost estimates on which they were based.
+ */
+public interface IStrategySelectionCollector {
+
+    public void collectSelection(AnalysisMetrics metrics, Map<AnalysisStrategy, Double> estimatedCosts, AnalysisStrategy selected);
+
+    public void printStats(PrintStream out);
+
+}
@@ -0,0 +1,28 @@
+package tool.stats;
+
+import java.io.PrintStream;
+
+/**
+ * Interface for a span-based tracer of the analysis pipeline.
+ * Implementations must be thread-safe.
+ */
+public interface ITracer {
+
+    /**
+     * Starts a span in the current thread. It must be closed
+     * (ideally, in a try-with-resources statement).
+     *
+     * @param category Kind of span (e.g., "phase" or "model checking").
+     * @param name
+     */
+    public ISpan startSpan(String category, String name);
+
+    /**
+     * Whether spans are recorded at all. Attributes which are costly to
+     * compute should only be computed if so.
+     */
+    public boolean isEnabled();
+
+    public void printStats(PrintStream out);
+
+}
@@ -2,6 +2,8 @@ package tool.stats;
 
 import java.io.PrintStream;
 
+import jadd.JADD;
+
 public class NoopMemoryCollector implements IMemoryCollector {
 
     @Override
@@ -9,6 +11,11 @@ public class NoopMemoryCollector implements IMemoryCollector {
         // No-op
     }
 
+    @Override
+    public void watch(JADD jadd) {
+        // No-op
+    }
+
     @Override
     public void printStats(PrintStream out) {
         // No-op
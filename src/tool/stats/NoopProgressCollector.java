@@ -0,0 +1,33 @@
+package tool.stats;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+public class NoopProgressCollector implements IProgressCollector {
+
+    @Override
+    public void setExpectedConfigurations(long expectedConfigurations) {
+        // No-op
+    }
+
+    @Override
+    public void startIteration() {
+        // No-op
+    }
+
+    @Override
+    public void collectLatency(Collection<String> configuration, long latencyNanos) {
+        // No-op
+    }
+
+    @Override
+    public void finishIteration() {
+        // No-op
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // No-op
+    }
+
+}
@@ -0,0 +1,21 @@
+package tool.stats;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+import tool.analyzers.AnalysisMetrics;
+import tool.analyzers.AnalysisStrategy;
+
+public class NoopStrategySelectionCollector implements IStrategySelectionCollector {
+
+    @Override
+    public void collectSelection(AnalysisMetrics metrics, Map<AnalysisStrategy, Double> estimatedCosts, AnalysisStrategy selected) {
+        // No-op
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // No-op
+    }
+
+}
@@ -0,0 +1,35 @@
+package tool.stats;
+
+import java.io.PrintStream;
+
+public class NoopTracer implements ITracer {
+
+    private static final ISpan NOOP_SPAN = new ISpan() {
+        @Override
+        public ISpan setAttribute(String key, Object value) {
+            // No-op
+            return this;
+        }
+
+        @Override
+        public void close() {
+            // No-op
+        }
+    };
+
+    @Override
+    public ISpan startSpan(String category, String name) {
+        return NOOP_SPAN;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        // No-op
+    }
+
+}
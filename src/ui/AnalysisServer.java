@@ -0,0 +1,509 @@
+package ui;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import joptsimple.OptionException;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import paramwrapper.NoopReductionCollector;
+import paramwrapper.ParametricModelChecker;
+import tool.Analyzer;
+import tool.CyclicRdgException;
+import tool.PruningStrategyFactory;
+import tool.RDGNode;
+import tool.UnknownFeatureException;
+import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
+import tool.stats.NoopTimeCollector;
+import ui.sinks.ResultFormat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running analysis server, which spares repeated analyses the costs
+ * of starting the JVM, initializing CUDD, encoding the feature model and
+ * parsing the behavioral models.
+ *
+ * Jobs are submitted as POST requests to {@code /analyses} on the loopback
+ * interface. The request body holds the same options accepted by the
+ * command-line interface, one per line (e.g., {@code --analysis-strategy=FAMILY}),
+ * and the response streams back the reliabilities report in the requested
+ * {@code --results-format}.
+ *
+ * Each SPL (i.e., each combination of feature model, UML models and model
+ * checker) is kept in its own workspace, with its own RDG, {@link Analyzer}
+ * (and thus its own CUDD manager) and in-memory incremental analysis store.
+ * Jobs for different SPLs run concurrently, whereas jobs for the same SPL
+ * are serialized. Modifying any of an SPL's files makes the next job build
+ * a fresh workspace, and the least recently used workspaces are discarded
+ * when there are too many of them.
+ *
+ * Invalid jobs are answered with an error status. Since results are streamed,
+ * the (successful) status line is only sent along with the first 64 KB of
+ * results (or with all of them, if they are fewer), so that most analyses which
+ * fail are answered with an error status as well. Should an analysis fail
+ * afterwards, the connection is dropped without ending the response, so that
+ * clients do not mistake the results received so far for a complete report.
+ */
+public class AnalysisServer {
+    private static final Logger LOGGER = Logger.getLogger(AnalysisServer.class.getName());
+
+    private HttpServer httpServer;
+    private ExecutorService executor;
+    /**
+     * Workspaces by SPL, in access order. Workspaces are built outside the
+     * lock on this map, so each entry is a future which is completed (or
+     * removed) by the job which started building it.
+     */
+    private Map<String, CompletableFuture<Workspace>> workspaces;
+    private BiFunction<String, ModelReduction, ParametricModelChecker> modelCheckers;
+
+    /**
+     * @param port Local port on which to listen.
+     * @param maxWorkspaces Maximum number of SPLs kept in memory.
+     * @throws IOException if the port cannot be bound.
+     */
+    public AnalysisServer(int port, int maxWorkspaces) throws IOException {
+        this(port,
+             maxWorkspaces,
+             (paramPath, modelReduction) -> CommandLineInterface.makeModelChecker(paramPath,
+                                                                                  modelReduction,
+                                                                                  null,
+                                                                                  new NoopReductionCollector()));
+    }
+
+    /**
+     * @param modelCheckers Factory of the model checker of each workspace,
+     *          given the PARAM path and the model reduction of its first job.
+     */
+    AnalysisServer(int port, int maxWorkspaces, BiFunction<String, ModelReduction, ParametricModelChecker> modelCheckers) throws IOException {
+        this.modelCheckers = modelCheckers;
+        this.workspaces = new LinkedHashMap<String, CompletableFuture<Workspace>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Workspace>> eldest) {
+                return size() > maxWorkspaces;
+            }
+        };
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.httpServer.createContext("/analyses", this::handle);
+        this.executor = Executors.newCachedThreadPool();
+        this.httpServer.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        OptionParser optionParser = new OptionParser();
+        OptionSpec<Integer> portOption = optionParser
+                .accepts("port")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(8181)
+                .describedAs("Port");
+        OptionSpec<Integer> maxWorkspacesOption = optionParser
+                .accepts("max-workspaces",
+                         "Maximum number of SPLs whose models and caches are kept between analyses")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(8)
+                .describedAs("Count");
+        OptionSpec<Void> helpOption = optionParser
+                .accepts("help")
+                .forHelp();
+
+        OptionSet options = optionParser.parse(args);
+        if (options.has(helpOption)) {
+            optionParser.printHelpOn(System.out);
+            System.exit(1);
+        }
+
+        AnalysisServer server = new AnalysisServer(options.valueOf(portOption),
+                                                   options.valueOf(maxWorkspacesOption));
+        server.start();
+        LOGGER.info("Listening on port " + server.getPort());
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean ended = true;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Analyses must be submitted by POST.");
+                return;
+            }
+            List<String> args;
+            try (BufferedReader body = new BufferedReader(new InputStreamReader(exchange.getRequestBody(),
+                                                                                StandardCharsets.UTF_8))) {
+                args = body.lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .collect(Collectors.toList());
+            }
+            if (args.contains("--help")) {
+                sendError(exchange, 400, "Help is only available from the command line.");
+                return;
+            }
+
+            Options options;
+            Workspace workspace;
+            try {
+                options = Options.parseOptions(args.toArray(new String[args.size()]));
+                workspace = getWorkspace(options);
+            } catch (OptionException | AnalysisException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            } catch (IOException e) {
+                sendError(exchange, 400, "Error reading the provided models: " + e);
+                return;
+            }
+            synchronized (workspace) {
+                run(workspace, options, exchange);
+            }
+        } catch (AbortedResponseException e) {
+            // Closing the exchange would end the response as if it were complete.
+            ended = false;
+            throw e;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            if (exchange.getResponseCode() != -1) {
+                ended = false;
+                throw e;
+            }
+            sendError(exchange, 500, "Internal error: " + e);
+        } finally {
+            if (ended) {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the workspace of the SPL an analysis refers to,
+     * building it if needed.
+     */
+    private Workspace getWorkspace(Options options) throws IOException, AnalysisException {
+        File featureModelFile = new File(options.getFeatureModelFilePath());
+        File umlModels = new File(options.getUmlModelsFilePath());
+        String key = featureModelFile.getCanonicalPath() + "@" + featureModelFile.lastModified()
+                + File.pathSeparator + umlModels.getCanonicalPath() + "@" + umlModels.lastModified()
+                + File.pathSeparator + options.getParamPath()
+                + File.pathSeparator + options.getModelReduction();
+        CompletableFuture<Workspace> workspace;
+        boolean building = false;
+        synchronized (workspaces) {
+            workspace = workspaces.get(key);
+            if (workspace == null) {
+                workspace = new CompletableFuture<Workspace>();
+                workspaces.put(key, workspace);
+                building = true;
+            }
+        }
+        if (building) {
+            // Models are parsed outside the lock, so that jobs for other SPLs
+            // (and for the ones already built) are not held up.
+            try {
+                long startTime = System.currentTimeMillis();
+                ParametricModelChecker modelChecker = modelCheckers.apply(options.getParamPath(), options.getModelReduction());
+                workspace.complete(new Workspace(featureModelFile, umlModels, modelChecker));
+                LOGGER.info("Workspace for " + umlModels + " built in "
+                            + (System.currentTimeMillis() - startTime) + " ms");
+            } catch (Throwable e) {
+                // Later jobs try again, whereas the ones already waiting fail as well.
+                synchronized (workspaces) {
+                    workspaces.remove(key, workspace);
+                }
+                workspace.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return workspace.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof AnalysisException) {
+                throw (AnalysisException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void run(Workspace workspace, Options options, HttpExchange exchange) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Analyzer analyzer = workspace.analyzer;
+        analyzer.setConcurrencyStrategy(options.getConcurrencyStrategy());
+        analyzer.setPruningStrategy(PruningStrategyFactory.createPruningStrategy(options.getPruningStrategy()));
+        analyzer.setAddNodeBudget(options.getAddNodeBudget());
+
+        AnalysisStrategy analysisStrategy = options.getAnalysisStrategy();
+        if (analysisStrategy == AnalysisStrategy.AUTO) {
+            long targetConfigurations = CommandLineInterface.countTargetConfigurations(options);
+            try {
+                analysisStrategy = analyzer.selectAnalysisStrategy(workspace.rdgRoot, targetConfigurations);
+            } catch (CyclicRdgException e) {
+                sendError(exchange, 400, "Cyclic dependency detected in RDG.");
+                return;
+            }
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", getContentType(options.getResultsFormat()));
+        exchange.getResponseHeaders().add("X-Analysis-Strategy", analysisStrategy.name());
+        ResponseBody body = new ResponseBody(exchange);
+        PrintStream output = new PrintStream(body, false, "UTF-8");
+        IReliabilityResultSink resultSink = options.hasSuppressReport() ?
+                new NoopReliabilityResultSink()
+                : CommandLineInterface.makeResultSink(options, output);
+        analyzer.setResultSink(resultSink);
+        RuntimeException failure = null;
+        try {
+            Stream<Collection<String>> targetConfigurations = CommandLineInterface.getTargetConfigurations(options, analyzer);
+            boolean productWise = CommandLineInterface.PRODUCT_WISE_STRATEGIES.contains(analysisStrategy);
+            Stream<Collection<String>> validConfigs = productWise ?
+                    CommandLineInterface.reportInvalidConfigurations(targetConfigurations, analyzer, resultSink)
+                    : Stream.empty();
+            IReliabilityAnalysisResults results = evaluateReliability(analyzer,
+                                                                      workspace.rdgRoot,
+                                                                      validConfigs,
+                                                                      analysisStrategy);
+            if (!productWise && !options.hasSuppressReport()) {
+                CommandLineInterface.reportAnalysisResults(targetConfigurations, analyzer, results, resultSink);
+            }
+        } catch (RuntimeException e) {
+            // Including CyclicRdgException and UnknownFeatureException, which are unchecked.
+            failure = e;
+        } finally {
+            analyzer.setResultSink(new NoopReliabilityResultSink());
+        }
+
+        if (failure != null) {
+            LOGGER.log(Level.SEVERE, failure.toString(), failure);
+            // Pending results (e.g., the ones being sorted) are dropped.
+            body.discard();
+            resultSink.close();
+            if (body.isCommitted()) {
+                throw new AbortedResponseException(failure);
+            }
+            boolean invalidJob = failure instanceof CyclicRdgException || failure instanceof UnknownFeatureException;
+            sendError(exchange, invalidJob ? 400 : 500, describe(failure));
+            return;
+        }
+        resultSink.close();
+        output.close();
+        LOGGER.info(analysisStrategy + " analysis of " + workspace.umlModels + " served in "
+                    + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private static IReliabilityAnalysisResults evaluateReliability(Analyzer analyzer,
+                                                                   RDGNode rdgRoot,
+                                                                   Stream<Collection<String>> validConfigs,
+                                                                   AnalysisStrategy analysisStrategy) throws CyclicRdgException, UnknownFeatureException {
+        switch (analysisStrategy) {
+        case FEATURE_PRODUCT:
+            return analyzer.evaluateFeatureProductBasedReliability(rdgRoot, validConfigs);
+        case PRODUCT:
+            return analyzer.evaluateProductBasedReliability(rdgRoot, validConfigs);
+        case FAMILY:
+            return analyzer.evaluateFamilyBasedReliability(rdgRoot, validConfigs);
+        case FAMILY_PRODUCT:
+            return analyzer.evaluateFamilyProductBasedReliability(rdgRoot, validConfigs);
+        case FEATURE_FAMILY:
+            return analyzer.evaluateFeatureFamilyBasedReliability(rdgRoot);
+        case FEATURE_FAMILY_FACTORIZED:
+            return analyzer.evaluateFeatureFamilyFactorizedReliability(rdgRoot);
+        case FEATURE_FAMILY_PRODUCT:
+        default:
+            return analyzer.evaluateFeatureFamilyProductBasedReliability(rdgRoot, validConfigs);
+        }
+    }
+
+    private static String describe(RuntimeException failure) {
+        if (failure instanceof CyclicRdgException) {
+            return "Cyclic dependency detected in RDG.";
+        } else if (failure instanceof UnknownFeatureException) {
+            return "Unrecognized feature: " + ((UnknownFeatureException) failure).getFeatureName();
+        }
+        return "Internal error: " + failure;
+    }
+
+    private static String getContentType(ResultFormat resultFormat) {
+        switch (resultFormat) {
+        case CSV:
+            return "text/csv; charset=utf-8";
+        case JSONL:
+            return "application/x-ndjson";
+        case BINARY:
+            return "application/octet-stream";
+        case TEXT:
+        default:
+            return "text/plain; charset=utf-8";
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * Models and caches of a single SPL.
+     */
+    private static class Workspace {
+        File umlModels;
+        RDGNode rdgRoot;
+        Analyzer analyzer;
+
+        Workspace(File featureModelFile, File umlModels, ParametricModelChecker modelChecker) throws IOException, AnalysisException {
+            this.umlModels = umlModels;
+            String featureModel = new String(Files.readAllBytes(featureModelFile.toPath()), StandardCharsets.UTF_8);
+            try {
+                this.rdgRoot = CommandLineInterface.model(umlModels, new NoopTimeCollector());
+            } catch (Exception e) {
+                throw new AnalysisException("Error reading the provided UML Models: " + e, e);
+            } finally {
+                // Worker threads are reused, so the RDG must not outlive the workspace
+                // nor be mistaken for part of the next SPL parsed by the same thread.
+                RDGNode.clearRegistry();
+            }
+            this.analyzer = new Analyzer(featureModel, modelChecker, null, null, null);
+            this.analyzer.setIncrementalAnalysisStore(IncrementalAnalysisStore.inMemory());
+        }
+    }
+
+    /**
+     * Response body whose (successful) status line is only sent once more
+     * than {@link #MAX_PENDING_BYTES} were written to it, or when it is closed.
+     */
+    private static class ResponseBody extends OutputStream {
+        private static final int MAX_PENDING_BYTES = 1 << 16;
+
+        private HttpExchange exchange;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream output;
+        private boolean discarding = false;
+
+        ResponseBody(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        boolean isCommitted() {
+            return output != null;
+        }
+
+        /**
+         * Drops anything written from now on.
+         */
+        void discard() {
+            discarding = true;
+        }
+
+        private void commit() throws IOException {
+            if (output == null) {
+                // Results are streamed, so the length of the response is unknown.
+                exchange.sendResponseHeaders(200, 0);
+                output = exchange.getResponseBody();
+                pending.writeTo(output);
+                pending = null;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (discarding) {
+                return;
+            }
+            if (output != null) {
+                output.write(b, off, len);
+            } else {
+                pending.write(b, off, len);
+                if (pending.size() > MAX_PENDING_BYTES) {
+                    commit();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discarding && output != null) {
+                output.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!discarding) {
+                commit();
+                output.close();
+            }
+        }
+    }
+
+    /**
+     * Signals that an analysis failed after part of its results were sent.
+     */
+    private static class AbortedResponseException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        AbortedResponseException(Throwable cause) {
+            super("Analysis failed after its results started being sent", cause);
+        }
+    }
+
+    private static class AnalysisException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        AnalysisException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+}
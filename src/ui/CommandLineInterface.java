@@ -3,9 +3,11 @@
  */
 package ui;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
@@ -14,16 +16,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -39,7 +38,12 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import fdtmc.FDTMCReducer;
 import paramwrapper.IModelCollector;
+import paramwrapper.IReductionCollector;
+import paramwrapper.ParamWrapper;
+import paramwrapper.ParametricModelChecker;
+import paramwrapper.ReducingModelChecker;
 import parsing.SplGeneratorModels.SplGeneratorModelingAPI;
 import parsing.exceptions.InvalidNodeClassException;
 import parsing.exceptions.InvalidNodeType;
@@ -51,12 +55,29 @@ import tool.CyclicRdgException;
 import tool.PruningStrategyFactory;
 import tool.RDGNode;
 import tool.UnknownFeatureException;
+import tool.analyzers.AnalysisStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.NoopReliabilityResultSink;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStore;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.IMemoryCollector;
+import tool.stats.IProgressCollector;
+import tool.stats.IStrategySelectionCollector;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
+import ui.sinks.BinaryResultSink;
+import ui.sinks.CsvResultSink;
+import ui.sinks.JsonLinesResultSink;
+import ui.sinks.ResultFormat;
+import ui.sinks.SortingResultSink;
+import ui.sinks.TextResultSink;
+import ui.stats.FormulaCollector;
 import ui.stats.StatsCollectorFactory;
+import ui.stats.TimeCollector;
+import ui.stats.Tracer;
 
 /**
  * Command-line application.
@@ -67,11 +88,28 @@ import ui.stats.StatsCollectorFactory;
 public class CommandLineInterface {
     private static final Logger LOGGER = Logger.getLogger(CommandLineInterface.class.getName());
     private static final PrintStream OUTPUT = System.out;
+    /**
+     * Maximum number of results kept in memory when sorting the report.
+     */
+    private static final int MAX_BUFFERED_RESULTS = 1 << 16;
+    /**
+     * Strategies which push the result of each valid configuration
+     * to the result sink as soon as it is computed.
+     */
+    static final Set<AnalysisStrategy> PRODUCT_WISE_STRATEGIES = EnumSet.of(AnalysisStrategy.PRODUCT,
+                                                                                    AnalysisStrategy.FEATURE_PRODUCT,
+                                                                                    AnalysisStrategy.FAMILY_PRODUCT,
+                                                                                    AnalysisStrategy.FEATURE_FAMILY_PRODUCT);
 
     private static IMemoryCollector memoryCollector;
     private static ITimeCollector timeCollector;
     private static IFormulaCollector formulaCollector;
     private static IModelCollector modelCollector;
+    private static IReductionCollector reductionCollector;
+    private static IStrategySelectionCollector strategySelectionCollector;
+    private static IProgressCollector progressCollector;
+    private static ITracer tracer;
+    private static IncrementalAnalysisStore incrementalStore;
 
     private CommandLineInterface() {
         // NO-OP
@@ -87,6 +125,13 @@ public class CommandLineInterface {
         } catch(FileNotFoundException e) {
             e.printStackTrace();
         }
+        if (options.getResultsFormat() == ResultFormat.BINARY
+                && options.getResultsFilePath() == null
+                && !options.hasSuppressReport()) {
+            // Binary records would be interleaved with the textual statistics.
+            LOGGER.severe("The BINARY results format requires --results-file.");
+            System.exit(1);
+        }
         initializeStatsCollectors(options);
 
         memoryCollector.takeSnapshot("before model parsing");
@@ -96,20 +141,43 @@ public class CommandLineInterface {
         Analyzer analyzer = makeAnalyzer(options);
         Stream<Collection<String>> targetConfigurations = getTargetConfigurations(options, analyzer);
 
+        PrintStream resultsOutput = openResultsOutput(options);
+        IReliabilityResultSink resultSink = options.hasSuppressReport() ?
+                new NoopReliabilityResultSink()
+                : makeResultSink(options, resultsOutput);
+        analyzer.setResultSink(resultSink);
+
         memoryCollector.takeSnapshot("before evaluation");
         long analysisStartTime = System.currentTimeMillis();
-        Stream<Collection<String>> validConfigs = targetConfigurations.filter(analyzer::isValidConfiguration);
+        AnalysisStrategy analysisStrategy = options.getAnalysisStrategy();
+        if (analysisStrategy == AnalysisStrategy.AUTO) {
+            analysisStrategy = selectAnalysisStrategy(analyzer, rdgRoot, options);
+        }
+        boolean productWise = PRODUCT_WISE_STRATEGIES.contains(analysisStrategy);
+        Stream<Collection<String>> validConfigs = productWise ?
+                reportInvalidConfigurations(targetConfigurations, analyzer, resultSink)
+                : Stream.empty();
         IReliabilityAnalysisResults familyReliability = evaluateReliability(analyzer,
                                                                             rdgRoot,
                                                                             validConfigs,
+                                                                            analysisStrategy,
                                                                             options);
         long totalAnalysisTime = System.currentTimeMillis() - analysisStartTime;
         memoryCollector.takeSnapshot("after evaluation");
+        incrementalStore.save();
+        if (options.getFormulasFilePath() != null) {
+            exportFormulas(Paths.get(options.getFormulasFilePath()));
+        }
+        if (options.getTraceFilePath() != null) {
+            exportTrace(Paths.get(options.getTraceFilePath()));
+        }
 
-        if (!options.hasSuppressReport()) {
-            Map<Boolean, List<Collection<String>>> splitConfigs = getTargetConfigurations(options, analyzer)
-                    .collect(Collectors.partitioningBy(analyzer::isValidConfiguration));
-            printAnalysisResults(splitConfigs, familyReliability);
+        if (!productWise && !options.hasSuppressReport()) {
+            reportAnalysisResults(targetConfigurations, analyzer, familyReliability, resultSink);
+        }
+        resultSink.close();
+        if (resultsOutput != OUTPUT) {
+            resultsOutput.close();
         }
 
         if (options.hasStatsEnabled()) {
@@ -120,15 +188,38 @@ public class CommandLineInterface {
         OUTPUT.println("Total running time: " +  totalRunningTime + " ms");
     }
 
+    /**
+     * Lets the analyzer choose the cheapest strategy for the target configurations.
+     *
+     * @param analyzer
+     * @param rdgRoot
+     * @param options
+     * @return
+     */
+    private static AnalysisStrategy selectAnalysisStrategy(Analyzer analyzer, RDGNode rdgRoot, Options options) {
+        long targetConfigurations = countTargetConfigurations(options);
+        AnalysisStrategy selected = null;
+        try {
+            selected = analyzer.selectAnalysisStrategy(rdgRoot, targetConfigurations);
+        } catch (CyclicRdgException e) {
+            LOGGER.severe("Cyclic dependency detected in RDG.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(2);
+        }
+        OUTPUT.println("Automatically selected analysis strategy: " + selected);
+        return selected;
+    }
+
     /**
      * @param analyzer
      * @param rdgRoot
+     * @param analysisStrategy
      * @param options
      * @return
      */
-    private static IReliabilityAnalysisResults evaluateReliability(Analyzer analyzer, RDGNode rdgRoot, Stream<Collection<String>> validConfigs, Options options) {
+    private static IReliabilityAnalysisResults evaluateReliability(Analyzer analyzer, RDGNode rdgRoot, Stream<Collection<String>> validConfigs, AnalysisStrategy analysisStrategy, Options options) {
         IReliabilityAnalysisResults results = null;
-        switch (options.getAnalysisStrategy()) {
+        switch (analysisStrategy) {
         case FEATURE_PRODUCT:
             results = evaluateReliability(analyzer::evaluateFeatureProductBasedReliability,
                                           rdgRoot,
@@ -154,6 +245,11 @@ public class CommandLineInterface {
                                                             rdgRoot,
                                                             options);
             break;
+        case FEATURE_FAMILY_FACTORIZED:
+            results = evaluateFeatureFamilyFactorizedReliability(analyzer,
+                                                                 rdgRoot,
+                                                                 options);
+            break;
         case FEATURE_FAMILY_PRODUCT:
         	default:
         		results = evaluateReliability(analyzer::evaluateFeatureFamilyProductBasedReliability,
@@ -168,6 +264,7 @@ public class CommandLineInterface {
         String dotOutput = "family-reliability.dot";
         try {
             analyzer.setPruningStrategy(PruningStrategyFactory.createPruningStrategy(options.getPruningStrategy()));
+            analyzer.setAddNodeBudget(options.getAddNodeBudget());
             results = analyzer.evaluateFeatureFamilyBasedReliability(rdgRoot, null);
         } catch (CyclicRdgException e) {
             LOGGER.severe("Cyclic dependency detected in RDG.");
@@ -178,6 +275,19 @@ public class CommandLineInterface {
         return results;
     }
 
+    private static IReliabilityAnalysisResults evaluateFeatureFamilyFactorizedReliability(Analyzer analyzer, RDGNode rdgRoot, Options options) {
+        IReliabilityAnalysisResults results = null;
+        try {
+            analyzer.setPruningStrategy(PruningStrategyFactory.createPruningStrategy(options.getPruningStrategy()));
+            results = analyzer.evaluateFeatureFamilyFactorizedReliability(rdgRoot);
+        } catch (CyclicRdgException e) {
+            LOGGER.severe("Cyclic dependency detected in RDG.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(2);
+        }
+        return results;
+    }
+
     private static IReliabilityAnalysisResults evaluateReliability(BiFunction<RDGNode, Stream<Collection<String>>, IReliabilityAnalysisResults> analyzer,
                                                                    RDGNode rdgRoot,
                                                                    Stream<Collection<String>> validConfigs) {
@@ -203,87 +313,218 @@ public class CommandLineInterface {
         File featureModelFile = new File(options.getFeatureModelFilePath());
         String featureModel = readFeatureModel(featureModelFile);
 
-        String paramPath = options.getParamPath();
+        ParametricModelChecker modelChecker = makeModelChecker(options.getParamPath(),
+                                                               options.getModelReduction(),
+                                                               modelCollector,
+                                                               reductionCollector);
         Analyzer analyzer = new Analyzer(featureModel,
-                                         paramPath,
+                                         modelChecker,
                                          timeCollector,
                                          formulaCollector,
-                                         modelCollector);
+                                         strategySelectionCollector);
         analyzer.setConcurrencyStrategy(options.getConcurrencyStrategy());
+        incrementalStore = makeIncrementalStore(options);
+        analyzer.setIncrementalAnalysisStore(incrementalStore);
+        analyzer.setTracer(tracer);
+        analyzer.setMemoryCollector(memoryCollector);
+        analyzer.setProgressCollector(progressCollector);
+        // Other target configurations cannot be counted without reading them all.
+        if (options.hasPrintAllConfigurations()) {
+            progressCollector.setExpectedConfigurations(analyzer.countValidConfigurations());
+        }
         return analyzer;
     }
 
+    /**
+     * Creates a model checker for the PARAM (or Prism) installation at {@code paramPath},
+     * which reduces FDTMCs before model checking them unless {@code modelReduction} is NONE.
+     *
+     * @param modelCollector Collector of model stats, or null if they are not wanted.
+     */
+    static ParametricModelChecker makeModelChecker(String paramPath,
+                                                   ModelReduction modelReduction,
+                                                   IModelCollector modelCollector,
+                                                   IReductionCollector reductionCollector) {
+        ParametricModelChecker modelChecker = (modelCollector != null) ?
+                new ParamWrapper(paramPath, modelCollector)
+                : new ParamWrapper(paramPath);
+        if (modelReduction == ModelReduction.NONE) {
+            return modelChecker;
+        }
+        FDTMCReducer reducer = new FDTMCReducer();
+        reducer.setLumping(modelReduction == ModelReduction.LUMPING);
+        return new ReducingModelChecker(modelChecker, reducer, reductionCollector);
+    }
+
+    private static IncrementalAnalysisStore makeIncrementalStore(Options options) {
+        if (options.getIncrementalCacheFilePath() == null) {
+            return IncrementalAnalysisStore.disabled();
+        }
+        try {
+            return IncrementalAnalysisStore.load(Paths.get(options.getIncrementalCacheFilePath()));
+        } catch (IOException e) {
+            LOGGER.warning("Error reading the incremental analysis cache. Analyzing from scratch.");
+            LOGGER.log(Level.WARNING, e.toString(), e);
+            return IncrementalAnalysisStore.inMemory();
+        }
+    }
+
     /**
      * @param options
      */
     private static void initializeStatsCollectors(Options options) {
         StatsCollectorFactory statsCollectorFactory = new StatsCollectorFactory(options.hasStatsEnabled());
-        memoryCollector = statsCollectorFactory.createMemoryCollector();
-        timeCollector = statsCollectorFactory.createTimeCollector();
-        formulaCollector = statsCollectorFactory.createFormulaCollector();
+        // Timers are also traced (as analysis phases) if a trace is wanted.
+        if (options.getTraceFilePath() != null) {
+            tracer = new Tracer();
+            timeCollector = new TimeCollector(tracer);
+        } else {
+            tracer = new NoopTracer();
+            timeCollector = statsCollectorFactory.createTimeCollector();
+        }
+        memoryCollector = statsCollectorFactory.createMemoryCollector(timeCollector);
+        // Formulas are collected for exporting even if stats are disabled.
+        formulaCollector = (options.getFormulasFilePath() != null) ?
+                new FormulaCollector()
+                : statsCollectorFactory.createFormulaCollector();
         modelCollector = statsCollectorFactory.createModelCollector();
+        reductionCollector = statsCollectorFactory.createReductionCollector();
+        strategySelectionCollector = statsCollectorFactory.createStrategySelectionCollector();
+        progressCollector = statsCollectorFactory.createProgressCollector();
+    }
+
+    /**
+     * Counts the target configurations (-1 standing for all valid ones) without
+     * reading the whole configurations file, which may be huge. The count is
+     * only used for estimating costs, so it is sampled from the beginning of the file.
+     */
+    static long countTargetConfigurations(Options options) {
+        if (options.hasPrintAllConfigurations()) {
+            return -1;
+        } else if (options.getConfiguration() != null) {
+            return 1;
+        }
+        try {
+            return MappedConfigurationsFile.open(Paths.get(options.getConfigurationsFilePath())).estimateCount();
+        } catch (IOException e) {
+            LOGGER.severe("Error reading the provided configurations file.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            return 0;
+        }
     }
 
-    private static Stream<Collection<String>> getTargetConfigurations(Options options, Analyzer analyzer) {
+    static Stream<Collection<String>> getTargetConfigurations(Options options, Analyzer analyzer) {
         if (options.hasPrintAllConfigurations()) {
             return analyzer.getValidConfigurations();
+        } else if (options.getConfiguration() != null) {
+            String[] variables = options.getConfiguration().split(",");
+            return Stream.of(Arrays.asList(variables));
         } else {
-            Set<Collection<String>> configurations = new HashSet<Collection<String>>();
-
-            List<String> rawConfigurations = new LinkedList<String>();
-            if (options.getConfiguration() != null) {
-                rawConfigurations.add(options.getConfiguration());
-            } else {
-                Path configurationsFilePath = Paths.get(options.getConfigurationsFilePath());
-                try {
-                    rawConfigurations.addAll(Files.readAllLines(configurationsFilePath, Charset.forName("UTF-8")));
-                } catch (IOException e) {
-                    LOGGER.severe("Error reading the provided configurations file.");
-                    LOGGER.log(Level.SEVERE, e.toString(), e);
-                }
-            }
-
-            for (String rawConfiguration: rawConfigurations) {
-                String[] variables = rawConfiguration.split(",");
-                configurations.add(Arrays.asList(variables));
+            Path configurationsFilePath = Paths.get(options.getConfigurationsFilePath());
+            try {
+                return MappedConfigurationsFile.open(configurationsFilePath).stream();
+            } catch (IOException e) {
+                LOGGER.severe("Error reading the provided configurations file.");
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+                return Stream.empty();
             }
-
-            return configurations.stream();
         }
     }
 
-    private static void printAnalysisResults(Map<Boolean, List<Collection<String>>> splitConfigs, IReliabilityAnalysisResults familyReliability) {
-        OUTPUT.println("Configurations:");
-        OUTPUT.println("=========================================");
+    /**
+     * Filters out invalid configurations, reporting each of them to the sink
+     * (with a reliability of 0) as the returned stream is consumed.
+     *
+     * This way, product-wise strategies (which push the results of valid
+     * configurations to the sink themselves) report every target
+     * configuration in a single pass.
+     */
+    static Stream<Collection<String>> reportInvalidConfigurations(Stream<Collection<String>> configurations,
+                                                                  Analyzer analyzer,
+                                                                  IReliabilityResultSink resultSink) {
+        return configurations.filter(configuration -> {
+            if (analyzer.isValidConfiguration(configuration)) {
+                return true;
+            }
+            resultSink.accept(configuration, 0, false);
+            return false;
+        });
+    }
 
-        List<Collection<String>> validConfigs = splitConfigs.get(true);
-        // Ordered report
-        validConfigs.sort((c1, c2) -> c1.toString().compareTo(c2.toString()));
-        for (Collection<String> validConfig: validConfigs) {
+    /**
+     * Reports the result of every target configuration, as given by a
+     * strategy which computes a whole reliability function.
+     */
+    static void reportAnalysisResults(Stream<Collection<String>> configurations,
+                                      Analyzer analyzer,
+                                      IReliabilityAnalysisResults familyReliability,
+                                      IReliabilityResultSink resultSink) {
+        configurations.forEach(configuration -> {
+            if (!analyzer.isValidConfiguration(configuration)) {
+                resultSink.accept(configuration, 0, false);
+                return;
+            }
             try {
-                String[] configurationAsArray = validConfig.toArray(new String[validConfig.size()]);
-                printSingleConfiguration(validConfig.toString(),
-                                         familyReliability.getResult(configurationAsArray));
+                String[] configurationAsArray = configuration.toArray(new String[configuration.size()]);
+                resultSink.accept(configuration, familyReliability.getResult(configurationAsArray), true);
             } catch (UnknownFeatureException e) {
                 LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
                 LOGGER.log(Level.SEVERE, e.toString(), e);
             }
+        });
+    }
+
+    private static PrintStream openResultsOutput(Options options) {
+        if (options.getResultsFilePath() == null || options.hasSuppressReport()) {
+            return OUTPUT;
+        }
+        try {
+            return new PrintStream(new BufferedOutputStream(new FileOutputStream(options.getResultsFilePath())));
+        } catch (FileNotFoundException e) {
+            LOGGER.severe("Error opening the results file.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(1);
         }
+        return null;
+    }
 
-        for (Collection<String> invalidConfig: splitConfigs.get(false)) {
-            printSingleConfiguration(invalidConfig.toString(), 0);
+    static IReliabilityResultSink makeResultSink(Options options, PrintStream resultsOutput) {
+        IReliabilityResultSink sink = null;
+        switch (options.getResultsFormat()) {
+        case CSV:
+            sink = new CsvResultSink(resultsOutput);
+            break;
+        case JSONL:
+            sink = new JsonLinesResultSink(resultsOutput);
+            break;
+        case BINARY:
+            sink = new BinaryResultSink(resultsOutput);
+            break;
+        case TEXT:
+        default:
+            sink = new TextResultSink(resultsOutput);
         }
+        if (options.hasUnsortedResults()) {
+            return sink;
+        }
+        return new SortingResultSink(sink, MAX_BUFFERED_RESULTS);
+    }
 
-        OUTPUT.println("=========================================");
-        OUTPUT.println(">>>> Total valid configurations: " + splitConfigs.get(true).size());
+    private static void exportFormulas(Path path) {
+        try {
+            ((FormulaCollector) formulaCollector).export(path);
+        } catch (IOException e) {
+            LOGGER.warning("Error writing the formulas file.");
+            LOGGER.log(Level.WARNING, e.toString(), e);
+        }
     }
 
-    private static void printSingleConfiguration(String configuration, double reliability) {
-        String message = configuration + " --> ";
-        if (Double.doubleToRawLongBits(reliability) != 0) {
-            OUTPUT.println(message + reliability);
-        } else {
-            OUTPUT.println(message + "INVALID");
+    private static void exportTrace(Path path) {
+        try {
+            ((Tracer) tracer).writeChromeTrace(path);
+        } catch (IOException e) {
+            LOGGER.warning("Error writing the trace file.");
+            LOGGER.log(Level.WARNING, e.toString(), e);
         }
     }
 
@@ -294,7 +535,11 @@ public class CommandLineInterface {
         timeCollector.printStats(out);
         formulaCollector.printStats(out);
         modelCollector.printStats(out);
+        reductionCollector.printStats(out);
         memoryCollector.printStats(out);
+        strategySelectionCollector.printStats(out);
+        progressCollector.printStats(out);
+        tracer.printStats(out);
         printEvaluationReuse(rdgRoot);
         familyReliability.printStats(out);
     }
@@ -365,7 +610,7 @@ public class CommandLineInterface {
      * @throws InvalidNodeClassException
      * @throws InvalidNumberOfOperandsException
      */
-    private static RDGNode model(File umlModels, ITimeCollector timeCollector) throws UnsupportedFragmentTypeException, InvalidTagException, InvalidNumberOfOperandsException, InvalidNodeClassException, InvalidNodeType {
+    static RDGNode model(File umlModels, ITimeCollector timeCollector) throws UnsupportedFragmentTypeException, InvalidTagException, InvalidNumberOfOperandsException, InvalidNodeClassException, InvalidNodeType {
     	String exporter = identifyExporter(umlModels);
     	IModelerAPI modeler = null;
     	
@@ -0,0 +1,214 @@
+package ui;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import tool.analyzers.buildingblocks.FeatureIndex;
+
+/**
+ * Configurations file (one comma-separated list of features per line)
+ * read lazily from a memory mapping, so that the file is never loaded
+ * as a whole.
+ *
+ * Lines are only parsed when the stream of configurations reaches them.
+ * Each line is parsed into a bit set over a {@link FeatureIndex}, which
+ * is also the representation used for discarding duplicate configurations.
+ * The file can be split into ranges of whole lines, so that parallel
+ * streams start evaluating the first configurations right away.
+ */
+public class MappedConfigurationsFile {
+
+    /**
+     * Size of each mapped segment, since a single mapping cannot exceed 2GB.
+     */
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    /**
+     * Ranges smaller than this (in bytes) are not split any further.
+     */
+    static final long MIN_SPLIT_SIZE = 1 << 12;
+    /**
+     * Number of bytes read for estimating the number of configurations.
+     */
+    static final long COUNT_SAMPLE_SIZE = 1 << 20;
+
+    private MappedByteBuffer[] segments;
+    private long size;
+
+    private MappedConfigurationsFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps a configurations file. The file is not read until the returned
+     * object is streamed.
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static MappedConfigurationsFile open(Path path) throws IOException {
+        // Mappings remain valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                          position,
+                                          Math.min(SEGMENT_MASK + 1, size - position));
+            }
+            return new MappedConfigurationsFile(segments, size);
+        }
+    }
+
+    /**
+     * Returns the distinct configurations in the file, in the order they
+     * first occur (unless the stream is made parallel). Blank lines and
+     * empty feature names are ignored.
+     *
+     * Features of each configuration are listed in the order in which
+     * they were first parsed.
+     */
+    public Stream<Collection<String>> stream() {
+        Set<BitSet> seen = ConcurrentHashMap.newKeySet();
+        return StreamSupport.stream(new LineSpliterator(0, size, new FeatureIndex(), seen), false);
+    }
+
+    /**
+     * Estimates the number of configurations in the file from the lines in
+     * its first {@link #COUNT_SAMPLE_SIZE} bytes, without reading the rest of it.
+     * Lines are not parsed, so duplicate configurations are counted as well.
+     * For files no larger than the sample, the count of non-blank lines is exact.
+     */
+    public long estimateCount() {
+        long sampled = Math.min(size, COUNT_SAMPLE_SIZE);
+        long lines = 0;
+        boolean blank = true;
+        for (long position = 0; position < sampled; position++) {
+            byte current = byteAt(position);
+            if (current == '\n') {
+                lines += blank ? 0 : 1;
+                blank = true;
+            } else if (current != ',' && current != '\r') {
+                blank = false;
+            }
+        }
+        lines += blank ? 0 : 1;
+        if (sampled == size) {
+            return lines;
+        }
+        return Math.round((double) lines * size / sampled);
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private String decode(long from, long to) {
+        byte[] bytes = new byte[(int) (to - from)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Spliterator over the lines which start within a range of the file.
+     * Range boundaries are always line starts.
+     */
+    private class LineSpliterator implements Spliterator<Collection<String>> {
+        private long position;
+        private long end;
+        private FeatureIndex featureIndex;
+        private Set<BitSet> seen;
+
+        LineSpliterator(long start, long end, FeatureIndex featureIndex, Set<BitSet> seen) {
+            this.position = start;
+            this.end = end;
+            this.featureIndex = featureIndex;
+            this.seen = seen;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Collection<String>> action) {
+            while (position < end) {
+                BitSet configuration = parseLine();
+                if (configuration != null && seen.add(configuration)) {
+                    action.accept(featureIndex.decode(configuration));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Parses the line at the current position and moves past it.
+         *
+         * @return the line's configuration, or null if the line is blank.
+         */
+        private BitSet parseLine() {
+            BitSet configuration = new BitSet();
+            long featureStart = position;
+            while (true) {
+                byte current = position < size ? byteAt(position) : (byte) '\n';
+                if (current == ',' || current == '\n') {
+                    long featureEnd = position;
+                    if (featureEnd > featureStart && byteAt(featureEnd - 1) == '\r') {
+                        featureEnd--;
+                    }
+                    if (featureEnd > featureStart) {
+                        configuration.set(featureIndex.add(decode(featureStart, featureEnd)));
+                    }
+                    featureStart = position + 1;
+                }
+                position++;
+                if (current == '\n') {
+                    break;
+                }
+            }
+            return configuration.isEmpty() ? null : configuration;
+        }
+
+        @Override
+        public Spliterator<Collection<String>> trySplit() {
+            if (end - position < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            long middle = position + (end - position) / 2;
+            while (middle < end && byteAt(middle - 1) != '\n') {
+                middle++;
+            }
+            if (middle >= end) {
+                return null;
+            }
+            LineSpliterator prefix = new LineSpliterator(position, middle, featureIndex, seen);
+            position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package ui;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import parsing.SplGeneratorModels.SplGenerator;
+
+/**
+ * Command-line interface to the synthetic SPL generator, which writes
+ * a series of feature models and behavioral models (one per number of
+ * features) in the same formats as the bundled generated series.
+ */
+public class ModelGenerator {
+
+    public static void main(String[] args) throws IOException {
+        OptionParser optionParser = new OptionParser();
+        OptionSpec<Integer> featuresOption = optionParser
+                .accepts("features",
+                         "Comma-separated numbers of features of the SPLs to be generated")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .withValuesSeparatedBy(',')
+                .defaultsTo(100)
+                .describedAs("Sizes");
+        OptionSpec<String> outputDirOption = optionParser
+                .accepts("output-dir")
+                .withRequiredArg()
+                .defaultsTo(".")
+                .describedAs("Directory");
+        OptionSpec<Long> seedOption = optionParser
+                .accepts("seed")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L);
+        OptionSpec<Integer> maxDepthOption = optionParser
+                .accepts("max-depth",
+                         "Depth of the feature tree (and of the RDG, minus one)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(4);
+        OptionSpec<Integer> maxFanOutOption = optionParser
+                .accepts("max-fan-out",
+                         "Maximum number of children of a feature")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(8);
+        OptionSpec<Double> mandatoryRatioOption = optionParser
+                .accepts("mandatory-ratio",
+                         "Probability of a feature outside groups being mandatory")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.2);
+        OptionSpec<Double> orGroupRatioOption = optionParser
+                .accepts("or-group-ratio",
+                         "Probability of a feature's children forming an or-group")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.15);
+        OptionSpec<Double> alternativeGroupRatioOption = optionParser
+                .accepts("alternative-group-ratio",
+                         "Probability of a feature's children forming an alternative group")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.1);
+        OptionSpec<Double> constraintsRatioOption = optionParser
+                .accepts("constraints-ratio",
+                         "Number of cross-tree constraints, as a fraction of the number of features")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.1);
+        OptionSpec<Integer> minMessagesOption = optionParser
+                .accepts("min-messages")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(5);
+        OptionSpec<Integer> maxMessagesOption = optionParser
+                .accepts("max-messages")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(15);
+        OptionSpec<Integer> lifelinesOption = optionParser
+                .accepts("lifelines")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(6);
+        OptionSpec<Double> minReliabilityOption = optionParser
+                .accepts("min-reliability",
+                         "Lower bound of the reliabilities of messages and lifelines")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(0.99);
+
+        OptionSpec<Void> helpOption = optionParser
+                .accepts("help")
+                .forHelp();
+
+        OptionSet options = optionParser.parse(args);
+        if (options.has(helpOption)) {
+            optionParser.printHelpOn(System.out);
+            System.exit(1);
+        }
+
+        SplGenerator generator = new SplGenerator();
+        generator.setSeed(options.valueOf(seedOption));
+        generator.setMaxDepth(options.valueOf(maxDepthOption));
+        generator.setMaxFanOut(options.valueOf(maxFanOutOption));
+        generator.setMandatoryRatio(options.valueOf(mandatoryRatioOption));
+        generator.setGroupRatios(options.valueOf(orGroupRatioOption),
+                                 options.valueOf(alternativeGroupRatioOption));
+        generator.setConstraintsRatio(options.valueOf(constraintsRatioOption));
+        generator.setMessages(options.valueOf(minMessagesOption),
+                              options.valueOf(maxMessagesOption));
+        generator.setLifelines(options.valueOf(lifelinesOption));
+        generator.setMinReliability(options.valueOf(minReliabilityOption));
+
+        Path outputDir = Paths.get(options.valueOf(outputDirOption));
+        Files.createDirectories(outputDir);
+        for (int features: options.valuesOf(featuresOption)) {
+            generator.writeSpl(features, outputDir);
+            System.out.println("Generated an SPL with " + features + " features in " + outputDir);
+        }
+    }
+
+}
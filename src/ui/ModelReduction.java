@@ -0,0 +1,20 @@
+package ui;
+
+/**
+ * Reduction applied to FDTMCs before model checking
+ * (see {@link fdtmc.FDTMCReducer}).
+ */
+public enum ModelReduction {
+    /**
+     * FDTMCs are model-checked as they are.
+     */
+    NONE,
+    /**
+     * Irrelevant states are removed and deterministic paths are compressed.
+     */
+    BASIC,
+    /**
+     * Same as BASIC, followed by strong-bisimulation lumping.
+     */
+    LUMPING
+}
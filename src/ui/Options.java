@@ -8,6 +8,7 @@ import joptsimple.OptionSpec;
 import tool.PruningStrategy;
 import tool.analyzers.AnalysisStrategy;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import ui.sinks.ResultFormat;
 
 
 /**
@@ -27,6 +28,14 @@ class Options {
     private ConcurrencyStrategy concurrencyStrategy;
     private PruningStrategy pruningStrategy;
     private AnalysisStrategy analysisStrategy;
+    private String incrementalCacheFilePath;
+    private int addNodeBudget;
+    private ResultFormat resultsFormat;
+    private String resultsFilePath;
+    private boolean unsortedResults;
+    private String formulasFilePath;
+    private String traceFilePath;
+    private ModelReduction modelReduction;
 
     static Options parseOptions(String[] args) throws IOException {
         OptionParser optionParser = new OptionParser();
@@ -74,7 +83,7 @@ class Options {
                         .describedAs("PARALLEL | SEQUENTIAL");
         OptionSpec<PruningStrategy> pruningStrategyOption = optionParser
                 .accepts("pruning-strategy",
-                         "The strategy that should be used for pruning invalid configurations. Can be one of: FM (whole feature model); NONE (no pruning)")
+                         "The strategy that should be used for pruning invalid configurations. Can be one of: FM (whole feature model); FM_PROJECTION (feature model projected onto the features of each partial result); NONE (no pruning)")
                 .withRequiredArg()
                 .ofType(PruningStrategy.class)
                 .defaultsTo(PruningStrategy.FM)
@@ -87,11 +96,72 @@ class Options {
                                  + "FEATURE_PRODUCT (feature-product-based); "
                                  + "FAMILY (family-based); "
                                  + "FAMILY_PRODUCT (family-product-based); "
-                                 + "PRODUCT (product-based).")
+                                 + "PRODUCT (product-based); "
+                                 + "FEATURE_FAMILY_PRODUCT (feature-family-product-based); "
+                                 + "FEATURE_FAMILY_FACTORIZED (feature-family-based, factorized over independent parts of the feature model); "
+                                 + "AUTO (the one with the least estimated cost).")
                 .withRequiredArg()
                 .ofType(AnalysisStrategy.class)
                 .defaultsTo(AnalysisStrategy.FEATURE_FAMILY)
-                .describedAs("FEATURE_FAMILY | FEATURE_PRODUCT | FAMILY | FAMILY_PRODUCT | PRODUCT");
+                .describedAs("FEATURE_FAMILY | FEATURE_PRODUCT | FAMILY | FAMILY_PRODUCT | PRODUCT | FEATURE_FAMILY_PRODUCT | FEATURE_FAMILY_FACTORIZED | AUTO");
+
+        OptionSpec<String> incrementalCacheOption = optionParser
+                .accepts("incremental-cache",
+                         "File in which per-node analysis results are kept between runs, so that only changed RDG nodes are re-analyzed")
+                .withRequiredArg()
+                .describedAs("File");
+
+        OptionSpec<Integer> addNodeBudgetOption = optionParser
+                .accepts("add-node-budget",
+                         "Maximum number of ADD nodes kept for a single RDG node in feature-family-based analyses. "
+                                 + "RDG nodes beyond it are evaluated per configuration instead (0 means no limit)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(0)
+                .describedAs("Nodes");
+
+        OptionSpec<ResultFormat> resultsFormatOption = optionParser
+                .accepts("results-format",
+                         "Format of the reliabilities report. Can be one of: "
+                                 + "TEXT (human-readable); "
+                                 + "CSV (comma-separated values); "
+                                 + "JSONL (one JSON object per line); "
+                                 + "BINARY (compact binary records).")
+                .withRequiredArg()
+                .ofType(ResultFormat.class)
+                .defaultsTo(ResultFormat.TEXT)
+                .describedAs("TEXT | CSV | JSONL | BINARY");
+        OptionSpec<String> resultsFileOption = optionParser
+                .accepts("results-file",
+                         "File to which the reliabilities report is written, instead of the standard output")
+                .withRequiredArg()
+                .describedAs("File");
+        OptionSpec<Void> unsortedResultsOption = optionParser
+                .accepts("unsorted-results",
+                         "Report reliabilities as soon as they are computed, instead of ordering them by configuration");
+
+        OptionSpec<String> formulasFileOption = optionParser
+                .accepts("formulas-file",
+                         "File to which the reliability expression computed for each RDG node is written")
+                .withRequiredArg()
+                .describedAs("File");
+
+        OptionSpec<String> traceFileOption = optionParser
+                .accepts("trace-file",
+                         "File to which a trace of the analysis steps is written, in the Chrome trace event format")
+                .withRequiredArg()
+                .describedAs("File");
+
+        OptionSpec<ModelReduction> modelReductionOption = optionParser
+                .accepts("model-reduction",
+                         "Reduction applied to each FDTMC before model checking. Can be one of: "
+                                 + "NONE (no reduction); "
+                                 + "BASIC (removal of irrelevant states and compression of deterministic paths); "
+                                 + "LUMPING (BASIC followed by strong-bisimulation lumping).")
+                .withRequiredArg()
+                .ofType(ModelReduction.class)
+                .defaultsTo(ModelReduction.NONE)
+                .describedAs("NONE | BASIC | LUMPING");
 
         OptionSpec<Void> helpOption = optionParser
                 .accepts("help")
@@ -115,6 +185,14 @@ class Options {
         result.concurrencyStrategy = options.valueOf(concurrencyStrategyOption);
         result.pruningStrategy = options.valueOf(pruningStrategyOption);
         result.analysisStrategy = options.valueOf(analysisStrategyOption);
+        result.incrementalCacheFilePath = options.valueOf(incrementalCacheOption);
+        result.addNodeBudget = options.valueOf(addNodeBudgetOption);
+        result.resultsFormat = options.valueOf(resultsFormatOption);
+        result.resultsFilePath = options.valueOf(resultsFileOption);
+        result.unsortedResults = options.has(unsortedResultsOption);
+        result.formulasFilePath = options.valueOf(formulasFileOption);
+        result.traceFilePath = options.valueOf(traceFileOption);
+        result.modelReduction = options.valueOf(modelReductionOption);
 
         return result;
     }
@@ -163,4 +241,36 @@ class Options {
         return analysisStrategy;
     }
 
+    public String getIncrementalCacheFilePath() {
+        return incrementalCacheFilePath;
+    }
+
+    public int getAddNodeBudget() {
+        return addNodeBudget;
+    }
+
+    public ResultFormat getResultsFormat() {
+        return resultsFormat;
+    }
+
+    public String getResultsFilePath() {
+        return resultsFilePath;
+    }
+
+    public boolean hasUnsortedResults() {
+        return unsortedResults;
+    }
+
+    public String getFormulasFilePath() {
+        return formulasFilePath;
+    }
+
+    public String getTraceFilePath() {
+        return traceFilePath;
+    }
+
+    public ModelReduction getModelReduction() {
+        return modelReduction;
+    }
+
 }
@@ -0,0 +1,109 @@
+package ui.sinks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import tool.analyzers.IReliabilityResultSink;
+import tool.analyzers.buildingblocks.FeatureIndex;
+
+/**
+ * Compact binary report. Features are written only once, the first time
+ * they are seen, and configurations refer to them by index afterwards.
+ *
+ * The stream is a sequence of records, each starting with a tag byte:
+ * <ul>
+ *  <li>{@link #FEATURE}: the (modified UTF-8) name of the next feature index;</li>
+ *  <li>{@link #RESULT}: the number of features of a configuration, their
+ *      indices (as ints), whether it is valid (as a boolean) and its
+ *      reliability (as a double).</li>
+ * </ul>
+ * Such streams can be read back by means of {@link #read(InputStream, IReliabilityResultSink)}.
+ */
+public class BinaryResultSink implements IReliabilityResultSink {
+
+    static final byte FEATURE = 0;
+    static final byte RESULT = 1;
+
+    private DataOutputStream output;
+    private FeatureIndex featureIndex = new FeatureIndex();
+
+    /**
+     * @param output Stream to which results are written. It is flushed,
+     *          but not closed along with the sink.
+     */
+    public BinaryResultSink(OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability, boolean valid) {
+        try {
+            int[] indices = new int[configuration.size()];
+            int i = 0;
+            for (String feature: configuration) {
+                int index = featureIndex.indexOf(feature);
+                if (index < 0) {
+                    index = featureIndex.add(feature);
+                    output.writeByte(FEATURE);
+                    output.writeUTF(feature);
+                }
+                indices[i++] = index;
+            }
+            output.writeByte(RESULT);
+            output.writeInt(indices.length);
+            for (int index: indices) {
+                output.writeInt(index);
+            }
+            output.writeBoolean(valid);
+            output.writeDouble(reliability);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Reads results written by a binary sink, reporting each of them to
+     * {@code sink} in the same order.
+     *
+     * @param input Stream written by a {@link BinaryResultSink}.
+     * @param sink
+     * @throws IOException
+     */
+    public static void read(InputStream input, IReliabilityResultSink sink) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        List<String> features = new ArrayList<String>();
+        while (true) {
+            int tag = data.read();
+            if (tag < 0) {
+                return;
+            } else if (tag == FEATURE) {
+                features.add(data.readUTF());
+            } else if (tag == RESULT) {
+                int size = data.readInt();
+                List<String> configuration = new ArrayList<String>(size);
+                for (int i = 0; i < size; i++) {
+                    configuration.add(features.get(data.readInt()));
+                }
+                boolean valid = data.readBoolean();
+                sink.accept(configuration, data.readDouble(), valid);
+            } else {
+                throw new IOException("Corrupt result stream: unknown record tag " + tag);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package ui.sinks;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+import tool.analyzers.IReliabilityResultSink;
+
+/**
+ * CSV report with a "configuration,reliability" header. Each configuration
+ * is a single (quoted) field holding its comma-separated features, in the
+ * same format as the lines of a configurations file. Invalid configurations
+ * have a reliability of 0.
+ */
+public class CsvResultSink implements IReliabilityResultSink {
+
+    private PrintStream output;
+
+    /**
+     * @param output Stream to which the report is printed. It is not closed
+     *          along with the sink.
+     */
+    public CsvResultSink(PrintStream output) {
+        this.output = output;
+        output.println("configuration,reliability");
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability, boolean valid) {
+        String features = String.join(",", configuration).replace("\"", "\"\"");
+        output.println("\"" + features + "\"," + reliability);
+    }
+
+    @Override
+    public synchronized void close() {
+        output.flush();
+    }
+
+}
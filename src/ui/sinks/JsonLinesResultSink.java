@@ -0,0 +1,59 @@
+package ui.sinks;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import tool.analyzers.IReliabilityResultSink;
+
+/**
+ * JSON Lines report, with one object per result, e.g.:
+ * <pre>
+ * {"configuration":["Root","A"],"reliability":0.99}
+ * </pre>
+ * Reliabilities which are not finite numbers are reported as {@code null},
+ * and invalid configurations have a reliability of 0.
+ */
+public class JsonLinesResultSink implements IReliabilityResultSink {
+
+    private PrintStream output;
+
+    /**
+     * @param output Stream to which the report is printed. It is not closed
+     *          along with the sink.
+     */
+    public JsonLinesResultSink(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability, boolean valid) {
+        String features = configuration.stream()
+                .map(JsonLinesResultSink::quote)
+                .collect(Collectors.joining(",", "[", "]"));
+        // JSON has no literals for NaN or infinities.
+        String value = (Double.isNaN(reliability) || Double.isInfinite(reliability)) ? "null" : Double.toString(reliability);
+        output.println("{\"configuration\":" + features + ",\"reliability\":" + value + "}");
+    }
+
+    @Override
+    public synchronized void close() {
+        output.flush();
+    }
+
+    private static String quote(String string) {
+        StringBuilder quoted = new StringBuilder(string.length() + 2);
+        quoted.append('"');
+        for (char c: string.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+}
@@ -0,0 +1,24 @@
+package ui.sinks;
+
+/**
+ * Formats in which reliability results can be reported.
+ */
+public enum ResultFormat {
+    /**
+     * Human-readable "configuration --> reliability" lines.
+     * @see TextResultSink
+     */
+    TEXT,
+    /**
+     * @see CsvResultSink
+     */
+    CSV,
+    /**
+     * @see JsonLinesResultSink
+     */
+    JSONL,
+    /**
+     * @see BinaryResultSink
+     */
+    BINARY
+}
@@ -0,0 +1,188 @@
+package ui.sinks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+import tool.analyzers.IReliabilityResultSink;
+
+/**
+ * Sink which reports results to another one ordered by configuration
+ * (in the order of their string representations), regardless of the order
+ * in which they were computed.
+ *
+ * Results are sorted by means of an external merge sort: at most
+ * {@code maxBufferedResults} of them are kept in memory, and each time
+ * the buffer fills up it is sorted and spilled to a temporary file (a run).
+ * Upon closing, runs are merged into the underlying sink.
+ */
+public class SortingResultSink implements IReliabilityResultSink {
+    private static final Logger LOGGER = Logger.getLogger(SortingResultSink.class.getName());
+
+    private static final Comparator<Result> ORDER = Comparator.comparing(result -> result.key);
+
+    private IReliabilityResultSink sink;
+    private int maxBufferedResults;
+    private List<Result> buffer = new ArrayList<Result>();
+    private List<Path> runs = new LinkedList<Path>();
+
+    /**
+     * @param sink Sink to which ordered results are reported. It is closed
+     *          along with this one.
+     * @param maxBufferedResults Maximum number of results kept in memory.
+     */
+    public SortingResultSink(IReliabilityResultSink sink, int maxBufferedResults) {
+        this.sink = sink;
+        this.maxBufferedResults = maxBufferedResults;
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability, boolean valid) {
+        buffer.add(new Result(new ArrayList<String>(configuration), reliability, valid));
+        if (buffer.size() >= maxBufferedResults) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (runs.isEmpty()) {
+                buffer.sort(ORDER);
+                for (Result result: buffer) {
+                    sink.accept(result.configuration, result.reliability, result.valid);
+                }
+                buffer.clear();
+            } else {
+                if (!buffer.isEmpty()) {
+                    spill();
+                }
+                merge();
+            }
+        } finally {
+            for (Path run: runs) {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+            sink.close();
+        }
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(ORDER);
+        Path run = Files.createTempFile("reana-results", ".run");
+        runs.add(run);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            output.writeInt(buffer.size());
+            for (Result result: buffer) {
+                output.writeInt(result.configuration.size());
+                for (String feature: result.configuration) {
+                    output.writeUTF(feature);
+                }
+                output.writeBoolean(result.valid);
+                output.writeDouble(result.reliability);
+            }
+        }
+        buffer.clear();
+    }
+
+    private void merge() throws IOException {
+        LOGGER.info("Merging " + runs.size() + " sorted runs of results.");
+        PriorityQueue<RunReader> heads = new PriorityQueue<RunReader>(runs.size(),
+                                                                      Comparator.comparing(RunReader::current, ORDER));
+        List<RunReader> readers = new LinkedList<RunReader>();
+        try {
+            for (Path run: runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                Result result = reader.current();
+                sink.accept(result.configuration, result.reliability, result.valid);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader: readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static class Result {
+        List<String> configuration;
+        String key;
+        double reliability;
+        boolean valid;
+
+        Result(List<String> configuration, double reliability, boolean valid) {
+            this.configuration = configuration;
+            this.key = configuration.toString();
+            this.reliability = reliability;
+            this.valid = valid;
+        }
+    }
+
+    /**
+     * Sequential reader of a spilled run.
+     */
+    private static class RunReader {
+        private DataInputStream input;
+        private int remaining;
+        private Result current;
+
+        RunReader(Path run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+            this.remaining = input.readInt();
+        }
+
+        Result current() {
+            return current;
+        }
+
+        /**
+         * Reads the next result of the run, if any.
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            remaining--;
+            int size = input.readInt();
+            List<String> configuration = new ArrayList<String>(size);
+            for (int i = 0; i < size; i++) {
+                configuration.add(input.readUTF());
+            }
+            boolean valid = input.readBoolean();
+            current = new Result(configuration, input.readDouble(), valid);
+            return true;
+        }
+
+        void close() throws IOException {
+            input.close();
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package ui.sinks;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+import tool.analyzers.IReliabilityResultSink;
+
+/**
+ * Human-readable report, with one "configuration --> reliability" line
+ * per result. Invalid configurations are reported as INVALID.
+ */
+public class TextResultSink implements IReliabilityResultSink {
+
+    private PrintStream output;
+    private long validConfigurations = 0;
+
+    /**
+     * @param output Stream to which the report is printed. It is not closed
+     *          along with the sink.
+     */
+    public TextResultSink(PrintStream output) {
+        this.output = output;
+        output.println("Configurations:");
+        output.println("=========================================");
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability, boolean valid) {
+        String message = configuration + " --> ";
+        if (valid) {
+            output.println(message + reliability);
+            validConfigurations++;
+        } else {
+            output.println(message + "INVALID");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        output.println("=========================================");
+        output.println(">>>> Total valid configurations: " + validConfigurations);
+        output.flush();
+    }
+
+}
@@ -1,10 +1,15 @@
 package ui.stats;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import tool.RDGNode;
 import tool.stats.IFormulaCollector;
@@ -53,4 +58,19 @@ public class FormulaCollector implements IFormulaCollector {
         out.println("All formulae sizes: " + allFormulaeSizes);
     }
 
+    /**
+     * Writes the collected formulas to a file, one per line, each preceded
+     * by the id of its RDG node and a tab (e.g., for benchmarking
+     * expression solving with real formulas).
+     *
+     * @param path
+     * @throws IOException
+     */
+    public synchronized void export(Path path) throws IOException {
+        List<String> lines = formulae.entrySet().stream()
+                .map(entry -> entry.getKey().getId() + "\t" + entry.getValue())
+                .collect(Collectors.toList());
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
 }
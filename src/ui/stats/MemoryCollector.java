@@ -3,27 +3,74 @@ package ui.stats;
 import java.io.PrintStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import jadd.JADD;
 import tool.stats.IMemoryCollector;
 
 public class MemoryCollector implements IMemoryCollector {
 
     private Map<String, Long> snapshots;
     private long maxMemory = 0;
+    private MemorySampler sampler;
+    private volatile String lastSnapshot = "start";
 
+    /**
+     * Creates a collector which only measures the heap at snapshots.
+     */
     public MemoryCollector() {
         // LinkedHashMap provides for ordered iteration of the snapshots.
         snapshots = new LinkedHashMap<String, Long>();
     }
 
+    /**
+     * Creates a collector which also samples memory in the background
+     * (see {@link MemorySampler}) until its stats are printed.
+     *
+     * @param samplingPeriodMillis Time between samples.
+     * @param currentPhase Supplies the name of the running phase, or null
+     *          if none is, in which case samples are tagged with the name
+     *          of the last snapshot.
+     */
+    public MemoryCollector(long samplingPeriodMillis, Supplier<String> currentPhase) {
+        this();
+        sampler = new MemorySampler(() -> {
+            String phase = currentPhase.get();
+            return (phase != null) ? phase : lastSnapshot;
+        });
+        sampler.start(samplingPeriodMillis);
+    }
+
     @Override
     public void takeSnapshot(String name) {
         Runtime runtime = Runtime.getRuntime();
         long snapshot = runtime.totalMemory() - runtime.freeMemory();
         snapshots.put(name, snapshot);
         maxMemory = Math.max(maxMemory, snapshot);
+        lastSnapshot = name;
+        if (sampler != null) {
+            sampler.sample();
+        }
+    }
+
+    @Override
+    public void watch(JADD jadd) {
+        if (sampler != null) {
+            sampler.watch(jadd);
+        }
     }
 
+    /**
+     * Returns the largest heap usage among the snapshots taken, in bytes.
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Prints the snapshots and, if sampling, stops it and prints the
+     * samples' statistics as well.
+     */
     @Override
     public void printStats(PrintStream out) {
         for (Map.Entry<String, Long> snapshot: snapshots.entrySet()) {
@@ -32,6 +79,10 @@ public class MemoryCollector implements IMemoryCollector {
         }
         double maxMemoryInMegabytes = maxMemory/(1024.0*1024.0);
         out.println("Maximum memory used: "+maxMemoryInMegabytes+" MB");
+        if (sampler != null) {
+            sampler.stop();
+            sampler.printStats(out);
+        }
     }
 
 }
@@ -0,0 +1,266 @@
+package ui.stats;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jadd.JADD;
+
+/**
+ * Periodically samples the JVM heap, the bytes allocated by each thread,
+ * the time spent in garbage collection and, if a CUDD manager is watched,
+ * its native memory, node counts and computed table hit ratio.
+ *
+ * Each sample is tagged with the pipeline phase running when it was taken,
+ * so that peaks (and GC and allocation figures) can be reported by phase.
+ * Samples are taken on a daemon thread, so that a sampler which is never
+ * stopped does not keep the JVM from exiting.
+ */
+public class MemorySampler {
+
+    private static final double MEGABYTE = 1024.0*1024.0;
+    /**
+     * Number of rows to which the time series is downsampled when printed.
+     */
+    private static final int PRINTED_SAMPLES = 20;
+    private static final int PRINTED_THREADS = 10;
+
+    private Supplier<String> currentPhase;
+    private volatile JADD jadd;
+    private ScheduledExecutorService executor;
+    private long originNanos = System.nanoTime();
+
+    private MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // The fields below are guarded by this sampler's lock.
+    private List<Sample> samples = new ArrayList<Sample>();
+    /**
+     * Last allocated bytes figure of each thread seen so far, so that
+     * the allocations of threads which have finished are not lost.
+     */
+    private Map<Long, Long> allocatedBytes = new HashMap<Long, Long>();
+    private Map<Long, String> threadNames = new HashMap<Long, String>();
+    private long gcCount = 0;
+    private long gcTime = 0;
+
+    /**
+     * @param currentPhase Supplies the name of the running phase.
+     */
+    public MemorySampler(Supplier<String> currentPhase) {
+        this.currentPhase = currentPhase;
+    }
+
+    /**
+     * Sets the CUDD manager whose memory is also sampled.
+     */
+    public void watch(JADD jadd) {
+        this.jadd = jadd;
+    }
+
+    public synchronized void start(long periodMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memory-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::sample, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling and takes a last sample.
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = executor;
+            executor = null;
+        }
+        if (running != null) {
+            running.shutdownNow();
+            try {
+                running.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample();
+        }
+    }
+
+    /**
+     * Takes a sample right away (e.g., at a point of interest of the analysis).
+     */
+    public synchronized void sample() {
+        Sample sample = new Sample();
+        sample.elapsedNanos = System.nanoTime() - originNanos;
+        sample.phase = currentPhase.get();
+        sample.heapUsed = memoryBean.getHeapMemoryUsage().getUsed();
+        sample.allocatedBytes = sampleAllocatedBytes();
+
+        long totalGcCount = 0;
+        long totalGcTime = 0;
+        for (GarbageCollectorMXBean gcBean: gcBeans) {
+            totalGcCount += Math.max(0, gcBean.getCollectionCount());
+            totalGcTime += Math.max(0, gcBean.getCollectionTime());
+        }
+        sample.gcCount = totalGcCount - gcCount;
+        sample.gcTimeMillis = totalGcTime - gcTime;
+        gcCount = totalGcCount;
+        gcTime = totalGcTime;
+
+        JADD watched = jadd;
+        if (watched != null) {
+            sample.cuddMemory = watched.getMemoryInUse();
+            sample.liveNodes = watched.getLiveNodeCount();
+            sample.deadNodes = watched.getDeadNodeCount();
+            sample.cacheHitRatio = watched.getCacheHitRatio();
+        }
+        samples.add(sample);
+    }
+
+    /**
+     * Returns the total bytes allocated so far by all threads, or -1
+     * if the JVM does not measure per-thread allocations.
+     */
+    private long sampleAllocatedBytes() {
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported() || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long[] ids = threadBean.getAllThreadIds();
+        long[] bytes = allocationBean.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] < 0) {
+                continue;
+            }
+            allocatedBytes.put(ids[i], bytes[i]);
+            if (!threadNames.containsKey(ids[i])) {
+                ThreadInfo info = threadBean.getThreadInfo(ids[i]);
+                threadNames.put(ids[i], (info != null) ? info.getThreadName() : "thread " + ids[i]);
+            }
+        }
+        long total = 0;
+        for (long threadBytes: allocatedBytes.values()) {
+            total += threadBytes;
+        }
+        return total;
+    }
+
+    public synchronized List<Sample> getSamples() {
+        return new ArrayList<Sample>(samples);
+    }
+
+    /**
+     * Prints the peaks of each phase, the bytes allocated by each thread
+     * and the (downsampled) time series.
+     */
+    public synchronized void printStats(PrintStream out) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        Map<String, PhaseStats> phases = new LinkedHashMap<String, PhaseStats>();
+        long previousAllocatedBytes = 0;
+        for (Sample sample: samples) {
+            PhaseStats phase = phases.computeIfAbsent(sample.phase, p -> new PhaseStats());
+            phase.samples++;
+            phase.peakHeap = Math.max(phase.peakHeap, sample.heapUsed);
+            phase.peakCuddMemory = Math.max(phase.peakCuddMemory, sample.cuddMemory);
+            phase.peakLiveNodes = Math.max(phase.peakLiveNodes, sample.liveNodes);
+            phase.gcCount += sample.gcCount;
+            phase.gcTimeMillis += sample.gcTimeMillis;
+            if (sample.allocatedBytes >= 0) {
+                phase.allocatedBytes += Math.max(0, sample.allocatedBytes - previousAllocatedBytes);
+                previousAllocatedBytes = sample.allocatedBytes;
+            }
+        }
+
+        out.println("Memory peaks by phase (" + samples.size() + " samples):");
+        for (Map.Entry<String, PhaseStats> entry: phases.entrySet()) {
+            PhaseStats phase = entry.getValue();
+            out.println("    " + entry.getKey() + ": "
+                    + phase.samples + " samples"
+                    + " | heap: " + phase.peakHeap/MEGABYTE + " MB"
+                    + " | CUDD: " + phase.peakCuddMemory/MEGABYTE + " MB"
+                    + " | live nodes: " + phase.peakLiveNodes
+                    + " | allocated: " + phase.allocatedBytes/MEGABYTE + " MB"
+                    + " | GC: " + phase.gcCount + " collections, " + phase.gcTimeMillis + " ms");
+        }
+
+        if (!allocatedBytes.isEmpty()) {
+            out.println("Memory allocated by thread (top " + PRINTED_THREADS + "):");
+            allocatedBytes.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                    .limit(PRINTED_THREADS)
+                    .forEach(entry -> out.println("    " + threadNames.get(entry.getKey()) + ": "
+                            + entry.getValue()/MEGABYTE + " MB"));
+        }
+
+        out.println("Memory time series (ms, phase, heap MB, CUDD MB, live nodes, dead nodes, cache hit ratio):");
+        int step = Math.max(1, (samples.size() + PRINTED_SAMPLES - 1) / PRINTED_SAMPLES);
+        for (int i = 0; i < samples.size(); i += step) {
+            Sample sample = samples.get(i);
+            out.println("    " + sample.elapsedNanos/1000000
+                    + ", " + sample.phase
+                    + ", " + String.format("%.2f", sample.heapUsed/MEGABYTE)
+                    + ", " + String.format("%.2f", sample.cuddMemory/MEGABYTE)
+                    + ", " + sample.liveNodes
+                    + ", " + sample.deadNodes
+                    + ", " + String.format("%.3f", sample.cacheHitRatio));
+        }
+    }
+
+    /**
+     * A point of the memory time series. CUDD figures are 0 (or NaN)
+     * if no manager was watched when it was taken.
+     */
+    public static class Sample {
+        public long elapsedNanos;
+        public String phase;
+        public long heapUsed;
+        /**
+         * Bytes allocated by all threads since the JVM started,
+         * or -1 if not measured.
+         */
+        public long allocatedBytes;
+        /**
+         * Collections (and time spent in them) since the previous sample.
+         */
+        public long gcCount;
+        public long gcTimeMillis;
+        public long cuddMemory;
+        public long liveNodes;
+        public long deadNodes;
+        public double cacheHitRatio = Double.NaN;
+    }
+
+    private static class PhaseStats {
+        int samples;
+        long peakHeap;
+        long peakCuddMemory;
+        long peakLiveNodes;
+        long allocatedBytes;
+        long gcCount;
+        long gcTimeMillis;
+    }
+
+}
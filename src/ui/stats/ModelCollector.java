@@ -29,6 +29,37 @@ public class ModelCollector implements IModelCollector {
         times.add(elapsedTimeNanos/1E+6);
     }
 
+    public int getModelsCount() {
+        return models.size();
+    }
+
+    public long getStatesSum() {
+        synchronized (models) {
+            return models.stream().mapToLong(model -> model.states).sum();
+        }
+    }
+
+    public int getMaxStates() {
+        synchronized (models) {
+            return models.stream().mapToInt(model -> model.states).max().orElse(0);
+        }
+    }
+
+    public int getMaxVariables() {
+        synchronized (models) {
+            return models.stream().mapToInt(model -> model.variables).max().orElse(0);
+        }
+    }
+
+    /**
+     * Returns the sum of all model checking times, in milliseconds.
+     */
+    public double getTotalModelCheckingTime() {
+        synchronized (times) {
+            return times.stream().mapToDouble(Double::doubleValue).sum();
+        }
+    }
+
     @Override
     public void printStats(PrintStream out) {
         int maxVars = 0;
@@ -0,0 +1,175 @@
+package ui.stats;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import tool.stats.IProgressCollector;
+
+/**
+ * Records the latency of each evaluated configuration in a {@link LatencyHistogram},
+ * keeps the slowest ones, and periodically prints a progress line (with the
+ * throughput and, if the number of configurations is known, the estimated
+ * time to completion) while an iteration runs.
+ */
+public class ProgressCollector implements IProgressCollector {
+
+    private static final int SLOWEST_CONFIGURATIONS = 10;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private PrintStream progressOutput;
+    private long periodMillis;
+    private long expectedConfigurations = -1;
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+    private LongAdder evaluated = new LongAdder();
+    private volatile long iterationStartNanos;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Min-heap of the slowest configurations, guarded by itself. The latency
+     * of its fastest entry is mirrored in {@link #slowestThreshold}, so that
+     * most configurations are discarded without locking.
+     */
+    private PriorityQueue<SlowConfiguration> slowest = new PriorityQueue<SlowConfiguration>(
+            Comparator.comparingLong((SlowConfiguration slow) -> slow.latencyNanos));
+    private volatile long slowestThreshold = -1;
+
+    /**
+     * @param progressOutput Stream to which progress lines are printed.
+     * @param periodMillis Time between progress lines.
+     */
+    public ProgressCollector(PrintStream progressOutput, long periodMillis) {
+        this.progressOutput = progressOutput;
+        this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public void setExpectedConfigurations(long expectedConfigurations) {
+        this.expectedConfigurations = expectedConfigurations;
+    }
+
+    @Override
+    public synchronized void startIteration() {
+        evaluated.reset();
+        iterationStartNanos = System.nanoTime();
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "progress-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(this::printProgress, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void collectLatency(Collection<String> configuration, long latencyNanos) {
+        histogram.record(latencyNanos);
+        evaluated.increment();
+        if (latencyNanos > slowestThreshold) {
+            synchronized (slowest) {
+                slowest.add(new SlowConfiguration(configuration, latencyNanos));
+                if (slowest.size() > SLOWEST_CONFIGURATIONS) {
+                    slowest.poll();
+                }
+                if (slowest.size() == SLOWEST_CONFIGURATIONS) {
+                    slowestThreshold = slowest.peek().latencyNanos;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void finishIteration() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            printProgress();
+        }
+    }
+
+    private void printProgress() {
+        long count = evaluated.sum();
+        double elapsedSeconds = (System.nanoTime() - iterationStartNanos) / 1E+9;
+        double throughput = (elapsedSeconds > 0) ? count / elapsedSeconds : 0;
+        StringBuilder line = new StringBuilder("Progress: ").append(count);
+        long expected = expectedConfigurations;
+        if (expected > 0) {
+            line.append(String.format(" of %d configurations (%.1f%%)", expected, 100.0 * count / expected));
+        } else {
+            line.append(" configurations");
+        }
+        line.append(String.format(" | %.1f configurations/s", throughput));
+        if (expected > count && throughput > 0) {
+            line.append(" | ETA: ").append(formatDuration((long) ((expected - count) / throughput)));
+        }
+        progressOutput.println(line);
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns the slowest configurations, slowest first.
+     */
+    public List<Collection<String>> getSlowestConfigurations() {
+        List<Collection<String>> configurations = new ArrayList<Collection<String>>();
+        for (SlowConfiguration slow: sortedSlowest()) {
+            configurations.add(slow.configuration);
+        }
+        return configurations;
+    }
+
+    private List<SlowConfiguration> sortedSlowest() {
+        List<SlowConfiguration> sorted;
+        synchronized (slowest) {
+            sorted = new ArrayList<SlowConfiguration>(slowest);
+        }
+        sorted.sort((a, b) -> Long.compare(b.latencyNanos, a.latencyNanos));
+        return sorted;
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.println("Configuration latency (" + histogram.getTotalCount() + " configurations):");
+        StringBuilder line = new StringBuilder("    mean: " + histogram.getMean()/1E+6 + " ms");
+        line.append(" | min: " + histogram.getMin()/1E+6 + " ms");
+        for (double percentile: PERCENTILES) {
+            String label = (percentile == Math.floor(percentile)) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+            line.append(" | p" + label + ": " + histogram.getValueAtPercentile(percentile)/1E+6 + " ms");
+        }
+        line.append(" | max: " + histogram.getMax()/1E+6 + " ms");
+        out.println(line);
+        out.println("Slowest configurations:");
+        for (SlowConfiguration slow: sortedSlowest()) {
+            out.println("    " + slow.latencyNanos/1E+6 + " ms: " + slow.configuration);
+        }
+    }
+
+    private static class SlowConfiguration {
+        Collection<String> configuration;
+        long latencyNanos;
+
+        SlowConfiguration(Collection<String> configuration, long latencyNanos) {
+            this.configuration = configuration;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package ui.stats;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import paramwrapper.IReductionCollector;
+
+/**
+ * Collects the sizes of the FDTMCs of each RDG node before and after
+ * reduction. Models which are reduced several times (e.g., one per product)
+ * are summed up.
+ */
+public class ReductionCollector implements IReductionCollector {
+    private class Reduction {
+        int models;
+        long statesBefore;
+        long transitionsBefore;
+        long statesAfter;
+        long transitionsAfter;
+    }
+
+    private Map<String, Reduction> reductions = new LinkedHashMap<String, Reduction>();
+
+    @Override
+    public synchronized void collectReduction(String model, int statesBefore, int transitionsBefore, int statesAfter, int transitionsAfter) {
+        Reduction reduction = reductions.computeIfAbsent(model, m -> new Reduction());
+        reduction.models++;
+        reduction.statesBefore += statesBefore;
+        reduction.transitionsBefore += transitionsBefore;
+        reduction.statesAfter += statesAfter;
+        reduction.transitionsAfter += transitionsAfter;
+    }
+
+    @Override
+    public synchronized void printStats(PrintStream out) {
+        Reduction total = new Reduction();
+        out.println("Model reduction stats:");
+        for (Map.Entry<String, Reduction> entry : reductions.entrySet()) {
+            Reduction reduction = entry.getValue();
+            out.println("    " + entry.getKey()
+                        + ((reduction.models > 1) ? " (" + reduction.models + " models)" : "")
+                        + ": states " + describe(reduction.statesBefore, reduction.statesAfter)
+                        + " | transitions " + describe(reduction.transitionsBefore, reduction.transitionsAfter));
+            total.statesBefore += reduction.statesBefore;
+            total.transitionsBefore += reduction.transitionsBefore;
+            total.statesAfter += reduction.statesAfter;
+            total.transitionsAfter += reduction.transitionsAfter;
+        }
+        out.println("Total states: " + describe(total.statesBefore, total.statesAfter));
+        out.println("Total transitions: " + describe(total.transitionsBefore, total.transitionsAfter));
+    }
+
+    private static String describe(long before, long after) {
+        double reduction = (before == 0) ? 0 : 100.0*(before - after)/before;
+        return before + " -> " + after + String.format(" (-%.1f%%)", reduction);
+    }
+
+}
@@ -1,15 +1,24 @@
 package ui.stats;
 
 import paramwrapper.IModelCollector;
+import paramwrapper.IReductionCollector;
+import paramwrapper.NoopReductionCollector;
 import tool.stats.IFormulaCollector;
 import tool.stats.IMemoryCollector;
+import tool.stats.IProgressCollector;
+import tool.stats.IStrategySelectionCollector;
 import tool.stats.ITimeCollector;
 import tool.stats.NoopFormulaCollector;
 import tool.stats.NoopMemoryCollector;
+import tool.stats.NoopProgressCollector;
+import tool.stats.NoopStrategySelectionCollector;
 import tool.stats.NoopTimeCollector;
 
 public class StatsCollectorFactory {
 
+    private static final long MEMORY_SAMPLING_PERIOD_MILLIS = 100;
+    private static final long PROGRESS_REPORTING_PERIOD_MILLIS = 10000;
+
     private boolean collectionEnabled = false;
 
     public StatsCollectorFactory(boolean collectionEnabled) {
@@ -40,6 +49,39 @@ public class StatsCollectorFactory {
         }
     }
 
+    /**
+     * Creates a memory collector which also samples memory in the background,
+     * tagging samples with the running timer of {@code timeCollector}.
+     */
+    public IMemoryCollector createMemoryCollector(ITimeCollector timeCollector) {
+        if (collectionEnabled && timeCollector instanceof TimeCollector) {
+            return new MemoryCollector(MEMORY_SAMPLING_PERIOD_MILLIS,
+                                       ((TimeCollector) timeCollector)::getCurrentPhase);
+        } else {
+            return createMemoryCollector();
+        }
+    }
+
+    public IStrategySelectionCollector createStrategySelectionCollector() {
+        if (collectionEnabled) {
+            return new StrategySelectionCollector();
+        } else {
+            return new NoopStrategySelectionCollector();
+        }
+    }
+
+    /**
+     * Creates a progress collector which prints progress lines to the standard error,
+     * so that they do not mix with a reliabilities report on the standard output.
+     */
+    public IProgressCollector createProgressCollector() {
+        if (collectionEnabled) {
+            return new ProgressCollector(System.err, PROGRESS_REPORTING_PERIOD_MILLIS);
+        } else {
+            return new NoopProgressCollector();
+        }
+    }
+
     public IModelCollector createModelCollector() {
         if (collectionEnabled) {
             return new ModelCollector();
@@ -48,4 +90,12 @@ public class StatsCollectorFactory {
         }
     }
 
+    public IReductionCollector createReductionCollector() {
+        if (collectionEnabled) {
+            return new ReductionCollector();
+        } else {
+            return new NoopReductionCollector();
+        }
+    }
+
 }
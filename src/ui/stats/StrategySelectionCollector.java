@@ -0,0 +1,40 @@
+package ui.stats;
+
+import java.io.PrintStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import tool.analyzers.AnalysisMetrics;
+import tool.analyzers.AnalysisStrategy;
+import tool.stats.IStrategySelectionCollector;
+
+public class StrategySelectionCollector implements IStrategySelectionCollector {
+
+    private List<String> selections = new LinkedList<String>();
+
+    @Override
+    public synchronized void collectSelection(AnalysisMetrics metrics, Map<AnalysisStrategy, Double> estimatedCosts, AnalysisStrategy selected) {
+        StringBuilder selection = new StringBuilder();
+        selection.append("    Metrics: ").append(metrics).append(System.lineSeparator());
+        for (Map.Entry<AnalysisStrategy, Double> cost: estimatedCosts.entrySet()) {
+            selection.append("    ").append(cost.getKey()).append(": ")
+                .append(String.format("%.1f", cost.getValue())).append(" ms (estimated)")
+                .append(System.lineSeparator());
+        }
+        selection.append("    Selected: ").append(selected);
+        selections.add(selection.toString());
+    }
+
+    @Override
+    public void printStats(PrintStream out) {
+        if (selections.isEmpty()) {
+            return;
+        }
+        out.println("Strategy selection stats:");
+        for (String selection: selections) {
+            out.println(selection);
+        }
+    }
+
+}
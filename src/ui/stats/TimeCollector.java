@@ -1,30 +1,73 @@
 package ui.stats;
 
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import tool.stats.ISpan;
 import tool.stats.ITimeCollector;
+import tool.stats.ITracer;
+import tool.stats.NoopTracer;
 
+/**
+ * Thread-safe time collector. Each timer is also traced as a "phase" span
+ * covering the time during which it was running.
+ */
 public class TimeCollector implements ITimeCollector {
 
     private Map<String, WallClockStopWatch> timers;
+    private Map<String, ISpan> runningPhases;
+    private ITracer tracer;
 
     public TimeCollector() {
+        this(new NoopTracer());
+    }
+
+    public TimeCollector(ITracer tracer) {
         // A LinkedHashMap preserves insertion order while iterating.
-        timers = new LinkedHashMap<String, WallClockStopWatch>();
+        timers = Collections.synchronizedMap(new LinkedHashMap<String, WallClockStopWatch>());
+        runningPhases = Collections.synchronizedMap(new LinkedHashMap<String, ISpan>());
+        this.tracer = tracer;
     }
 
     @Override
     public void startTimer(String id) {
         WallClockStopWatch timer = getTimer(id);
-        timer.start();
+        synchronized (timer) {
+            if (!timer.isRunning()) {
+                runningPhases.put(id, tracer.startSpan("phase", id));
+            }
+            timer.start();
+        }
     }
 
     @Override
     public void stopTimer(String id) {
         WallClockStopWatch timer = getTimer(id);
-        timer.stop();
+        synchronized (timer) {
+            timer.stop();
+            if (!timer.isRunning()) {
+                ISpan phase = runningPhases.remove(id);
+                if (phase != null) {
+                    phase.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the most recently started among the running timers,
+     * or null if none is running.
+     */
+    public String getCurrentPhase() {
+        String current = null;
+        synchronized (runningPhases) {
+            for (String id: runningPhases.keySet()) {
+                current = id;
+            }
+        }
+        return current;
     }
 
     @Override
@@ -35,20 +78,16 @@ public class TimeCollector implements ITimeCollector {
 
     @Override
     public void printStats(PrintStream out) {
-        for (Map.Entry<String, WallClockStopWatch> entry: timers.entrySet()) {
-            WallClockStopWatch timer = entry.getValue();
-            out.println(entry.getKey() + ": " + timer.getCumulativeTime()/1E+6 + " ms");
+        synchronized (timers) {
+            for (Map.Entry<String, WallClockStopWatch> entry: timers.entrySet()) {
+                WallClockStopWatch timer = entry.getValue();
+                out.println(entry.getKey() + ": " + timer.getCumulativeTime()/1E+6 + " ms");
+            }
         }
     }
 
     private WallClockStopWatch getTimer(String id) {
-        if (timers.containsKey(id)) {
-            return timers.get(id);
-        } else {
-            WallClockStopWatch timer = new WallClockStopWatch();
-            timers.put(id, timer);
-            return timer;
-        }
+        return timers.computeIfAbsent(id, i -> new WallClockStopWatch());
     }
 
 }
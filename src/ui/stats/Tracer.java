@@ -0,0 +1,171 @@
+package ui.stats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import tool.stats.ISpan;
+import tool.stats.ITracer;
+
+/**
+ * Tracer which keeps every closed span in memory, so that they can be
+ * exported in the Chrome trace event format (which is also read by Perfetto)
+ * once the analysis is over.
+ *
+ * Recording a span costs two clock readings and a lock-free enqueue,
+ * so spans can be opened from parallel streams without contention.
+ */
+public class Tracer implements ITracer {
+
+    private long originNanos = System.nanoTime();
+    private Queue<Span> spans = new ConcurrentLinkedQueue<Span>();
+    private Map<Long, String> threadNames = new ConcurrentHashMap<Long, String>();
+
+    @Override
+    public ISpan startSpan(String category, String name) {
+        Thread thread = Thread.currentThread();
+        threadNames.putIfAbsent(thread.getId(), thread.getName());
+        return new Span(category, name, thread.getId());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Prints the number of spans and the time spent in them, by category.
+     * Times of nested or concurrent spans of the same category add up.
+     */
+    @Override
+    public void printStats(PrintStream out) {
+        Map<String, long[]> byCategory = new LinkedHashMap<String, long[]>();
+        for (Span span: spans) {
+            long[] stats = byCategory.computeIfAbsent(span.category, c -> new long[3]);
+            long duration = span.endNanos - span.startNanos;
+            stats[0]++;
+            stats[1] += duration;
+            stats[2] = Math.max(stats[2], duration);
+        }
+        out.println("Trace spans:");
+        for (Map.Entry<String, long[]> category: byCategory.entrySet()) {
+            long[] stats = category.getValue();
+            out.println("    " + category.getKey() + ": " + stats[0] + " spans"
+                    + " | total: " + stats[1]/1E+6 + " ms"
+                    + " | max: " + stats[2]/1E+6 + " ms");
+        }
+    }
+
+    /**
+     * Writes the closed spans as a Chrome trace (JSON object format), with
+     * one complete event per span and the threads' names as metadata.
+     */
+    public void writeChromeTrace(Path path) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8))) {
+            out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+            boolean first = true;
+            for (Map.Entry<Long, String> thread: threadNames.entrySet()) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey()
+                        + ",\"args\":{\"name\":" + quote(thread.getValue()) + "}}");
+            }
+            for (Span span: spans) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                out.write("{\"name\":" + quote(span.name)
+                        + ",\"cat\":" + quote(span.category)
+                        + ",\"ph\":\"X\",\"pid\":1,\"tid\":" + span.threadId
+                        + ",\"ts\":" + (span.startNanos - originNanos)/1E+3
+                        + ",\"dur\":" + (span.endNanos - span.startNanos)/1E+3);
+                if (span.attributes != null) {
+                    out.write(",\"args\":{");
+                    boolean firstAttribute = true;
+                    for (Object[] attribute: span.attributes) {
+                        if (!firstAttribute) {
+                            out.write(",");
+                        }
+                        firstAttribute = false;
+                        out.write(quote((String) attribute[0]) + ":" + toJson(attribute[1]));
+                    }
+                    out.write("}");
+                }
+                out.write("}");
+            }
+            out.write("\n]}\n");
+        }
+    }
+
+    private static String toJson(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return quote(String.valueOf(value));
+    }
+
+    private static String quote(String string) {
+        StringBuilder quoted = new StringBuilder(string.length() + 2);
+        quoted.append('"');
+        for (char c: string.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private class Span implements ISpan {
+        private String category;
+        private String name;
+        private long threadId;
+        private long startNanos;
+        private long endNanos;
+        /**
+         * Key-value pairs, created on demand, since most spans have none.
+         */
+        private List<Object[]> attributes;
+        private boolean closed = false;
+
+        Span(String category, String name, long threadId) {
+            this.category = category;
+            this.name = name;
+            this.threadId = threadId;
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public synchronized ISpan setAttribute(String key, Object value) {
+            if (attributes == null) {
+                attributes = new LinkedList<Object[]>();
+            }
+            attributes.add(new Object[] {key, value});
+            return this;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                endNanos = System.nanoTime();
+                spans.add(this);
+            }
+        }
+    }
+
+}
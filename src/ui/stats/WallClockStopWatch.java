@@ -1,21 +1,44 @@
 package ui.stats;
 
+/**
+ * Stopwatch which accumulates the wall-clock time during which at least
+ * one interval was open. Intervals may overlap (e.g., when started from
+ * parallel streams), and the overlapping time is only accounted for once.
+ */
 public class WallClockStopWatch {
 
     private long startTime;
+    private int openIntervals = 0;
     private long cumulativeTime = 0;
 
-    public void start() {
-        startTime = System.nanoTime();
+    public synchronized void start() {
+        if (openIntervals == 0) {
+            startTime = System.nanoTime();
+        }
+        openIntervals++;
     }
 
-    public long stop() {
+    /**
+     * Closes an interval.
+     * @return the time elapsed since the stopwatch started running.
+     */
+    public synchronized long stop() {
+        if (openIntervals == 0) {
+            return 0;
+        }
         long delta = System.nanoTime() - startTime;
-        cumulativeTime += delta;
+        openIntervals--;
+        if (openIntervals == 0) {
+            cumulativeTime += delta;
+        }
         return delta;
     }
 
-    public long getCumulativeTime() {
+    public synchronized boolean isRunning() {
+        return openIntervals > 0;
+    }
+
+    public synchronized long getCumulativeTime() {
         return cumulativeTime;
     }
 }
@@ -6,10 +6,35 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import paramwrapper.FDTMCToParamTest;
+import paramwrapper.LocalModelCheckerTest;
 import paramwrapper.ReliabilityFormulaTest;
+import parsing.SplGeneratorModels.SplGeneratorTest;
 import tool.AnalyzerTest;
+import tool.DeadComponentEliminationTest;
 import tool.RDGNodeTest;
+import tool.analyzers.CompactReliabilityResultsTest;
+import tool.analyzers.FeatureModelProjectionPruningStrategyTest;
+import tool.analyzers.StrategyCostModelTest;
+import tool.analyzers.buildingblocks.ComponentTest;
+import tool.analyzers.buildingblocks.DeadComponentPrunerTest;
+import tool.analyzers.buildingblocks.FeatureModelDecompositionTest;
+import tool.analyzers.buildingblocks.HybridFunctionTest;
+import tool.analyzers.buildingblocks.IncrementalAnalysisStoreTest;
+import tool.analyzers.buildingblocks.PresenceConditionsTest;
+import tool.analyzers.buildingblocks.ProductIterationHelperTest;
+import ui.AnalysisServerTest;
+import ui.MappedConfigurationsFileTest;
+import ui.sinks.JsonLinesResultSinkTest;
+import ui.sinks.SortingResultSinkTest;
+import ui.sinks.TextResultSinkTest;
+import ui.stats.MemorySamplerTest;
+import ui.stats.ProgressCollectorTest;
+import ui.stats.TracerTest;
 import expressionsolver.ExpressionSolverTest;
+import expressionsolver.symbolic.CompiledTermTest;
+import fdtmc.CompactFDTMCTest;
+import fdtmc.ComposedFDTMCTest;
+import fdtmc.FDTMCReducerTest;
 import fdtmc.FDTMCTest;
 
 @RunWith(Suite.class)
@@ -20,7 +45,32 @@ import fdtmc.FDTMCTest;
     ExpressionSolverTest.class,
     AnalyzerTest.class,
     RDGNodeTest.class,
-    ADDConfigurationsTest.class
+    ADDConfigurationsTest.class,
+    ComponentTest.class,
+    ProductIterationHelperTest.class,
+    CompiledTermTest.class,
+    StrategyCostModelTest.class,
+    HybridFunctionTest.class,
+    FeatureModelDecompositionTest.class,
+    PresenceConditionsTest.class,
+    DeadComponentPrunerTest.class,
+    DeadComponentEliminationTest.class,
+    FeatureModelProjectionPruningStrategyTest.class,
+    CompactReliabilityResultsTest.class,
+    SortingResultSinkTest.class,
+    JsonLinesResultSinkTest.class,
+    TextResultSinkTest.class,
+    AnalysisServerTest.class,
+    MappedConfigurationsFileTest.class,
+    LocalModelCheckerTest.class,
+    TracerTest.class,
+    MemorySamplerTest.class,
+    ProgressCollectorTest.class,
+    SplGeneratorTest.class,
+    CompactFDTMCTest.class,
+    ComposedFDTMCTest.class,
+    FDTMCReducerTest.class,
+    IncrementalAnalysisStoreTest.class
 })
 public class AllTests {
 
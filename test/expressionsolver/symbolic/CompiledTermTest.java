@@ -0,0 +1,65 @@
+package expressionsolver.symbolic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledTermTest {
+    private TermFactory factory;
+    private TermParser parser;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new TermFactory();
+        parser = new TermParser(factory);
+    }
+
+    @Test
+    public void testEvaluation() {
+        Term term = parser.parse("(0.999*rSqlite - 0.5*rMemory)/(1 - 0.5) + 2^-1*x");
+        Map<String, Double> values = new HashMap<String, Double>();
+        values.put("rSqlite", 0.9);
+        values.put("rMemory", 0.2);
+        values.put("x", 0.4);
+
+        Assert.assertEquals((0.999*0.9 - 0.5*0.2)/0.5 + 0.5*0.4,
+                            CompiledTerm.compile(term).evaluate(values),
+                            1E-14);
+    }
+
+    @Test
+    public void testConstantFolding() {
+        Term term = parser.parse("1*x + 0*y + (3 - 1e0)*2");
+        Assert.assertEquals(factory.add(factory.variable("x"), factory.constant(4)), term);
+    }
+
+    @Test
+    public void testHashConsing() {
+        Term first = parser.parse("a*b + c");
+        Term second = parser.parse("c + (b * a)");
+        Assert.assertSame("Equal expressions should yield the same term", first, second);
+    }
+
+    @Test
+    public void testSubstitutionsAreShared() {
+        Term child = parser.parse("0.9*x + 0.1");
+        // Each reference to "c" is resolved to the same child term.
+        Term parent = parser.parse("c*c*c*c*c*c*c*c", name -> name.equals("c") ? child : factory.variable(name));
+        CompiledTerm compiled = CompiledTerm.compile(parent);
+
+        // x, 0.9, 0.9*x, 0.1, child, and at most 7 products.
+        Assert.assertTrue(compiled.size() <= 12);
+        Assert.assertEquals(Math.pow(0.9*0.5 + 0.1, 8),
+                            compiled.evaluate(new double[] {0.5}),
+                            1E-14);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMalformedExpression() {
+        parser.parse("(a + b");
+    }
+
+}
@@ -0,0 +1,162 @@
+package fdtmc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactFDTMCTest {
+
+    @Test
+    public void testTransitionsAreGroupedBySourceInCreationOrder() {
+        CompactFDTMC.Builder builder = new CompactFDTMC.Builder("s");
+        int initial = builder.addState(null);
+        int success = builder.addState(null);
+        int error = builder.addState(null);
+        builder.setInitialState(initial).setSuccessState(success).setErrorState(error);
+        builder.addTransition(error, error, "loop", "1");
+        builder.addTransition(initial, success, "alpha", "0.9");
+        builder.addTransition(success, success, "loop", "1");
+        builder.addTransition(initial, error, "alpha_error", "0.1");
+        CompactFDTMC compact = builder.build();
+
+        Assert.assertEquals(3, compact.getStatesCount());
+        Assert.assertEquals(4, compact.getTransitionsCount());
+        Assert.assertEquals(0, compact.getTransitionsStart(initial));
+        Assert.assertEquals(2, compact.getTransitionsEnd(initial));
+        Assert.assertEquals(success, compact.getTarget(0));
+        Assert.assertEquals("0.9", compact.getProbability(0));
+        Assert.assertEquals(error, compact.getTarget(1));
+        Assert.assertEquals("0.1", compact.getProbability(1));
+        Assert.assertEquals(compact.getProbabilityHandle(2), compact.getProbabilityHandle(3));
+
+        Assert.assertEquals(1, compact.getTransitionByActionName("alpha_error"));
+        Assert.assertEquals(2, compact.getTransitionByActionName("loop"));
+        Assert.assertEquals(-1, compact.getTransitionByActionName("beta"));
+        Assert.assertEquals(-1, compact.getStateByLabel(FDTMC.SUCCESS_LABEL));
+    }
+
+    @Test
+    public void testConversionKeepsStatesLabelsAndTransitions() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("t");
+        State init = fdtmc.createState("init");
+        State success = fdtmc.createState("success");
+        State error = fdtmc.createState("error");
+        fdtmc.createTransition(init, success, "alpha", "0.95");
+        fdtmc.createTransition(init, error, "alpha_error", "0.05");
+
+        CompactFDTMC compact = fdtmc.toCompact();
+        Assert.assertEquals(fdtmc.toString(), compact.toString());
+        Assert.assertEquals(0, compact.getInitialState());
+        Assert.assertEquals("init", compact.getLabel(0));
+        Assert.assertEquals(1, compact.getStateByLabel("success"));
+        Assert.assertEquals(2, compact.getStateByLabel("error"));
+        Assert.assertEquals(0, compact.getTransitionsStart(success.getIndex()) - compact.getTransitionsEnd(success.getIndex()));
+    }
+
+    @Test
+    public void testInliningMatchesFDTMCInlining() {
+        FDTMC parent = new FDTMC();
+        parent.setVariableName("p");
+        State initial = parent.createInitialState();
+        State first = parent.createState();
+        State second = parent.createState();
+        State third = parent.createState();
+        State success = parent.createSuccessState();
+        State error = parent.createErrorState();
+        parent.createInterface("a", initial, first, error);
+        parent.createInterface("b", first, second, error);
+        parent.createInterface("a", second, third, error);
+        parent.createInterface("missing", third, success, error);
+
+        FDTMC a = makeFragment("a", "0.9");
+        FDTMC b = makeFragment("b", "rB");
+        b.createInterface("c", b.getInitialState(), b.getSuccessState(), b.getErrorState());
+
+        Map<String, FDTMC> models = new HashMap<String, FDTMC>();
+        models.put("a", a);
+        models.put("b", b);
+        Map<String, CompactFDTMC> compactModels = new HashMap<String, CompactFDTMC>();
+        compactModels.put("a", a.toCompact());
+        compactModels.put("b", b.toCompact());
+
+        FDTMC inlined = parent.inline(models);
+        CompactFDTMC compactInlined = parent.toCompact().inline(compactModels);
+        Assert.assertEquals(inlined.toString(), compactInlined.toString());
+        Assert.assertEquals(inlined.getStates().size(), compactInlined.getStatesCount());
+        Assert.assertEquals(0, compactInlined.getInterfacesCount());
+        Assert.assertEquals(inlined.getSuccessState().getIndex(), compactInlined.getSuccessState());
+    }
+
+    @Test
+    public void testInliningFragmentWithoutSuccessState() {
+        FDTMC parent = new FDTMC();
+        parent.setVariableName("p");
+        State initial = parent.createInitialState();
+        State success = parent.createSuccessState();
+        State error = parent.createErrorState();
+        parent.createInterface("a", initial, success, error);
+
+        CompactFDTMC.Builder builder = new CompactFDTMC.Builder("a");
+        int fragmentInitial = builder.addState(FDTMC.INITIAL_LABEL);
+        int fragmentError = builder.addState(FDTMC.ERROR_LABEL);
+        builder.setInitialState(fragmentInitial).setErrorState(fragmentError);
+        builder.addTransition(fragmentInitial, fragmentError, "a_error", "1");
+        Map<String, CompactFDTMC> models = new HashMap<String, CompactFDTMC>();
+        models.put("a", builder.build());
+
+        CompactFDTMC inlined = parent.toCompact().inline(models);
+        Assert.assertEquals(5, inlined.getStatesCount());
+        Assert.assertEquals(3, inlined.getTransitionsCount());
+        for (int t = 0; t < inlined.getTransitionsCount(); t++) {
+            Assert.assertNotEquals(success.getIndex(), inlined.getTarget(t));
+        }
+    }
+
+    @Test
+    public void testPresenceDecorationMatchesFDTMCDecoration() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("b");
+        State initial = fdtmc.createInitialState();
+        State called = fdtmc.createState();
+        State success = fdtmc.createSuccessState();
+        State error = fdtmc.createErrorState();
+        fdtmc.createTransition(initial, called, "b", "rB");
+        fdtmc.createTransition(initial, error, "b_error", "1-rB");
+        fdtmc.createInterface("c", called, success, error);
+
+        FDTMC decorated = fdtmc.decoratedWithPresence("fB");
+        CompactFDTMC compactDecorated = fdtmc.toCompact().decoratedWithPresence("fB");
+        Assert.assertEquals(decorated.toString(), compactDecorated.toString());
+        Assert.assertEquals(decorated.getInitialState().getIndex(), compactDecorated.getInitialState());
+        Assert.assertEquals(1, compactDecorated.getInterfacesCount());
+        Assert.assertEquals(decorated.inline(new HashMap<String, FDTMC>()).toString(),
+                            compactDecorated.inline(new HashMap<String, CompactFDTMC>()).toString());
+    }
+
+    @Test
+    public void testCompactFormIsCachedUntilModified() {
+        FDTMC fdtmc = makeFragment("a", "rA");
+        CompactFDTMC compact = fdtmc.toCompact();
+        Assert.assertSame(compact, fdtmc.toCompact());
+
+        fdtmc.createTransition(fdtmc.getSuccessState(), fdtmc.getSuccessState(), "loop", "1");
+        CompactFDTMC modified = fdtmc.toCompact();
+        Assert.assertNotSame(compact, modified);
+        Assert.assertEquals(compact.getTransitionsCount() + 1, modified.getTransitionsCount());
+    }
+
+    private static FDTMC makeFragment(String name, String reliability) {
+        FDTMC fragment = new FDTMC();
+        fragment.setVariableName(name);
+        State initial = fragment.createInitialState();
+        State success = fragment.createSuccessState();
+        State error = fragment.createErrorState();
+        fragment.createTransition(initial, success, name, reliability);
+        fragment.createTransition(initial, error, name + "_error", "1-" + reliability);
+        return fragment;
+    }
+
+}
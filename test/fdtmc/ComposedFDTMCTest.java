@@ -0,0 +1,91 @@
+package fdtmc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComposedFDTMCTest {
+
+    @Test
+    public void testCompositionMatchesInlining() {
+        FDTMC parent = new FDTMC();
+        parent.setVariableName("p");
+        State initial = parent.createInitialState();
+        State first = parent.createState();
+        State second = parent.createState();
+        State success = parent.createSuccessState();
+        State error = parent.createErrorState();
+        parent.createInterface("a", initial, first, error);
+        parent.createInterface("b", first, second, error);
+        parent.createInterface("a", second, success, error);
+        parent.createInterface("missing", initial, success, error);
+
+        CompactFDTMC a = makeFragment("a", "0.9");
+        FDTMC bModel = new FDTMC();
+        bModel.setVariableName("b");
+        State bInitial = bModel.createInitialState();
+        State bSuccess = bModel.createSuccessState();
+        bModel.createInterface("c", bInitial, bSuccess, bModel.createErrorState());
+        CompactFDTMC b = bModel.toCompact();
+        CompactFDTMC c = makeFragment("c", "rC");
+
+        Map<String, CompactFDTMC> inlinedInB = Collections.singletonMap("c", c);
+        Map<String, CompactFDTMC> inlinedInParent = new HashMap<String, CompactFDTMC>();
+        inlinedInParent.put("a", a);
+        inlinedInParent.put("b", b.inline(inlinedInB));
+        CompactFDTMC inlined = parent.toCompact().inline(inlinedInParent);
+
+        Map<String, ComposedFDTMC> composedInB = Collections.singletonMap("c", ComposedFDTMC.of(c));
+        Map<String, ComposedFDTMC> composedInParent = new HashMap<String, ComposedFDTMC>();
+        composedInParent.put("a", ComposedFDTMC.of(a));
+        composedInParent.put("b", new ComposedFDTMC(b, composedInB));
+        ComposedFDTMC composed = new ComposedFDTMC(parent.toCompact(), composedInParent);
+
+        Assert.assertEquals(inlined.getStatesCount(), composed.getStatesCount());
+        Assert.assertEquals(inlined.getSuccessState(), composed.getSuccessState());
+        Assert.assertEquals(render(inlined), render(composed));
+    }
+
+    @Test
+    public void testViewOfSingleModelDropsInterfaces() {
+        FDTMC model = new FDTMC();
+        model.setVariableName("m");
+        State initial = model.createInitialState();
+        State success = model.createSuccessState();
+        State error = model.createErrorState();
+        model.createTransition(initial, success, "m", "rM");
+        model.createInterface("x", success, success, error);
+
+        CompactFDTMC compact = model.toCompact();
+        ComposedFDTMC view = ComposedFDTMC.of(compact);
+        Assert.assertEquals(3, view.getStatesCount());
+        Assert.assertEquals(render(compact.inline(Collections.<String, CompactFDTMC>emptyMap())),
+                            render(view));
+    }
+
+    private static CompactFDTMC makeFragment(String name, String reliability) {
+        FDTMC fragment = new FDTMC();
+        fragment.setVariableName(name);
+        State initial = fragment.createInitialState();
+        State success = fragment.createSuccessState();
+        State error = fragment.createErrorState();
+        fragment.createTransition(initial, success, name, reliability);
+        fragment.createTransition(initial, error, name + "_error", "1-" + reliability);
+        return fragment.toCompact();
+    }
+
+    private static String render(IFDTMCView fdtmc) {
+        StringBuilder rendered = new StringBuilder();
+        for (int state = 0; state < fdtmc.getStatesCount(); state++) {
+            rendered.append(state).append("(").append(fdtmc.getLabel(state)).append(")");
+            fdtmc.forEachTransition(state, (target, probability) ->
+                rendered.append(" --").append(probability).append("--> ").append(target));
+            rendered.append("\n");
+        }
+        return rendered.toString();
+    }
+
+}
@@ -0,0 +1,112 @@
+package fdtmc;
+
+import jadd.JADD;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import paramwrapper.LocalModelChecker;
+import paramwrapper.ParametricModelChecker;
+import paramwrapper.ReducingModelChecker;
+import expressionsolver.ExpressionSolver;
+
+public class FDTMCReducerTest {
+
+    @Test
+    public void testChainsAreCompressedIntoSingleTransitions() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("s");
+        State initial = fdtmc.createInitialState();
+        State first = fdtmc.createState();
+        State second = fdtmc.createState();
+        State success = fdtmc.createSuccessState();
+        State error = fdtmc.createErrorState();
+        State unreachable = fdtmc.createState();
+        fdtmc.createTransition(initial, first, "a", "rA");
+        fdtmc.createTransition(initial, error, "a_error", "1-rA");
+        fdtmc.createTransition(first, second, "b", "rB");
+        fdtmc.createTransition(first, error, "b_error", "1 - rB");
+        fdtmc.createTransition(second, success, "glue", "1");
+        fdtmc.createTransition(unreachable, success, "c", "rC");
+
+        IFDTMCView reduced = new FDTMCReducer().reduce(fdtmc.toCompact());
+        Assert.assertEquals(3, reduced.getStatesCount());
+        Assert.assertEquals(2, FDTMCReducer.countTransitions(reduced));
+        Assert.assertEquals("0(initial) --rA*rB--> 1 --1-rA*rB--> 2\n"
+                            + "1(success)\n"
+                            + "2(error)\n",
+                            render(reduced));
+    }
+
+    @Test
+    public void testSuccessStateUnreachable() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("s");
+        State initial = fdtmc.createInitialState();
+        State error = fdtmc.createErrorState();
+        fdtmc.createSuccessState();
+        fdtmc.createTransition(initial, error, "a", "1");
+
+        IFDTMCView reduced = new FDTMCReducer().reduce(fdtmc.toCompact());
+        Assert.assertEquals(3, reduced.getStatesCount());
+        Assert.assertEquals(1, FDTMCReducer.countTransitions(reduced));
+        Assert.assertEquals("0(initial) --1--> 2\n"
+                            + "1(success)\n"
+                            + "2(error)\n",
+                            render(reduced));
+    }
+
+    @Test
+    public void testUnreachableSuccessStateYieldsZeroReliability() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("s");
+        State initial = fdtmc.createInitialState();
+        State loop = fdtmc.createState();
+        fdtmc.createSuccessState();
+        fdtmc.createTransition(initial, loop, "a", "rA");
+        fdtmc.createTransition(initial, initial, "a_retry", "1-rA");
+        fdtmc.createTransition(loop, loop, "b", "1");
+
+        ParametricModelChecker modelChecker = new ReducingModelChecker(new LocalModelChecker(), new FDTMCReducer());
+        String reliability = modelChecker.getReliability(fdtmc);
+        Assert.assertEquals(0, new ExpressionSolver(new JADD()).solveExpression(reliability), 1E-14);
+    }
+
+    @Test
+    public void testBisimilarStatesAreLumped() {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName("s");
+        State initial = fdtmc.createInitialState();
+        State left = fdtmc.createState();
+        State right = fdtmc.createState();
+        State success = fdtmc.createSuccessState();
+        fdtmc.createTransition(initial, left, "left", "0.5");
+        fdtmc.createTransition(initial, right, "right", "0.5");
+        fdtmc.createTransition(left, success, "x", "rX");
+        fdtmc.createTransition(left, initial, "retry", "1-rX");
+        fdtmc.createTransition(right, success, "x", "rX");
+        fdtmc.createTransition(right, initial, "retry", "1-rX");
+
+        FDTMCReducer reducer = new FDTMCReducer();
+        Assert.assertEquals(4, reducer.reduce(fdtmc.toCompact()).getStatesCount());
+
+        reducer.setLumping(true);
+        IFDTMCView lumped = reducer.reduce(fdtmc.toCompact());
+        Assert.assertEquals("0(initial) --0.5+0.5--> 1\n"
+                            + "1(null) --rX--> 2 --1-rX--> 0\n"
+                            + "2(success)\n",
+                            render(lumped));
+    }
+
+    private static String render(IFDTMCView fdtmc) {
+        StringBuilder rendered = new StringBuilder();
+        for (int state = 0; state < fdtmc.getStatesCount(); state++) {
+            rendered.append(state).append("(").append(fdtmc.getLabel(state)).append(")");
+            fdtmc.forEachTransition(state, (target, probability) ->
+                rendered.append(" --").append(probability).append("--> ").append(target));
+            rendered.append("\n");
+        }
+        return rendered.toString();
+    }
+
+}
@@ -286,4 +286,27 @@ public class FDTMCTest {
                 fdtmc1, fdtmc2);
 	}
 
+	@Test
+	public void testContentHash() {
+	    FDTMC original = makeSingleStepFDTMC("0.999", "0.001");
+	    FDTMC identical = makeSingleStepFDTMC("0.999", "0.001");
+	    FDTMC changed = makeSingleStepFDTMC("0.99", "0.01");
+
+	    Assert.assertEquals("Structurally identical FDTMCs should have the same content hash",
+	            original.getContentHash(), identical.getContentHash());
+	    Assert.assertNotEquals("Changing a probability should change the content hash",
+	            original.getContentHash(), changed.getContentHash());
+	}
+
+	private FDTMC makeSingleStepFDTMC(String successProbability, String errorProbability) {
+	    FDTMC fdtmc = new FDTMC();
+	    fdtmc.setVariableName("s");
+	    State init = fdtmc.createInitialState();
+	    State success = fdtmc.createSuccessState();
+	    State error = fdtmc.createErrorState();
+	    fdtmc.createTransition(init, success, "persist", successProbability);
+	    fdtmc.createTransition(init, error, "!persist", errorProbability);
+	    return fdtmc;
+	}
+
 }
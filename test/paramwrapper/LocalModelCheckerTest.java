@@ -0,0 +1,103 @@
+package paramwrapper;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jadd.JADD;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import expressionsolver.ExpressionSolver;
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class LocalModelCheckerTest {
+
+    LocalModelChecker modelChecker;
+    ExpressionSolver solver;
+    FDTMC fdtmc;
+
+    @Before
+    public void setUp() throws Exception {
+        modelChecker = new LocalModelChecker();
+        solver = new ExpressionSolver(new JADD());
+        fdtmc = new FDTMC();
+        fdtmc.setVariableName("s");
+    }
+
+    @Test
+    public void testReliabilityWithOneSuccessState() {
+        State s0 = fdtmc.createState();
+        State s1 = fdtmc.createState();
+        State s2 = fdtmc.createState("success");
+        State s3 = fdtmc.createState("error");
+        fdtmc.createTransition(s0, s3, null, "1-r0");
+        fdtmc.createTransition(s0, s1, null, "r0");
+        fdtmc.createTransition(s1, s2, null, "1-rFail");
+        fdtmc.createTransition(s1, s3, null, "rFail");
+        fdtmc.createTransition(s2, s2, null, "1");
+        fdtmc.createTransition(s3, s3, null, "1");
+
+        String formula = modelChecker.getReliability(fdtmc);
+        assertEquals(0.9*(1-0.2), evaluate(formula, 0.9, 0.2), 1E-9);
+    }
+
+    @Test
+    public void testReliabilityWithTwoSuccessStates() {
+        State s0 = fdtmc.createState();
+        State s1 = fdtmc.createState("success");
+        State s2 = fdtmc.createState("success");
+        State s3 = fdtmc.createState("error");
+        fdtmc.createTransition(s0, s3, null, "1-r0");
+        fdtmc.createTransition(s0, s1, null, "r0");
+        fdtmc.createTransition(s1, s2, null, "1-rFail");
+        fdtmc.createTransition(s1, s3, null, "rFail");
+        fdtmc.createTransition(s2, s2, null, "1");
+        fdtmc.createTransition(s3, s3, null, "1");
+
+        String formula = modelChecker.getReliability(fdtmc);
+        assertEquals(0.9, evaluate(formula, 0.9, 0.2), 1E-9);
+    }
+
+    @Test
+    public void testReliabilityWithNoSuccessState() {
+        State s0 = fdtmc.createState();
+        State s1 = fdtmc.createState("error");
+        fdtmc.createTransition(s0, s1, null, "1");
+        fdtmc.createTransition(s1, s1, null, "1");
+
+        assertEquals("0", modelChecker.getReliability(fdtmc));
+    }
+
+    @Test
+    public void testReliabilityWithCycles() {
+        // s0 retries itself with probability r0 and
+        // s1 goes back to s0 with probability 0.5.
+        State s0 = fdtmc.createState();
+        State s1 = fdtmc.createState();
+        State s2 = fdtmc.createState("success");
+        State s3 = fdtmc.createState("error");
+        fdtmc.createTransition(s0, s0, null, "r0");
+        fdtmc.createTransition(s0, s1, null, "1-r0");
+        fdtmc.createTransition(s1, s0, null, "0.5");
+        fdtmc.createTransition(s1, s2, null, "rFail");
+        fdtmc.createTransition(s1, s3, null, "0.5-rFail");
+        fdtmc.createTransition(s2, s2, null, "1");
+        fdtmc.createTransition(s3, s3, null, "1");
+
+        String formula = modelChecker.getReliability(fdtmc);
+        // P(s0) = r0*P(s0) + (1-r0)*P(s1) and P(s1) = 0.5*P(s0) + rFail.
+        assertEquals(2*0.2, evaluate(formula, 0.3, 0.2), 1E-9);
+    }
+
+    private double evaluate(String formula, double r0, double rFail) {
+        Map<String, Double> values = new HashMap<String, Double>();
+        values.put("r0", r0);
+        values.put("rFail", rFail);
+        return solver.solveExpression(formula, values);
+    }
+
+}
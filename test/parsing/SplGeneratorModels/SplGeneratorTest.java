@@ -0,0 +1,114 @@
+package parsing.SplGeneratorModels;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import paramwrapper.LocalModelChecker;
+import tool.Analyzer;
+import tool.RDGNode;
+import tool.UnknownFeatureException;
+import tool.analyzers.IReliabilityAnalysisResults;
+import tool.stats.NoopFormulaCollector;
+
+public class SplGeneratorTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("spl");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (File file: directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testSameSeedYieldsSameSpl() throws IOException {
+        SplGenerator generator = new SplGenerator();
+        generator.setSeed(42);
+        generator.writeSpl(30, directory);
+        String cnf = readFile("cnf_30.txt");
+        String behavioralModel = readFile("model_30_behavioral_model.xml");
+
+        generator.writeSpl(12, directory);
+        generator.writeSpl(30, directory);
+        Assert.assertEquals(cnf, readFile("cnf_30.txt"));
+        Assert.assertEquals(behavioralModel, readFile("model_30_behavioral_model.xml"));
+
+        generator.setSeed(43);
+        generator.writeSpl(30, directory);
+        Assert.assertFalse(cnf.equals(readFile("cnf_30.txt")));
+    }
+
+    @Test
+    public void testRdgFollowsFeatureTreeShape() throws Exception {
+        SplGenerator generator = new SplGenerator();
+        generator.setMaxDepth(6);
+        generator.setMaxFanOut(3);
+        generator.writeSpl(300, directory);
+        RDGNode root = transform(300);
+
+        // One node per feature, plus the activity diagram's.
+        Assert.assertEquals(301, root.getDependenciesTransitiveClosure().size());
+        Assert.assertEquals(7, root.getHeight());
+        for (RDGNode node: root.getDependenciesTransitiveClosure()) {
+            Assert.assertTrue(node.getDependencies().size() <= 3);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyFeaturesForTreeShape() throws IOException {
+        SplGenerator generator = new SplGenerator();
+        generator.setMaxDepth(2);
+        generator.setMaxFanOut(2);
+        generator.writeSpl(8, directory);
+    }
+
+    @Test
+    public void testGeneratedSplIsAnalyzable() throws Exception {
+        SplGenerator generator = new SplGenerator();
+        generator.setSeed(7);
+        generator.setConstraintsRatio(0.2);
+        generator.writeSpl(16, directory);
+        RDGNode root = transform(16);
+
+        Analyzer analyzer = new Analyzer(readFile("cnf_16.txt"),
+                                         new LocalModelChecker(),
+                                         null,
+                                         new NoopFormulaCollector(),
+                                         null);
+        Assert.assertTrue(analyzer.countValidConfigurations() > 0);
+        IReliabilityAnalysisResults results = analyzer.evaluateFeatureFamilyBasedReliability(root);
+        analyzer.getValidConfigurations().limit(10).forEach(configuration -> {
+            try {
+                double reliability = results.getResult(configuration.toArray(new String[configuration.size()]));
+                Assert.assertTrue(reliability > 0 && reliability <= 1);
+            } catch (UnknownFeatureException e) {
+                Assert.fail(e.getMessage());
+            }
+        });
+    }
+
+    private RDGNode transform(int features) throws Exception {
+        File behavioralModel = directory.resolve("model_" + features + "_behavioral_model.xml").toFile();
+        return new SplGeneratorModelingAPI(behavioralModel).transform();
+    }
+
+    private String readFile(String name) throws IOException {
+        return new String(Files.readAllBytes(directory.resolve(name)), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,61 @@
+package tool;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import modeling.DiagramAPI;
+import paramwrapper.LocalModelChecker;
+import tool.analyzers.IReliabilityAnalysisResults;
+
+public class DeadComponentEliminationTest {
+
+    private Analyzer analyzer;
+    private RDGNode root;
+    private List<Collection<String>> configurations;
+
+    @Before
+    public void setUp() throws Exception {
+        // SQLite is dead, and so is the RDG node which is only present along with it.
+        String featureModel = new String(Files.readAllBytes(Paths.get("BSN-FM.txt")), StandardCharsets.UTF_8)
+                + " && !SQLite";
+        analyzer = new Analyzer(featureModel, new LocalModelChecker(), null, null, null);
+        root = new DiagramAPI(new File("modeling.xml")).transform();
+        configurations = analyzer.getValidConfigurations().limit(50).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEliminationDoesNotChangeResults() throws UnknownFeatureException {
+        assertUnchanged("FEATURE_FAMILY", () -> analyzer.evaluateFeatureFamilyBasedReliability(root));
+        assertUnchanged("FEATURE_FAMILY_FACTORIZED", () -> analyzer.evaluateFeatureFamilyFactorizedReliability(root));
+        assertUnchanged("FEATURE_PRODUCT", () -> analyzer.evaluateFeatureProductBasedReliability(root, configurations.stream()));
+        assertUnchanged("FEATURE_FAMILY_PRODUCT", () -> analyzer.evaluateFeatureFamilyProductBasedReliability(root, configurations.stream()));
+        assertUnchanged("PRODUCT", () -> analyzer.evaluateProductBasedReliability(root, configurations.stream()));
+        assertUnchanged("FAMILY", () -> analyzer.evaluateFamilyBasedReliability(root, configurations.stream()));
+        assertUnchanged("FAMILY_PRODUCT", () -> analyzer.evaluateFamilyProductBasedReliability(root, configurations.stream()));
+    }
+
+    private void assertUnchanged(String strategy, Supplier<IReliabilityAnalysisResults> analysis) throws UnknownFeatureException {
+        analyzer.setDeadComponentElimination(false);
+        IReliabilityAnalysisResults expected = analysis.get();
+        analyzer.setDeadComponentElimination(true);
+        IReliabilityAnalysisResults actual = analysis.get();
+        for (Collection<String> configuration: configurations) {
+            String[] features = configuration.toArray(new String[configuration.size()]);
+            Assert.assertEquals(strategy + " " + configuration,
+                                expected.getResult(features),
+                                actual.getResult(features),
+                                1E-12);
+        }
+    }
+
+}
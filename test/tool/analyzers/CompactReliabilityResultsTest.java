@@ -0,0 +1,52 @@
+package tool.analyzers;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.UnknownFeatureException;
+
+public class CompactReliabilityResultsTest {
+
+    @Test
+    public void testResultsDoNotDependOnFeatureOrder() throws UnknownFeatureException {
+        CompactReliabilityResults results = new CompactReliabilityResults();
+        results.putResult(Arrays.asList("A", "B"), 0.9);
+        results.putResult(Arrays.asList("C"), 0.8);
+
+        Assert.assertEquals(0.9, results.getResult(new String[] {"B", "A"}), 1E-14);
+        Assert.assertEquals(0.8, results.getResult(new String[] {"C"}), 1E-14);
+        Assert.assertEquals(0.0, results.getResult(new String[] {"A"}), 1E-14);
+        Assert.assertEquals(0.0, results.getResult(new String[] {"D"}), 1E-14);
+    }
+
+    @Test
+    public void testConcurrentInsertionsAreKept() throws UnknownFeatureException {
+        CompactReliabilityResults results = new CompactReliabilityResults();
+        IntStream.range(0, 5000).parallel().forEach(i -> results.putResult(configuration(i), i / 5000.0));
+
+        Assert.assertEquals(5000, results.size());
+        for (int i = 0; i < 5000; i += 7) {
+            Assert.assertEquals(i / 5000.0, results.getResult(configuration(i).toArray(new String[0])), 1E-14);
+        }
+    }
+
+    /**
+     * Configuration whose features are the bits of {@code i}.
+     */
+    private static Collection<String> configuration(int i) {
+        List<String> configuration = new LinkedList<String>();
+        for (int bit = 0; bit < Integer.SIZE; bit++) {
+            if ((i & (1 << bit)) != 0) {
+                configuration.add("F" + bit);
+            }
+        }
+        return configuration;
+    }
+
+}
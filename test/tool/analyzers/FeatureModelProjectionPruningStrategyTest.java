@@ -0,0 +1,35 @@
+package tool.analyzers;
+
+import jadd.ADD;
+import jadd.JADD;
+import jadd.UnrecognizedVariableException;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import expressionsolver.ExpressionSolver;
+
+public class FeatureModelProjectionPruningStrategyTest {
+
+    @Test
+    public void testPrunesOnlyByRelevantConstraints() throws UnrecognizedVariableException {
+        JADD jadd = new JADD();
+        ExpressionSolver solver = new ExpressionSolver(jadd);
+        // A requires B, which requires C; D is unrelated to A.
+        ADD featureModel = solver.encodeFormula("(!A || B) && (!B || C) && !C && (D || !D)");
+        ADD reliability = solver.encodeFormula("A").ifThenElse(jadd.makeConstant(0.9),
+                                                               jadd.makeConstant(0.8));
+
+        IPruningStrategy strategy = new FeatureModelProjectionPruningStrategy();
+        ADD pruned = strategy.pruneInvalidConfigurations(null, reliability, featureModel);
+
+        Assert.assertEquals(Collections.singleton("A"), pruned.getVariables());
+        Assert.assertEquals(0.0, pruned.eval(Arrays.asList("A")), 1E-14);
+        Assert.assertEquals(0.8, pruned.eval(Collections.<String>emptyList()), 1E-14);
+        Assert.assertEquals(pruned, strategy.pruneInvalidConfigurations(null, reliability, featureModel));
+    }
+
+}
@@ -0,0 +1,39 @@
+package tool.analyzers;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StrategyCostModelTest {
+
+    private StrategyCostModel costModel = new StrategyCostModel();
+
+    @Test
+    public void testEstimatesCoverAllConcreteStrategies() {
+        AnalysisMetrics metrics = new AnalysisMetrics(5, 2, 4, 3, 1, 50, 10, 60, 8, 8);
+        Map<AnalysisStrategy, Double> costs = costModel.estimateCosts(metrics);
+
+        Assert.assertEquals(AnalysisStrategy.values().length - 1, costs.size());
+        Assert.assertFalse(costs.containsKey(AnalysisStrategy.AUTO));
+        Assert.assertNotEquals(AnalysisStrategy.AUTO, StrategyCostModel.cheapest(costs));
+    }
+
+    @Test
+    public void testSingleProductFavorsProductBasedAnalysis() {
+        AnalysisMetrics metrics = new AnalysisMetrics(5, 2, 4, 10, 1, 50, 10, 60, 1000, 1);
+        Map<AnalysisStrategy, Double> costs = costModel.estimateCosts(metrics);
+
+        Assert.assertEquals(AnalysisStrategy.PRODUCT, StrategyCostModel.cheapest(costs));
+    }
+
+    @Test
+    public void testLargeConfigurationSpaceFavorsFeatureFamilyBasedAnalysis() {
+        AnalysisMetrics metrics = new AnalysisMetrics(40, 6, 60, 30, 1, 400, 20, 600, 1E6, 1E6);
+        Map<AnalysisStrategy, Double> costs = costModel.estimateCosts(metrics);
+
+        Assert.assertEquals(AnalysisStrategy.FEATURE_FAMILY, StrategyCostModel.cheapest(costs));
+        Assert.assertTrue(costs.get(AnalysisStrategy.FAMILY) > costs.get(AnalysisStrategy.FEATURE_FAMILY));
+    }
+
+}
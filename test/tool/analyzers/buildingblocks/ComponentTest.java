@@ -0,0 +1,95 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComponentTest {
+
+    /**
+     * Multiplies the reliability of a component by those of the
+     * components on which it directly depends.
+     */
+    private static DerivationFunction<Boolean, String, Double> multiply(Map<String, Double> reliabilities,
+                                                                        Map<String, List<String>> dependencies) {
+        AssetProcessor<String, Double> processor = (id, values) -> dependencies.getOrDefault(id, Arrays.asList()).stream()
+                .map(values::get)
+                .reduce(reliabilities.get(id), (a, b) -> a * b);
+        return DerivationFunction.abstractDerivation(new IfOperator<Double>(), processor, 1.0);
+    }
+
+    @Test
+    public void testParallelDerivationEqualsSequentialDerivation() {
+        Component<String> leftLeaf = new Component<String>("a", "true", "a");
+        Component<String> rightLeaf = new Component<String>("b", "true", "b");
+        Component<String> middle = new Component<String>("m", "true", "m",
+                new HashSet<Component<String>>(Arrays.asList(leftLeaf)));
+        Component<String> root = new Component<String>("r", "true", "r",
+                new HashSet<Component<String>>(Arrays.asList(middle, rightLeaf)));
+        List<Component<String>> components = Arrays.asList(leftLeaf, rightLeaf, middle, root);
+
+        Map<String, Double> reliabilities = new HashMap<String, Double>();
+        reliabilities.put("a", 0.9);
+        reliabilities.put("b", 0.8);
+        reliabilities.put("m", 0.7);
+        reliabilities.put("r", 0.5);
+        Map<String, List<String>> dependencies = new HashMap<String, List<String>>();
+        dependencies.put("m", Arrays.asList("a"));
+        dependencies.put("r", Arrays.asList("m", "b"));
+        DerivationFunction<Boolean, String, Double> derive = multiply(reliabilities, dependencies);
+
+        Double sequential = Component.deriveFromMany(components, derive, c -> true);
+        Double parallel = Component.deriveFromMany(components, derive, c -> true, ConcurrencyStrategy.PARALLEL);
+
+        Assert.assertEquals(0.5*0.7*0.9*0.8, sequential, 1E-14);
+        Assert.assertEquals(sequential, parallel, 1E-14);
+    }
+
+    @Test
+    public void testAbsentComponentsYieldDefaultValueInParallel() {
+        Component<String> leaf = new Component<String>("a", "A", "a");
+        Component<String> root = new Component<String>("r", "true", "r",
+                new HashSet<Component<String>>(Arrays.asList(leaf)));
+
+        Map<String, Double> reliabilities = new HashMap<String, Double>();
+        reliabilities.put("a", 0.9);
+        reliabilities.put("r", 0.5);
+        Map<String, List<String>> dependencies = new HashMap<String, List<String>>();
+        dependencies.put("r", Arrays.asList("a"));
+
+        Double result = Component.deriveFromMany(Arrays.asList(leaf, root),
+                                                 multiply(reliabilities, dependencies),
+                                                 c -> c.getPresenceCondition().equals("true"),
+                                                 ConcurrencyStrategy.PARALLEL);
+        Assert.assertEquals(0.5, result, 1E-14);
+    }
+
+    @Test
+    public void testDerivationAsAssetsBecomeAvailable() {
+        CompletableFuture<String> leafAsset = new CompletableFuture<String>();
+        CompletableFuture<String> rootAsset = CompletableFuture.completedFuture("r");
+        Component<CompletableFuture<String>> leaf = new Component<CompletableFuture<String>>("a", "true", leafAsset);
+        Component<CompletableFuture<String>> root = new Component<CompletableFuture<String>>("r", "true", rootAsset,
+                new HashSet<Component<CompletableFuture<String>>>(Arrays.asList(leaf)));
+
+        Map<String, Double> reliabilities = new HashMap<String, Double>();
+        reliabilities.put("a", 0.9);
+        reliabilities.put("r", 0.5);
+        Map<String, List<String>> dependencies = new HashMap<String, List<String>>();
+        dependencies.put("r", Arrays.asList("a"));
+
+        // The root's asset is available first, but it must wait for its dependency.
+        CompletableFuture.runAsync(() -> leafAsset.complete("a"));
+        Double result = Component.deriveAsAvailable(Arrays.asList(leaf, root),
+                                                    multiply(reliabilities, dependencies),
+                                                    c -> true);
+        Assert.assertEquals(0.5*0.9, result, 1E-14);
+    }
+
+}
@@ -0,0 +1,49 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.JADD;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import expressionsolver.ExpressionSolver;
+import fdtmc.FDTMC;
+
+public class DeadComponentPrunerTest {
+
+    @Test
+    public void testDeadNodesAndTheirExclusiveDependenciesArePruned() throws CyclicRdgException {
+        RDGNode shared = new RDGNode(RDGNode.getNextId(), "A", new FDTMC());
+        RDGNode exclusive = new RDGNode(RDGNode.getNextId(), "!B", new FDTMC());
+        RDGNode live = new RDGNode(RDGNode.getNextId(), "A || B", new FDTMC());
+        live.addDependency(shared);
+        RDGNode dead = new RDGNode(RDGNode.getNextId(), "B", new FDTMC());
+        dead.addDependency(shared);
+        dead.addDependency(exclusive);
+        RDGNode root = new RDGNode(RDGNode.getNextId(), "true", new FDTMC());
+        root.addDependency(live);
+        root.addDependency(dead);
+
+        ExpressionSolver solver = new ExpressionSolver(new JADD());
+        DeadComponentPruner pruner = new DeadComponentPruner(solver.encodeFormula("A && !B"), solver);
+        DeadComponentPruner.Result result = pruner.prune(root.getDependenciesTransitiveClosure());
+
+        List<String> ids = result.getDependencies().stream()
+                .map(RDGNode::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(4, ids.size());
+        Assert.assertTrue(ids.containsAll(Arrays.asList(shared.getId(), live.getId(), dead.getId())));
+        Assert.assertFalse(ids.contains(exclusive.getId()));
+        Assert.assertEquals(root.getId(), ids.get(ids.size() - 1));
+
+        Assert.assertTrue(result.isDead(dead.getId()));
+        Assert.assertFalse(result.isDead(live.getId()));
+        Assert.assertEquals(2, result.getPrunedCount());
+    }
+
+}
@@ -0,0 +1,58 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import expressionsolver.ExpressionSolver;
+
+public class FeatureModelDecompositionTest {
+
+    private static final String FEATURE_MODEL = "R  &&  (!R  ||  A)  &&  (!A  ||  R)  &&  (!X  ||  R)  &&  (!Y  ||  R)"
+            + "  &&  (!X  ||  x1  ||  x2)  &&  (!x1  ||  X)  &&  (!x2  ||  X)  &&  (!y1  ||  Y)";
+
+    @Test
+    public void testCoreFeaturesDoNotGlueOptionalSubtrees() {
+        ExpressionSolver solver = new ExpressionSolver(new JADD());
+        FeatureModelDecomposition decomposition = FeatureModelDecomposition.decompose(FEATURE_MODEL, solver);
+
+        Assert.assertEquals(4, decomposition.size());
+        Assert.assertEquals(decomposition.partOf("X"), decomposition.partOf("x2"));
+        Assert.assertEquals(decomposition.partOf("Y"), decomposition.partOf("y1"));
+        Assert.assertNotEquals(decomposition.partOf("X"), decomposition.partOf("Y"));
+        Assert.assertNotEquals(decomposition.partOf("R"), decomposition.partOf("A"));
+        // Unknown features are unconstrained parts by themselves.
+        Assert.assertEquals("W", decomposition.partOf("W"));
+    }
+
+    @Test
+    public void testFactorsMultiplyToTheFeatureModel() {
+        JADD jadd = new JADD();
+        ExpressionSolver solver = new ExpressionSolver(jadd);
+        ADD featureModel = solver.encodeFormula(FEATURE_MODEL);
+        FeatureModelDecomposition decomposition = FeatureModelDecomposition.decompose(FEATURE_MODEL, solver);
+
+        ADD product = jadd.makeConstant(1.0);
+        for (Set<String> part: decomposition.getParts()) {
+            product = product.times(decomposition.getFactor(decomposition.partOf(part.iterator().next())));
+        }
+        Assert.assertEquals(featureModel, product);
+    }
+
+    @Test
+    public void testConstantContradictionsVoidEveryPart() {
+        JADD jadd = new JADD();
+        ExpressionSolver solver = new ExpressionSolver(jadd);
+        ADD zero = jadd.makeConstant(0.0);
+        for (String featureModel: new String[] {"R && false", "R && (false || false)", "R && (!true)"}) {
+            FeatureModelDecomposition decomposition = FeatureModelDecomposition.decompose(featureModel, solver);
+            Assert.assertEquals(featureModel, zero, decomposition.getFactor(decomposition.partOf("R")));
+            Assert.assertEquals(featureModel, zero, decomposition.getFactor(decomposition.partOf("W")));
+        }
+    }
+
+}
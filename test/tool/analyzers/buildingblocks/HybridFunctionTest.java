@@ -0,0 +1,44 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import expressionsolver.ExpressionSolver;
+import expressionsolver.symbolic.CompiledTerm;
+import expressionsolver.symbolic.TermFactory;
+import expressionsolver.symbolic.TermParser;
+
+public class HybridFunctionTest {
+
+    @Test
+    public void testEnumeratedFunctionAgreesWithSymbolicOne() throws Exception {
+        JADD jadd = new JADD();
+        ExpressionSolver solver = new ExpressionSolver(jadd);
+        solver.encodeFormula("A && B && C");
+        ADD presenceA = solver.encodeFormula("A");
+        ADD presenceB = solver.encodeFormula("B");
+
+        Map<String, HybridFunction> values = new HashMap<String, HybridFunction>();
+        values.put("a", HybridFunction.symbolic(presenceA.ifThenElse(jadd.makeConstant(0.9),
+                                                                     jadd.makeConstant(1.0))));
+        CompiledTerm expression = CompiledTerm.compile(new TermParser(new TermFactory()).parse("0.5*a"));
+        HybridFunction root = HybridFunction.enumerated(presenceB, expression, values);
+
+        Assert.assertFalse(root.isSymbolic());
+        Assert.assertEquals(2, root.getSupport().size());
+        Assert.assertEquals(0.45, root.evaluate(Arrays.asList("A", "B")), 1E-14);
+        Assert.assertEquals(0.5, root.evaluate(Arrays.asList("B")), 1E-14);
+        Assert.assertEquals(1.0, root.evaluate(Arrays.asList("A")), 1E-14);
+        // C is not in the support, so this is the same sub-configuration as {A, B}.
+        Assert.assertEquals(0.45, root.evaluate(Arrays.asList("A", "B", "C")), 1E-14);
+        Assert.assertEquals(3, root.getEvaluatedSubconfigurationsCount());
+    }
+
+}
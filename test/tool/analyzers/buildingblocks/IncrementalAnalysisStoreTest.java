@@ -0,0 +1,72 @@
+package tool.analyzers.buildingblocks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class IncrementalAnalysisStoreTest {
+
+    @Test
+    public void testSavedRecordsAreReusedUntilContentChanges() throws IOException, CyclicRdgException {
+        FDTMC leafModel = makeModel("leaf", "rLeaf");
+        RDGNode leaf = new RDGNode(RDGNode.getNextId(), "A", leafModel);
+        RDGNode root = new RDGNode(RDGNode.getNextId(), "true", makeModel("root", "rRoot"));
+        root.addDependency(leaf);
+
+        Path file = Files.createTempFile("incremental", ".tsv");
+        try {
+            Files.delete(file);
+            IncrementalAnalysisStore store = IncrementalAnalysisStore.load(file);
+            Map<String, String> signatures = IncrementalAnalysisStore.computeSignatures(root.getDependenciesTransitiveClosure());
+            store.putNode(leaf, signatures, "rLeaf");
+            store.putNode(root, signatures, "rRoot");
+            store.putFamilyExpression(signatures.get(root.getId()), "rRoot*rLeaf");
+            store.save();
+
+            IncrementalAnalysisStore reloaded = IncrementalAnalysisStore.load(file);
+            String leafHash = leafModel.getContentHash();
+            Assert.assertEquals("rLeaf", reloaded.getExpression(leafHash));
+            Assert.assertEquals("rRoot", reloaded.getExpression(root.getFDTMC().getContentHash()));
+            Assert.assertEquals("rRoot*rLeaf", reloaded.getFamilyExpression(signatures.get(root.getId())));
+
+            // Changing the leaf changes its hash and the signatures of its dependents.
+            leafModel.createState();
+            Map<String, String> changedSignatures = IncrementalAnalysisStore.computeSignatures(root.getDependenciesTransitiveClosure());
+            Assert.assertFalse(leafHash.equals(leafModel.getContentHash()));
+            Assert.assertNull(reloaded.getExpression(leafModel.getContentHash()));
+            Assert.assertEquals("rRoot", reloaded.getExpression(root.getFDTMC().getContentHash()));
+            Assert.assertFalse(signatures.get(root.getId()).equals(changedSignatures.get(root.getId())));
+            Assert.assertNull(reloaded.getFamilyExpression(changedSignatures.get(root.getId())));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDisabledStoreFindsNothing() {
+        IncrementalAnalysisStore store = IncrementalAnalysisStore.disabled();
+        store.putExpression("hash", "r");
+        Assert.assertNull(store.getExpression("hash"));
+    }
+
+    private static FDTMC makeModel(String name, String reliability) {
+        FDTMC fdtmc = new FDTMC();
+        fdtmc.setVariableName(name);
+        State initial = fdtmc.createInitialState();
+        State success = fdtmc.createSuccessState();
+        State error = fdtmc.createErrorState();
+        fdtmc.createTransition(initial, success, name, reliability);
+        fdtmc.createTransition(initial, error, name + "_error", "1-" + reliability);
+        return fdtmc;
+    }
+
+}
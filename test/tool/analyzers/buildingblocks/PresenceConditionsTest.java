@@ -0,0 +1,34 @@
+package tool.analyzers.buildingblocks;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import expressionsolver.ExpressionSolver;
+
+public class PresenceConditionsTest {
+
+    @Test
+    public void testClassesAreSemanticUnderTheFeatureModel() {
+        ExpressionSolver solver = new ExpressionSolver(new JADD());
+        // A is mandatory and B excludes C.
+        ADD featureModel = solver.encodeFormula("A && (!B || !C)");
+
+        Map<String, String> classes = PresenceConditions.toEquivalenceClasses(
+                Arrays.asList("A && B", "B && A", "B", "A || C", "B && C", "C"),
+                featureModel,
+                solver);
+
+        Assert.assertEquals(classes.get("A && B"), classes.get("B && A"));
+        Assert.assertEquals(classes.get("A && B"), classes.get("B"));
+        Assert.assertEquals(PresenceConditions.ALWAYS_PRESENT, classes.get("A || C"));
+        Assert.assertEquals(PresenceConditions.NEVER_PRESENT, classes.get("B && C"));
+        Assert.assertNotEquals(classes.get("B"), classes.get("C"));
+    }
+
+}
@@ -0,0 +1,49 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProductIterationHelperTest {
+
+    /**
+     * Signature in which only feature "A" is relevant.
+     */
+    private static BitSet signatureOf(Collection<String> configuration) {
+        BitSet signature = new BitSet();
+        signature.set(0, configuration.contains("A"));
+        return signature;
+    }
+
+    @Test
+    public void testConfigurationsWithSameSignatureAreEvaluatedOnce() {
+        for (ConcurrencyStrategy concurrencyStrategy: ConcurrencyStrategy.values()) {
+            AtomicInteger evaluations = new AtomicInteger();
+            Stream<Collection<String>> configurations = Stream.of(Arrays.asList("A", "B"),
+                                                                  Arrays.asList("A", "C"),
+                                                                  Arrays.asList("A"),
+                                                                  Arrays.asList("B"),
+                                                                  Arrays.asList("C"));
+
+            Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(signature -> {
+                                                                                          evaluations.incrementAndGet();
+                                                                                          return signature.get(0) ? 0.9 : 0.5;
+                                                                                      },
+                                                                                      ProductIterationHelperTest::signatureOf,
+                                                                                      configurations,
+                                                                                      concurrencyStrategy);
+
+            Assert.assertEquals(2, evaluations.get());
+            Assert.assertEquals(5, results.size());
+            Assert.assertEquals(0.9, results.get(Arrays.asList("A", "C")), 1E-14);
+            Assert.assertEquals(0.5, results.get(Arrays.asList("C")), 1E-14);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package ui;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import paramwrapper.LocalModelChecker;
+import tool.Analyzer;
+import tool.RDGNode;
+import tool.analyzers.IReliabilityAnalysisResults;
+import tool.stats.NoopTimeCollector;
+
+public class AnalysisServerTest {
+
+    private static final String FEATURE_MODEL = "BSN-FM.txt";
+    private static final String UML_MODELS = "modeling.xml";
+
+    private AnalysisServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new AnalysisServer(0, 2, (paramPath, modelReduction) -> new LocalModelChecker());
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void testJobResultsMatchAnalyzer() throws Exception {
+        HttpURLConnection connection = post("--feature-model=" + FEATURE_MODEL,
+                                            "--uml-models=" + UML_MODELS,
+                                            "--analysis-strategy=FEATURE_FAMILY",
+                                            "--all-configurations",
+                                            "--results-format=CSV");
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("FEATURE_FAMILY", connection.getHeaderField("X-Analysis-Strategy"));
+        List<String> lines = read(connection.getInputStream());
+        Assert.assertEquals("configuration,reliability", lines.get(0));
+
+        String featureModel = new String(Files.readAllBytes(Paths.get(FEATURE_MODEL)), StandardCharsets.UTF_8);
+        RDGNode rdgRoot = CommandLineInterface.model(new File(UML_MODELS), new NoopTimeCollector());
+        Analyzer analyzer = new Analyzer(featureModel, new LocalModelChecker(), null, null, null);
+        IReliabilityAnalysisResults expected = analyzer.evaluateFeatureFamilyBasedReliability(rdgRoot);
+        Map<String, Double> expectedResults = new HashMap<String, Double>();
+        for (Collection<String> configuration: analyzer.getValidConfigurations().collect(Collectors.toList())) {
+            String[] features = configuration.toArray(new String[configuration.size()]);
+            expectedResults.put("\"" + String.join(",", configuration) + "\"", expected.getResult(features));
+        }
+
+        Assert.assertEquals(expectedResults.size(), lines.size() - 1);
+        for (String line: lines.subList(1, lines.size())) {
+            int separator = line.lastIndexOf(',');
+            Double reliability = expectedResults.get(line.substring(0, separator));
+            Assert.assertNotNull(line, reliability);
+            Assert.assertEquals(reliability, Double.parseDouble(line.substring(separator + 1)), 1e-9);
+        }
+    }
+
+    @Test
+    public void testMalformedJobsAreRejected() throws IOException {
+        HttpURLConnection unknownOption = post("--feature-model=" + FEATURE_MODEL,
+                                               "--no-such-option");
+        Assert.assertEquals(400, unknownOption.getResponseCode());
+        read(unknownOption.getErrorStream());
+
+        HttpURLConnection missingModels = post("--feature-model=" + FEATURE_MODEL,
+                                               "--uml-models=no-such-models.xml");
+        Assert.assertEquals(400, missingModels.getResponseCode());
+        Assert.assertTrue(String.join("\n", read(missingModels.getErrorStream())).startsWith("Error reading"));
+
+        HttpURLConnection get = (HttpURLConnection) analysesUrl().openConnection();
+        Assert.assertEquals(405, get.getResponseCode());
+        read(get.getErrorStream());
+    }
+
+    private URL analysesUrl() throws IOException {
+        return new URL("http://localhost:" + server.getPort() + "/analyses");
+    }
+
+    private HttpURLConnection post(String... args) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) analysesUrl().openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(String.join("\n", args).getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static List<String> read(InputStream input) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+}
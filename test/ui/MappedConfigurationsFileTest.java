@@ -0,0 +1,77 @@
+package ui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedConfigurationsFileTest {
+
+    @Test
+    public void testDuplicatesAndBlankLinesAreSkipped() throws IOException {
+        Path file = write("Root,A\r\n\nA,Root\nRoot,B,\nRoot,A");
+
+        List<Collection<String>> configurations = MappedConfigurationsFile.open(file)
+                .stream()
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList("Root", "A"), Arrays.asList("Root", "B")),
+                            configurations);
+    }
+
+    @Test
+    public void testCountIsExactForSmallFiles() throws IOException {
+        Path file = write("Root,A\r\n\nA,Root\nRoot,B,\n,\r\nRoot,A");
+
+        Assert.assertEquals(4, MappedConfigurationsFile.open(file).estimateCount());
+    }
+
+    @Test
+    public void testCountIsExtrapolatedForLargeFiles() throws IOException {
+        List<String> lines = new LinkedList<String>();
+        IntStream.range(0, 200000).forEach(i -> lines.add("Root,F" + (i % 10) + ",G" + (i % 7)));
+        Path file = write(String.join("\n", lines) + "\n");
+
+        long estimate = MappedConfigurationsFile.open(file).estimateCount();
+        Assert.assertTrue(Files.size(file) > MappedConfigurationsFile.COUNT_SAMPLE_SIZE);
+        Assert.assertTrue(Math.abs(estimate - 200000) < 200);
+    }
+
+    @Test
+    public void testParallelStreamCoversEveryLineOnce() throws IOException {
+        List<String> lines = new LinkedList<String>();
+        IntStream.range(0, 5000).forEach(i -> lines.add("Root,F" + i + ",G" + (i % 10)));
+        lines.addAll(lines.subList(0, 100));
+        Path file = write(String.join("\n", lines) + "\n");
+
+        Set<String> configurations = MappedConfigurationsFile.open(file)
+                .stream()
+                .parallel()
+                .map(configuration -> new HashSet<String>(configuration).toString())
+                .collect(Collectors.toSet());
+        long count = MappedConfigurationsFile.open(file).stream().parallel().count();
+
+        Assert.assertEquals(5000, count);
+        Assert.assertEquals(5000, configurations.size());
+        Assert.assertTrue(configurations.contains(new HashSet<String>(Arrays.asList("Root", "F42", "G2")).toString()));
+    }
+
+    private static Path write(String contents) throws IOException {
+        Path file = Files.createTempFile("configurations", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
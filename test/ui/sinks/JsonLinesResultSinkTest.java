@@ -0,0 +1,28 @@
+package ui.sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonLinesResultSinkTest {
+
+    @Test
+    public void testNonFiniteReliabilitiesAreWrittenAsNull() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonLinesResultSink sink = new JsonLinesResultSink(new PrintStream(bytes, true, "UTF-8"));
+        sink.accept(Arrays.asList("Root", "A\""), 0.5, true);
+        sink.accept(Arrays.asList("Root"), Double.NaN, true);
+        sink.accept(Arrays.asList("B"), Double.POSITIVE_INFINITY, true);
+        sink.close();
+
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\r?\\n");
+        Assert.assertEquals("{\"configuration\":[\"Root\",\"A\\\"\"],\"reliability\":0.5}", lines[0]);
+        Assert.assertEquals("{\"configuration\":[\"Root\"],\"reliability\":null}", lines[1]);
+        Assert.assertEquals("{\"configuration\":[\"B\"],\"reliability\":null}", lines[2]);
+    }
+
+}
@@ -0,0 +1,76 @@
+package ui.sinks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.analyzers.IReliabilityResultSink;
+
+public class SortingResultSinkTest {
+
+    @Test
+    public void testResultsAreMergedInOrderAcrossSpilledRuns() throws IOException {
+        CollectingSink collected = new CollectingSink();
+        SortingResultSink sink = new SortingResultSink(collected, 7);
+        IntStream.range(0, 100).map(i -> (i * 37) % 100)
+                .forEach(i -> sink.accept(Arrays.asList("F" + i), i / 100.0, true));
+        sink.close();
+
+        Assert.assertTrue(collected.closed);
+        Assert.assertEquals(100, collected.configurations.size());
+        List<String> keys = collected.configurations.stream()
+                .map(Collection::toString)
+                .collect(Collectors.toList());
+        List<String> sortedKeys = new LinkedList<String>(keys);
+        sortedKeys.sort(null);
+        Assert.assertEquals(sortedKeys, keys);
+        int index = keys.indexOf("[F42]");
+        Assert.assertEquals(0.42, collected.reliabilities.get(index), 1E-14);
+    }
+
+    @Test
+    public void testBinaryResultsCanBeReadBack() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryResultSink sink = new BinaryResultSink(bytes);
+        sink.accept(Arrays.asList("Root", "A"), 0.9, true);
+        sink.accept(Arrays.asList("Root", "B"), 0.0, false);
+        sink.close();
+
+        CollectingSink collected = new CollectingSink();
+        BinaryResultSink.read(new ByteArrayInputStream(bytes.toByteArray()), collected);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList("Root", "A"), Arrays.asList("Root", "B")),
+                            collected.configurations);
+        Assert.assertEquals(Arrays.asList(0.9, 0.0), collected.reliabilities);
+        Assert.assertEquals(Arrays.asList(true, false), collected.validities);
+    }
+
+    private static class CollectingSink implements IReliabilityResultSink {
+        List<Collection<String>> configurations = new LinkedList<Collection<String>>();
+        List<Double> reliabilities = new LinkedList<Double>();
+        List<Boolean> validities = new LinkedList<Boolean>();
+        boolean closed = false;
+
+        @Override
+        public void accept(Collection<String> configuration, double reliability, boolean valid) {
+            configurations.add(configuration);
+            reliabilities.add(reliability);
+            validities.add(valid);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
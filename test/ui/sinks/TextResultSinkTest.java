@@ -0,0 +1,27 @@
+package ui.sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TextResultSinkTest {
+
+    @Test
+    public void testValidityIsNotInferredFromReliability() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TextResultSink sink = new TextResultSink(new PrintStream(bytes, true, "UTF-8"));
+        sink.accept(Arrays.asList("Root", "A"), 0.0, true);
+        sink.accept(Arrays.asList("Root", "B"), 0.0, false);
+        sink.close();
+
+        String[] lines = new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\r?\\n");
+        Assert.assertEquals("[Root, A] --> 0.0", lines[2]);
+        Assert.assertEquals("[Root, B] --> INVALID", lines[3]);
+        Assert.assertEquals(">>>> Total valid configurations: 1", lines[5]);
+    }
+
+}
@@ -0,0 +1,41 @@
+package ui.stats;
+
+import java.util.List;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemorySamplerTest {
+
+    @Test
+    public void testSamplesAreTaggedWithPhaseAndWatchedManager() {
+        String[] phase = {"parsing"};
+        MemorySampler sampler = new MemorySampler(() -> phase[0]);
+        sampler.sample();
+
+        JADD jadd = new JADD();
+        sampler.watch(jadd);
+        phase[0] = "solving";
+        ADD function = jadd.getVariable("A").times(jadd.getVariable("B")).plus(jadd.makeConstant(0.5));
+        sampler.sample();
+
+        List<MemorySampler.Sample> samples = sampler.getSamples();
+        Assert.assertEquals(2, samples.size());
+        Assert.assertEquals("parsing", samples.get(0).phase);
+        Assert.assertEquals(0, samples.get(0).liveNodes);
+        Assert.assertTrue(Double.isNaN(samples.get(0).cacheHitRatio));
+
+        MemorySampler.Sample last = samples.get(1);
+        Assert.assertEquals("solving", last.phase);
+        Assert.assertTrue(last.liveNodes >= function.getNodeCount());
+        Assert.assertTrue(last.cuddMemory > 0);
+        Assert.assertTrue(last.elapsedNanos >= samples.get(0).elapsedNanos);
+        if (samples.get(0).allocatedBytes >= 0) {
+            Assert.assertTrue(last.allocatedBytes >= samples.get(0).allocatedBytes);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package ui.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProgressCollectorTest {
+
+    @Test
+    public void testHistogramPercentilesAreWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.rangeClosed(1, 10000).parallel().forEach(i -> histogram.record(i * 1000L));
+
+        Assert.assertEquals(10000, histogram.getTotalCount());
+        Assert.assertEquals(1000, histogram.getMin());
+        Assert.assertEquals(10000000, histogram.getMax());
+        Assert.assertEquals(5000500, histogram.getMean(), 1E-6);
+        Assert.assertEquals(5000000, histogram.getValueAtPercentile(50), 5000000 * 0.02);
+        Assert.assertEquals(9900000, histogram.getValueAtPercentile(99), 9900000 * 0.02);
+        Assert.assertEquals(10000000, histogram.getValueAtPercentile(100));
+        for (long value: new long[] {0, 127, 128, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            Assert.assertTrue(LatencyHistogram.lowestValueAt(index) <= value);
+            Assert.assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+        }
+    }
+
+    @Test
+    public void testSlowestConfigurationsAreKeptAndProgressIsReported() {
+        ByteArrayOutputStream progress = new ByteArrayOutputStream();
+        ProgressCollector collector = new ProgressCollector(new PrintStream(progress, true), 60000);
+        collector.setExpectedConfigurations(100);
+        collector.startIteration();
+        IntStream.range(0, 100).parallel()
+                .forEach(i -> collector.collectLatency(Arrays.asList("F" + i), i * 1000L));
+        collector.finishIteration();
+
+        List<Collection<String>> slowest = collector.getSlowestConfigurations();
+        Assert.assertEquals(10, slowest.size());
+        Assert.assertEquals(Arrays.asList("F99"), slowest.get(0));
+        Assert.assertEquals(Arrays.asList("F90"), slowest.get(9));
+        Assert.assertTrue(progress.toString().startsWith("Progress: 100 of 100 configurations (100.0%)"));
+    }
+
+}
@@ -0,0 +1,70 @@
+package ui.stats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.stats.CollectibleTimers;
+import tool.stats.ISpan;
+
+public class TracerTest {
+
+    @Test
+    public void testSpansAreExportedAsCompleteEvents() throws IOException, InterruptedException {
+        Tracer tracer = new Tracer();
+        try (ISpan outer = tracer.startSpan("rdg node", "Capture \"data\"")) {
+            outer.setAttribute("reused", false);
+            Thread worker = new Thread(() -> {
+                try (ISpan inner = tracer.startSpan("model checking", "Capture")) {
+                    inner.setAttribute("states", 12);
+                }
+            }, "worker-1");
+            worker.start();
+            worker.join();
+        }
+
+        Path path = Files.createTempFile("trace", ".json");
+        try {
+            tracer.writeChromeTrace(path);
+            String trace = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            Assert.assertTrue(trace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+            Assert.assertTrue(trace.contains("\"args\":{\"name\":\"worker-1\"}"));
+            Assert.assertTrue(trace.contains("{\"name\":\"Capture \\\"data\\\"\",\"cat\":\"rdg node\",\"ph\":\"X\""));
+            Assert.assertTrue(trace.contains("\"args\":{\"reused\":false}"));
+            Assert.assertTrue(trace.contains("\"args\":{\"states\":12}"));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testOverlappingTimersAreCountedOnceAndTracedAsPhases() throws IOException, InterruptedException {
+        Tracer tracer = new Tracer();
+        TimeCollector timeCollector = new TimeCollector(tracer);
+        timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        Thread.sleep(5);
+        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+
+        long elapsed = timeCollector.getCumulativeTime(CollectibleTimers.MODEL_CHECKING_TIME);
+        Assert.assertTrue(elapsed >= 5000000);
+        Assert.assertTrue(elapsed < 1000000000);
+
+        Path path = Files.createTempFile("trace", ".json");
+        try {
+            tracer.writeChromeTrace(path);
+            String trace = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            String phase = "{\"name\":\"" + CollectibleTimers.MODEL_CHECKING_TIME + "\",\"cat\":\"phase\"";
+            Assert.assertTrue(trace.contains(phase));
+            Assert.assertEquals(trace.indexOf(phase), trace.lastIndexOf(phase));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}